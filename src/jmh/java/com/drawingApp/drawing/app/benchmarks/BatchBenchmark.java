@@ -0,0 +1,89 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.batch.BatchReport;
+import com.drawingApp.drawing.app.batch.BatchRunner;
+import com.drawingApp.drawing.app.batch.PipelinedBatchRunner;
+import com.drawingApp.drawing.app.commands.CommandFactory;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.history.CanvasHistory;
+import com.drawingApp.drawing.app.render.CanvasRenderer;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained throughput of batch mode, in commands per second: the serial loop of {@link BatchRunner}
+ * against the stages of {@link PipelinedBatchRunner} by number of parser threads (0 is the serial loop).
+ * The script draws small lines and rectangles, so that parsing weighs as much as executing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class BatchBenchmark {
+
+    private static final int COMMANDS = 100_000;
+    private static final int SIZE = 1000;
+
+    @Param({"0", "1", "2", "4"})
+    public int parseThreads;
+
+    private String script;
+    private BatchRunner runner;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        var commands = new StringBuilder("C " + SIZE + " " + SIZE + "\n");
+        for (int i = 1; i < COMMANDS; i++) {
+            int x = 1 + random.nextInt(SIZE - 10);
+            int y = 1 + random.nextInt(SIZE - 10);
+            if (i % 2 == 0) {
+                commands.append("L ").append(x).append(' ').append(y).append(' ').append(x + 9).append(' ').append(y);
+            } else {
+                commands.append("R ").append(x).append(' ').append(y).append(' ').append(x + 9).append(' ').append(y + 9);
+            }
+            commands.append('\n');
+        }
+        script = commands.toString();
+
+        var inMemoryCanvas = new InMemoryCanvas();
+        // No undo history, so that the canvas created by the script does not pile up snapshots.
+        var repository = new InMemoryCanvasRepository(inMemoryCanvas, ArrayCanvasStorage::new, new ScanlineFillEngine(),
+                new CanvasHistory(0));
+        var discard = OutputStream.nullOutputStream();
+        var renderer = new CanvasRenderer(new PrintStream(discard), Channels.newChannel(discard));
+        runner = parseThreads == 0
+                ? new BatchRunner(new CommandFactory(repository), inMemoryCanvas, renderer, new PrintStream(discard), 0)
+                : new PipelinedBatchRunner(repository, inMemoryCanvas, renderer, new PrintStream(discard), 0, null, parseThreads);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public BatchReport run() throws IOException {
+        return runner.run(new BufferedReader(new StringReader(script), 1 << 16));
+    }
+}
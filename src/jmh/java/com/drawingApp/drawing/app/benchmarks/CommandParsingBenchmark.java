@@ -0,0 +1,121 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.commands.BucketFill;
+import com.drawingApp.drawing.app.commands.Canvas;
+import com.drawingApp.drawing.app.commands.Command;
+import com.drawingApp.drawing.app.commands.CommandFactory;
+import com.drawingApp.drawing.app.commands.CommandType;
+import com.drawingApp.drawing.app.commands.Line;
+import com.drawingApp.drawing.app.commands.Quit;
+import com.drawingApp.drawing.app.commands.Rectangle;
+import com.drawingApp.drawing.app.exceptions.InvalidCommandException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one input line into a {@link Command}: the former regex validation, regex matching,
+ * split and parseInt path against the single-pass {@link CommandFactory#parse(String)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandParsingBenchmark {
+
+    private static final int INPUTS = 1024;
+
+    private final String[] inputs = new String[INPUTS];
+    private InMemoryCanvasRepository repository;
+    private CommandFactory commandFactory;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        var random = new Random(42);
+        for (int i = 0; i < INPUTS; i++) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    inputs[i] = "L " + (1 + random.nextInt(999)) + " " + (1 + random.nextInt(999)) + " "
+                            + (1 + random.nextInt(999)) + " " + (1 + random.nextInt(999));
+                    break;
+                case 1:
+                    inputs[i] = "R " + (1 + random.nextInt(999)) + " " + (1 + random.nextInt(999)) + " "
+                            + (1 + random.nextInt(999)) + " " + (1 + random.nextInt(999));
+                    break;
+                case 2:
+                    inputs[i] = "B " + (1 + random.nextInt(999)) + " " + (1 + random.nextInt(999)) + " "
+                            + (char) ('a' + random.nextInt(26));
+                    break;
+                default:
+                    inputs[i] = "C " + (1 + random.nextInt(9999)) + " " + (1 + random.nextInt(9999));
+                    break;
+            }
+        }
+        repository = new InMemoryCanvasRepository(new InMemoryCanvas());
+        commandFactory = new CommandFactory(repository);
+    }
+
+    @Benchmark
+    public Command regex() {
+        var input = inputs[next++ & (INPUTS - 1)];
+        return isValidByRegex(input) ? getCommandByRegex(input) : null;
+    }
+
+    @Benchmark
+    public Command singlePass() throws InvalidCommandException {
+        return commandFactory.parse(inputs[next++ & (INPUTS - 1)]);
+    }
+
+    /**
+     * Former InputCommandValidator.isValid.
+     */
+    private boolean isValidByRegex(String inputCommand) {
+        return Arrays.stream(CommandType.values())
+                .anyMatch(cmd -> cmd.getPattern().matcher(inputCommand).matches());
+    }
+
+    /**
+     * Former CommandFactory.getCommand.
+     */
+    private Command getCommandByRegex(String inputCmd) {
+        var commandTypeOptional = Arrays.stream(CommandType.values())
+                .filter(cmd -> cmd.getPattern().matcher(inputCmd).matches())
+                .findFirst();
+
+        if (commandTypeOptional.isPresent()) {
+            var params = inputCmd.split("\\s");
+            switch (commandTypeOptional.get()) {
+                case CANVAS:
+                    return new Canvas(Integer.parseInt(params[1]), Integer.parseInt(params[2]), repository);
+                case LINE:
+                    return new Line(Integer.parseInt(params[1]), Integer.parseInt(params[2]),
+                            Integer.parseInt(params[3]), Integer.parseInt(params[4]), repository);
+                case RECTANGLE:
+                    return new Rectangle(Integer.parseInt(params[1]), Integer.parseInt(params[2]),
+                            Integer.parseInt(params[3]), Integer.parseInt(params[4]), repository);
+                case BUCKET_FILL:
+                    return new BucketFill(Integer.parseInt(params[1]), Integer.parseInt(params[2]),
+                            params[3].charAt(0), repository);
+                case QUIT:
+                    return new Quit();
+            }
+        }
+        return null;
+    }
+}
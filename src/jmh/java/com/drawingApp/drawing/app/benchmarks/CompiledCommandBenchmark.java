@@ -0,0 +1,112 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.commands.Command;
+import com.drawingApp.drawing.app.commands.CommandBuffer;
+import com.drawingApp.drawing.app.commands.CommandFactory;
+import com.drawingApp.drawing.app.commands.CommandInterpreter;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.history.CanvasHistory;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.drawingApp.drawing.app.storage.StorageType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per command of parsing every input into a {@link Command} and executing it, against executing
+ * the same commands compiled once into a {@link CommandBuffer}, and compiling them on every pass as
+ * batch mode does. Run with {@code -prof gc} to compare the bytes allocated per command. Undo is off,
+ * the history keeps a delta per command otherwise.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledCommandBenchmark {
+
+    private static final int COMMANDS = 1024;
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 50;
+
+    private final String[] inputs = new String[COMMANDS];
+    private final CommandBuffer program = new CommandBuffer();
+    private CommandFactory commandFactory;
+    private CommandInterpreter interpreter;
+
+    @Setup
+    public void setUp() throws InvalidInputException {
+        var random = new Random(42);
+        for (int i = 0; i < COMMANDS; i++) {
+            // Valid commands only, failures allocate their exception.
+            int x1 = 1 + random.nextInt(WIDTH - 1);
+            int y1 = 1 + random.nextInt(HEIGHT - 1);
+            int x2 = x1 + 1 + random.nextInt(WIDTH - x1);
+            int y2 = y1 + 1 + random.nextInt(HEIGHT - y1);
+            switch (random.nextInt(5)) {
+                case 0:
+                    inputs[i] = "L " + x1 + " " + y1 + " " + x2 + " " + y1;
+                    break;
+                case 1:
+                    inputs[i] = "R " + x1 + " " + y1 + " " + x2 + " " + y2;
+                    break;
+                case 2:
+                    inputs[i] = "A " + x1 + " " + y1 + " " + x2 + " " + y2;
+                    break;
+                case 3:
+                    inputs[i] = "E " + x1 + " " + y1 + " " + (1 + random.nextInt(HEIGHT / 2));
+                    break;
+                default:
+                    inputs[i] = "B " + x1 + " " + y1 + " " + (char) ('a' + random.nextInt(23));
+                    break;
+            }
+        }
+        var repository = new InMemoryCanvasRepository(new InMemoryCanvas(), StorageType.ARRAY.factory(null),
+                new ScanlineFillEngine(), new CanvasHistory(0), null);
+        repository.newCanvas(WIDTH, HEIGHT);
+        commandFactory = new CommandFactory(repository);
+        interpreter = commandFactory.newInterpreter();
+        for (var input : inputs) {
+            commandFactory.compile(input, program);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public int commandObjects() throws InvalidInputException {
+        for (var input : inputs) {
+            commandFactory.parse(input).execute();
+        }
+        return COMMANDS;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public int compiled() {
+        return interpreter.execute(program);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COMMANDS)
+    public int compiledOnEveryPass() {
+        program.clear();
+        for (var input : inputs) {
+            commandFactory.compile(input, program);
+        }
+        return interpreter.execute(program);
+    }
+}
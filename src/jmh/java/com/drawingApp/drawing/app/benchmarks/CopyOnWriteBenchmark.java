@@ -0,0 +1,79 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to take a point-in-time image of a canvas, as a render does, then draw {@code lines} lines upon
+ * it: {@code SNAPSHOT} takes a copy-on-write {@link CanvasStorage#snapshot()}, which copies the rows or
+ * tiles drawn afterwards only, {@code COPY} copies the whole canvas row by row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CopyOnWriteBenchmark {
+
+    private static final int ROWS = 1024;
+
+    @Param({"1000"})
+    public int size;
+
+    @Param({"10"})
+    public int lines;
+
+    @Param({"SNAPSHOT", "COPY"})
+    public String image;
+
+    @Param({"ARRAY", "TILED", "RLE"})
+    public String storage;
+
+    private CanvasStorage canvas;
+    private int[] rows;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        canvas = FillEngineBenchmark.Canvases.blank(FillEngineBenchmark.Canvases.factory(storage), size, size);
+        var random = new Random(42);
+        rows = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = 1 + random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public CanvasStorage imageThenDraw() {
+        CanvasStorage taken;
+        if ("SNAPSHOT".equals(image)) {
+            taken = canvas.snapshot();
+        } else {
+            var copy = new char[canvas.getHeight()][canvas.getWidth()];
+            for (int row = 0; row < copy.length; row++) {
+                canvas.readRow(row, copy[row]);
+            }
+            taken = new ArrayCanvasStorage(copy);
+        }
+        for (int i = 0; i < lines; i++) {
+            int row = rows[next++ & (ROWS - 1)];
+            canvas.fillRow(row, 1, size + 1, (next & 1) == 0 ? 'x' : 'o');
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,156 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.fill.BreadthFirstFillEngine;
+import com.drawingApp.drawing.app.fill.FillEngine;
+import com.drawingApp.drawing.app.fill.RegionIndexFillEngine;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+import com.drawingApp.drawing.app.storage.CanvasStorageFactory;
+import com.drawingApp.drawing.app.storage.StorageType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare fill engines across canvas sizes and region shapes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class FillEngineBenchmark {
+
+    @Param({"100", "1000", "3000"})
+    public int size;
+
+    @Param({"EMPTY", "MAZE", "RECTANGLES", "COMB"})
+    public String shape;
+
+    /**
+     * SPILLING is SCANLINE keeping 4 KB of its frontier in memory, the rest in a temporary file.
+     */
+    @Param({"BFS", "SCANLINE", "SPILLING", "INDEXED"})
+    public String engine;
+
+    @Param({"ARRAY", "TILED"})
+    public String storage;
+
+    private CanvasStorage canvas;
+    private FillEngine fillEngine;
+    private boolean alternate;
+
+    @Setup
+    public void setUp() {
+        canvas = Canvases.blank(Canvases.factory(storage), size, size);
+        Canvases.drawShape(canvas, shape);
+        switch (engine) {
+            case "BFS":
+                fillEngine = new BreadthFirstFillEngine();
+                break;
+            case "INDEXED":
+                // The index is built by the first fill, every measured fill reuses it.
+                fillEngine = new RegionIndexFillEngine();
+                break;
+            case "SPILLING":
+                fillEngine = new ScanlineFillEngine(4096);
+                break;
+            default:
+                fillEngine = new ScanlineFillEngine();
+                break;
+        }
+    }
+
+    @Benchmark
+    public CanvasStorage fill() {
+        // Alternate colors so every invocation recolors the whole region.
+        alternate = !alternate;
+        fillEngine.fill(canvas, 1, 1, alternate ? 'o' : 'p');
+        return canvas;
+    }
+
+    /**
+     * Canvas fixtures shared by benchmarks.
+     */
+    static final class Canvases {
+
+        private Canvases() {
+        }
+
+        /**
+         * @param storage ARRAY, TILED or RLE.
+         * @return factory of the named storage.
+         */
+        static CanvasStorageFactory factory(String storage) {
+            return StorageType.of(storage).factory(null);
+        }
+
+        /**
+         * @return a blank canvas including its borders.
+         */
+        static CanvasStorage blank(CanvasStorageFactory factory, int width, int height) {
+            var canvas = factory.create(height + 2, width + 2);
+            canvas.fillRow(0, 0, width + 2, '-');
+            canvas.fillRow(height + 1, 0, width + 2, '-');
+            for (int row = 1; row <= height; row++) {
+                canvas.set(row, 0, '|');
+                canvas.set(row, width + 1, '|');
+            }
+            return canvas;
+        }
+
+        /**
+         * Draw lines giving the region connected to (1, 1) the requested shape.
+         *
+         * @param canvas Canvas to draw upon.
+         * @param shape  EMPTY, MAZE (serpentine corridors), RECTANGLES (grid of closed rectangles) or COMB
+         *               (vertical teeth hanging from the first row, whose gaps all wait in the frontier).
+         */
+        static void drawShape(CanvasStorage canvas, String shape) {
+            int height = canvas.getHeight() - 2;
+            int width = canvas.getWidth() - 2;
+            switch (shape) {
+                case "MAZE":
+                    for (int col = 2; col <= width; col += 2) {
+                        for (int row = 1; row <= height; row++) {
+                            canvas.set(row, col, 'x');
+                        }
+                        canvas.set(col % 4 == 0 ? 1 : height, col, (char) 0);
+                    }
+                    break;
+                case "RECTANGLES":
+                    for (int top = 3; top + 6 <= height; top += 8) {
+                        for (int left = 3; left + 6 <= width; left += 8) {
+                            canvas.fillRow(top, left, left + 6, 'x');
+                            canvas.fillRow(top + 5, left, left + 6, 'x');
+                            for (int i = 1; i < 5; i++) {
+                                canvas.set(top + i, left, 'x');
+                                canvas.set(top + i, left + 5, 'x');
+                            }
+                        }
+                    }
+                    break;
+                case "COMB":
+                    for (int col = 2; col <= width; col += 2) {
+                        for (int row = 2; row <= height; row++) {
+                            canvas.set(row, col, 'x');
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
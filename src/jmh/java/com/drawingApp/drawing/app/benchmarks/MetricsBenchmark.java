@@ -0,0 +1,75 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.history.CanvasHistory;
+import com.drawingApp.drawing.app.metrics.Histogram;
+import com.drawingApp.drawing.app.metrics.Metrics;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording metrics: a value recorded in a {@link Histogram}, and short lines drawn with and
+ * without {@link Metrics}. Run with {@code -prof gc} to check that recording allocates nothing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private static final int SIZE = 1000;
+
+    private final Histogram histogram = new Histogram();
+    private long value;
+
+    /**
+     * Canvas drawn upon, with or without metrics.
+     */
+    @State(Scope.Thread)
+    public static class DrawState {
+
+        @Param({"false", "true"})
+        public boolean metrics;
+
+        InMemoryCanvasRepository repository;
+        int next;
+
+        @Setup
+        public void setUp() throws InvalidInputException {
+            // No undo history, so that the line is most of the cost.
+            repository = new InMemoryCanvasRepository(new InMemoryCanvas(), ArrayCanvasStorage::new,
+                    new ScanlineFillEngine(), new CanvasHistory(0), metrics ? new Metrics() : null);
+            repository.newCanvas(SIZE, SIZE);
+        }
+    }
+
+    @Benchmark
+    public Histogram record() {
+        histogram.record(value += 997);
+        return histogram;
+    }
+
+    @Benchmark
+    public InMemoryCanvasRepository drawLine(DrawState state) throws InvalidInputException {
+        int y = 1 + (state.next++ % SIZE);
+        state.repository.drawLine(1, y, 10, y);
+        return state.repository;
+    }
+}
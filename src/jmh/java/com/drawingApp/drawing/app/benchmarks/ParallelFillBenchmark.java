@@ -0,0 +1,72 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.fill.FillEngine;
+import com.drawingApp.drawing.app.fill.ParallelFillEngine;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Speedup of the parallel fill by number of cores. With 1 thread the engine falls back to the
+ * sequential scanline fill, which is the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ParallelFillBenchmark {
+
+    @Param({"2000", "8000"})
+    public int size;
+
+    @Param({"EMPTY", "MAZE", "RECTANGLES"})
+    public String shape;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"ARRAY", "TILED"})
+    public String storage;
+
+    private ForkJoinPool pool;
+    private CanvasStorage canvas;
+    private FillEngine fillEngine;
+    private boolean alternate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        canvas = FillEngineBenchmark.Canvases.blank(FillEngineBenchmark.Canvases.factory(storage), size, size);
+        FillEngineBenchmark.Canvases.drawShape(canvas, shape);
+        pool = new ForkJoinPool(threads);
+        fillEngine = new ParallelFillEngine(pool, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public CanvasStorage fill() {
+        // Alternate colors so every invocation recolors the whole region.
+        alternate = !alternate;
+        fillEngine.fill(canvas, 1, 1, alternate ? 'o' : 'p');
+        return canvas;
+    }
+}
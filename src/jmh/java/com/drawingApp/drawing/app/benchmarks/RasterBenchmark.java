@@ -0,0 +1,100 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.raster.SpanRasterizer;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to draw a shape with {@link SpanRasterizer}: {@code SPANS} writes each clipped span with one
+ * {@link CanvasStorage#fillRow}, {@code CELLS} writes the same spans cell by cell, checking every cell
+ * against the borders, as a per-cell plotting loop does. Circles reach beyond the borders, so that
+ * clipping weighs in. Bulk writes pay off most on storages whose single writes are dear, such as RLE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RasterBenchmark {
+
+    private static final int SIZE = 1000;
+    private static final int SHAPES = 256;
+    private static final int POLYGON_VERTICES = 8;
+
+    @Param({"LINE", "CIRCLE", "POLYGON"})
+    public String shape;
+
+    @Param({"SPANS", "CELLS"})
+    public String writes;
+
+    @Param({"ARRAY", "RLE"})
+    public String storage;
+
+    private CanvasStorage canvas;
+    private SpanRasterizer rasterizer;
+    private int[][] coordinates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        canvas = FillEngineBenchmark.Canvases.blank(FillEngineBenchmark.Canvases.factory(storage), SIZE, SIZE);
+        if ("SPANS".equals(writes)) {
+            rasterizer = new SpanRasterizer(1, 1, SIZE, SIZE, (row, fromCol, toCol) -> canvas.fillRow(row, fromCol, toCol + 1, 'x'));
+        } else {
+            rasterizer = new SpanRasterizer(Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+                    (row, fromCol, toCol) -> {
+                        for (int col = fromCol; col <= toCol; col++) {
+                            if (row >= 1 && row <= SIZE && col >= 1 && col <= SIZE) {
+                                canvas.set(row, col, 'x');
+                            }
+                        }
+                    });
+        }
+
+        var random = new Random(42);
+        coordinates = new int[SHAPES][];
+        for (int i = 0; i < SHAPES; i++) {
+            var points = new int[2 * POLYGON_VERTICES];
+            for (int j = 0; j < points.length; j++) {
+                points[j] = 1 + random.nextInt(SIZE);
+            }
+            coordinates[i] = points;
+        }
+    }
+
+    @Benchmark
+    public CanvasStorage draw() {
+        var points = coordinates[next++ & (SHAPES - 1)];
+        switch (shape) {
+            case "LINE":
+                rasterizer.line(points[0], points[1], points[2], points[3]);
+                break;
+            case "CIRCLE":
+                rasterizer.circle(points[0], points[1], points[2] / 2);
+                break;
+            default:
+                var xs = new int[POLYGON_VERTICES];
+                var ys = new int[POLYGON_VERTICES];
+                for (int i = 0; i < POLYGON_VERTICES; i++) {
+                    xs[i] = points[2 * i];
+                    ys[i] = points[2 * i + 1];
+                }
+                rasterizer.polygon(xs, ys, POLYGON_VERTICES);
+        }
+        return canvas;
+    }
+}
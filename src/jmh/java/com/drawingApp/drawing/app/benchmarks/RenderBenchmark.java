@@ -0,0 +1,62 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.render.CanvasRenderer;
+import com.drawingApp.drawing.app.render.RenderMode;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-command latency of drawing a ten cell line and displaying the canvas, for each render mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class RenderBenchmark {
+
+    @Param({"100", "1000"})
+    public int size;
+
+    @Param({"FULL", "ROWS", "ANSI"})
+    public String mode;
+
+    private InMemoryCanvas inMemoryCanvas;
+    private InMemoryCanvasRepository repository;
+    private CanvasRenderer renderer;
+    private int next;
+
+    @Setup
+    public void setUp() throws InvalidInputException {
+        inMemoryCanvas = new InMemoryCanvas();
+        repository = new InMemoryCanvasRepository(inMemoryCanvas);
+        repository.newCanvas(size, size);
+        renderer = RenderMode.of(mode).renderer(new PrintStream(OutputStream.nullOutputStream()));
+        renderer.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+    }
+
+    @Benchmark
+    public void drawLineAndRender() throws InvalidInputException {
+        int row = 1 + next++ % size;
+        int col = 1 + row % (size - 9);
+        repository.drawLine(col, row, col + 9, row);
+        renderer.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+    }
+}
@@ -0,0 +1,240 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.commands.BucketFill;
+import com.drawingApp.drawing.app.commands.Command;
+import com.drawingApp.drawing.app.commands.Line;
+import com.drawingApp.drawing.app.commands.Rectangle;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.ParallelFillEngine;
+import com.drawingApp.drawing.app.history.CanvasHistory;
+import com.drawingApp.drawing.app.repositories.BatchResult;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Every operation of {@link InMemoryCanvasRepository}, set up as the application does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class RepositoryBenchmark {
+
+    /**
+     * Canvas creation.
+     */
+    @State(Scope.Thread)
+    public static class NewCanvasState {
+
+        @Param({"100", "1000", "4000"})
+        public int size;
+
+        @Param({"ARRAY", "TILED"})
+        public String storage;
+
+        InMemoryCanvasRepository repository;
+
+        @Setup
+        public void setUp() {
+            repository = repository(storage, CanvasHistory.DEFAULT_BUDGET);
+        }
+    }
+
+    /**
+     * Lines and rectangles drawn on a canvas already holding some.
+     */
+    @State(Scope.Thread)
+    public static class DrawState {
+
+        @Param({"100", "1000", "4000"})
+        public int size;
+
+        /**
+         * Rectangles drawn beforehand, per 10,000 cells.
+         */
+        @Param({"0", "1", "10"})
+        public int density;
+
+        @Param({"ARRAY", "TILED"})
+        public String storage;
+
+        private static final int COORDINATES = 1024;
+
+        InMemoryCanvasRepository repository;
+        final int[] xs = new int[COORDINATES];
+        final int[] ys = new int[COORDINATES];
+        int next;
+
+        @Setup
+        public void setUp() throws InvalidInputException {
+            repository = repository(storage, CanvasHistory.DEFAULT_BUDGET);
+            repository.newCanvas(size, size);
+            var random = new Random(42);
+            long rectangles = (long) size * size * density / 10_000;
+            for (long i = 0; i < rectangles; i++) {
+                int x1 = 1 + random.nextInt(size - 1);
+                int y1 = 1 + random.nextInt(size - 1);
+                repository.drawRectangle(x1, y1, x1 + 1 + random.nextInt(Math.min(20, size - x1)),
+                        y1 + 1 + random.nextInt(Math.min(20, size - y1)));
+            }
+            for (int i = 0; i < COORDINATES; i++) {
+                xs[i] = 1 + random.nextInt(size / 2);
+                ys[i] = 1 + random.nextInt(size / 2);
+            }
+        }
+    }
+
+    /**
+     * Bucket fill of a region of a given shape.
+     */
+    @State(Scope.Thread)
+    public static class FillState {
+
+        @Param({"100", "1000", "4000"})
+        public int size;
+
+        @Param({"EMPTY", "MAZE", "RECTANGLES"})
+        public String shape;
+
+        @Param({"ARRAY", "TILED"})
+        public String storage;
+
+        /**
+         * Undo history budget, 0 to measure the fill alone.
+         */
+        @Param({"0", "67108864"})
+        public long historyBudget;
+
+        InMemoryCanvasRepository repository;
+        boolean alternate;
+
+        @Setup
+        public void setUp() throws InvalidInputException {
+            var inMemoryCanvas = new InMemoryCanvas();
+            repository = new InMemoryCanvasRepository(inMemoryCanvas, FillEngineBenchmark.Canvases.factory(storage),
+                    new ParallelFillEngine(), new CanvasHistory(historyBudget));
+            repository.newCanvas(size, size);
+            FillEngineBenchmark.Canvases.drawShape(inMemoryCanvas.getStorage(), shape);
+        }
+    }
+
+    /**
+     * Drawing log with overlapping lines and rectangles and fills repeated from the same cells.
+     */
+    @State(Scope.Thread)
+    public static class BatchState {
+
+        @Param({"1000"})
+        public int size;
+
+        @Param({"ARRAY", "TILED"})
+        public String storage;
+
+        private static final int COMMANDS = 1000;
+
+        InMemoryCanvasRepository repository;
+        List<Command> commands;
+
+        @Setup
+        public void setUp() throws InvalidInputException {
+            repository = repository(storage, CanvasHistory.DEFAULT_BUDGET);
+            repository.newCanvas(size, size);
+            var random = new Random(42);
+            commands = new ArrayList<>();
+            for (int i = 0; i < COMMANDS; i++) {
+                // Few distinct rows, columns and cells, as in logs drawing the same shapes again.
+                int x = 1 + 10 * random.nextInt(size / 20);
+                int y = 1 + 10 * random.nextInt(size / 20);
+                switch (i % 10) {
+                    case 8:
+                    case 9:
+                        commands.add(new BucketFill(1 + random.nextInt(2), 1, random.nextBoolean() ? 'o' : 'p', repository));
+                        break;
+                    case 7:
+                        commands.add(new Rectangle(x, y, x + size / 3, y + size / 3, repository));
+                        break;
+                    default:
+                        commands.add(i % 2 == 0
+                                ? new Line(x, y, x + size / 2, y, repository)
+                                : new Line(x, y, x, y + size / 2, repository));
+                        break;
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public InMemoryCanvasRepository executeOneByOne(BatchState state) {
+        for (var command : state.commands) {
+            try {
+                command.execute();
+            } catch (InvalidInputException e) {
+                // Same as the batch, which reports it.
+            }
+        }
+        return state.repository;
+    }
+
+    @Benchmark
+    public BatchResult executeBatch(BatchState state) {
+        return state.repository.executeBatch(state.commands);
+    }
+
+    @Benchmark
+    public InMemoryCanvasRepository newCanvas(NewCanvasState state) throws InvalidInputException {
+        state.repository.newCanvas(state.size, state.size);
+        return state.repository;
+    }
+
+    @Benchmark
+    public InMemoryCanvasRepository drawLine(DrawState state) throws InvalidInputException {
+        int i = state.next++ & (DrawState.COORDINATES - 1);
+        int x = state.xs[i];
+        int y = state.ys[i];
+        if ((i & 1) == 0) {
+            state.repository.drawLine(x, y, x + state.size / 2 - 1, y);
+        } else {
+            state.repository.drawLine(x, y, x, y + state.size / 2 - 1);
+        }
+        return state.repository;
+    }
+
+    @Benchmark
+    public InMemoryCanvasRepository drawRectangle(DrawState state) throws InvalidInputException {
+        int i = state.next++ & (DrawState.COORDINATES - 1);
+        int x = state.xs[i];
+        int y = state.ys[i];
+        state.repository.drawRectangle(x, y, x + state.size / 2 - 1, y + state.size / 2 - 1);
+        return state.repository;
+    }
+
+    @Benchmark
+    public InMemoryCanvasRepository bucketFill(FillState state) throws InvalidInputException {
+        // Alternate colors so every invocation recolors the whole region.
+        state.alternate = !state.alternate;
+        state.repository.bucketFill(1, 1, state.alternate ? 'o' : 'p');
+        return state.repository;
+    }
+
+    private static InMemoryCanvasRepository repository(String storage, long historyBudget) {
+        return new InMemoryCanvasRepository(new InMemoryCanvas(), FillEngineBenchmark.Canvases.factory(storage),
+                new ParallelFillEngine(), new CanvasHistory(historyBudget));
+    }
+}
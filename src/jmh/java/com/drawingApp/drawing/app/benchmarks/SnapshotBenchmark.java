@@ -0,0 +1,95 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.storage.CanvasSnapshot;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+import com.drawingApp.drawing.app.storage.CanvasStorageFactory;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to save and load a canvas as a {@link CanvasSnapshot}, and the size of the file, by canvas size,
+ * shape and storage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SnapshotBenchmark {
+
+    @Param({"1000", "8000"})
+    public int size;
+
+    @Param({"EMPTY", "MAZE", "RECTANGLES"})
+    public String shape;
+
+    @Param({"ARRAY", "TILED"})
+    public String storage;
+
+    private CanvasStorageFactory factory;
+    private CanvasStorage canvas;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        factory = FillEngineBenchmark.Canvases.factory(storage);
+        canvas = FillEngineBenchmark.Canvases.blank(factory, size, size);
+        FillEngineBenchmark.Canvases.drawShape(canvas, shape);
+        file = Files.createTempFile("canvas", ".snap");
+        CanvasSnapshot.write(canvas, file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long save() throws IOException {
+        return CanvasSnapshot.write(canvas, file);
+    }
+
+    /**
+     * Size of the snapshot. Events are summed over the iterations, so there is only one.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public long size(FileSize fileSize) throws IOException {
+        fileSize.bytes = CanvasSnapshot.write(canvas, file);
+        return fileSize.bytes;
+    }
+
+    @Benchmark
+    public CanvasStorage load() throws IOException {
+        return CanvasSnapshot.read(file, factory);
+    }
+
+    /**
+     * Reports the size of the snapshot.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class FileSize {
+        public long bytes;
+    }
+}
@@ -0,0 +1,163 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.kernels.Kernels;
+import com.drawingApp.drawing.app.kernels.SpanKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of every span kernel on a long row: {@code SCALAR} goes cell by cell as the loops did
+ * before the kernels, {@code PORTABLE} and {@code VECTOR} are the {@link Kernels}. Scans go through the
+ * whole row before finding the cell they look for, at its end.
+ * <p>
+ * {@code VECTOR} needs a build with {@code -P benchmark,vector}; the forks add the incubating module.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class SpanKernelBenchmark {
+
+    private static final char MARKER = '\u007F';
+
+    @Param({"SCALAR", "PORTABLE", "VECTOR"})
+    public String kernels;
+
+    @Param({"4096"})
+    public int length;
+
+    private SpanKernels sut;
+    private char[] markers;
+    private char[] blanks;
+    private char[] drawing;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        switch (kernels) {
+            case "SCALAR":
+                sut = new ScalarKernels();
+                break;
+            case "PORTABLE":
+                sut = Kernels.portable();
+                break;
+            default:
+                sut = Kernels.vector();
+                if (sut == null) {
+                    throw new IllegalStateException("Vector kernels not available, build with -P benchmark,vector");
+                }
+        }
+        markers = new char[length];
+        Arrays.fill(markers, MARKER);
+        markers[length - 1] = 'x';
+        blanks = new char[length];
+        blanks[length - 1] = 'x';
+        drawing = new char[length];
+        for (int col = 0; col < length; col += 8) {
+            drawing[col] = 'x';
+        }
+        bytes = new byte[length];
+    }
+
+    @Benchmark
+    public char[] fill() {
+        sut.fill(blanks, 0, length - 1, (char) 0);
+        return blanks;
+    }
+
+    @Benchmark
+    public int mismatch() {
+        return sut.mismatch(markers, 0, length, MARKER);
+    }
+
+    @Benchmark
+    public int lastMismatch() {
+        return sut.lastMismatch(markers, 0, length - 1, MARKER);
+    }
+
+    @Benchmark
+    public int indexOfEither() {
+        return sut.indexOfEither(blanks, 0, length, 'x', MARKER);
+    }
+
+    @Benchmark
+    public int toAscii() {
+        return sut.toAscii(drawing, 0, length, bytes, 0);
+    }
+
+    /**
+     * One cell per iteration, as the fill engine and the renderer went.
+     */
+    private static final class ScalarKernels implements SpanKernels {
+
+        @Override
+        public void fill(char[] cells, int from, int to, char value) {
+            for (int i = from; i < to; i++) {
+                cells[i] = value;
+            }
+        }
+
+        @Override
+        public int mismatch(char[] cells, int from, int to, char value) {
+            int i = from;
+            while (i < to && cells[i] == value) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public int lastMismatch(char[] cells, int from, int to, char value) {
+            int i = to - 1;
+            while (i >= from && cells[i] == value) {
+                i--;
+            }
+            return i;
+        }
+
+        @Override
+        public int indexOfEither(char[] cells, int from, int to, char first, char second) {
+            int i = from;
+            while (i < to && cells[i] != first && cells[i] != second) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public int lastIndexOfEither(char[] cells, int from, int to, char first, char second) {
+            int i = to - 1;
+            while (i >= from && cells[i] != first && cells[i] != second) {
+                i--;
+            }
+            return i;
+        }
+
+        @Override
+        public int toAscii(char[] cells, int from, int to, byte[] destination, int offset) {
+            int i = from;
+            for (; i < to; i++) {
+                char cell = cells[i];
+                if (cell >= 0x80) {
+                    break;
+                }
+                destination[offset + i - from] = cell == 0 ? (byte) ' ' : (byte) cell;
+            }
+            return i - from;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.drawingApp.drawing.app.benchmarks;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.history.CanvasHistory;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.drawingApp.drawing.app.render.CanvasRenderer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory and latency of the storages on large canvases holding sparse line art: a few thousand lines
+ * and rectangles on a blank area. The memory of the storage is reported by {@code memory:bytes}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class SparseStorageBenchmark {
+
+    private static final int COORDINATES = 1024;
+    private static final int MAX_SHAPE_SIZE = 200;
+
+    @Param({"1000", "4000"})
+    public int size;
+
+    /**
+     * Lines and rectangles drawn beforehand.
+     */
+    @Param({"1000", "5000"})
+    public int shapes;
+
+    @Param({"ARRAY", "RLE"})
+    public String storage;
+
+    private InMemoryCanvas inMemoryCanvas;
+    private InMemoryCanvasRepository repository;
+    private int[] x1s;
+    private int[] y1s;
+    private int[] x2s;
+    private int[] y2s;
+    private int next;
+    private char[] row;
+    private CanvasRenderer renderer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws InvalidInputException {
+        inMemoryCanvas = new InMemoryCanvas();
+        // No undo history, to measure the storage alone.
+        repository = new InMemoryCanvasRepository(inMemoryCanvas, FillEngineBenchmark.Canvases.factory(storage),
+                new ScanlineFillEngine(), new CanvasHistory(0));
+        repository.newCanvas(size, size);
+        var random = new Random(42);
+        // Shapes drawn by the benchmarks come after those drawn beforehand, with the same sizes.
+        var x1 = new int[shapes + COORDINATES];
+        var y1 = new int[shapes + COORDINATES];
+        var x2 = new int[shapes + COORDINATES];
+        var y2 = new int[shapes + COORDINATES];
+        for (int i = 0; i < x1.length; i++) {
+            x1[i] = 1 + random.nextInt(size - 1);
+            y1[i] = 1 + random.nextInt(size - 1);
+            x2[i] = x1[i] + 1 + random.nextInt(Math.min(MAX_SHAPE_SIZE, size - x1[i]));
+            y2[i] = y1[i] + 1 + random.nextInt(Math.min(MAX_SHAPE_SIZE, size - y1[i]));
+        }
+        for (int i = 0; i < shapes; i++) {
+            switch (i % 3) {
+                case 0:
+                    repository.drawLine(x1[i], y1[i], x2[i], y1[i]);
+                    break;
+                case 1:
+                    repository.drawLine(x1[i], y1[i], x1[i], y2[i]);
+                    break;
+                default:
+                    repository.drawRectangle(x1[i], y1[i], x2[i], y2[i]);
+                    break;
+            }
+        }
+        x1s = Arrays.copyOfRange(x1, shapes, x1.length);
+        y1s = Arrays.copyOfRange(y1, shapes, y1.length);
+        x2s = Arrays.copyOfRange(x2, shapes, x2.length);
+        y2s = Arrays.copyOfRange(y2, shapes, y2.length);
+        row = new char[size + 2];
+        var discard = OutputStream.nullOutputStream();
+        renderer = new CanvasRenderer(new PrintStream(discard), Channels.newChannel(discard));
+    }
+
+    @Benchmark
+    public InMemoryCanvasRepository drawHorizontalLine() throws InvalidInputException {
+        int i = next++ & (COORDINATES - 1);
+        repository.drawLine(x1s[i], y1s[i], x2s[i], y1s[i]);
+        return repository;
+    }
+
+    @Benchmark
+    public InMemoryCanvasRepository drawRectangle() throws InvalidInputException {
+        int i = next++ & (COORDINATES - 1);
+        repository.drawRectangle(x1s[i], y1s[i], x2s[i], y2s[i]);
+        return repository;
+    }
+
+    /**
+     * Read every row, as the renderers do.
+     */
+    @Benchmark
+    public char[] readRows() {
+        var canvas = inMemoryCanvas.getStorage();
+        for (int i = 0; i < canvas.getHeight(); i++) {
+            canvas.readRow(i, row);
+        }
+        return row;
+    }
+
+    /**
+     * Display the whole canvas, discarding the output.
+     */
+    @Benchmark
+    public CanvasRenderer render() {
+        renderer.render(inMemoryCanvas.getStorage());
+        return renderer;
+    }
+
+    /**
+     * Memory of the storage once the shapes are drawn. Events are summed over the iterations, so there is only one.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public long memory(Memory memory) {
+        memory.bytes = inMemoryCanvas.getStorage().memoryUsage();
+        return memory.bytes;
+    }
+
+    /**
+     * Reports the memory of the storage.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Memory {
+        public long bytes;
+    }
+}
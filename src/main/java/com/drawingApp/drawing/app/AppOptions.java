@@ -0,0 +1,95 @@
+package com.drawingApp.drawing.app;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Startup options given as {@code --name=value} program arguments. An option given as {@code --name},
+ * without a value, is set to its default value.
+ */
+public class AppOptions {
+
+    /**
+     * Value of every option given, NULL for the ones given without a value.
+     */
+    private final Map<String, String> options;
+
+    private AppOptions(Map<String, String> options) {
+        this.options = options;
+    }
+
+    /**
+     * Parse program arguments.
+     *
+     * @param args Program arguments, each one as {@code --name=value} or {@code --name}.
+     * @return parsed options.
+     * @throws IllegalArgumentException if an argument is not an option.
+     */
+    public static AppOptions parse(String[] args) {
+        var options = new HashMap<String, String>();
+        for (var arg : args) {
+            if (!arg.startsWith("--") || arg.length() == 2) {
+                throw new IllegalArgumentException("Invalid option " + arg + ". Options are given as --name=value");
+            }
+            var separator = arg.indexOf('=');
+            if (separator < 0) {
+                options.put(arg.substring(2), null);
+            } else {
+                options.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+        return new AppOptions(options);
+    }
+
+    /**
+     * @param name         Name of the option.
+     * @param defaultValue Value if the option is not given, or given without a value.
+     * @return value of the option.
+     */
+    public String get(String name, String defaultValue) {
+        var value = options.get(name);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * @param name         Name of the option.
+     * @param defaultValue Value if the option is not given, or given without a value.
+     * @return value of the option as a number.
+     * @throws IllegalArgumentException if the value is not a number.
+     */
+    public long getLong(String name, long defaultValue) {
+        var value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Option --" + name + " must be a number");
+        }
+    }
+
+    /**
+     * @param name         Name of the option.
+     * @param defaultValue Value if the option is not given.
+     * @param min          Smallest value allowed.
+     * @param max          Largest value allowed.
+     * @return value of the option as a number.
+     * @throws IllegalArgumentException if the value is not a number or is out of range.
+     */
+    public long getLong(String name, long defaultValue, long min, long max) {
+        var value = getLong(name, defaultValue);
+        if (value < min || value > max) {
+            throw new IllegalArgumentException("Option --" + name + " must be between " + min + " and " + max);
+        }
+        return value;
+    }
+
+    /**
+     * @param name Name of the option.
+     * @return TRUE if the option is given.
+     */
+    public boolean has(String name) {
+        return options.containsKey(name);
+    }
+}
@@ -1,24 +1,156 @@
 package com.drawingApp.drawing.app;
 
 
+import com.drawingApp.drawing.app.batch.BatchRunner;
+import com.drawingApp.drawing.app.batch.PipelinedBatchRunner;
 import com.drawingApp.drawing.app.commands.CommandFactory;
+import com.drawingApp.drawing.app.commands.Quit;
+import com.drawingApp.drawing.app.exceptions.InvalidCommandException;
 import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.FillMode;
+import com.drawingApp.drawing.app.fill.ParallelFillEngine;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.history.CanvasHistory;
+import com.drawingApp.drawing.app.journal.CommandJournal;
+import com.drawingApp.drawing.app.journal.JournaledExecutor;
+import com.drawingApp.drawing.app.metrics.Metrics;
+import com.drawingApp.drawing.app.render.CanvasRenderer;
+import com.drawingApp.drawing.app.render.RenderMode;
+import com.drawingApp.drawing.app.server.CanvasServer;
+import com.drawingApp.drawing.app.server.CanvasSession;
 import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
 import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
-import com.drawingApp.drawing.app.validators.InputCommandValidator;
+import com.drawingApp.drawing.app.storage.StorageType;
 
+import javax.management.JMException;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Scanner;
+import java.util.function.Function;
 
 
 public class DrawingAppApplication {
 
+    /**
+     * Most parser threads of a pipelined batch.
+     */
+    private static final int MAX_PARSE_THREADS = 256;
+
     public static void main(String[] args) {
-        displayCatalogue();
+        AppOptions options;
+        StorageType storageType;
+        RenderMode renderMode;
+        long historyBudget;
+        FillMode fillMode;
+        long fillThreshold;
+        long fillMemory;
+        long journalGroup;
+        long journalDelay;
+        long checkpointEvery;
+        long parseThreads;
+        long metricsEvery;
+        long idleTimeout;
+        long serverPort;
+        long renderEvery;
+        try {
+            options = AppOptions.parse(args);
+            storageType = StorageType.of(options.get("storage", "array"));
+            renderMode = RenderMode.of(options.get("render", isAnsiTerminal() ? "ansi" : "full"));
+            historyBudget = options.getLong("history-budget", CanvasHistory.DEFAULT_BUDGET, 0, Long.MAX_VALUE);
+            fillMode = FillMode.of(options.get("fill", "parallel"));
+            fillThreshold = options.getLong("fill-threshold", ParallelFillEngine.DEFAULT_THRESHOLD, 0, Long.MAX_VALUE);
+            fillMemory = options.getLong("fill-memory", ScanlineFillEngine.DEFAULT_FRONTIER_BUDGET, 0, Long.MAX_VALUE);
+            journalGroup = options.getLong("journal-group", 64, 1, Integer.MAX_VALUE);
+            journalDelay = options.getLong("journal-delay", 10, 1, Long.MAX_VALUE);
+            checkpointEvery = options.getLong("checkpoint-every", 10_000, 0, Long.MAX_VALUE);
+            parseThreads = options.getLong("parse-threads", 0, 0, MAX_PARSE_THREADS);
+            metricsEvery = options.getLong("metrics-every", 0, 0, Long.MAX_VALUE);
+            // In seconds, turned into milliseconds.
+            idleTimeout = options.getLong("idle-timeout", 0, 0, Long.MAX_VALUE / 1000);
+            serverPort = options.getLong("server", 0, 0, 65535);
+            renderEvery = options.getLong("render-every", 0, 0, Long.MAX_VALUE);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            displayUsage();
+            return;
+        }
+        var canvasFile = Path.of(options.get("canvas-file", "canvas.bin"));
+        var metrics = options.has("metrics") || metricsEvery > 0 ? startMetrics(metricsEvery) : null;
+
+        if (options.has("server")) {
+            // Every canvas gets its own repository and fill engine, and its own files next to the canvas file.
+            // Mapped canvases already live in their files, they are never evicted.
+            var directory = canvasFile.toAbsolutePath().getParent();
+            runServer((int) serverPort, directory, storageType == StorageType.MAPPED ? 0 : idleTimeout * 1000, name -> {
+                var sessionCanvas = new InMemoryCanvas();
+                var sessionFile = canvasFile.resolveSibling(name + ".bin");
+                var existing = storageType.reopen(sessionFile);
+                if (existing != null) {
+                    sessionCanvas.save(existing);
+                }
+                return new CanvasSession(name, sessionCanvas, new InMemoryCanvasRepository(sessionCanvas,
+                        storageType.factory(sessionFile), fillMode.engine(fillThreshold, fillMemory), new CanvasHistory(historyBudget),
+                        metrics));
+            });
+            return;
+        }
 
-        var validator = new InputCommandValidator();
         var inMemoryCanvas = new InMemoryCanvas();
-        var canvasRepository = new InMemoryCanvasRepository(inMemoryCanvas);
+        var canvasRepository = new InMemoryCanvasRepository(inMemoryCanvas,
+                storageType.factory(canvasFile), fillMode.engine(fillThreshold, fillMemory), new CanvasHistory(historyBudget), metrics);
         var commandFactory = new CommandFactory(canvasRepository);
+        // Q exits through System.exit and batch mode by returning, either way a mapped canvas is forced to its file.
+        Runtime.getRuntime().addShutdownHook(new Thread(canvasRepository::flush));
+        // Rows go straight to the file descriptor of STDOUT, without the encoder of System.out.
+        var stdout = new FileOutputStream(FileDescriptor.out).getChannel();
+        var renderer = renderMode.renderer(System.out, stdout);
+        if (metrics != null) {
+            renderer.recordRenderTimes(metrics.getRenderTimes());
+        }
+
+        JournaledExecutor journal = null;
+        if (options.has("journal")) {
+            // The journal holds the canvas, a canvas file left by a previous run is not reopened.
+            try {
+                journal = recover(Path.of(options.get("journal", "canvas.journal")), (int) journalGroup, journalDelay,
+                        checkpointEvery, inMemoryCanvas, canvasRepository);
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Cannot recover from journal: " + e.getMessage());
+                return;
+            }
+        } else {
+            // Pick up the canvas left by a previous run, if the storage outlives the process.
+            var existingCanvas = storageType.reopen(canvasFile);
+            if (existingCanvas != null) {
+                inMemoryCanvas.save(existingCanvas);
+            }
+        }
+
+        if (options.has("batch")) {
+            var batchRenderer = new CanvasRenderer(System.out, stdout);
+            if (metrics != null) {
+                batchRenderer.recordRenderTimes(metrics.getRenderTimes());
+            }
+            var batchRunner = parseThreads > 0
+                    ? new PipelinedBatchRunner(canvasRepository, inMemoryCanvas, batchRenderer, System.err, renderEvery,
+                    journal, (int) parseThreads)
+                    : new BatchRunner(commandFactory, inMemoryCanvas, batchRenderer, System.err, renderEvery, journal);
+            runBatch(batchRunner, options.get("batch", "-"));
+            return;
+        }
+
+        displayCatalogue();
+        if (!inMemoryCanvas.getStorage().isEmpty()) {
+            renderer.render(inMemoryCanvas.getStorage());
+        }
 
         try (Scanner scanner = new Scanner(System.in)) {
 
@@ -27,20 +159,25 @@ public class DrawingAppApplication {
 
                 var inputCommand = scanner.nextLine();
 
-                if (validator.isValid(inputCommand)) {
-                    try {
-                        var command = commandFactory.getCommand(inputCommand);
-                        // execute command.
+                try {
+                    // validate and create command in a single pass.
+                    var command = commandFactory.parse(inputCommand);
+                    // execute command, after writing it to the journal if any.
+                    if (journal != null && !(command instanceof Quit)) {
+                        journal.execute(inputCommand, command);
+                    } else {
                         command.execute();
-                        // display latest canvas.
-                        displayCanvas(inMemoryCanvas.getCanvas());
-
-                    } catch (InvalidInputException e) {
-                        System.err.println(e.getMessage());
                     }
-                } else {
-                    System.err.println("Input Command is not valid, Please check Catalogue.");
+                    // display what changed on the latest canvas.
+                    renderer.render(inMemoryCanvas.getStorage(), canvasRepository.getDirtyRegion());
+
+                } catch (InvalidCommandException e) {
+                    System.err.println(e.getMessage() + " Please check Catalogue.");
                     displayCatalogue();
+                    // The catalogue may scroll the canvas out of place.
+                    canvasRepository.getDirtyRegion().markFull();
+                } catch (InvalidInputException e) {
+                    System.err.println(e.getMessage());
                 }
             }
 
@@ -49,6 +186,148 @@ public class DrawingAppApplication {
         }
     }
 
+    /**
+     * Open a journal and restore the canvas from it, reporting the time taken on STDERR. The journal
+     * is closed, forcing its last commands to disk, when the program exits.
+     *
+     * @param journalFile      Journal file.
+     * @param groupSize        Number of commands forced to disk together.
+     * @param groupDelayMillis Longest time a command waits to be forced to disk.
+     * @param checkpointEvery  Write a checkpoint every that many commands, 0 to never write one.
+     * @param inMemoryCanvas   Canvas to restore.
+     * @param repository       Repository of the canvas.
+     * @return executor journaling the commands.
+     * @throws IOException if the journal or its checkpoint cannot be read.
+     */
+    private static JournaledExecutor recover(Path journalFile, int groupSize, long groupDelayMillis, long checkpointEvery,
+                                             InMemoryCanvas inMemoryCanvas, InMemoryCanvasRepository repository)
+            throws IOException {
+        var journal = new JournaledExecutor(CommandJournal.open(journalFile, groupSize, groupDelayMillis),
+                journalFile, inMemoryCanvas, repository, checkpointEvery);
+        System.err.println(journal.recover());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+        return journal;
+    }
+
+    /**
+     * Record metrics, registered with the platform MBean server, and dump them on STDERR periodically and
+     * when the program exits.
+     *
+     * @param dumpEverySeconds Time between two dumps, 0 to dump only on exit.
+     * @return metrics to record.
+     */
+    private static Metrics startMetrics(long dumpEverySeconds) {
+        var metrics = new Metrics();
+        try {
+            metrics.register(ManagementFactory.getPlatformMBeanServer());
+        } catch (JMException e) {
+            System.err.println("Cannot register metrics: " + e.getMessage());
+        }
+        if (dumpEverySeconds > 0) {
+            metrics.dumpEvery(System.err, dumpEverySeconds * 1000);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            metrics.close();
+            metrics.dump(System.err);
+        }));
+        return metrics;
+    }
+
+    /**
+     * Execute commands of a file, or of STDIN if the file is '-', and report throughput on STDERR.
+     *
+     * @param batchRunner See {@link BatchRunner}
+     * @param file        File of commands.
+     */
+    private static void runBatch(BatchRunner batchRunner, String file) {
+        try (BufferedReader reader = "-".equals(file)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16)
+                : Files.newBufferedReader(Path.of(file))) {
+            System.err.println(batchRunner.run(reader));
+        } catch (IOException e) {
+            System.err.println("Cannot read commands: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return TRUE if STDOUT is a terminal which understands ANSI escape sequences.
+     */
+    private static boolean isAnsiTerminal() {
+        var term = System.getenv("TERM");
+        return System.console() != null && term != null && !"dumb".equals(term);
+    }
+
+    /**
+     * Host named canvases for local clients until the process is stopped.
+     *
+     * @param port              Port to listen on, 0 for any free port.
+     * @param snapshotDirectory Directory of the snapshots of evicted canvases.
+     * @param idleTimeoutMillis Time without requests after which a canvas is evicted, 0 never to evict them.
+     * @param sessionFactory    Creates the session of a canvas from its name.
+     */
+    private static void runServer(int port, Path snapshotDirectory, long idleTimeoutMillis,
+                                  Function<String, CanvasSession> sessionFactory) {
+        try (var server = new CanvasServer(port, sessionFactory, snapshotDirectory, idleTimeoutMillis)) {
+            // The server runs until the process is stopped, which skips the close.
+            Runtime.getRuntime().addShutdownHook(new Thread(server::flush));
+            System.err.println("Listening on port " + server.getPort());
+            server.run();
+        } catch (IOException e) {
+            System.err.println("Cannot start server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Display program options on STDERR.
+     */
+    private static void displayUsage() {
+        StringBuilder usage = new StringBuilder("Usage: java -jar drawing-app.jar [options]");
+        usage.append(System.lineSeparator());
+        usage.append("--storage=array|tiled|mapped|rle Canvas storage. Default is array.");
+        usage.append(System.lineSeparator());
+        usage.append("--canvas-file=path             File of the mapped canvas, reopened on startup. Default is canvas.bin.");
+        usage.append(System.lineSeparator());
+        usage.append("--batch=file|-                 Execute commands of a file, or of STDIN, without displaying the canvas in between.");
+        usage.append(System.lineSeparator());
+        usage.append("--render-every=N               In batch mode, also display the canvas every N commands.");
+        usage.append(System.lineSeparator());
+        usage.append("--parse-threads=N              In batch mode, read, parse and execute commands on separate threads, with N parsers, at most 256.");
+        usage.append(System.lineSeparator());
+        usage.append("--journal=path                 Write commands to a journal before executing them and recover the canvas from it on startup.");
+        usage.append(System.lineSeparator());
+        usage.append("--journal-group=N              Force journaled commands to disk N at a time. Default is 64, 1 forces every command.");
+        usage.append(System.lineSeparator());
+        usage.append("--journal-delay=ms             Longest time a journaled command waits to be forced to disk. Default is 10.");
+        usage.append(System.lineSeparator());
+        usage.append("--checkpoint-every=N           Save the canvas and truncate the journal every N commands, 0 never. Default is 10000.");
+        usage.append(System.lineSeparator());
+        usage.append("--server=port                  Host named canvases for local clients on a TCP port instead of the console.");
+        usage.append(System.lineSeparator());
+        usage.append("--idle-timeout=seconds         In server mode, write canvases idle for that long to snapshot files and drop them from memory.");
+        usage.append(System.lineSeparator());
+        usage.append("--metrics                      Record latencies of commands and renders, readable through JMX and dumped on STDERR on exit.");
+        usage.append(System.lineSeparator());
+        usage.append("--metrics-every=seconds        Also dump the metrics on STDERR periodically.");
+        usage.append(System.lineSeparator());
+        usage.append("--fill=scanline|parallel|indexed Fill engine. Default is parallel, for regions over the fill threshold; indexed for repeated fills.");
+        usage.append(System.lineSeparator());
+        usage.append("--fill-threshold=cells         Cells of a region from which a parallel fill uses several cores. Default is 1048576.");
+        usage.append(System.lineSeparator());
+        usage.append("--fill-memory=bytes             Memory of the frontier of a scanline fill, and of a parallel fill up to the threshold. The rest waits in a temporary file. Default is 16 MB.");
+        usage.append(System.lineSeparator());
+        usage.append("--history-budget=bytes         Memory of the undo history, 0 to disable undo. Default is 64 MB.");
+        usage.append(System.lineSeparator());
+        usage.append("--render=full|rows|ansi        Display the whole canvas, the changed rows, or redraw the changed cells in place. Default is ansi on a terminal, full otherwise.");
+
+        System.err.println(usage);
+    }
+
     /**
      * Display Command Catalogue on STDOUT.
      */
@@ -74,28 +353,23 @@ public class DrawingAppApplication {
         catalogue.append(System.lineSeparator());
         catalogue.append("B x y c         Should fill the entire area connected to (x,y) with 'colour' c. The behaviour of this is the same as that of the 'bucket fill' tool in paint programs.");
         catalogue.append(System.lineSeparator());
+        catalogue.append("A x1 y1 x2 y2   Should create a new line at any angle from (x1,y1) to (x2,y2).");
+        catalogue.append(System.lineSeparator());
+        catalogue.append("E x y r         Should create the outline of a circle of center (x,y) and radius r.");
+        catalogue.append(System.lineSeparator());
+        catalogue.append("P x1 y1 ...     Should create a filled polygon of 3 to 32 vertices (x1,y1) (x2,y2) (x3,y3) ...");
+        catalogue.append(System.lineSeparator());
+        catalogue.append("U               Should undo the last drawing command.");
+        catalogue.append(System.lineSeparator());
+        catalogue.append("Y               Should redo the last undone command.");
+        catalogue.append(System.lineSeparator());
+        catalogue.append("S file          Should save the canvas to a snapshot file.");
+        catalogue.append(System.lineSeparator());
+        catalogue.append("O file          Should replace the canvas by a snapshot file saved with S.");
+        catalogue.append(System.lineSeparator());
         catalogue.append("Q               Should quit the program.");
 
         System.out.println(catalogue);
     }
 
-    /**
-     * Display canvas on STDOUT.
-     * @param canvas Canvas to display.
-     */
-    private static void displayCanvas(char[][] canvas) {
-        StringBuilder output = new StringBuilder();
-        for (int i = 0; i < canvas.length; i++) {
-            for (int j = 0; j < canvas[i].length; j++) {
-                if (canvas[i][j] == 0) {
-                    output.append(" ");
-                } else {
-                    output.append(canvas[i][j]);
-                }
-            }
-            output.append(System.lineSeparator());
-        }
-        System.out.println(output);
-    }
-
 }
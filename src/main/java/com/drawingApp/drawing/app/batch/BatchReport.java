@@ -0,0 +1,48 @@
+package com.drawingApp.drawing.app.batch;
+
+/**
+ * Outcome of a batch run.
+ */
+public class BatchReport {
+
+    private final long commands;
+    private final long errors;
+    private final long elapsedNanos;
+
+    public BatchReport(long commands, long errors, long elapsedNanos) {
+        this.commands = commands;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return number of lines read, valid or not.
+     */
+    public long getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return number of lines which were not valid commands or failed to execute.
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return throughput of the run.
+     */
+    public double getCommandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : commands * 1_000_000_000d / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Executed %d commands in %d ms (%.0f commands/s), %d errors",
+                commands, elapsedNanos / 1_000_000, getCommandsPerSecond(), errors);
+    }
+}
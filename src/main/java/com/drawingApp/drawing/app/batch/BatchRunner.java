@@ -0,0 +1,217 @@
+package com.drawingApp.drawing.app.batch;
+
+import com.drawingApp.drawing.app.commands.Command;
+import com.drawingApp.drawing.app.commands.CommandBuffer;
+import com.drawingApp.drawing.app.commands.CommandFactory;
+import com.drawingApp.drawing.app.commands.CommandInterpreter;
+import com.drawingApp.drawing.app.commands.CommandType;
+import com.drawingApp.drawing.app.commands.Quit;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.journal.JournaledExecutor;
+import com.drawingApp.drawing.app.render.CanvasRenderer;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * Execute a stream of commands back to back, without displaying the canvas after each one.
+ * <p>
+ * Without journal, commands are compiled a chunk at a time into a {@link CommandBuffer} and run by a
+ * {@link CommandInterpreter}, so that reading, parsing and executing them allocates nothing once warmed
+ * up, but what the repository keeps. With a journal, every command is kept as read, to be journaled.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class BatchRunner {
+
+    /**
+     * Most commands compiled before they are executed.
+     */
+    static final int CHUNK_COMMANDS = 1024;
+
+    private final CommandFactory commandFactory;
+    private final InMemoryCanvas inMemoryCanvas;
+    private final CanvasRenderer renderer;
+    private final PrintStream errors;
+    /**
+     * Render the canvas every that many commands, 0 to render at the end only.
+     */
+    private final long renderEvery;
+    /**
+     * Journal of the commands, NULL to execute them without journal.
+     */
+    private final JournaledExecutor journal;
+    private final CommandBuffer program = new CommandBuffer();
+    private CommandInterpreter interpreter;
+    private long commands;
+    private long errorCount;
+    private long startNanos;
+
+    /**
+     * Creates new instance of {@link BatchRunner}, executing commands without journal.
+     *
+     * @param commandFactory See {@link CommandFactory}
+     * @param inMemoryCanvas Canvas the commands are drawing upon.
+     * @param renderer       See {@link CanvasRenderer}
+     * @param errors         Stream to report invalid commands upon.
+     * @param renderEvery    Render the canvas every that many commands, 0 to render at the end only.
+     */
+    public BatchRunner(CommandFactory commandFactory, InMemoryCanvas inMemoryCanvas,
+                       CanvasRenderer renderer, PrintStream errors, long renderEvery) {
+        this(commandFactory, inMemoryCanvas, renderer, errors, renderEvery, null);
+    }
+
+    /**
+     * Creates new instance of {@link BatchRunner}
+     *
+     * @param commandFactory See {@link CommandFactory}
+     * @param inMemoryCanvas Canvas the commands are drawing upon.
+     * @param renderer       See {@link CanvasRenderer}
+     * @param errors         Stream to report invalid commands upon.
+     * @param renderEvery    Render the canvas every that many commands, 0 to render at the end only.
+     * @param journal        See {@link JournaledExecutor}, NULL to execute commands without journal.
+     */
+    public BatchRunner(CommandFactory commandFactory, InMemoryCanvas inMemoryCanvas,
+                       CanvasRenderer renderer, PrintStream errors, long renderEvery, JournaledExecutor journal) {
+        this.commandFactory = commandFactory;
+        this.inMemoryCanvas = inMemoryCanvas;
+        this.renderer = renderer;
+        this.errors = errors;
+        this.renderEvery = renderEvery;
+        this.journal = journal;
+    }
+
+    /**
+     * Execute every command until the end of input or a quit command, then render the canvas.
+     *
+     * @param reader Commands, one per line.
+     * @return report of the run.
+     * @throws IOException if the commands cannot be read.
+     */
+    public BatchReport run(BufferedReader reader) throws IOException {
+        if (journal == null) {
+            return runCompiled(reader);
+        }
+        start();
+        String inputCommand;
+        while ((inputCommand = reader.readLine()) != null) {
+            Command command;
+            try {
+                command = commandFactory.parse(inputCommand);
+            } catch (InvalidInputException e) {
+                reject(e);
+                continue;
+            }
+            if (!execute(inputCommand, command)) {
+                break;
+            }
+        }
+        return finish();
+    }
+
+    private BatchReport runCompiled(BufferedReader reader) throws IOException {
+        if (interpreter == null) {
+            interpreter = commandFactory.newInterpreter();
+        }
+        start();
+        var lines = new LineReader(reader);
+        boolean end = false;
+        while (!end) {
+            program.clear();
+            while (program.getCommandCount() < CHUNK_COMMANDS) {
+                if (!lines.next()) {
+                    end = true;
+                    break;
+                }
+                if (commandFactory.compile(lines.line(), program) == CommandType.QUIT) {
+                    end = true;
+                    break;
+                }
+            }
+            for (int position = 0; position < program.length(); position = program.next(position)) {
+                commands++;
+                if (program.getType(position) == CommandType.QUIT) {
+                    break;
+                }
+                try {
+                    interpreter.execute(program, position);
+                } catch (InvalidInputException e) {
+                    report(e);
+                }
+                renderIfDue();
+            }
+        }
+        return finish();
+    }
+
+    /**
+     * Reset the counters, before the first command of a run.
+     */
+    protected void start() {
+        commands = 0;
+        errorCount = 0;
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Execute the next command, then render the canvas if it is time to.
+     *
+     * @param inputCommand Command, as read.
+     * @param command      Command parsed from the input.
+     * @return FALSE if the command is a quit command, which ends the run.
+     */
+    protected boolean execute(String inputCommand, Command command) {
+        commands++;
+        if (command instanceof Quit) {
+            return false;
+        }
+        try {
+            if (journal != null) {
+                journal.execute(inputCommand, command);
+            } else {
+                command.execute();
+            }
+        } catch (InvalidInputException e) {
+            report(e);
+        }
+        renderIfDue();
+        return true;
+    }
+
+    /**
+     * Count the next command as invalid, then render the canvas if it is time to.
+     *
+     * @param error Why the command could not be parsed.
+     */
+    protected void reject(InvalidInputException error) {
+        commands++;
+        report(error);
+        renderIfDue();
+    }
+
+    /**
+     * Render the canvas, after the last command of a run.
+     *
+     * @return report of the run.
+     */
+    protected BatchReport finish() {
+        long elapsed = System.nanoTime() - startNanos;
+        if (!inMemoryCanvas.getStorage().isEmpty()) {
+            renderer.render(inMemoryCanvas.getStorage());
+        }
+        return new BatchReport(commands, errorCount, elapsed);
+    }
+
+    private void report(InvalidInputException error) {
+        errorCount++;
+        errors.println("Line " + commands + ": " + error.getMessage());
+    }
+
+    private void renderIfDue() {
+        if (renderEvery > 0 && commands % renderEvery == 0 && !inMemoryCanvas.getStorage().isEmpty()) {
+            renderer.render(inMemoryCanvas.getStorage());
+        }
+    }
+}
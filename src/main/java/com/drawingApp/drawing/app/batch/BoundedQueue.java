@@ -0,0 +1,109 @@
+package com.drawingApp.drawing.app.batch;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded first-in first-out queue without locks, for any number of producers and consumers.
+ * <p>
+ * Every slot of the ring holds a sequence number telling whether it is free for the producer at a
+ * position or holds the element of the consumer at a position. Producers and consumers claim their
+ * position with a compare-and-set, then publish the slot by advancing its sequence number. A full
+ * queue refuses elements instead of blocking: waiting is up to the caller, which gives backpressure.
+ *
+ * @param <E> Type of the elements.
+ */
+class BoundedQueue<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    /**
+     * Position of the next element to add.
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * Position of the next element to remove.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Creates new instance of {@link BoundedQueue}
+     *
+     * @param capacity Maximum number of elements, a power of two.
+     */
+    BoundedQueue(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Queue capacity must be a power of two, not " + capacity);
+        }
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element, if there is room.
+     *
+     * @param element Element to add, not NULL.
+     * @return FALSE if the queue is full.
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    // Publishes the element to the consumer of this position.
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The slot still holds the element of the previous lap.
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Remove the oldest element, if any.
+     *
+     * @return oldest element, NULL if the queue is empty.
+     */
+    E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    var element = elements.get(index);
+                    elements.lazySet(index, null);
+                    // Frees the slot for the producer of the next lap.
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * @return TRUE if the queue held no element when called.
+     */
+    boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+}
@@ -0,0 +1,113 @@
+package com.drawingApp.drawing.app.batch;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Read lines as {@link java.io.BufferedReader#readLine()} does, ended by '\n', '\r' or "\r\n", but without a
+ * string per line: every line is a view of a reusable buffer, valid until the next line is read. The
+ * buffer grows to the longest line.
+ * <p>
+ * Instances are not thread safe.
+ */
+class LineReader {
+
+    private static final int BUFFER_CHARS = 1 << 13;
+
+    private final Reader reader;
+    private char[] chars = new char[BUFFER_CHARS];
+    private CharBuffer view = CharBuffer.wrap(chars);
+    /**
+     * Chars read but not returned yet, from {@link #start} to {@link #end}.
+     */
+    private int start;
+    private int end;
+    private boolean endOfInput;
+    /**
+     * TRUE if the last line ended with '\r', so that a '\n' right after it is skipped.
+     */
+    private boolean skipLineFeed;
+
+    /**
+     * Creates new instance of {@link LineReader}
+     *
+     * @param reader Reader of the lines.
+     */
+    LineReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Read the next line, see {@link #line()}.
+     *
+     * @return FALSE at the end of input.
+     * @throws IOException if the input cannot be read.
+     */
+    boolean next() throws IOException {
+        int scanned = start;
+        while (true) {
+            if (skipLineFeed && start < end) {
+                skipLineFeed = false;
+                if (chars[start] == '\n') {
+                    start++;
+                    scanned = start;
+                }
+            }
+            for (; scanned < end; scanned++) {
+                char c = chars[scanned];
+                if (c == '\n' || c == '\r') {
+                    select(start, scanned);
+                    start = scanned + 1;
+                    skipLineFeed = c == '\r';
+                    return true;
+                }
+            }
+            if (endOfInput) {
+                if (start == end) {
+                    return false;
+                }
+                // Last line, without a terminator.
+                select(start, end);
+                start = end;
+                return true;
+            }
+            scanned -= start;
+            fill();
+        }
+    }
+
+    /**
+     * @return last line read, without its terminator.
+     */
+    CharSequence line() {
+        return view;
+    }
+
+    /**
+     * Make the chars not returned yet the start of the buffer, growing it if they fill it, and read more.
+     */
+    private void fill() throws IOException {
+        int pending = end - start;
+        if (pending == chars.length) {
+            var grown = new char[2 * chars.length];
+            System.arraycopy(chars, start, grown, 0, pending);
+            chars = grown;
+            view = CharBuffer.wrap(chars);
+        } else {
+            System.arraycopy(chars, start, chars, 0, pending);
+        }
+        start = 0;
+        end = pending;
+        int read = reader.read(chars, end, chars.length - end);
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            end += read;
+        }
+    }
+
+    private void select(int from, int to) {
+        view.limit(to).position(from);
+    }
+}
@@ -0,0 +1,305 @@
+package com.drawingApp.drawing.app.batch;
+
+import com.drawingApp.drawing.app.commands.Command;
+import com.drawingApp.drawing.app.commands.CommandFactory;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.journal.JournaledExecutor;
+import com.drawingApp.drawing.app.render.CanvasRenderer;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Execute a stream of commands in three stages running on different threads:
+ * <ol>
+ *     <li>a reader thread splits the input into chunks of lines;</li>
+ *     <li>parser threads validate the lines of a chunk and create their commands, each with its own
+ *     {@link CommandFactory}, as parsing does not touch the canvas;</li>
+ *     <li>the calling thread executes the commands of every chunk in the order of the input.</li>
+ * </ol>
+ * The reader hands every chunk to the parsers through a {@link BoundedQueue}, and to the executor, in
+ * order, through another one. The executor waits for each chunk to be parsed. When the executor falls
+ * behind, both queues fill up and the reader waits, so memory stays bounded whatever the input. A stage
+ * waiting for long parks until the stage it waits for publishes a chunk or takes one.
+ * <p>
+ * If the reader or a parser dies of an unexpected error, the executor stops waiting for it and the run
+ * throws an {@link IllegalStateException} caused by that error.
+ * <p>
+ * The result is the same as {@link BatchRunner}'s. Once the run ends on a quit command, the reader may
+ * still be blocked reading the input, so its thread is a daemon which is not waited for.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class PipelinedBatchRunner extends BatchRunner {
+
+    /**
+     * Lines per chunk, so that the queues are crossed once per chunk rather than once per line.
+     */
+    static final int CHUNK_LINES = 256;
+    /**
+     * Chunks in flight between the reader and the executor.
+     */
+    private static final int QUEUE_CHUNKS = 64;
+    private static final int SPINS = 100;
+    private static final int YIELDS = 200;
+
+    private final InMemoryCanvasRepository repository;
+    private final int parseThreads;
+    private BoundedQueue<Chunk> parseQueue;
+    private BoundedQueue<Chunk> executeQueue;
+    private volatile boolean readDone;
+    private volatile boolean stopped;
+    /**
+     * Error of the reader or of a parser thread which died, NULL while they run.
+     */
+    private volatile IllegalStateException failure;
+    private Thread executor;
+    private Thread readerThread;
+    private List<Thread> parserThreads;
+
+    /**
+     * Creates new instance of {@link PipelinedBatchRunner}
+     *
+     * @param repository     Repository the commands are executed against.
+     * @param inMemoryCanvas Canvas the commands are drawing upon.
+     * @param renderer       See {@link CanvasRenderer}
+     * @param errors         Stream to report invalid commands upon.
+     * @param renderEvery    Render the canvas every that many commands, 0 to render at the end only.
+     * @param journal        See {@link JournaledExecutor}, NULL to execute commands without journal.
+     * @param parseThreads   Number of parser threads, at least 1.
+     */
+    public PipelinedBatchRunner(InMemoryCanvasRepository repository, InMemoryCanvas inMemoryCanvas, CanvasRenderer renderer,
+                                PrintStream errors, long renderEvery, JournaledExecutor journal, int parseThreads) {
+        super(new CommandFactory(repository), inMemoryCanvas, renderer, errors, renderEvery, journal);
+        if (parseThreads < 1) {
+            throw new IllegalArgumentException("Number of parse threads must be greater than 0");
+        }
+        this.repository = repository;
+        this.parseThreads = parseThreads;
+    }
+
+    @Override
+    public BatchReport run(BufferedReader reader) throws IOException {
+        parseQueue = new BoundedQueue<>(QUEUE_CHUNKS);
+        executeQueue = new BoundedQueue<>(QUEUE_CHUNKS);
+        readDone = false;
+        stopped = false;
+        failure = null;
+        executor = Thread.currentThread();
+
+        Thread.UncaughtExceptionHandler onFailure = (thread, e) -> {
+            if (failure == null) {
+                failure = new IllegalStateException("Batch thread " + thread.getName() + " failed: " + e, e);
+            }
+            LockSupport.unpark(executor);
+        };
+        readerThread = new Thread(() -> read(reader), "batch-reader");
+        readerThread.setDaemon(true);
+        readerThread.setUncaughtExceptionHandler(onFailure);
+        parserThreads = new ArrayList<>();
+        for (int i = 0; i < parseThreads; i++) {
+            var commandFactory = new CommandFactory(repository);
+            var thread = new Thread(() -> parse(commandFactory), "batch-parser-" + i);
+            thread.setDaemon(true);
+            thread.setUncaughtExceptionHandler(onFailure);
+            parserThreads.add(thread);
+        }
+        start();
+        readerThread.start();
+        parserThreads.forEach(Thread::start);
+        try {
+            executeChunks();
+        } finally {
+            stopped = true;
+            LockSupport.unpark(readerThread);
+            parserThreads.forEach(LockSupport::unpark);
+            for (var thread : parserThreads) {
+                joinQuietly(thread);
+            }
+        }
+        return finish();
+    }
+
+    /**
+     * Executor stage: execute the chunks in order until the last one or a quit command.
+     */
+    private void executeChunks() throws IOException {
+        while (true) {
+            var chunk = take(executeQueue);
+            LockSupport.unpark(readerThread);
+            for (int attempt = 0; !chunk.parsed; attempt++) {
+                checkFailure();
+                idle(attempt);
+            }
+            for (int i = 0; i < chunk.size; i++) {
+                var result = chunk.results[i];
+                if (result instanceof Command) {
+                    if (!execute(chunk.lines[i], (Command) result)) {
+                        return;
+                    }
+                } else {
+                    reject((InvalidInputException) result);
+                }
+            }
+            if (chunk.parseFailure != null) {
+                throw chunk.parseFailure;
+            }
+            if (chunk.readFailure != null) {
+                throw chunk.readFailure;
+            }
+            if (chunk.last) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reader stage: split the input into chunks, handed to the parsers and to the executor.
+     */
+    private void read(BufferedReader reader) {
+        try {
+            boolean last = false;
+            while (!last && !stopped) {
+                var chunk = new Chunk();
+                try {
+                    String line;
+                    while (chunk.size < CHUNK_LINES && (line = reader.readLine()) != null) {
+                        chunk.lines[chunk.size++] = line;
+                    }
+                    last = chunk.size < CHUNK_LINES;
+                } catch (IOException e) {
+                    chunk.readFailure = e;
+                    last = true;
+                } catch (UncheckedIOException e) {
+                    chunk.readFailure = e.getCause();
+                    last = true;
+                }
+                chunk.last = last;
+                // Queued for the executor first, so that the chunks reach it in the order of the input.
+                if (!put(executeQueue, chunk)) {
+                    return;
+                }
+                LockSupport.unpark(executor);
+                if (!put(parseQueue, chunk)) {
+                    return;
+                }
+                parserThreads.forEach(LockSupport::unpark);
+            }
+        } finally {
+            readDone = true;
+            parserThreads.forEach(LockSupport::unpark);
+        }
+    }
+
+    /**
+     * Parser stage: parse the chunks, in any order, until the reader is done and every chunk is taken.
+     */
+    private void parse(CommandFactory commandFactory) {
+        for (int attempt = 0; !stopped; attempt++) {
+            boolean done = readDone;
+            var chunk = parseQueue.poll();
+            if (chunk == null) {
+                if (done) {
+                    return;
+                }
+                idle(attempt);
+                continue;
+            }
+            attempt = -1;
+            LockSupport.unpark(readerThread);
+            try {
+                for (int i = 0; i < chunk.size; i++) {
+                    try {
+                        chunk.results[i] = commandFactory.parse(chunk.lines[i]);
+                    } catch (InvalidInputException e) {
+                        chunk.results[i] = e;
+                    }
+                }
+            } catch (RuntimeException e) {
+                chunk.parseFailure = e;
+            }
+            // Publishes the results to the executor.
+            chunk.parsed = true;
+            LockSupport.unpark(executor);
+        }
+    }
+
+    /**
+     * Add a chunk to a queue, waiting for room.
+     *
+     * @return FALSE if the run stopped before there was room.
+     */
+    private boolean put(BoundedQueue<Chunk> queue, Chunk chunk) {
+        for (int attempt = 0; !queue.offer(chunk); attempt++) {
+            if (stopped) {
+                return false;
+            }
+            idle(attempt);
+        }
+        return true;
+    }
+
+    private Chunk take(BoundedQueue<Chunk> queue) {
+        Chunk chunk;
+        for (int attempt = 0; (chunk = queue.poll()) == null; attempt++) {
+            checkFailure();
+            idle(attempt);
+        }
+        return chunk;
+    }
+
+    /**
+     * @throws IllegalStateException if the reader or a parser died, as the chunks it was handling never come.
+     */
+    private void checkFailure() {
+        var e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Wait before trying again: spin first, then give the core away, then park until the stage waited
+     * for unparks this thread.
+     */
+    private void idle(int attempt) {
+        if (attempt < SPINS) {
+            Thread.onSpinWait();
+        } else if (attempt < YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.park(this);
+        }
+    }
+
+    private static void joinQuietly(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Lines read together, and their commands once parsed.
+     */
+    private static final class Chunk {
+        private final String[] lines = new String[CHUNK_LINES];
+        /**
+         * {@link Command} or {@link InvalidInputException} of every line.
+         */
+        private final Object[] results = new Object[CHUNK_LINES];
+        private int size;
+        private boolean last;
+        private IOException readFailure;
+        private RuntimeException parseFailure;
+        private volatile boolean parsed;
+    }
+}
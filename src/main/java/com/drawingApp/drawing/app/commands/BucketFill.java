@@ -10,10 +10,10 @@ public class BucketFill implements Command {
 
     private final int x;
     private final int y;
-    private final Character color;
+    private final char color;
     private final InMemoryCanvasRepository inMemoryCanvasRepository;
 
-    public BucketFill(int x, int y, Character color, InMemoryCanvasRepository inMemoryCanvasRepository) {
+    public BucketFill(int x, int y, char color, InMemoryCanvasRepository inMemoryCanvasRepository) {
         this.x = x;
         this.y = y;
         this.color = color;
@@ -25,4 +25,16 @@ public class BucketFill implements Command {
     public void execute() throws InvalidInputException {
         inMemoryCanvasRepository.bucketFill(x, y, color);
     }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public char getColor() {
+        return color;
+    }
 }
@@ -0,0 +1,29 @@
+package com.drawingApp.drawing.app.commands;
+
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+
+/**
+ * Command to draw a Circle in Canvas.
+ */
+public class Circle implements Command {
+    private final int x;
+    private final int y;
+    private final int radius;
+    private final InMemoryCanvasRepository inMemoryCanvasRepository;
+
+
+    public Circle(int x, int y, int radius, InMemoryCanvasRepository inMemoryCanvasRepository) {
+        this.x = x;
+        this.y = y;
+        this.radius = radius;
+        this.inMemoryCanvasRepository = inMemoryCanvasRepository;
+    }
+
+
+    @Override
+    public void execute() throws InvalidInputException {
+        inMemoryCanvasRepository.drawCircle(x, y, radius);
+    }
+}
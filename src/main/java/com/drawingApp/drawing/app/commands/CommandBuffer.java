@@ -0,0 +1,184 @@
+package com.drawingApp.drawing.app.commands;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+
+import java.util.Arrays;
+
+/**
+ * Commands compiled into a single primitive array, for {@link CommandInterpreter}: every command is its
+ * opcode, the ordinal of its {@link CommandType}, followed by its operands.
+ * <pre>
+ * CANVAS      width height
+ * LINE, RECTANGLE, ANY_LINE
+ *             x1 y1 x2 y2
+ * BUCKET_FILL x y color
+ * CIRCLE      x y radius
+ * POLYGON     vertices x1 y1 ... xn yn
+ * SAVE, LOAD  index of the path, see {@link #getPath}
+ * UNDO, REDO, QUIT
+ * {@link #INVALID} index of the error, see {@link #getError}
+ * </pre>
+ * An input which is not a command is kept as an {@link #INVALID} instruction, failing when executed, so
+ * that errors are reported in the order of the input.
+ * <p>
+ * The buffer grows as commands are added and is reused once {@link #clear() cleared}, so compiling
+ * allocates nothing but the paths of save and load and the errors. Instances are not thread safe.
+ */
+public class CommandBuffer {
+
+    private static final CommandType[] COMMAND_TYPES = CommandType.values();
+    /**
+     * Opcode of an input which is not a command.
+     */
+    public static final int INVALID = COMMAND_TYPES.length;
+    /**
+     * Number of operands of every opcode, but a polygon whose first operand is its number of vertices.
+     */
+    private static final int[] OPERANDS = new int[INVALID + 1];
+
+    static {
+        OPERANDS[CommandType.CANVAS.ordinal()] = 2;
+        OPERANDS[CommandType.LINE.ordinal()] = 4;
+        OPERANDS[CommandType.RECTANGLE.ordinal()] = 4;
+        OPERANDS[CommandType.BUCKET_FILL.ordinal()] = 3;
+        OPERANDS[CommandType.ANY_LINE.ordinal()] = 4;
+        OPERANDS[CommandType.CIRCLE.ordinal()] = 3;
+        OPERANDS[CommandType.SAVE.ordinal()] = 1;
+        OPERANDS[CommandType.LOAD.ordinal()] = 1;
+        OPERANDS[INVALID] = 1;
+    }
+
+    private int[] code = new int[1024];
+    private int length;
+    private int commandCount;
+    private String[] paths = new String[0];
+    private int pathCount;
+    private InvalidInputException[] errors = new InvalidInputException[0];
+    private int errorCount;
+
+    /**
+     * Remove every command, keeping the arrays.
+     */
+    public void clear() {
+        Arrays.fill(paths, 0, pathCount, null);
+        Arrays.fill(errors, 0, errorCount, null);
+        length = 0;
+        commandCount = 0;
+        pathCount = 0;
+        errorCount = 0;
+    }
+
+    /**
+     * @return number of ints of the commands, the first command starts at 0 and the last one ends there.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return number of commands, invalid ones included.
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /**
+     * @param position Position of a command.
+     * @return opcode of the command, see {@link #INVALID}.
+     */
+    public int getOpcode(int position) {
+        return code[position];
+    }
+
+    /**
+     * @param position Position of a command.
+     * @return type of the command, NULL if it is invalid.
+     */
+    public CommandType getType(int position) {
+        return code[position] == INVALID ? null : COMMAND_TYPES[code[position]];
+    }
+
+    /**
+     * @param position Position of a command.
+     * @param index    Index of the operand, from 0.
+     * @return operand of the command.
+     */
+    public int getOperand(int position, int index) {
+        return code[position + 1 + index];
+    }
+
+    /**
+     * @param position Position of a command.
+     * @return position of the next command, {@link #length()} after the last one.
+     */
+    public int next(int position) {
+        int opcode = code[position];
+        int operands = opcode == CommandType.POLYGON.ordinal() ? 1 + 2 * code[position + 1] : OPERANDS[opcode];
+        return position + 1 + operands;
+    }
+
+    /**
+     * @param index Operand of a save or load.
+     * @return file path of the command.
+     */
+    public String getPath(int index) {
+        return paths[index];
+    }
+
+    /**
+     * @param index Operand of an invalid command.
+     * @return why the input is not a command.
+     */
+    public InvalidInputException getError(int index) {
+        return errors[index];
+    }
+
+    /**
+     * Append the command last parsed by a parser.
+     */
+    void add(CommandParser parser) {
+        var type = parser.getType();
+        int arguments = parser.getArgumentCount();
+        // Room for a polygon's count or a color, path and error index.
+        ensureCapacity(2 + arguments);
+        code[length++] = type.ordinal();
+        if (type == CommandType.POLYGON) {
+            code[length++] = arguments / 2;
+        }
+        for (int i = 0; i < arguments; i++) {
+            code[length++] = parser.getArgument(i);
+        }
+        if (type == CommandType.BUCKET_FILL) {
+            code[length++] = parser.getColor();
+        } else if (type == CommandType.SAVE || type == CommandType.LOAD) {
+            if (pathCount == paths.length) {
+                paths = Arrays.copyOf(paths, Math.max(4, 2 * pathCount));
+            }
+            paths[pathCount] = parser.getPath();
+            code[length++] = pathCount++;
+        }
+        commandCount++;
+    }
+
+    /**
+     * Append an input which is not a command.
+     *
+     * @param error Why it is not, thrown when the command is executed.
+     */
+    void addInvalid(InvalidInputException error) {
+        ensureCapacity(2);
+        if (errorCount == errors.length) {
+            errors = Arrays.copyOf(errors, Math.max(4, 2 * errorCount));
+        }
+        errors[errorCount] = error;
+        code[length++] = INVALID;
+        code[length++] = errorCount++;
+        commandCount++;
+    }
+
+    private void ensureCapacity(int ints) {
+        if (length + ints > code.length) {
+            code = Arrays.copyOf(code, Math.max(length + ints, 2 * code.length));
+        }
+    }
+}
@@ -1,16 +1,17 @@
 package com.drawingApp.drawing.app.commands;
 
+import com.drawingApp.drawing.app.exceptions.InvalidCommandException;
 import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
 
-import java.util.Arrays;
-
 /**
- * Provide a command object
+ * Provide a command object. Instances hold a {@link CommandParser} and must not be shared between threads.
  */
 public class CommandFactory {
 
     private InMemoryCanvasRepository inMemoryCanvasRepository;
 
+    private final CommandParser parser = new CommandParser();
+
     /**
      * Creates new instance of {@link CommandFactory}
      *
@@ -25,43 +26,130 @@ public class CommandFactory {
      *
      * @param inputCmd Input command.
      * @return Instance of {@link Command}. Can be null.
+     * @throws NumberFormatException if a number of the command does not fit an int.
      */
     public Command getCommand(String inputCmd) {
+        if (!parser.parse(inputCmd)) {
+            return null;
+        }
+        if (parser.getNumberTooLargeAt() >= 0) {
+            throw new NumberFormatException("Number is too large at position " + (parser.getNumberTooLargeAt() + 1));
+        }
+        return createCommand();
+    }
+
+    /**
+     * Validate input and create instance of {@link Command} from it, in a single pass.
+     *
+     * @param inputCmd Input command.
+     * @return Instance of {@link Command}.
+     * @throws InvalidCommandException if input is not a command, with the position of the error.
+     */
+    public Command parse(String inputCmd) throws InvalidCommandException {
+        if (!parser.parse(inputCmd)) {
+            throw invalidCommand(parser.getErrorPosition(), parser.getErrorMessage());
+        }
+        if (parser.getNumberTooLargeAt() >= 0) {
+            throw invalidCommand(parser.getNumberTooLargeAt(), "number is too large");
+        }
+        return createCommand();
+    }
 
-        var commandTypeOptional = Arrays.stream(CommandType.values())
-                .filter(cmd -> cmd.getPattern().matcher(inputCmd).matches())
-                .findFirst();
+    /**
+     * Validate input and append it to a buffer of compiled commands, in a single pass and without
+     * allocating but for save, load and invalid input, see {@link CommandInterpreter}.
+     *
+     * @param inputCmd Input command.
+     * @param buffer   Buffer to append to. An input which is not a command is appended as an invalid
+     *                 command, which fails with the position of the error when executed.
+     * @return type of the command, NULL if input is not a command.
+     */
+    public CommandType compile(CharSequence inputCmd, CommandBuffer buffer) {
+        if (!parser.parse(inputCmd)) {
+            buffer.addInvalid(invalidCommand(parser.getErrorPosition(), parser.getErrorMessage()));
+            return null;
+        }
+        if (parser.getNumberTooLargeAt() >= 0) {
+            buffer.addInvalid(invalidCommand(parser.getNumberTooLargeAt(), "number is too large"));
+            return null;
+        }
+        buffer.add(parser);
+        return parser.getType();
+    }
+
+    /**
+     * @return interpreter of the commands compiled by {@link #compile}, drawing upon the same repository.
+     */
+    public CommandInterpreter newInterpreter() {
+        return new CommandInterpreter(inMemoryCanvasRepository);
+    }
+
+    private InvalidCommandException invalidCommand(int position, String error) {
+        return new InvalidCommandException("Input Command is not valid at position " + (position + 1)
+                + ": " + error + ".", position);
+    }
+
+    /**
+     * Create the command last parsed by {@link #parser}.
+     */
+    private Command createCommand() {
+        switch (parser.getType()) {
+            case CANVAS:
+                return new Canvas(parser.getArgument(0),
+                        parser.getArgument(1),
+                        inMemoryCanvasRepository);
+            case LINE:
+                return new Line(parser.getArgument(0),
+                        parser.getArgument(1),
+                        parser.getArgument(2),
+                        parser.getArgument(3),
+                        inMemoryCanvasRepository);
+            case RECTANGLE:
+                return new Rectangle(parser.getArgument(0),
+                        parser.getArgument(1),
+                        parser.getArgument(2),
+                        parser.getArgument(3),
+                        inMemoryCanvasRepository);
+            case BUCKET_FILL:
+                return new BucketFill(parser.getArgument(0),
+                        parser.getArgument(1),
+                        parser.getColor(),
+                        inMemoryCanvasRepository);
+            case ANY_LINE:
+                return new AnyLine(parser.getArgument(0),
+                        parser.getArgument(1),
+                        parser.getArgument(2),
+                        parser.getArgument(3),
+                        inMemoryCanvasRepository);
+            case CIRCLE:
+                return new Circle(parser.getArgument(0),
+                        parser.getArgument(1),
+                        parser.getArgument(2),
+                        inMemoryCanvasRepository);
+            case POLYGON:
+                return createPolygon();
+            case UNDO:
+                return new Undo(inMemoryCanvasRepository);
+            case REDO:
+                return new Redo(inMemoryCanvasRepository);
+            case SAVE:
+                return new Save(parser.getPath(), inMemoryCanvasRepository);
+            case LOAD:
+                return new Load(parser.getPath(), inMemoryCanvasRepository);
+            default:
+                return new Quit();
+        }
+    }
 
-        if (commandTypeOptional.isPresent()) {
-            var commandType = commandTypeOptional.get();
-            var params = inputCmd.split("\\s");
-            switch (commandType) {
-                case CANVAS:
-                    return new Canvas(Integer.parseInt(params[1]),
-                            Integer.parseInt(params[2]),
-                            inMemoryCanvasRepository);
-                case LINE:
-                    return new Line(Integer.parseInt(params[1]),
-                            Integer.parseInt(params[2]),
-                            Integer.parseInt(params[3]),
-                            Integer.parseInt(params[4]),
-                            inMemoryCanvasRepository);
-                case RECTANGLE:
-                    return new Rectangle(Integer.parseInt(params[1]),
-                            Integer.parseInt(params[2]),
-                            Integer.parseInt(params[3]),
-                            Integer.parseInt(params[4]),
-                            inMemoryCanvasRepository);
-                case BUCKET_FILL:
-                    return new BucketFill(Integer.parseInt(params[1]),
-                            Integer.parseInt(params[2]),
-                            params[3].charAt(0),
-                            inMemoryCanvasRepository);
-                case QUIT:
-                    return new Quit();
-            }
+    private Polygon createPolygon() {
+        int vertices = parser.getArgumentCount() / 2;
+        var xs = new int[vertices];
+        var ys = new int[vertices];
+        for (int i = 0; i < vertices; i++) {
+            xs[i] = parser.getArgument(2 * i);
+            ys[i] = parser.getArgument(2 * i + 1);
         }
-        return null;
+        return new Polygon(xs, ys, inMemoryCanvasRepository);
     }
 
 }
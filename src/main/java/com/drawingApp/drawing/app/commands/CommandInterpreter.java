@@ -0,0 +1,114 @@
+package com.drawingApp.drawing.app.commands;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+
+import java.nio.file.Path;
+
+/**
+ * Execute the commands of a {@link CommandBuffer}, calling the repository straight from their operands,
+ * without {@link Command} objects. Drawing and filling allocate nothing but what the repository keeps,
+ * e.g. the undo history, so that replaying many commands does not churn the heap.
+ * <p>
+ * Instances reuse the vertices of polygons and are not thread safe.
+ */
+public class CommandInterpreter {
+
+    private static final CommandType[] COMMAND_TYPES = CommandType.values();
+
+    private final InMemoryCanvasRepository inMemoryCanvasRepository;
+    private final int[] xs = new int[CommandParser.MAX_POLYGON_VERTICES];
+    private final int[] ys = new int[CommandParser.MAX_POLYGON_VERTICES];
+
+    /**
+     * Creates new instance of {@link CommandInterpreter}
+     *
+     * @param inMemoryCanvasRepository See {@link InMemoryCanvasRepository}
+     */
+    public CommandInterpreter(InMemoryCanvasRepository inMemoryCanvasRepository) {
+        this.inMemoryCanvasRepository = inMemoryCanvasRepository;
+    }
+
+    /**
+     * Execute every command of a buffer in order, up to its end or a quit command. Failed commands change
+     * nothing and the next ones are executed.
+     *
+     * @param program Commands to execute.
+     * @return number of commands which failed.
+     */
+    public int execute(CommandBuffer program) {
+        int failures = 0;
+        for (int position = 0; position < program.length(); position = program.next(position)) {
+            if (program.getOpcode(position) == CommandType.QUIT.ordinal()) {
+                break;
+            }
+            try {
+                execute(program, position);
+            } catch (InvalidInputException e) {
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Execute one command of a buffer. A quit command does nothing, it is up to the caller to stop.
+     *
+     * @param program  Commands.
+     * @param position Position of the command, see {@link CommandBuffer#next}.
+     * @throws InvalidInputException if the command fails, or the input was not a command.
+     */
+    public void execute(CommandBuffer program, int position) throws InvalidInputException {
+        int opcode = program.getOpcode(position);
+        if (opcode == CommandBuffer.INVALID) {
+            throw program.getError(program.getOperand(position, 0));
+        }
+        switch (COMMAND_TYPES[opcode]) {
+            case CANVAS:
+                inMemoryCanvasRepository.newCanvas(program.getOperand(position, 0), program.getOperand(position, 1));
+                break;
+            case LINE:
+                inMemoryCanvasRepository.drawLine(program.getOperand(position, 0), program.getOperand(position, 1),
+                        program.getOperand(position, 2), program.getOperand(position, 3));
+                break;
+            case RECTANGLE:
+                inMemoryCanvasRepository.drawRectangle(program.getOperand(position, 0), program.getOperand(position, 1),
+                        program.getOperand(position, 2), program.getOperand(position, 3));
+                break;
+            case BUCKET_FILL:
+                inMemoryCanvasRepository.bucketFill(program.getOperand(position, 0), program.getOperand(position, 1),
+                        (char) program.getOperand(position, 2));
+                break;
+            case ANY_LINE:
+                inMemoryCanvasRepository.drawAnyLine(program.getOperand(position, 0), program.getOperand(position, 1),
+                        program.getOperand(position, 2), program.getOperand(position, 3));
+                break;
+            case CIRCLE:
+                inMemoryCanvasRepository.drawCircle(program.getOperand(position, 0), program.getOperand(position, 1),
+                        program.getOperand(position, 2));
+                break;
+            case POLYGON:
+                int vertices = program.getOperand(position, 0);
+                for (int i = 0; i < vertices; i++) {
+                    xs[i] = program.getOperand(position, 1 + 2 * i);
+                    ys[i] = program.getOperand(position, 2 + 2 * i);
+                }
+                inMemoryCanvasRepository.fillPolygon(xs, ys, vertices);
+                break;
+            case UNDO:
+                inMemoryCanvasRepository.undo();
+                break;
+            case REDO:
+                inMemoryCanvasRepository.redo();
+                break;
+            case SAVE:
+                inMemoryCanvasRepository.saveCanvas(Path.of(program.getPath(program.getOperand(position, 0))));
+                break;
+            case LOAD:
+                inMemoryCanvasRepository.loadCanvas(Path.of(program.getPath(program.getOperand(position, 0))));
+                break;
+            default:
+                // Quit.
+        }
+    }
+}
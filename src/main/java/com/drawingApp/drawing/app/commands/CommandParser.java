@@ -0,0 +1,327 @@
+package com.drawingApp.drawing.app.commands;
+
+/**
+ * Hand-written parser of the command grammar defined by {@link CommandType}. It checks and decodes
+ * an input in a single pass over its characters, without regex, split or boxing. The result is kept
+ * in the parser's fields until the next call, so an instance must not be shared between threads.
+ */
+public class CommandParser {
+
+    /**
+     * Most vertices of a polygon, as in the regex of {@link CommandType#POLYGON}.
+     */
+    public static final int MAX_POLYGON_VERTICES = 32;
+    private static final int MIN_POLYGON_VERTICES = 3;
+    private static final int MAX_ARGUMENTS = 2 * MAX_POLYGON_VERTICES;
+
+    private final int[] arguments = new int[MAX_ARGUMENTS];
+    private CommandType type;
+    private int argumentCount;
+    private char color;
+    private String path;
+    private int numberTooLargeAt;
+    private int errorPosition;
+    private String errorMessage;
+
+    /**
+     * Parse an input.
+     *
+     * @param input Command entered by user.
+     * @return TRUE if input is a command, see {@link #getType()}. FALSE otherwise, see {@link #getErrorMessage()}.
+     * A command may still hold a number which does not fit an int, see {@link #getNumberTooLargeAt()}.
+     */
+    public boolean parse(CharSequence input) {
+        type = null;
+        numberTooLargeAt = -1;
+        errorMessage = null;
+        if (input.length() == 0) {
+            return fail(0, "expected a command");
+        }
+
+        CommandType commandType;
+        int numbers;
+        switch (input.charAt(0)) {
+            case 'C':
+            case 'c':
+                commandType = CommandType.CANVAS;
+                numbers = 2;
+                break;
+            case 'L':
+            case 'l':
+                commandType = CommandType.LINE;
+                numbers = 4;
+                break;
+            case 'R':
+            case 'r':
+                commandType = CommandType.RECTANGLE;
+                numbers = 4;
+                break;
+            case 'B':
+            case 'b':
+                commandType = CommandType.BUCKET_FILL;
+                numbers = 2;
+                break;
+            case 'A':
+            case 'a':
+                commandType = CommandType.ANY_LINE;
+                numbers = 4;
+                break;
+            case 'E':
+            case 'e':
+                commandType = CommandType.CIRCLE;
+                numbers = 3;
+                break;
+            case 'P':
+            case 'p':
+                commandType = CommandType.POLYGON;
+                numbers = 2 * MIN_POLYGON_VERTICES;
+                break;
+            case 'U':
+            case 'u':
+                commandType = CommandType.UNDO;
+                numbers = 0;
+                break;
+            case 'Y':
+            case 'y':
+                commandType = CommandType.REDO;
+                numbers = 0;
+                break;
+            case 'S':
+            case 's':
+                commandType = CommandType.SAVE;
+                numbers = 0;
+                break;
+            case 'O':
+            case 'o':
+                commandType = CommandType.LOAD;
+                numbers = 0;
+                break;
+            case 'Q':
+            case 'q':
+                commandType = CommandType.QUIT;
+                numbers = 0;
+                break;
+            default:
+                return fail(0, "unknown command");
+        }
+
+        int position = 1;
+        for (int i = 0; i < numbers; i++) {
+            position = readNumber(input, position, i);
+            if (position < 0) {
+                return false;
+            }
+        }
+        if (commandType == CommandType.POLYGON) {
+            // More vertices, up to the end of the input.
+            while (position < input.length() && numbers < MAX_ARGUMENTS) {
+                position = readNumber(input, position, numbers++);
+                if (position >= 0) {
+                    position = readNumber(input, position, numbers++);
+                }
+                if (position < 0) {
+                    return false;
+                }
+            }
+        }
+        argumentCount = numbers;
+        if (commandType == CommandType.BUCKET_FILL) {
+            position = readColor(input, position);
+            if (position < 0) {
+                return false;
+            }
+        }
+        if (commandType == CommandType.SAVE || commandType == CommandType.LOAD) {
+            position = readPath(input, position);
+            if (position < 0) {
+                return false;
+            }
+        }
+        if (position != input.length()) {
+            return fail(position, "expected end of command");
+        }
+        type = commandType;
+        return true;
+    }
+
+    /**
+     * @return type of the last parsed command, NULL if it was not valid.
+     */
+    public CommandType getType() {
+        return type;
+    }
+
+    /**
+     * @param index Index of the number, from 0.
+     * @return number of the last parsed command, in the order of the input.
+     */
+    public int getArgument(int index) {
+        return arguments[index];
+    }
+
+    /**
+     * @return number of numbers of the last parsed command, which varies for a polygon only.
+     */
+    public int getArgumentCount() {
+        return argumentCount;
+    }
+
+    /**
+     * @return color of the last parsed bucket fill.
+     */
+    public char getColor() {
+        return color;
+    }
+
+    /**
+     * @return file of the last parsed save or load.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * The grammar accepts numbers of any length, but commands take int arguments.
+     *
+     * @return index of the first number of the last parsed command which does not fit an int, -1 if there is none.
+     */
+    public int getNumberTooLargeAt() {
+        return numberTooLargeAt;
+    }
+
+    /**
+     * @return index of the first character in error in the last parsed input.
+     */
+    public int getErrorPosition() {
+        return errorPosition;
+    }
+
+    /**
+     * @return description of the error in the last parsed input, NULL if it was valid.
+     */
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    /**
+     * Read a separator followed by a number.
+     *
+     * @return position after the number, -1 on error.
+     */
+    private int readNumber(CharSequence input, int position, int index) {
+        position = readSeparator(input, position);
+        if (position < 0) {
+            return -1;
+        }
+        int start = position;
+        long value = 0;
+        while (position < input.length() && isDigit(input.charAt(position))) {
+            if (value <= Integer.MAX_VALUE) {
+                value = value * 10 + (input.charAt(position) - '0');
+            }
+            position++;
+        }
+        if (position == start) {
+            return error(start, "expected a number");
+        }
+        if (value > Integer.MAX_VALUE && numberTooLargeAt < 0) {
+            numberTooLargeAt = start;
+        }
+        arguments[index] = (int) value;
+        return position;
+    }
+
+    /**
+     * Read a separator followed by a color character.
+     *
+     * @return position after the color, -1 on error.
+     */
+    private int readColor(CharSequence input, int position) {
+        position = readSeparator(input, position);
+        if (position < 0) {
+            return -1;
+        }
+        // Same class as the [a-zA-z] regex: every character from 'A' to 'z'.
+        if (position == input.length() || input.charAt(position) < 'A' || input.charAt(position) > 'z') {
+            return error(position, "expected a color");
+        }
+        color = input.charAt(position);
+        return position + 1;
+    }
+
+    /**
+     * Read a separator followed by a file path.
+     *
+     * @return position after the path, -1 on error.
+     */
+    private int readPath(CharSequence input, int position) {
+        position = readSeparator(input, position);
+        if (position < 0) {
+            return -1;
+        }
+        int start = position;
+        while (position < input.length() && isPathCharacter(input.charAt(position))) {
+            position++;
+        }
+        if (position == start) {
+            return error(start, "expected a file path");
+        }
+        path = input.subSequence(start, position).toString();
+        return position;
+    }
+
+    /**
+     * Read exactly one whitespace character.
+     *
+     * @return position after the separator, -1 on error.
+     */
+    private int readSeparator(CharSequence input, int position) {
+        if (position == input.length() || !isWhitespace(input.charAt(position))) {
+            return error(position, "expected a whitespace separator");
+        }
+        return position + 1;
+    }
+
+    /**
+     * Record an error.
+     *
+     * @return FALSE, always.
+     */
+    private boolean fail(int position, String message) {
+        error(position, message);
+        return false;
+    }
+
+    /**
+     * Record an error.
+     *
+     * @return -1, always.
+     */
+    private int error(int position, String message) {
+        errorPosition = position;
+        errorMessage = message;
+        return -1;
+    }
+
+    /**
+     * Same characters as \d in a regex.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Same characters as [a-zA-Z0-9_./-] in a regex.
+     */
+    private static boolean isPathCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c)
+                || c == '_' || c == '.' || c == '/' || c == '-';
+    }
+
+    /**
+     * Same characters as \s in a regex.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
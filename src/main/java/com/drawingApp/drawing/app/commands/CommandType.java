@@ -10,6 +10,13 @@ public enum CommandType {
     LINE("(L|l)(\\s\\d+\\s\\d+\\s\\d+\\s\\d+)"),
     RECTANGLE("(R|r)(\\s\\d+\\s\\d+\\s\\d+\\s\\d+)"),
     BUCKET_FILL("(B|b)(\\s\\d+\\s\\d+\\s[a-zA-z]{1})"),
+    ANY_LINE("(A|a)(\\s\\d+\\s\\d+\\s\\d+\\s\\d+)"),
+    CIRCLE("(E|e)(\\s\\d+\\s\\d+\\s\\d+)"),
+    POLYGON("(P|p)((\\s\\d+\\s\\d+){3,32})"),
+    UNDO("(U|u)"),
+    REDO("(Y|y)"),
+    SAVE("(S|s)(\\s[a-zA-Z0-9_./-]+)"),
+    LOAD("(O|o)(\\s[a-zA-Z0-9_./-]+)"),
     QUIT("(Q|q)");
 
     private final String regEx;
@@ -0,0 +1,27 @@
+package com.drawingApp.drawing.app.commands;
+
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+
+import java.nio.file.Path;
+
+/**
+ * Command to replace the canvas by a snapshot file.
+ */
+public class Load implements Command {
+    private final String path;
+    private final InMemoryCanvasRepository inMemoryCanvasRepository;
+
+
+    public Load(String path, InMemoryCanvasRepository inMemoryCanvasRepository) {
+        this.path = path;
+        this.inMemoryCanvasRepository = inMemoryCanvasRepository;
+    }
+
+
+    @Override
+    public void execute() throws InvalidInputException {
+        inMemoryCanvasRepository.loadCanvas(Path.of(path));
+    }
+}
@@ -0,0 +1,34 @@
+package com.drawingApp.drawing.app.commands;
+
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+
+/**
+ * Command to draw a filled Polygon in Canvas.
+ */
+public class Polygon implements Command {
+    private final int[] xs;
+    private final int[] ys;
+    private final InMemoryCanvasRepository inMemoryCanvasRepository;
+
+
+    /**
+     * Creates new instance of {@link Polygon}
+     *
+     * @param xs                       x coordinates of the vertices.
+     * @param ys                       y coordinates of the vertices, as many as xs.
+     * @param inMemoryCanvasRepository See {@link InMemoryCanvasRepository}
+     */
+    public Polygon(int[] xs, int[] ys, InMemoryCanvasRepository inMemoryCanvasRepository) {
+        this.xs = xs;
+        this.ys = ys;
+        this.inMemoryCanvasRepository = inMemoryCanvasRepository;
+    }
+
+
+    @Override
+    public void execute() throws InvalidInputException {
+        inMemoryCanvasRepository.fillPolygon(xs, ys);
+    }
+}
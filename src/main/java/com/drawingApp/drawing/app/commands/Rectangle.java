@@ -26,4 +26,20 @@ public class Rectangle implements Command {
     public void execute() throws InvalidInputException {
         inMemoryCanvasRepository.drawRectangle(x1, y1, x2, y2);
     }
+
+    public int getX1() {
+        return x1;
+    }
+
+    public int getY1() {
+        return y1;
+    }
+
+    public int getX2() {
+        return x2;
+    }
+
+    public int getY2() {
+        return y2;
+    }
 }
@@ -0,0 +1,23 @@
+package com.drawingApp.drawing.app.commands;
+
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+
+/**
+ * Command to redo the most recently undone drawing command.
+ */
+public class Redo implements Command {
+    private final InMemoryCanvasRepository inMemoryCanvasRepository;
+
+
+    public Redo(InMemoryCanvasRepository inMemoryCanvasRepository) {
+        this.inMemoryCanvasRepository = inMemoryCanvasRepository;
+    }
+
+
+    @Override
+    public void execute() throws InvalidInputException {
+        inMemoryCanvasRepository.redo();
+    }
+}
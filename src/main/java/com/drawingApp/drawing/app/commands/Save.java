@@ -0,0 +1,27 @@
+package com.drawingApp.drawing.app.commands;
+
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+
+import java.nio.file.Path;
+
+/**
+ * Command to save the canvas to a snapshot file.
+ */
+public class Save implements Command {
+    private final String path;
+    private final InMemoryCanvasRepository inMemoryCanvasRepository;
+
+
+    public Save(String path, InMemoryCanvasRepository inMemoryCanvasRepository) {
+        this.path = path;
+        this.inMemoryCanvasRepository = inMemoryCanvasRepository;
+    }
+
+
+    @Override
+    public void execute() throws InvalidInputException {
+        inMemoryCanvasRepository.saveCanvas(Path.of(path));
+    }
+}
@@ -0,0 +1,23 @@
+package com.drawingApp.drawing.app.commands;
+
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+
+/**
+ * Command to undo the most recent drawing command.
+ */
+public class Undo implements Command {
+    private final InMemoryCanvasRepository inMemoryCanvasRepository;
+
+
+    public Undo(InMemoryCanvasRepository inMemoryCanvasRepository) {
+        this.inMemoryCanvasRepository = inMemoryCanvasRepository;
+    }
+
+
+    @Override
+    public void execute() throws InvalidInputException {
+        inMemoryCanvasRepository.undo();
+    }
+}
@@ -0,0 +1,25 @@
+package com.drawingApp.drawing.app.exceptions;
+
+/**
+ * Custom Exception to represent an input which does not match any command.
+ */
+public class InvalidCommandException extends InvalidInputException {
+
+    private final int position;
+
+    /**
+     * @param message  Description of the error.
+     * @param position Index of the first character in error.
+     */
+    public InvalidCommandException(String message, int position) {
+        super(message);
+        this.position = position;
+    }
+
+    /**
+     * @return index of the first character in error.
+     */
+    public int getPosition() {
+        return position;
+    }
+}
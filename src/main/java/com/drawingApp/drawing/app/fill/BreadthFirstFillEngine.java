@@ -0,0 +1,76 @@
+package com.drawingApp.drawing.app.fill;
+
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Fill canvas using BFS (Breadth First Search), one queue entry per cell.
+ * Kept as the reference implementation for {@link ScanlineFillEngine}.
+ */
+public class BreadthFirstFillEngine implements FillEngine {
+
+    @Override
+    public void fill(CanvasStorage canvas, int x, int y, char color, FillResult result) {
+        //To keep track of visited coordinates.
+        boolean[][] visited = new boolean[canvas.getHeight()][canvas.getWidth()];
+
+        Queue<List<Integer>> queue = new LinkedList<>();
+        queue.add(List.of(y, x));
+        visited[y][x] = true;
+
+        int[] xDirection = {-1, 0, 1, 0};
+        int[] yDirection = {0, 1, 0, -1};
+        //Bounds of the filled cells.
+        int top = y;
+        int left = x;
+        int bottom = y;
+        int right = x;
+        long cells = 0;
+        long peakFrontier = 1;
+
+        while (!queue.isEmpty()) {
+            var item = queue.remove();
+            var row = item.get(0);
+            var col = item.get(1);
+
+            //Fill the color.
+            canvas.set(row, col, color);
+            cells++;
+            top = Math.min(top, row);
+            bottom = Math.max(bottom, row);
+            left = Math.min(left, col);
+            right = Math.max(right, col);
+
+            for (int i = 0; i < 4; i++) {
+                var adjacentRow = row + xDirection[i];
+                var adjacentCol = col + yDirection[i];
+
+                if (isValidCoordinates(canvas, adjacentRow, adjacentCol)
+                        && !visited[adjacentRow][adjacentCol]
+                        && canvas.get(adjacentRow, adjacentCol) != CHAR_X) {
+
+                    queue.add(List.of(adjacentRow, adjacentCol));
+                    visited[adjacentRow][adjacentCol] = true;
+                }
+            }
+            peakFrontier = Math.max(peakFrontier, queue.size());
+        }
+        result.set(top, left, bottom, right, cells, peakFrontier);
+    }
+
+    /**
+     * Validate if given row and col are inside the canvas's borders
+     *
+     * @param canvas Canvas to draw upon.
+     * @param row    Row to validate.
+     * @param col    Column to validate.
+     * @return TRUE if row and column are within the drawing area otherwise FALSE.
+     */
+    private boolean isValidCoordinates(CanvasStorage canvas, int row, int col) {
+        return row >= 1 && row < canvas.getHeight() - 1
+                && col >= 1 && col < canvas.getWidth() - 1;
+    }
+}
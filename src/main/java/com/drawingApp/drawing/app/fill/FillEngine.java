@@ -0,0 +1,66 @@
+package com.drawingApp.drawing.app.fill;
+
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+/**
+ * Strategy to fill the area connected to a point of the canvas.
+ */
+public interface FillEngine {
+    /**
+     * Character to represent a line on canvas. A fill never crosses it.
+     */
+    char CHAR_X = 'x';
+
+    /**
+     * Fill the area connected to (x, y) with given color. Every cell of the drawing area which is
+     * reachable from (x, y) through horizontal or vertical neighbours without crossing {@link #CHAR_X}
+     * gets the color. Caller must ensure (x, y) is inside the drawing area and is not a line.
+     *
+     * @param canvas Canvas to draw upon, including its borders.
+     * @param x      Starts from coordinate x.
+     * @param y      Starts from coordinate y.
+     * @param color  character to fill the canvas.
+     * @param result Set to the cells written by the fill, see {@link FillResult}.
+     */
+    void fill(CanvasStorage canvas, int x, int y, char color, FillResult result);
+
+    /**
+     * Fill like {@link #fill(CanvasStorage, int, int, char, FillResult)}, into a new result.
+     *
+     * @param canvas Canvas to draw upon, including its borders.
+     * @param x      Starts from coordinate x.
+     * @param y      Starts from coordinate y.
+     * @param color  character to fill the canvas.
+     * @return cells written by the fill, see {@link FillResult}.
+     */
+    default FillResult fill(CanvasStorage canvas, int x, int y, char color) {
+        var result = new FillResult();
+        fill(canvas, x, y, color, result);
+        return result;
+    }
+
+    /**
+     * Called once cells of a row were turned into {@link #CHAR_X}, for engines which keep state about the
+     * canvas between fills. Does nothing by default.
+     *
+     * @param row     Row of the cells.
+     * @param fromCol First column of the cells.
+     * @param toCol   Last column of the cells.
+     */
+    default void linesDrawn(int row, int fromCol, int toCol) {
+    }
+
+    /**
+     * Called once the canvas was replaced, or lines may have been removed from it, for engines which keep
+     * state about the canvas between fills. Does nothing by default.
+     */
+    default void invalidate() {
+    }
+
+    /**
+     * @return estimated number of bytes of the state kept about the canvas between fills.
+     */
+    default long memoryUsage() {
+        return 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.drawingApp.drawing.app.fill;
+
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Available fill engines, selected at startup.
+ */
+public enum FillMode {
+    /**
+     * One span at a time on the calling thread. See {@link ScanlineFillEngine}.
+     */
+    SCANLINE,
+    /**
+     * Bands of rows on the common fork/join pool for large regions. See {@link ParallelFillEngine}.
+     */
+    PARALLEL,
+    /**
+     * Index of the regions of the canvas, so that filling a known region again needs no search.
+     * See {@link RegionIndexFillEngine}.
+     */
+    INDEXED;
+
+    /**
+     * Find fill mode by its name, ignoring case.
+     *
+     * @param name Name of the fill mode.
+     * @return matching fill mode.
+     * @throws IllegalArgumentException if there is no such fill mode.
+     */
+    public static FillMode of(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @param threshold      Number of cells of a region from which a {@link #PARALLEL} fill goes parallel.
+     * @param frontierBudget Maximum number of bytes of the frontier of a {@link ScanlineFillEngine} fill in memory,
+     *                       also of a {@link #PARALLEL} fill until it goes parallel.
+     * @return fill engine of this mode.
+     */
+    public FillEngine engine(long threshold, long frontierBudget) {
+        switch (this) {
+            case PARALLEL:
+                return new ParallelFillEngine(ForkJoinPool.commonPool(), threshold, new ScanlineFillEngine(frontierBudget));
+            case INDEXED:
+                return new RegionIndexFillEngine();
+            default:
+                return new ScanlineFillEngine(frontierBudget);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.drawingApp.drawing.app.fill;
+
+/**
+ * Outcome of a fill: bounding rectangle of the cells it wrote, in canvas coordinates, their count and
+ * the largest size of the frontier of the fill. Engines set the result owned by their caller, so that
+ * filling repeatedly allocates nothing.
+ */
+public class FillResult {
+
+    private int top;
+    private int left;
+    private int bottom;
+    private int right;
+    private long cells;
+    private long peakFrontier;
+
+    /**
+     * Set the outcome of a fill.
+     *
+     * @param top          First row written.
+     * @param left         First column written.
+     * @param bottom       Last row written.
+     * @param right        Last column written.
+     * @param cells        Number of cells written.
+     * @param peakFrontier Largest number of entries waiting in the frontier at once, 0 for engines without frontier.
+     */
+    public void set(int top, int left, int bottom, int right, long cells, long peakFrontier) {
+        this.top = top;
+        this.left = left;
+        this.bottom = bottom;
+        this.right = right;
+        this.cells = cells;
+        this.peakFrontier = peakFrontier;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getBottom() {
+        return bottom;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    public long getCells() {
+        return cells;
+    }
+
+    /**
+     * @return largest number of entries waiting in the frontier at once, 0 for engines without frontier.
+     */
+    public long getPeakFrontier() {
+        return peakFrontier;
+    }
+}
@@ -0,0 +1,237 @@
+package com.drawingApp.drawing.app.fill;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Stack of primitive int pairs, used as the frontier of a fill, with a hard cap on its memory.
+ * <p>
+ * Pairs are kept in chunks of a fixed size, allocated as the stack grows. Once the memory budget holds
+ * no more chunks, the bottom chunk, which is needed last, is written to a temporary file and its array
+ * reused for the top. Chunks are read back, last written first, once the chunks in memory are popped.
+ * The file is deleted when it is emptied or when the stack is cleared. A huge frontier is thus slower
+ * to go through, but never takes more memory than the budget.
+ * <p>
+ * The first chunk is allocated by the first push and kept until the stack is dropped, so that idle
+ * stacks, e.g. of the fill engines of many idle canvases, take no memory.
+ */
+class IntStack {
+
+    static final int MAX_CHUNK_PAIRS = 8192;
+    static final int MIN_CHUNK_PAIRS = 64;
+
+    private final int chunkInts;
+    private final int maxChunks;
+    /**
+     * Chunks in memory, bottom first. Only the first {@link #chunkCount} are in use, the last of which is
+     * the top. None is in use while the stack is empty and was cleared.
+     */
+    private int[][] chunks;
+    private int chunkCount;
+    /**
+     * Ints used in the top chunk.
+     */
+    private int topSize;
+    private long size;
+    private long peak;
+    private int first;
+    private int second;
+    private FileChannel spillFile;
+    private ByteBuffer spillBuffer;
+    private long spilledChunks;
+    private long spills;
+
+    /**
+     * Creates new instance of {@link IntStack}, in chunks of {@value #MAX_CHUNK_PAIRS} pairs, or smaller
+     * ones so that a small budget still holds four of them.
+     *
+     * @param budget Maximum number of bytes of the pairs kept in memory. At least two chunks are kept.
+     */
+    IntStack(long budget) {
+        this(budget, (int) Math.max(MIN_CHUNK_PAIRS, Math.min(MAX_CHUNK_PAIRS, budget / (4 * 8))));
+    }
+
+    /**
+     * Creates new instance of {@link IntStack}
+     *
+     * @param budget     Maximum number of bytes of the pairs kept in memory. At least two chunks are kept.
+     * @param chunkPairs Number of pairs of a chunk.
+     */
+    IntStack(long budget, int chunkPairs) {
+        this.chunkInts = chunkPairs * 2;
+        this.maxChunks = (int) Math.min(Integer.MAX_VALUE, Math.max(2, budget / (4L * chunkInts)));
+        this.chunks = new int[Math.min(maxChunks, 16)][];
+        this.topSize = chunkInts;
+    }
+
+    /**
+     * Push a pair of values on top of the stack.
+     *
+     * @param first  First value of the pair.
+     * @param second Second value of the pair.
+     * @throws UncheckedIOException if the stack has to spill to disk and the file cannot be written.
+     */
+    void push(int first, int second) {
+        if (topSize == chunkInts) {
+            nextChunk();
+        }
+        var top = chunks[chunkCount - 1];
+        top[topSize++] = first;
+        top[topSize++] = second;
+        if (++size > peak) {
+            peak = size;
+        }
+    }
+
+    /**
+     * Remove the pair on top of the stack. Read it afterwards with {@link #first()} and {@link #second()}.
+     *
+     * @throws UncheckedIOException if the pair is on disk and the file cannot be read.
+     */
+    void pop() {
+        if (topSize == 0) {
+            if (chunkCount > 1) {
+                chunkCount--;
+            } else {
+                unspill();
+            }
+            topSize = chunkInts;
+        }
+        var top = chunks[chunkCount - 1];
+        second = top[--topSize];
+        first = top[--topSize];
+        size--;
+    }
+
+    /**
+     * @return first value of the most recently popped pair.
+     */
+    int first() {
+        return first;
+    }
+
+    /**
+     * @return second value of the most recently popped pair.
+     */
+    int second() {
+        return second;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every pair, delete the file and release the chunks but one.
+     */
+    void clear() {
+        for (int i = 1; i < chunks.length; i++) {
+            chunks[i] = null;
+        }
+        chunkCount = 0;
+        topSize = chunkInts;
+        size = 0;
+        peak = 0;
+        spilledChunks = 0;
+        closeSpillFile();
+    }
+
+    /**
+     * @return largest number of pairs held at once since the stack was last cleared.
+     */
+    long getPeak() {
+        return peak;
+    }
+
+    /**
+     * @return number of chunks written to disk since the stack was created.
+     */
+    long getSpills() {
+        return spills;
+    }
+
+    private void nextChunk() {
+        if (chunkCount < maxChunks) {
+            if (chunkCount == chunks.length) {
+                growChunks();
+            }
+            if (chunks[chunkCount] == null) {
+                chunks[chunkCount] = new int[chunkInts];
+            }
+            chunkCount++;
+        } else {
+            // Bottom chunk to disk, its array becomes the top.
+            var bottom = chunks[0];
+            spill(bottom);
+            System.arraycopy(chunks, 1, chunks, 0, chunkCount - 1);
+            chunks[chunkCount - 1] = bottom;
+        }
+        topSize = 0;
+    }
+
+    private void growChunks() {
+        var grown = new int[(int) Math.min(maxChunks, chunks.length * 2L)][];
+        System.arraycopy(chunks, 0, grown, 0, chunks.length);
+        chunks = grown;
+    }
+
+    private void spill(int[] chunk) {
+        try {
+            if (spillFile == null) {
+                var file = Files.createTempFile("fill-frontier", ".bin");
+                spillFile = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.DELETE_ON_CLOSE);
+                if (spillBuffer == null) {
+                    spillBuffer = ByteBuffer.allocate(4 * chunkInts);
+                }
+            }
+            spillBuffer.clear();
+            spillBuffer.asIntBuffer().put(chunk);
+            long position = spilledChunks * spillBuffer.capacity();
+            while (spillBuffer.hasRemaining()) {
+                position += spillFile.write(spillBuffer, position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill fill frontier to disk: " + e.getMessage(), e);
+        }
+        spilledChunks++;
+        spills++;
+    }
+
+    private void unspill() {
+        spilledChunks--;
+        try {
+            spillBuffer.clear();
+            long position = spilledChunks * spillBuffer.capacity();
+            while (spillBuffer.hasRemaining()) {
+                int read = spillFile.read(spillBuffer, position);
+                if (read < 0) {
+                    throw new IOException("Frontier file is truncated");
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read fill frontier from disk: " + e.getMessage(), e);
+        }
+        spillBuffer.flip();
+        spillBuffer.asIntBuffer().get(chunks[0]);
+        if (spilledChunks == 0) {
+            closeSpillFile();
+        }
+    }
+
+    private void closeSpillFile() {
+        if (spillFile != null) {
+            try {
+                spillFile.close();
+            } catch (IOException e) {
+                // Deleted on close, or by the system's temporary file cleanup.
+            }
+            spillFile = null;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package com.drawingApp.drawing.app.fill;
+
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Fill large canvases on several cores. The drawing area is split into bands of rows and filled in
+ * three steps:
+ * <ol>
+ *     <li>in parallel, every band splits its rows into runs of cells which are not lines and joins
+ *     the runs of adjacent rows which overlap, with a union-find local to the band;</li>
+ *     <li>sequentially, the runs on both sides of every border between bands are joined;</li>
+ *     <li>in parallel, every band fills the runs joined to the run of (x, y).</li>
+ * </ol>
+ * The filled cells are exactly those of {@link ScanlineFillEngine}. Every fill starts as a
+ * {@link ScanlineFillEngine} fill, within its frontier budget, and goes parallel only once it reached
+ * more cells than the threshold: the bands label every run of the canvas, which only pays off for large
+ * regions. The cells already reached hold {@link ScanlineFillEngine#MARKER}, which the bands see as any
+ * other color and overwrite. The last step is sequential when the storage does not allow concurrent
+ * writes, see {@link CanvasStorage#isRowConcurrent()}.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class ParallelFillEngine implements FillEngine {
+
+    /**
+     * Default number of cells of a region from which the fill goes parallel.
+     */
+    public static final long DEFAULT_THRESHOLD = 1L << 20;
+    /**
+     * Default minimum number of cells of a band, so that a task is worth forking.
+     */
+    private static final int MIN_BAND_CELLS = 1 << 16;
+    /**
+     * Bands per worker thread, to balance regions of uneven shape.
+     */
+    private static final int BANDS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+    private final long threshold;
+    private final int minBandCells;
+    private final ScanlineFillEngine sequential;
+
+    /**
+     * Creates new instance of {@link ParallelFillEngine}, on the common pool with the default threshold.
+     */
+    public ParallelFillEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates new instance of {@link ParallelFillEngine}
+     *
+     * @param pool      Pool running the bands.
+     * @param threshold Number of cells of a region up to which the fill stays sequential.
+     */
+    public ParallelFillEngine(ForkJoinPool pool, long threshold) {
+        this(pool, threshold, new ScanlineFillEngine());
+    }
+
+    /**
+     * Creates new instance of {@link ParallelFillEngine}
+     *
+     * @param pool       Pool running the bands.
+     * @param threshold  Number of cells of a region up to which the fill stays sequential.
+     * @param sequential Engine starting every fill, and filling the regions up to the threshold.
+     */
+    public ParallelFillEngine(ForkJoinPool pool, long threshold, ScanlineFillEngine sequential) {
+        this(pool, threshold, MIN_BAND_CELLS, sequential);
+    }
+
+    /**
+     * Creates new instance of {@link ParallelFillEngine}
+     *
+     * @param pool         Pool running the bands.
+     * @param threshold    Number of cells of a region up to which the fill stays sequential.
+     * @param minBandCells Minimum number of cells of a band.
+     * @param sequential   Engine starting every fill, and filling the regions up to the threshold.
+     */
+    ParallelFillEngine(ForkJoinPool pool, long threshold, int minBandCells, ScanlineFillEngine sequential) {
+        this.pool = pool;
+        this.threshold = threshold;
+        this.minBandCells = minBandCells;
+        this.sequential = sequential;
+    }
+
+    @Override
+    public void fill(CanvasStorage canvas, int x, int y, char color, FillResult result) {
+        int rows = canvas.getHeight() - 2;
+        int cols = canvas.getWidth() - 2;
+        if ((long) rows * cols <= threshold || pool.getParallelism() < 2 || rows < 2) {
+            sequential.fill(canvas, x, y, color, result);
+            return;
+        }
+        if (sequential.fillAtMost(canvas, x, y, color, threshold, result)) {
+            return;
+        }
+
+        var bands = split(rows, cols);
+        forEach(bands, band -> band.label(canvas));
+
+        // Join the bands: union-find over the global index of the runs, each band's runs following the previous band's.
+        int total = 0;
+        for (var band : bands) {
+            band.offset = total;
+            total += band.runs;
+        }
+        var parent = new int[total];
+        forEach(bands, band -> band.publish(parent));
+        for (int k = 1; k < bands.length; k++) {
+            var above = bands[k - 1];
+            var below = bands[k];
+            joinRows(above, above.rowCount() - 1, below, 0, parent);
+        }
+
+        var seedBand = bands[(y - 1) / bands[0].rowCount()];
+        int seedRoot = find(parent, seedBand.offset + seedBand.runAt(y, x));
+
+        var concurrent = canvas.isRowConcurrent();
+        forEach(bands, band -> {
+            band.select(parent, seedRoot);
+            if (concurrent) {
+                band.write(canvas, color);
+            }
+        });
+        if (!concurrent) {
+            for (var band : bands) {
+                band.write(canvas, color);
+            }
+        }
+
+        // The seed's band always filled something.
+        int top = Integer.MAX_VALUE;
+        int left = Integer.MAX_VALUE;
+        int bottom = -1;
+        int right = -1;
+        long cells = 0;
+        for (var band : bands) {
+            if (band.cells > 0) {
+                top = Math.min(top, band.top);
+                left = Math.min(left, band.left);
+                bottom = Math.max(bottom, band.bottom);
+                right = Math.max(right, band.right);
+                cells += band.cells;
+            }
+        }
+        result.set(top, left, bottom, right, cells, 0);
+    }
+
+    /**
+     * Split the drawing area into bands of equal height, the last one possibly shorter.
+     */
+    private Band[] split(int rows, int cols) {
+        int bandCount = pool.getParallelism() * BANDS_PER_THREAD;
+        int bandRows = Math.max((rows + bandCount - 1) / bandCount, (minBandCells + cols - 1) / cols);
+        bandRows = Math.min(bandRows, rows);
+        var bands = new Band[(rows + bandRows - 1) / bandRows];
+        for (int k = 0; k < bands.length; k++) {
+            int firstRow = 1 + k * bandRows;
+            bands[k] = new Band(firstRow, Math.min(firstRow + bandRows - 1, rows), cols);
+        }
+        return bands;
+    }
+
+    private void forEach(Band[] bands, Consumer<Band> action) {
+        pool.invoke(new BandAction(bands, 0, bands.length, action));
+    }
+
+    /**
+     * Join the overlapping runs of two adjacent rows, walking both rows left to right.
+     */
+    private static void joinRows(Band upper, int upperRow, Band lower, int lowerRow, int[] parent) {
+        int i = upper.rowStart[upperRow];
+        int iEnd = upper.rowStart[upperRow + 1];
+        int j = lower.rowStart[lowerRow];
+        int jEnd = lower.rowStart[lowerRow + 1];
+        while (i < iEnd && j < jEnd) {
+            if (upper.starts[i] <= lower.ends[j] && lower.starts[j] <= upper.ends[i]) {
+                union(parent, upper.offset + i, lower.offset + j);
+            }
+            if (upper.ends[i] < lower.ends[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Root of a run, without path compression so that several threads can read the same union-find.
+     */
+    private static int find(int[] parent, int run) {
+        while (parent[run] != run) {
+            run = parent[run];
+        }
+        return run;
+    }
+
+    /**
+     * Root of a run, halving the path on the way. A run always points to a run of lower index.
+     */
+    private static int compress(int[] parent, int run) {
+        while (parent[run] != run) {
+            parent[run] = parent[parent[run]];
+            run = parent[run];
+        }
+        return run;
+    }
+
+    private static void union(int[] parent, int first, int second) {
+        int firstRoot = compress(parent, first);
+        int secondRoot = compress(parent, second);
+        if (firstRoot != secondRoot) {
+            parent[Math.max(firstRoot, secondRoot)] = Math.min(firstRoot, secondRoot);
+        }
+    }
+
+    /**
+     * Consecutive rows of the drawing area and their runs of cells which are not lines.
+     */
+    private static final class Band {
+        private final int firstRow;
+        private final int lastRow;
+        private final int cols;
+        /**
+         * Index of the first run of every row, plus the number of runs.
+         */
+        private final int[] rowStart;
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int[] parent = new int[16];
+        private int runs;
+        private int offset;
+        /**
+         * Runs to fill, once selected.
+         */
+        private boolean[] selected;
+        private int top = Integer.MAX_VALUE;
+        private int left = Integer.MAX_VALUE;
+        private int bottom = -1;
+        private int right = -1;
+        private long cells;
+
+        private Band(int firstRow, int lastRow, int cols) {
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+            this.cols = cols;
+            this.rowStart = new int[lastRow - firstRow + 2];
+        }
+
+        private int rowCount() {
+            return lastRow - firstRow + 1;
+        }
+
+        /**
+         * Find the runs of every row and join the overlapping runs of adjacent rows.
+         */
+        private void label(CanvasStorage canvas) {
+            var cells = new char[canvas.getWidth()];
+            for (int row = firstRow; row <= lastRow; row++) {
+                rowStart[row - firstRow] = runs;
+                canvas.readRow(row, cells);
+                int col = 1;
+                while (col <= cols) {
+                    if (cells[col] == CHAR_X) {
+                        col++;
+                        continue;
+                    }
+                    int start = col;
+                    do {
+                        col++;
+                    } while (col <= cols && cells[col] != CHAR_X);
+                    addRun(start, col - 1);
+                }
+                rowStart[row - firstRow + 1] = runs;
+                if (row > firstRow) {
+                    joinRows(this, row - firstRow - 1, this, row - firstRow, parent);
+                }
+            }
+            // Point every run to its root, so that a single lookup gives it.
+            for (int i = 0; i < runs; i++) {
+                parent[i] = parent[parent[i]];
+            }
+        }
+
+        /**
+         * Copy the local union-find into the global one, from {@link #offset}.
+         */
+        private void publish(int[] globalParent) {
+            for (int i = 0; i < runs; i++) {
+                globalParent[offset + i] = offset + parent[i];
+            }
+        }
+
+        /**
+         * Select the runs joined to the seed's run.
+         */
+        private void select(int[] globalParent, int seedRoot) {
+            selected = new boolean[runs];
+            // Every run shares the answer of its local root, which comes first.
+            for (int i = 0; i < runs; i++) {
+                int localRoot = parent[i];
+                selected[i] = localRoot == i
+                        ? find(globalParent, offset + i) == seedRoot
+                        : selected[localRoot];
+            }
+        }
+
+        /**
+         * Fill the selected runs.
+         */
+        private void write(CanvasStorage canvas, char color) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int i = rowStart[row - firstRow]; i < rowStart[row - firstRow + 1]; i++) {
+                    if (selected[i]) {
+                        canvas.fillRow(row, starts[i], ends[i] + 1, color);
+                        top = Math.min(top, row);
+                        bottom = row;
+                        left = Math.min(left, starts[i]);
+                        right = Math.max(right, ends[i]);
+                        cells += ends[i] - starts[i] + 1;
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return local index of the run holding (row, col).
+         */
+        private int runAt(int row, int col) {
+            int i = rowStart[row - firstRow];
+            while (ends[i] < col) {
+                i++;
+            }
+            return i;
+        }
+
+        private void addRun(int start, int end) {
+            if (runs == starts.length) {
+                starts = Arrays.copyOf(starts, runs * 2);
+                ends = Arrays.copyOf(ends, runs * 2);
+                parent = Arrays.copyOf(parent, runs * 2);
+            }
+            starts[runs] = start;
+            ends[runs] = end;
+            parent[runs] = runs;
+            runs++;
+        }
+    }
+
+    /**
+     * Run an action on every band, splitting the bands in halves.
+     */
+    private static final class BandAction extends RecursiveAction {
+        private final Band[] bands;
+        private final int from;
+        private final int to;
+        private final Consumer<Band> action;
+
+        private BandAction(Band[] bands, int from, int to, Consumer<Band> action) {
+            this.bands = bands;
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(bands[from]);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BandAction(bands, from, middle, action), new BandAction(bands, middle, to, action));
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.drawingApp.drawing.app.fill;
+
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+import java.util.Arrays;
+
+/**
+ * Fill from an index of the regions of the canvas, so that filling a region again costs one
+ * {@link CanvasStorage#fillRow} per run of the region, without any search.
+ * <p>
+ * A region is a set of cells connected without crossing {@link #CHAR_X}, whatever their color, so
+ * fills never change regions. The index holds the runs of cells which are not lines of every row,
+ * the region of every run and the list of runs of every region. It is built by the first fill and
+ * kept up to date as lines are drawn, see {@link #linesDrawn}: the runs under a new line are split
+ * at once and their regions, which may have been cut in several, are relabelled by the next fill
+ * which reaches them. When lines may have been removed, see {@link #invalidate()}, the index is
+ * rebuilt by the next fill.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class RegionIndexFillEngine implements FillEngine {
+
+    /**
+     * Height of the indexed canvas, 0 when there is no index.
+     */
+    private int height;
+    private int width;
+
+    /**
+     * Runs of every row, sorted: first and last column and region, and number of runs.
+     */
+    private int[][] starts;
+    private int[][] ends;
+    private int[][] regions;
+    private int[] runCounts;
+
+    /**
+     * Every region's runs, as (row, first column, last column) triples, and number of ints used.
+     */
+    private int[][] regionRuns;
+    private int[] regionLengths;
+    private int[] tops;
+    private int[] lefts;
+    private int[] bottoms;
+    private int[] rights;
+    private long[] cells;
+    /**
+     * Regions which lost cells to a line since they were labelled, and may be split.
+     */
+    private boolean[] dirty;
+    private int regionCount;
+
+    /**
+     * Rebuilds of the whole index, for tests and reports.
+     */
+    private long rebuilds;
+
+    @Override
+    public void fill(CanvasStorage canvas, int x, int y, char color, FillResult result) {
+        if (height != canvas.getHeight() || width != canvas.getWidth()) {
+            rebuild(canvas);
+        }
+        int run = runAt(y, x);
+        int region = regions[y][run];
+        if (dirty[region]) {
+            relabel(region);
+            region = regions[y][run];
+        }
+
+        var runs = regionRuns[region];
+        for (int i = 0; i < regionLengths[region]; i += 3) {
+            canvas.fillRow(runs[i], runs[i + 1], runs[i + 2] + 1, color);
+        }
+        result.set(tops[region], lefts[region], bottoms[region], rights[region], cells[region], 0);
+    }
+
+    @Override
+    public void linesDrawn(int row, int fromCol, int toCol) {
+        if (height == 0 || row < 1 || row > height - 2) {
+            return;
+        }
+        fromCol = Math.max(fromCol, 1);
+        toCol = Math.min(toCol, width - 2);
+        int count = runCounts[row];
+        var rowStarts = starts[row];
+        var rowEnds = ends[row];
+        var rowRegions = regions[row];
+
+        // Runs overlapping the line, from first to last - 1.
+        int first = 0;
+        while (first < count && rowEnds[first] < fromCol) {
+            first++;
+        }
+        int last = first;
+        while (last < count && rowStarts[last] <= toCol) {
+            dirty[rowRegions[last]] = true;
+            last++;
+        }
+        if (first == last) {
+            return;
+        }
+
+        // The overlapped runs keep their part left of the line on the first one and right of it on the last one.
+        boolean leftPart = rowStarts[first] < fromCol;
+        boolean rightPart = rowEnds[last - 1] > toCol;
+        int pieces = (leftPart ? 1 : 0) + (rightPart ? 1 : 0);
+        int newCount = count - (last - first) + pieces;
+        ensureRowCapacity(row, newCount);
+        rowStarts = starts[row];
+        rowEnds = ends[row];
+        rowRegions = regions[row];
+
+        int leftStart = rowStarts[first];
+        int leftRegion = rowRegions[first];
+        int rightEnd = rowEnds[last - 1];
+        int rightRegion = rowRegions[last - 1];
+        System.arraycopy(rowStarts, last, rowStarts, first + pieces, count - last);
+        System.arraycopy(rowEnds, last, rowEnds, first + pieces, count - last);
+        System.arraycopy(rowRegions, last, rowRegions, first + pieces, count - last);
+        int at = first;
+        if (leftPart) {
+            rowStarts[at] = leftStart;
+            rowEnds[at] = fromCol - 1;
+            rowRegions[at] = leftRegion;
+            at++;
+        }
+        if (rightPart) {
+            rowStarts[at] = toCol + 1;
+            rowEnds[at] = rightEnd;
+            rowRegions[at] = rightRegion;
+        }
+        runCounts[row] = newCount;
+    }
+
+    @Override
+    public void invalidate() {
+        height = 0;
+        width = 0;
+        starts = null;
+        ends = null;
+        regions = null;
+        runCounts = null;
+        regionRuns = null;
+        regionLengths = null;
+        tops = null;
+        lefts = null;
+        bottoms = null;
+        rights = null;
+        cells = null;
+        dirty = null;
+        regionCount = 0;
+    }
+
+    @Override
+    public long memoryUsage() {
+        if (height == 0) {
+            return 0;
+        }
+        long usage = 16 + 4L * runCounts.length;
+        for (int row = 0; row < height; row++) {
+            usage += 3 * (16 + 4L * starts[row].length) + 3 * 16;
+        }
+        for (int region = 0; region < regionCount; region++) {
+            usage += 16 + 4L * regionRuns[region].length;
+        }
+        // Per-region arrays.
+        usage += (long) regionLengths.length * (4 + 4 * 4 + 8 + 1 + 8);
+        return usage;
+    }
+
+    /**
+     * @return number of times the whole index was built.
+     */
+    public long getRebuilds() {
+        return rebuilds;
+    }
+
+    /**
+     * @return number of regions, including emptied ones.
+     */
+    int getRegionCount() {
+        return regionCount;
+    }
+
+    /**
+     * Index every row of the canvas, joining overlapping runs of adjacent rows with a union-find.
+     */
+    private void rebuild(CanvasStorage canvas) {
+        invalidate();
+        rebuilds++;
+        height = canvas.getHeight();
+        width = canvas.getWidth();
+        starts = new int[height][];
+        ends = new int[height][];
+        regions = new int[height][];
+        runCounts = new int[height];
+
+        // Union-find over the global index of the runs, in row order.
+        var parent = new int[64];
+        var rowOffsets = new int[height + 1];
+        int total = 0;
+        var cellsOfRow = new char[width];
+        for (int row = 0; row < height; row++) {
+            rowOffsets[row] = total;
+            starts[row] = new int[4];
+            ends[row] = new int[4];
+            regions[row] = new int[4];
+            if (row > 0 && row < height - 1) {
+                canvas.readRow(row, cellsOfRow);
+                int col = 1;
+                while (col <= width - 2) {
+                    if (cellsOfRow[col] == CHAR_X) {
+                        col++;
+                        continue;
+                    }
+                    int start = col;
+                    do {
+                        col++;
+                    } while (col <= width - 2 && cellsOfRow[col] != CHAR_X);
+                    int run = runCounts[row];
+                    ensureRowCapacity(row, run + 1);
+                    starts[row][run] = start;
+                    ends[row][run] = col - 1;
+                    runCounts[row]++;
+                    if (total == parent.length) {
+                        parent = Arrays.copyOf(parent, total * 2);
+                    }
+                    parent[total] = total;
+                    total++;
+                }
+                if (row > 1) {
+                    joinRows(row - 1, rowOffsets[row - 1], row, rowOffsets[row], parent);
+                }
+            }
+        }
+
+        // Compact region ids, in order of their first run.
+        var regionOfRoot = new int[total];
+        Arrays.fill(regionOfRoot, -1);
+        initRegions(Math.max(16, total / 4));
+        for (int row = 0; row < height; row++) {
+            for (int i = 0; i < runCounts[row]; i++) {
+                int root = find(parent, rowOffsets[row] + i);
+                if (regionOfRoot[root] < 0) {
+                    regionOfRoot[root] = newRegion();
+                }
+                regions[row][i] = regionOfRoot[root];
+                addRun(regionOfRoot[root], row, starts[row][i], ends[row][i]);
+            }
+        }
+    }
+
+    /**
+     * Split a region which lost cells to lines into its connected parts. The first part keeps the region,
+     * the others get new ones.
+     */
+    private void relabel(int region) {
+        // Runs of the region, in row order: their row, their index in the row and the start of every row.
+        int top = tops[region];
+        int bottom = bottoms[region];
+        int count = 0;
+        for (int row = top; row <= bottom; row++) {
+            for (int i = 0; i < runCounts[row]; i++) {
+                if (regions[row][i] == region) {
+                    count++;
+                }
+            }
+        }
+        var runRows = new int[count];
+        var runIndexes = new int[count];
+        var parent = new int[count];
+        int k = 0;
+        int previousRow = -1;
+        int previousStart = 0;
+        for (int row = top; row <= bottom; row++) {
+            int rowStart = k;
+            for (int i = 0; i < runCounts[row]; i++) {
+                if (regions[row][i] == region) {
+                    runRows[k] = row;
+                    runIndexes[k] = i;
+                    parent[k] = k;
+                    k++;
+                }
+            }
+            if (rowStart == k) {
+                continue;
+            }
+            if (previousRow == row - 1) {
+                joinRegionRows(runRows, runIndexes, previousStart, rowStart, k, parent);
+            }
+            previousRow = row;
+            previousStart = rowStart;
+        }
+
+        regionLengths[region] = 0;
+        cells[region] = 0;
+        tops[region] = Integer.MAX_VALUE;
+        lefts[region] = Integer.MAX_VALUE;
+        bottoms[region] = -1;
+        rights[region] = -1;
+        dirty[region] = false;
+        var regionOfRoot = new int[count];
+        Arrays.fill(regionOfRoot, -1);
+        for (int i = 0; i < count; i++) {
+            // The first run is the root of its part, as roots are the lowest index.
+            int root = find(parent, i);
+            if (regionOfRoot[root] < 0) {
+                regionOfRoot[root] = root == 0 ? region : newRegion();
+            }
+            int row = runRows[i];
+            int run = runIndexes[i];
+            regions[row][run] = regionOfRoot[root];
+            addRun(regionOfRoot[root], row, starts[row][run], ends[row][run]);
+        }
+    }
+
+    /**
+     * Join the overlapping runs of two adjacent rows of the index.
+     */
+    private void joinRows(int upperRow, int upperOffset, int lowerRow, int lowerOffset, int[] parent) {
+        int i = 0;
+        int j = 0;
+        while (i < runCounts[upperRow] && j < runCounts[lowerRow]) {
+            if (starts[upperRow][i] <= ends[lowerRow][j] && starts[lowerRow][j] <= ends[upperRow][i]) {
+                union(parent, upperOffset + i, lowerOffset + j);
+            }
+            if (ends[upperRow][i] < ends[lowerRow][j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+    }
+
+    /**
+     * Join the overlapping runs of a region on two adjacent rows, listed from upperStart to lowerStart
+     * and from lowerStart to lowerEnd.
+     */
+    private void joinRegionRows(int[] runRows, int[] runIndexes, int upperStart, int lowerStart, int lowerEnd,
+                                int[] parent) {
+        int upperRow = runRows[upperStart];
+        int lowerRow = runRows[lowerStart];
+        int i = upperStart;
+        int j = lowerStart;
+        while (i < lowerStart && j < lowerEnd) {
+            int upper = runIndexes[i];
+            int lower = runIndexes[j];
+            if (starts[upperRow][upper] <= ends[lowerRow][lower] && starts[lowerRow][lower] <= ends[upperRow][upper]) {
+                union(parent, i, j);
+            }
+            if (ends[upperRow][upper] < ends[lowerRow][lower]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+    }
+
+    /**
+     * @return index of the run of a row holding a column, found by binary search.
+     */
+    private int runAt(int row, int col) {
+        int low = 0;
+        int high = runCounts[row] - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[row][middle] < col) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void initRegions(int capacity) {
+        regionRuns = new int[capacity][];
+        regionLengths = new int[capacity];
+        tops = new int[capacity];
+        lefts = new int[capacity];
+        bottoms = new int[capacity];
+        rights = new int[capacity];
+        cells = new long[capacity];
+        dirty = new boolean[capacity];
+        regionCount = 0;
+    }
+
+    private int newRegion() {
+        if (regionCount == regionLengths.length) {
+            int capacity = regionCount * 2;
+            regionRuns = Arrays.copyOf(regionRuns, capacity);
+            regionLengths = Arrays.copyOf(regionLengths, capacity);
+            tops = Arrays.copyOf(tops, capacity);
+            lefts = Arrays.copyOf(lefts, capacity);
+            bottoms = Arrays.copyOf(bottoms, capacity);
+            rights = Arrays.copyOf(rights, capacity);
+            cells = Arrays.copyOf(cells, capacity);
+            dirty = Arrays.copyOf(dirty, capacity);
+        }
+        int region = regionCount++;
+        regionRuns[region] = new int[6];
+        tops[region] = Integer.MAX_VALUE;
+        lefts[region] = Integer.MAX_VALUE;
+        bottoms[region] = -1;
+        rights[region] = -1;
+        return region;
+    }
+
+    private void addRun(int region, int row, int start, int end) {
+        int length = regionLengths[region];
+        if (length + 3 > regionRuns[region].length) {
+            regionRuns[region] = Arrays.copyOf(regionRuns[region], regionRuns[region].length * 2);
+        }
+        regionRuns[region][length] = row;
+        regionRuns[region][length + 1] = start;
+        regionRuns[region][length + 2] = end;
+        regionLengths[region] = length + 3;
+        tops[region] = Math.min(tops[region], row);
+        bottoms[region] = Math.max(bottoms[region], row);
+        lefts[region] = Math.min(lefts[region], start);
+        rights[region] = Math.max(rights[region], end);
+        cells[region] += end - start + 1;
+    }
+
+    private void ensureRowCapacity(int row, int capacity) {
+        if (capacity > starts[row].length) {
+            int newCapacity = Math.max(capacity, starts[row].length * 2);
+            starts[row] = Arrays.copyOf(starts[row], newCapacity);
+            ends[row] = Arrays.copyOf(ends[row], newCapacity);
+            regions[row] = Arrays.copyOf(regions[row], newCapacity);
+        }
+    }
+
+    private static int find(int[] parent, int run) {
+        while (parent[run] != run) {
+            parent[run] = parent[parent[run]];
+            run = parent[run];
+        }
+        return run;
+    }
+
+    private static void union(int[] parent, int first, int second) {
+        int firstRoot = find(parent, first);
+        int secondRoot = find(parent, second);
+        if (firstRoot != secondRoot) {
+            parent[Math.max(firstRoot, secondRoot)] = Math.min(firstRoot, secondRoot);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.drawingApp.drawing.app.fill;
+
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Fill canvas span by span (scanline seed fill). The frontier is a primitive stack holding one seed
+ * per horizontal run still to fill, so no per-cell objects and no visited matrix are allocated.
+ * The frontier takes at most its memory budget, the seeds beyond it wait in a temporary file.
+ * <p>
+ * A fill crosses every cell which is not a line, whatever its current color. To know which cells
+ * are already done, the region is first filled with {@link #MARKER} and then recolored with the
+ * requested color, which gives exactly the same result as {@link BreadthFirstFillEngine}.
+ * <p>
+ * Instances reuse their frontier between fills and are not thread safe.
+ */
+public class ScanlineFillEngine implements FillEngine {
+
+    /**
+     * Transient color of cells already reached by the first pass. It is not a valid color of
+     * the command grammar, so it never appears on a canvas.
+     */
+    public static final char MARKER = '\u007F';
+    /**
+     * Default memory budget of the frontier, in bytes.
+     */
+    public static final long DEFAULT_FRONTIER_BUDGET = 16L << 20;
+
+    private final IntStack stack;
+    /**
+     * Outcome of the last pass: bounds of the cells written, their count and the largest number of seeds held.
+     */
+    private int passTop;
+    private int passLeft;
+    private int passBottom;
+    private int passRight;
+    private long passCells;
+    private long passPeak;
+
+    /**
+     * Creates new instance of {@link ScanlineFillEngine}, with the default frontier budget.
+     */
+    public ScanlineFillEngine() {
+        this(DEFAULT_FRONTIER_BUDGET);
+    }
+
+    /**
+     * Creates new instance of {@link ScanlineFillEngine}
+     *
+     * @param frontierBudget Maximum number of bytes of the frontier in memory, beyond which seeds are
+     *                       written to a temporary file.
+     */
+    public ScanlineFillEngine(long frontierBudget) {
+        this(new IntStack(frontierBudget));
+    }
+
+    ScanlineFillEngine(IntStack stack) {
+        this.stack = stack;
+    }
+
+    /**
+     * @throws UncheckedIOException if the frontier has to spill to disk and the file cannot be used. The fill
+     *                              stops half way, leaving cells of the region with {@link #MARKER}.
+     */
+    @Override
+    public void fill(CanvasStorage canvas, int x, int y, char color, FillResult result) {
+        fillAtMost(canvas, x, y, color, Long.MAX_VALUE, result);
+    }
+
+    /**
+     * Fill like {@link #fill}, unless the region turns out larger than a number of cells: the fill then
+     * stops once it reached more, leaving the cells reached with {@link #MARKER}, for another engine to
+     * fill the region.
+     *
+     * @param maxCells Largest number of cells to fill.
+     * @param result   Set to the cells written by the fill, unless it stopped.
+     * @return FALSE if the fill stopped.
+     * @throws UncheckedIOException if the frontier has to spill to disk and the file cannot be used.
+     */
+    boolean fillAtMost(CanvasStorage canvas, int x, int y, char color, long maxCells, FillResult result) {
+        long peakFrontier;
+        try {
+            if (!spanFill(canvas, x, y, true, MARKER, maxCells)) {
+                return false;
+            }
+            peakFrontier = passPeak;
+            if (color != MARKER) {
+                spanFill(canvas, x, y, false, color, Long.MAX_VALUE);
+                peakFrontier = Math.max(peakFrontier, passPeak);
+            }
+        } catch (UncheckedIOException e) {
+            // Drops the seeds left and deletes the file.
+            stack.clear();
+            throw e;
+        }
+        result.set(passTop, passLeft, passBottom, passRight, passCells, peakFrontier);
+        return true;
+    }
+
+    /**
+     * Fill the run of cells connected to (x, y) which match the pass, see {@link #passCells} and the other outcomes.
+     *
+     * @param canvas      Canvas to draw upon.
+     * @param x           Starts from coordinate x.
+     * @param y           Starts from coordinate y.
+     * @param marking     TRUE for the marking pass, FALSE for the recoloring pass.
+     * @param replacement character written on every matching cell.
+     * @param maxCells    Number of cells from which the pass stops.
+     * @return FALSE if the pass stopped, having filled more cells than maxCells.
+     */
+    private boolean spanFill(CanvasStorage canvas, int x, int y, boolean marking, char replacement, long maxCells) {
+        int lastRow = canvas.getHeight() - 2;
+        int lastCol = canvas.getWidth() - 2;
+        int top = y;
+        int bottom = y;
+        int minCol = x;
+        int maxCol = x;
+        long cells = 0;
+
+        stack.clear();
+        stack.push(x, y);
+        while (!stack.isEmpty()) {
+            stack.pop();
+            int col = stack.first();
+            int row = stack.second();
+            if (!matches(canvas.get(row, col), marking)) {
+                // Already filled through another seed of the same run.
+                continue;
+            }
+
+            int left = runStart(canvas, row, 1, col, marking) + 1;
+            int right = runEnd(canvas, row, col + 1, lastCol + 1, marking) - 1;
+            canvas.fillRow(row, left, right + 1, replacement);
+            cells += right - left + 1;
+            if (cells > maxCells) {
+                stack.clear();
+                return false;
+            }
+            top = Math.min(top, row);
+            bottom = Math.max(bottom, row);
+            minCol = Math.min(minCol, left);
+            maxCol = Math.max(maxCol, right);
+
+            if (row > 1) {
+                pushSeeds(canvas, row - 1, left, right, marking);
+            }
+            if (row < lastRow) {
+                pushSeeds(canvas, row + 1, left, right, marking);
+            }
+        }
+        passTop = top;
+        passLeft = minCol;
+        passBottom = bottom;
+        passRight = maxCol;
+        passCells = cells;
+        passPeak = stack.getPeak();
+        // Deletes the file if the pass spilled.
+        stack.clear();
+        return true;
+    }
+
+    /**
+     * Push one seed for every run of matching cells of the given row between left and right.
+     */
+    private void pushSeeds(CanvasStorage canvas, int row, int left, int right, boolean marking) {
+        int col = left;
+        while (col <= right) {
+            if (matches(canvas.get(row, col), marking)) {
+                stack.push(col, row);
+                col = runEnd(canvas, row, col + 1, right + 1, marking);
+            }
+            col++;
+        }
+    }
+
+    /**
+     * Scan the row many cells at a time, see {@link CanvasStorage#indexOfEither}.
+     *
+     * @return first column between fromCol and toCol, exclusive, whose cell does not match the pass, or toCol.
+     */
+    private static int runEnd(CanvasStorage canvas, int row, int fromCol, int toCol, boolean marking) {
+        return marking ? canvas.indexOfEither(row, fromCol, toCol, CHAR_X, MARKER) : canvas.mismatch(row, fromCol, toCol, MARKER);
+    }
+
+    /**
+     * Scan the row backwards many cells at a time.
+     *
+     * @return last column between fromCol and toCol, exclusive, whose cell does not match the pass, or fromCol - 1.
+     */
+    private static int runStart(CanvasStorage canvas, int row, int fromCol, int toCol, boolean marking) {
+        return marking ? canvas.lastIndexOfEither(row, fromCol, toCol, CHAR_X, MARKER) : canvas.lastMismatch(row, fromCol, toCol, MARKER);
+    }
+
+    /**
+     * @return TRUE if the cell still has to be written by the current pass.
+     */
+    private static boolean matches(char cell, boolean marking) {
+        return marking ? cell != CHAR_X && cell != MARKER : cell == MARKER;
+    }
+}
@@ -0,0 +1,174 @@
+package com.drawingApp.drawing.app.history;
+
+import com.drawingApp.drawing.app.render.DirtyRegion;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Undo and redo history of the drawing commands. Every command records only the cells it overwrote,
+ * run-length encoded, so undoing it costs as much as the change and not as the canvas. When the
+ * history exceeds its memory budget, the oldest commands can no longer be undone.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class CanvasHistory {
+
+    /**
+     * Default memory budget, in bytes.
+     */
+    public static final long DEFAULT_BUDGET = 64L << 20;
+
+    private final long budget;
+    /**
+     * Commands to undo, most recent first.
+     */
+    private final Deque<Delta> undoable = new ArrayDeque<>();
+    /**
+     * Commands to redo, most recently undone first.
+     */
+    private final Deque<Delta> redoable = new ArrayDeque<>();
+    private final RecordingCanvasStorage recorder = new RecordingCanvasStorage();
+    private boolean recording;
+    private long memoryUsage;
+
+    /**
+     * Creates new instance of {@link CanvasHistory}
+     *
+     * @param budget Maximum number of bytes held by the history, 0 to disable it.
+     */
+    public CanvasHistory(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Start recording a command.
+     *
+     * @param canvas Canvas the command draws upon.
+     * @return canvas to draw upon, recording the overwritten cells. Call {@link #commit()} once drawn.
+     */
+    public CanvasStorage record(CanvasStorage canvas) {
+        if (budget <= 0) {
+            return canvas;
+        }
+        recorder.start(canvas);
+        recording = true;
+        return recorder;
+    }
+
+    /**
+     * Add the command recorded since {@link #record(CanvasStorage)} to the history. Commands undone
+     * so far can no longer be redone.
+     */
+    public void commit() {
+        if (!recording) {
+            return;
+        }
+        recording = false;
+        clear(redoable);
+        push(undoable, recorder.finish());
+        evict();
+    }
+
+    /**
+     * Restore the cells overwritten since {@link #record(CanvasStorage)}, without adding the command to the
+     * history, e.g. because it failed half way.
+     *
+     * @param canvas Canvas the command drew upon.
+     * @return FALSE if nothing was recorded, because the history is disabled.
+     */
+    public boolean rollback(CanvasStorage canvas) {
+        if (!recording) {
+            return false;
+        }
+        recording = false;
+        recorder.finish().apply(canvas);
+        return true;
+    }
+
+    /**
+     * Undo the most recent command.
+     *
+     * @param canvas      Canvas to undo upon.
+     * @param dirtyRegion Region to add the restored cells to.
+     * @return FALSE if there is nothing to undo.
+     */
+    public boolean undo(CanvasStorage canvas, DirtyRegion dirtyRegion) {
+        return move(undoable, redoable, canvas, dirtyRegion);
+    }
+
+    /**
+     * Redo the most recently undone command.
+     *
+     * @param canvas      Canvas to redo upon.
+     * @param dirtyRegion Region to add the restored cells to.
+     * @return FALSE if there is nothing to redo.
+     */
+    public boolean redo(CanvasStorage canvas, DirtyRegion dirtyRegion) {
+        return move(redoable, undoable, canvas, dirtyRegion);
+    }
+
+    /**
+     * Forget every command, e.g. because the canvas was replaced.
+     */
+    public void clear() {
+        clear(undoable);
+        clear(redoable);
+    }
+
+    public int getUndoCount() {
+        return undoable.size();
+    }
+
+    public int getRedoCount() {
+        return redoable.size();
+    }
+
+    /**
+     * @return estimated number of bytes held by the history.
+     */
+    public long memoryUsage() {
+        return memoryUsage;
+    }
+
+    private boolean move(Deque<Delta> from, Deque<Delta> to, CanvasStorage canvas, DirtyRegion dirtyRegion) {
+        var delta = from.poll();
+        if (delta == null) {
+            return false;
+        }
+        memoryUsage -= delta.memoryUsage();
+        var inverse = delta.apply(canvas);
+        var bounds = delta.getBounds();
+        if (!bounds.isEmpty()) {
+            dirtyRegion.add(bounds.getTop(), bounds.getLeft(), bounds.getBottom(), bounds.getRight());
+        }
+        push(to, inverse);
+        evict();
+        return true;
+    }
+
+    private void push(Deque<Delta> deltas, Delta delta) {
+        deltas.push(delta);
+        memoryUsage += delta.memoryUsage();
+    }
+
+    /**
+     * Drop the oldest commands until the history fits its budget.
+     */
+    private void evict() {
+        while (memoryUsage > budget && !undoable.isEmpty()) {
+            memoryUsage -= undoable.removeLast().memoryUsage();
+        }
+        while (memoryUsage > budget && !redoable.isEmpty()) {
+            memoryUsage -= redoable.removeLast().memoryUsage();
+        }
+    }
+
+    private void clear(Deque<Delta> deltas) {
+        for (var delta : deltas) {
+            memoryUsage -= delta.memoryUsage();
+        }
+        deltas.clear();
+    }
+}
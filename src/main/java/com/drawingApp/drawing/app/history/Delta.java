@@ -0,0 +1,138 @@
+package com.drawingApp.drawing.app.history;
+
+import com.drawingApp.drawing.app.render.DirtyRegion;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+import java.util.Arrays;
+
+/**
+ * Cells overwritten by a command, run-length encoded. The cells are kept as segments of consecutive
+ * columns of a row, laid out in a single int array as: row, first column, number of runs, then
+ * (character, length) for every run.
+ */
+class Delta {
+
+    private int[] data = new int[16];
+    private int size;
+    private int segments;
+    /**
+     * Index of the header of the segment being appended to, -1 if there is none.
+     */
+    private int segmentStart = -1;
+    private int segmentRow;
+    private int segmentNextCol;
+    private final DirtyRegion bounds = new DirtyRegion();
+
+    /**
+     * Record the former value of consecutive cells of a row.
+     *
+     * @param row   Row of the cells.
+     * @param col   First column of the cells.
+     * @param value Former character of the cells.
+     * @param count Number of cells.
+     */
+    void append(int row, int col, char value, int count) {
+        if (segmentStart < 0 || row != segmentRow || col != segmentNextCol) {
+            ensureCapacity(3);
+            segmentStart = size;
+            segmentRow = row;
+            data[size++] = row;
+            data[size++] = col;
+            data[size++] = 0;
+            segments++;
+        } else if (data[size - 2] == value) {
+            data[size - 1] += count;
+            segmentNextCol = col + count;
+            bounds.add(row, col, row, col + count - 1);
+            return;
+        }
+        ensureCapacity(2);
+        data[size++] = value;
+        data[size++] = count;
+        data[segmentStart + 2]++;
+        segmentNextCol = col + count;
+        bounds.add(row, col, row, col + count - 1);
+    }
+
+    /**
+     * Record the cells of another delta after those of this one.
+     *
+     * @param other Delta of cells this one does not hold.
+     */
+    void appendAll(Delta other) {
+        for (int index = 0, segment = 0; segment < other.segments; segment++) {
+            int row = other.data[index];
+            int col = other.data[index + 1];
+            int runs = other.data[index + 2];
+            index += 3;
+            for (int run = 0; run < runs; run++, index += 2) {
+                int length = other.data[index + 1];
+                append(row, col, (char) other.data[index], length);
+                col += length;
+            }
+        }
+    }
+
+    /**
+     * Write the recorded characters back, last recorded first so that the oldest value of a cell
+     * written twice wins.
+     *
+     * @param canvas Canvas to write upon.
+     * @return the characters overwritten in turn, which {@link #apply(CanvasStorage)} back.
+     */
+    Delta apply(CanvasStorage canvas) {
+        var starts = new int[segments];
+        for (int i = 0, index = 0; i < segments; i++) {
+            starts[i] = index;
+            index += 3 + 2 * data[index + 2];
+        }
+
+        var inverse = new Delta();
+        for (int i = segments - 1; i >= 0; i--) {
+            int index = starts[i];
+            int row = data[index];
+            int col = data[index + 1];
+            int runs = data[index + 2];
+            index += 3;
+            for (int run = 0; run < runs; run++, index += 2) {
+                char value = (char) data[index];
+                int length = data[index + 1];
+                for (int c = col; c < col + length; c++) {
+                    inverse.append(row, c, canvas.get(row, c), 1);
+                }
+                canvas.fillRow(row, col, col + length, value);
+                col += length;
+            }
+        }
+        inverse.trim();
+        return inverse;
+    }
+
+    /**
+     * Release the unused capacity, once recording is over.
+     */
+    void trim() {
+        data = Arrays.copyOf(data, size);
+        segmentStart = -1;
+    }
+
+    /**
+     * @return rectangle around the recorded cells.
+     */
+    DirtyRegion getBounds() {
+        return bounds;
+    }
+
+    /**
+     * @return estimated number of bytes held by this delta.
+     */
+    long memoryUsage() {
+        return 64 + 4L * data.length;
+    }
+
+    private void ensureCapacity(int ints) {
+        if (size + ints > data.length) {
+            data = Arrays.copyOf(data, Math.max(size + ints, data.length * 2));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.drawingApp.drawing.app.history;
+
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Storage decorator recording into a {@link Delta} the former value of every cell a command overwrites.
+ * Cells keeping their value are not recorded, nor are cells holding {@link ScanlineFillEngine#MARKER}:
+ * the fill wrote it over a cell whose former value is already recorded.
+ * <p>
+ * Rows may be written from several threads at the same time when the canvas allows it, e.g. by the bands
+ * of a parallel fill: every other thread records into its own delta, merged into the delta of the thread
+ * which started recording once it is over. A cell is expected to be overwritten by a single thread
+ * during a command, so that the order of the merged deltas does not matter.
+ */
+class RecordingCanvasStorage implements CanvasStorage {
+
+    private CanvasStorage canvas;
+    private Delta delta;
+    /**
+     * Thread which started recording, writing into {@link #delta}.
+     */
+    private Thread owner;
+    /**
+     * Deltas of the other threads writing rows.
+     */
+    private final Map<Thread, Delta> threadDeltas = new ConcurrentHashMap<>();
+
+    /**
+     * Start recording the writes to a canvas.
+     *
+     * @param canvas Canvas to draw upon.
+     */
+    void start(CanvasStorage canvas) {
+        this.canvas = canvas;
+        this.delta = new Delta();
+        this.owner = Thread.currentThread();
+    }
+
+    /**
+     * Stop recording.
+     *
+     * @return cells overwritten since {@link #start(CanvasStorage)}.
+     */
+    Delta finish() {
+        var recorded = delta;
+        for (var threadDelta : threadDeltas.values()) {
+            recorded.appendAll(threadDelta);
+        }
+        threadDeltas.clear();
+        recorded.trim();
+        canvas = null;
+        delta = null;
+        owner = null;
+        return recorded;
+    }
+
+    @Override
+    public int getHeight() {
+        return canvas.getHeight();
+    }
+
+    @Override
+    public int getWidth() {
+        return canvas.getWidth();
+    }
+
+    @Override
+    public char get(int row, int col) {
+        return canvas.get(row, col);
+    }
+
+    @Override
+    public int mismatch(int row, int fromCol, int toCol, char value) {
+        return canvas.mismatch(row, fromCol, toCol, value);
+    }
+
+    @Override
+    public int lastMismatch(int row, int fromCol, int toCol, char value) {
+        return canvas.lastMismatch(row, fromCol, toCol, value);
+    }
+
+    @Override
+    public int indexOfEither(int row, int fromCol, int toCol, char first, char second) {
+        return canvas.indexOfEither(row, fromCol, toCol, first, second);
+    }
+
+    @Override
+    public int lastIndexOfEither(int row, int fromCol, int toCol, char first, char second) {
+        return canvas.lastIndexOfEither(row, fromCol, toCol, first, second);
+    }
+
+    @Override
+    public void set(int row, int col, char value) {
+        record(row, col, 1, canvas.get(row, col), value);
+        canvas.set(row, col, value);
+    }
+
+    @Override
+    public void fillRow(int row, int fromCol, int toCol, char value) {
+        int col = fromCol;
+        while (col < toCol) {
+            // Runs are found many cells at a time, see CanvasStorage#mismatch.
+            char former = canvas.get(row, col);
+            int end = canvas.mismatch(row, col + 1, toCol, former);
+            record(row, col, end - col, former, value);
+            col = end;
+        }
+        canvas.fillRow(row, fromCol, toCol, value);
+    }
+
+    @Override
+    public boolean isRowConcurrent() {
+        return canvas.isRowConcurrent();
+    }
+
+    @Override
+    public void readRow(int row, char[] destination) {
+        canvas.readRow(row, destination);
+    }
+
+    @Override
+    public int readRuns(int row, int[] starts, char[] values) {
+        return canvas.readRuns(row, starts, values);
+    }
+
+    @Override
+    public long memoryUsage() {
+        return canvas.memoryUsage();
+    }
+
+    @Override
+    public void compact() {
+        canvas.compact();
+    }
+
+    private void record(int row, int col, int count, char former, char value) {
+        if (former != value && former != ScanlineFillEngine.MARKER) {
+            var recording = Thread.currentThread() == owner
+                    ? delta
+                    : threadDeltas.computeIfAbsent(Thread.currentThread(), thread -> new Delta());
+            recording.append(row, col, former, count);
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.drawingApp.drawing.app.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only file of the commands accepted by the application, written before they are executed.
+ * <p>
+ * Every record holds the length of the command, its sequence number, the CRC32C of both and the command
+ * in UTF-8. Records are buffered and forced to disk in groups: as soon as {@code groupSize} commands
+ * are pending, and by a background thread every {@code groupDelayMillis} otherwise. A crash loses at most
+ * the pending group; a group size of 1 forces every command before it is executed. A record torn by a
+ * crash is dropped when the journal is opened again.
+ * <p>
+ * Once the journal cannot be written, e.g. as the disk is full, it fails every later append, so that no
+ * command is executed without its record. The record being appended is removed from the file, as its
+ * command is not executed; the pending records of the commands before it may be lost.
+ * <p>
+ * Instances are thread safe.
+ */
+public class CommandJournal implements Closeable {
+
+    /**
+     * Length, sequence number and checksum.
+     */
+    static final int RECORD_HEADER_BYTES = 16;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    private final FileChannel channel;
+    private final int groupSize;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+    private final CRC32C checksum = new CRC32C();
+    private final ScheduledExecutorService flusher;
+    private long lastSequence;
+    private int pending;
+    private long syncs;
+    /**
+     * Error which made the journal unusable, NULL while it is usable.
+     */
+    private IOException failure;
+
+    CommandJournal(FileChannel channel, long lastSequence, int groupSize, long groupDelayMillis) {
+        this.channel = channel;
+        this.lastSequence = lastSequence;
+        this.groupSize = groupSize;
+        if (groupSize > 1) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "journal-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::syncQuietly, groupDelayMillis, groupDelayMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Open a journal, creating it if needed. A torn record at the end is truncated.
+     *
+     * @param file             Journal file.
+     * @param groupSize        Number of commands forced to disk together, at least 1.
+     * @param groupDelayMillis Longest time a command waits to be forced to disk, when the group is not full.
+     * @return journal positioned after its last valid record.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static CommandJournal open(Path file, int groupSize, long groupDelayMillis) throws IOException {
+        if (groupSize < 1 || groupDelayMillis < 1) {
+            throw new IllegalArgumentException("Journal group size and delay must be greater than 0");
+        }
+        var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            var lastSequence = new long[1];
+            long end = scan(channel, (sequence, command) -> lastSequence[0] = sequence);
+            if (end < channel.size()) {
+                channel.truncate(end);
+                channel.force(false);
+            }
+            channel.position(end);
+            return new CommandJournal(channel, lastSequence[0], groupSize, groupDelayMillis);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Append a command. It is forced to disk with its group, see {@link #sync()}.
+     *
+     * @param command Command, as entered by the user.
+     * @return sequence number of the command.
+     * @throws IOException if the journal cannot be written, now or before. The command is then not journaled.
+     */
+    public synchronized long append(String command) throws IOException {
+        if (failure != null) {
+            throw new IOException("Journal unusable after an earlier error: " + failure.getMessage(), failure);
+        }
+        var bytes = command.getBytes(StandardCharsets.UTF_8);
+        long sequence = lastSequence + 1;
+        header.clear();
+        header.putInt(bytes.length).putLong(sequence);
+        checksum.reset();
+        checksum.update(header.array(), 4, 8);
+        checksum.update(bytes);
+        header.putInt((int) checksum.getValue()).flip();
+
+        long recordStart = channel.position() + buffer.position();
+        try {
+            if (buffer.remaining() < RECORD_HEADER_BYTES + bytes.length) {
+                writeBuffer();
+            }
+            if (buffer.remaining() < RECORD_HEADER_BYTES + bytes.length) {
+                // Longer than the buffer: write it on its own.
+                writeFully(header);
+                writeFully(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(header).put(bytes);
+            }
+            if (++pending >= groupSize) {
+                force();
+            }
+        } catch (IOException e) {
+            throw fail(e, recordStart);
+        }
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Force the pending commands to disk.
+     *
+     * @throws IOException if the journal cannot be written.
+     */
+    public synchronized void sync() throws IOException {
+        if (pending == 0) {
+            return;
+        }
+        try {
+            force();
+        } catch (IOException e) {
+            throw fail(e, -1);
+        }
+    }
+
+    /**
+     * Read the records of the journal forced to disk so far.
+     *
+     * @param consumer Receives every record, in order.
+     * @throws IOException if the journal cannot be read.
+     */
+    public synchronized void replay(RecordConsumer consumer) throws IOException {
+        sync();
+        scan(channel, consumer);
+    }
+
+    /**
+     * Drop every record, once a checkpoint holds their effect. The sequence numbers go on.
+     *
+     * @throws IOException if the journal cannot be truncated.
+     */
+    public synchronized void truncate() throws IOException {
+        buffer.clear();
+        pending = 0;
+        channel.truncate(0);
+        channel.force(false);
+        channel.position(0);
+    }
+
+    /**
+     * Make the next command's sequence number follow a sequence number, if it does not already.
+     *
+     * @param sequence Sequence number of a command, e.g. the last one of a checkpoint.
+     */
+    public synchronized void continueAfter(long sequence) {
+        lastSequence = Math.max(lastSequence, sequence);
+    }
+
+    /**
+     * @return sequence number of the last command appended, 0 if none.
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return number of times pending commands were forced to disk.
+     */
+    public synchronized long getSyncs() {
+        return syncs;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        synchronized (this) {
+            try {
+                sync();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            // The journal failed, the next append reports the error.
+        }
+    }
+
+    private void force() throws IOException {
+        writeBuffer();
+        channel.force(false);
+        pending = 0;
+        syncs++;
+    }
+
+    /**
+     * Make the journal unusable after an error. The buffer is dropped, as it is unknown which of its bytes
+     * reached the file, and the record being appended is truncated from the file.
+     *
+     * @param e           Error writing the journal.
+     * @param recordStart Position of the record being appended in the file, -1 if none.
+     * @return the error, to throw.
+     */
+    private IOException fail(IOException e, long recordStart) {
+        failure = e;
+        pending = 0;
+        buffer.clear();
+        if (recordStart >= 0) {
+            try {
+                if (channel.size() > recordStart) {
+                    channel.truncate(recordStart);
+                    channel.force(false);
+                }
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+        }
+        return e;
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    /**
+     * Read the valid records from the start of a channel.
+     *
+     * @return position after the last valid record.
+     */
+    private static long scan(FileChannel channel, RecordConsumer consumer) throws IOException {
+        var in = ByteBuffer.allocate(BUFFER_BYTES);
+        var crc = new CRC32C();
+        long size = channel.size();
+        long position = 0;
+        long previous = 0;
+        in.limit(0);
+        while (position + RECORD_HEADER_BYTES <= size) {
+            in = fill(channel, in, position, RECORD_HEADER_BYTES);
+            int length = in.getInt(in.position());
+            long sequence = in.getLong(in.position() + 4);
+            if (length < 0 || position + RECORD_HEADER_BYTES + length > size || sequence <= previous) {
+                break;
+            }
+            in = fill(channel, in, position, RECORD_HEADER_BYTES + length);
+            int start = in.position();
+            crc.reset();
+            crc.update(in.array(), start + 4, 8);
+            crc.update(in.array(), start + RECORD_HEADER_BYTES, length);
+            if ((int) crc.getValue() != in.getInt(start + 12)) {
+                break;
+            }
+            consumer.accept(sequence, new String(in.array(), start + RECORD_HEADER_BYTES, length, StandardCharsets.UTF_8));
+            in.position(start + RECORD_HEADER_BYTES + length);
+            previous = sequence;
+            position += RECORD_HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    /**
+     * Make sure that a buffer holds the bytes of the channel from a position on, growing it if needed.
+     * The position of the buffer matches the position in the channel.
+     *
+     * @return buffer holding at least that many bytes.
+     */
+    private static ByteBuffer fill(FileChannel channel, ByteBuffer in, long position, int bytes) throws IOException {
+        if (in.remaining() >= bytes) {
+            return in;
+        }
+        if (in.capacity() < bytes) {
+            in = ByteBuffer.allocate(bytes).put(in);
+        } else {
+            in.compact();
+        }
+        long next = position + in.position();
+        while (in.position() < bytes) {
+            int read = channel.read(in, next);
+            if (read < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+            next += read;
+        }
+        return in.flip();
+    }
+
+    /**
+     * Receives the records of a journal.
+     */
+    @FunctionalInterface
+    public interface RecordConsumer {
+
+        /**
+         * @param sequence Sequence number of the command.
+         * @param command  Command, as entered by the user.
+         * @throws IOException if the record cannot be processed.
+         */
+        void accept(long sequence, String command) throws IOException;
+    }
+}
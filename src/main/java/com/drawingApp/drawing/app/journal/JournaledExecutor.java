@@ -0,0 +1,217 @@
+package com.drawingApp.drawing.app.journal;
+
+import com.drawingApp.drawing.app.commands.Command;
+import com.drawingApp.drawing.app.commands.CommandFactory;
+import com.drawingApp.drawing.app.commands.Load;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.drawingApp.drawing.app.storage.CanvasSnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Execute commands after appending them to a {@link CommandJournal}, so that the canvas can be recovered
+ * after a crash.
+ * <p>
+ * Every {@code checkpointEvery} commands the canvas is saved as a checkpoint, a {@link CanvasSnapshot}
+ * named after the journal and the sequence number of the last command it holds, and the journal is
+ * truncated. Recovery loads the latest checkpoint and replays the commands which follow it. The undo
+ * history is cleared at every checkpoint, so that undo commands replayed after it give the same canvas.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class JournaledExecutor implements Closeable {
+
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+    private final CommandJournal journal;
+    private final Path journalFile;
+    private final InMemoryCanvas inMemoryCanvas;
+    private final InMemoryCanvasRepository repository;
+    private final long checkpointEvery;
+    private long sinceCheckpoint;
+    private long checkpoints;
+
+    /**
+     * Creates new instance of {@link JournaledExecutor}
+     *
+     * @param journal         See {@link CommandJournal}
+     * @param journalFile     File of the journal, checkpoints are written next to it.
+     * @param inMemoryCanvas  Canvas the commands are drawing upon.
+     * @param repository      Repository of the canvas.
+     * @param checkpointEvery Write a checkpoint every that many commands, 0 to never write one.
+     */
+    public JournaledExecutor(CommandJournal journal, Path journalFile, InMemoryCanvas inMemoryCanvas,
+                             InMemoryCanvasRepository repository, long checkpointEvery) {
+        this.journal = journal;
+        this.journalFile = journalFile;
+        this.inMemoryCanvas = inMemoryCanvas;
+        this.repository = repository;
+        this.checkpointEvery = checkpointEvery;
+    }
+
+    /**
+     * Restore the canvas from the latest checkpoint and the journal.
+     *
+     * @return report of the recovery.
+     * @throws IOException if the checkpoint or the journal cannot be read.
+     */
+    public RecoveryReport recover() throws IOException {
+        long start = System.nanoTime();
+        var checkpoint = latestCheckpoint();
+        long checkpointSequence = checkpoint == null ? 0 : sequenceOf(checkpoint);
+        if (checkpoint != null) {
+            try {
+                repository.loadCanvas(checkpoint);
+            } catch (InvalidInputException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+
+        var commandFactory = new CommandFactory(repository);
+        var replayed = new long[2];
+        journal.replay((sequence, command) -> {
+            if (sequence <= checkpointSequence) {
+                // Left by a crash between writing the checkpoint and truncating the journal.
+                return;
+            }
+            replayed[0]++;
+            try {
+                commandFactory.parse(command).execute();
+            } catch (InvalidInputException e) {
+                // The command failed the same way when it was first executed.
+                replayed[1]++;
+            }
+        });
+        journal.continueAfter(checkpointSequence);
+        sinceCheckpoint = replayed[0];
+        deleteCheckpointsBefore(checkpointSequence);
+        return new RecoveryReport(checkpointSequence, replayed[0], replayed[1], System.nanoTime() - start);
+    }
+
+    /**
+     * Append a command to the journal, then execute it.
+     *
+     * @param input   Command, as entered by the user.
+     * @param command Command parsed from the input.
+     * @throws InvalidInputException if the command fails, or is not executed as the journal cannot be written.
+     */
+    public void execute(String input, Command command) throws InvalidInputException {
+        try {
+            journal.append(input);
+        } catch (IOException e) {
+            throw new InvalidInputException("Command not executed, cannot write journal: " + e.getMessage());
+        }
+        InvalidInputException failure = null;
+        try {
+            command.execute();
+        } catch (InvalidInputException e) {
+            failure = e;
+        }
+
+        sinceCheckpoint++;
+        // A loaded file may change afterwards, so it must not be replayed.
+        if ((checkpointEvery > 0 && sinceCheckpoint >= checkpointEvery) || (failure == null && command instanceof Load)) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                throw new InvalidInputException("Command executed, cannot write checkpoint: " + e.getMessage());
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Save the canvas as a checkpoint, force a file-backed canvas to its file and truncate the journal.
+     * Nothing is done while there is no canvas.
+     *
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    public void checkpoint() throws IOException {
+        var storage = inMemoryCanvas.getStorage();
+        if (storage.isEmpty()) {
+            return;
+        }
+        long sequence = journal.getLastSequence();
+        var checkpoint = journalFile.resolveSibling(journalFile.getFileName() + "." + sequence + CHECKPOINT_SUFFIX);
+        var temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        CanvasSnapshot.write(storage, temporary);
+        Files.move(temporary, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // The rename must be on disk before the journal is truncated, or a crash would lose both.
+        try (var directory = FileChannel.open(directory(), StandardOpenOption.READ)) {
+            directory.force(true);
+        }
+        repository.flush();
+        journal.truncate();
+        repository.clearHistory();
+        sinceCheckpoint = 0;
+        checkpoints++;
+        deleteCheckpointsBefore(sequence);
+    }
+
+    /**
+     * @return number of checkpoints written since this instance was created.
+     */
+    public long getCheckpoints() {
+        return checkpoints;
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+
+    /**
+     * @return checkpoint holding the most commands, NULL if there is none.
+     */
+    private Path latestCheckpoint() throws IOException {
+        Path latest = null;
+        try (var files = Files.newDirectoryStream(directory(), journalFile.getFileName() + ".*" + CHECKPOINT_SUFFIX)) {
+            for (var file : files) {
+                if (sequenceOf(file) >= 0 && (latest == null || sequenceOf(file) > sequenceOf(latest))) {
+                    latest = file;
+                }
+            }
+        }
+        return latest;
+    }
+
+    private void deleteCheckpointsBefore(long sequence) throws IOException {
+        try (var files = Files.newDirectoryStream(directory(), journalFile.getFileName() + ".*" + CHECKPOINT_SUFFIX)) {
+            for (var file : files) {
+                long fileSequence = sequenceOf(file);
+                if (fileSequence >= 0 && fileSequence < sequence) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path directory() {
+        var parent = journalFile.toAbsolutePath().getParent();
+        return parent == null ? Path.of(".") : parent;
+    }
+
+    /**
+     * @return sequence number of the last command held by a checkpoint, -1 if its name holds none.
+     */
+    private long sequenceOf(Path checkpoint) {
+        var name = checkpoint.getFileName().toString();
+        var sequence = name.substring(journalFile.getFileName().toString().length() + 1,
+                name.length() - CHECKPOINT_SUFFIX.length());
+        try {
+            return Long.parseLong(sequence);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
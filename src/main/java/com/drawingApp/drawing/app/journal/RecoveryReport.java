@@ -0,0 +1,50 @@
+package com.drawingApp.drawing.app.journal;
+
+/**
+ * Outcome of a recovery from a checkpoint and a journal.
+ */
+public class RecoveryReport {
+
+    private final long checkpointSequence;
+    private final long replayed;
+    private final long errors;
+    private final long elapsedNanos;
+
+    public RecoveryReport(long checkpointSequence, long replayed, long errors, long elapsedNanos) {
+        this.checkpointSequence = checkpointSequence;
+        this.replayed = replayed;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return sequence number of the last command held by the checkpoint loaded, 0 if there was none.
+     */
+    public long getCheckpointSequence() {
+        return checkpointSequence;
+    }
+
+    /**
+     * @return number of commands of the journal replayed after the checkpoint.
+     */
+    public long getReplayed() {
+        return replayed;
+    }
+
+    /**
+     * @return number of replayed commands which failed, as they did when first executed.
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Recovered checkpoint of command %d and replayed %d commands in %d ms, %d errors",
+                checkpointSequence, replayed, elapsedNanos / 1_000_000, errors);
+    }
+}
@@ -0,0 +1,47 @@
+package com.drawingApp.drawing.app.kernels;
+
+/**
+ * Selects the {@link SpanKernels} of this runtime. Kernels on the Vector API are compiled by the
+ * {@code vector} build profile only, and run once the incubating module is added to the runtime
+ * ({@code java --add-modules jdk.incubator.vector}). They are looked up at runtime, so the same build
+ * runs everywhere with the portable kernels.
+ */
+public final class Kernels {
+
+    private static final String VECTOR_KERNELS = "com.drawingApp.drawing.app.kernels.VectorSpanKernels";
+    private static final SpanKernels PORTABLE = new PortableSpanKernels();
+    private static final SpanKernels VECTOR = loadVector();
+    private static final SpanKernels BEST = VECTOR != null ? VECTOR : PORTABLE;
+
+    private Kernels() {
+    }
+
+    /**
+     * @return kernels on the Vector API if available, the portable ones otherwise.
+     */
+    public static SpanKernels get() {
+        return BEST;
+    }
+
+    /**
+     * @return kernels in plain Java.
+     */
+    public static SpanKernels portable() {
+        return PORTABLE;
+    }
+
+    /**
+     * @return kernels on the Vector API, or NULL if they were not built or the module is not available.
+     */
+    public static SpanKernels vector() {
+        return VECTOR;
+    }
+
+    private static SpanKernels loadVector() {
+        try {
+            return (SpanKernels) Class.forName(VECTOR_KERNELS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.drawingApp.drawing.app.kernels;
+
+import java.util.Arrays;
+
+/**
+ * Span kernels in plain Java, for any JVM. Fills and scans for a single value go through
+ * {@link Arrays#fill} and {@link Arrays#mismatch}, which the JIT turns into vector instructions where
+ * the CPU has them, and otherwise compare a long, i.e. four cells, at a time (SWAR, SIMD within a
+ * register). Scans for a value compare the cells with a template row of {@value #TEMPLATE_CELLS} cells
+ * of that value, kept for every ASCII character.
+ * <p>
+ * Scans for either of two characters and encoding go cell by cell: the JIT unrolls these loops, which
+ * measured faster than folding blocks of cells by hand, see {@code SpanKernelBenchmark}.
+ */
+final class PortableSpanKernels implements SpanKernels {
+
+    private static final int TEMPLATE_CELLS = 64;
+    private static final char[][] TEMPLATES = new char[0x80][];
+
+    static {
+        for (int value = 0; value < TEMPLATES.length; value++) {
+            TEMPLATES[value] = new char[TEMPLATE_CELLS];
+            Arrays.fill(TEMPLATES[value], (char) value);
+        }
+    }
+
+    @Override
+    public void fill(char[] cells, int from, int to, char value) {
+        Arrays.fill(cells, from, to, value);
+    }
+
+    @Override
+    public int mismatch(char[] cells, int from, int to, char value) {
+        int i = from;
+        if (value < TEMPLATES.length) {
+            var template = TEMPLATES[value];
+            for (; i <= to - TEMPLATE_CELLS; i += TEMPLATE_CELLS) {
+                int index = Arrays.mismatch(cells, i, i + TEMPLATE_CELLS, template, 0, TEMPLATE_CELLS);
+                if (index >= 0) {
+                    return i + index;
+                }
+            }
+        }
+        for (; i < to; i++) {
+            if (cells[i] != value) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    @Override
+    public int lastMismatch(char[] cells, int from, int to, char value) {
+        int i = to;
+        if (value < TEMPLATES.length) {
+            var template = TEMPLATES[value];
+            for (; i - TEMPLATE_CELLS >= from; i -= TEMPLATE_CELLS) {
+                if (Arrays.mismatch(cells, i - TEMPLATE_CELLS, i, template, 0, TEMPLATE_CELLS) >= 0) {
+                    break;
+                }
+            }
+        }
+        for (i--; i >= from; i--) {
+            if (cells[i] != value) {
+                return i;
+            }
+        }
+        return from - 1;
+    }
+
+    @Override
+    public int indexOfEither(char[] cells, int from, int to, char first, char second) {
+        for (int i = from; i < to; i++) {
+            if (cells[i] == first || cells[i] == second) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    @Override
+    public int lastIndexOfEither(char[] cells, int from, int to, char first, char second) {
+        for (int i = to - 1; i >= from; i--) {
+            if (cells[i] == first || cells[i] == second) {
+                return i;
+            }
+        }
+        return from - 1;
+    }
+
+    @Override
+    public int toAscii(char[] cells, int from, int to, byte[] destination, int offset) {
+        int shift = offset - from;
+        int i = from;
+        for (; i < to; i++) {
+            char cell = cells[i];
+            if (cell >= 0x80) {
+                break;
+            }
+            destination[i + shift] = cell == 0 ? (byte) ' ' : (byte) cell;
+        }
+        return i - from;
+    }
+}
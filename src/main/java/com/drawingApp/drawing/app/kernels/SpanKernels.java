@@ -0,0 +1,74 @@
+package com.drawingApp.drawing.app.kernels;
+
+/**
+ * Kernels of the loops going through a span of cells of a row: writing it, scanning it for the cell
+ * which ends a fill, and encoding it for display. Implementations handle many cells per step, see
+ * {@link Kernels#get()} for the best one available.
+ * <p>
+ * Spans go from {@code from}, inclusive, to {@code to}, exclusive. Implementations are stateless and
+ * thread safe.
+ */
+public interface SpanKernels {
+
+    /**
+     * Write the same character on every cell of a span.
+     *
+     * @param cells Row to write.
+     * @param from  First cell of the span.
+     * @param to    End of the span.
+     * @param value character to write.
+     */
+    void fill(char[] cells, int from, int to, char value);
+
+    /**
+     * @param cells Row to scan.
+     * @param from  First cell of the span.
+     * @param to    End of the span.
+     * @param value character of the cells skipped.
+     * @return first cell of the span not holding {@code value}, or {@code to} if there is none.
+     */
+    int mismatch(char[] cells, int from, int to, char value);
+
+    /**
+     * @param cells Row to scan.
+     * @param from  First cell of the span.
+     * @param to    End of the span.
+     * @param value character of the cells skipped.
+     * @return last cell of the span not holding {@code value}, or {@code from - 1} if there is none.
+     */
+    int lastMismatch(char[] cells, int from, int to, char value);
+
+    /**
+     * @param cells  Row to scan.
+     * @param from   First cell of the span.
+     * @param to     End of the span.
+     * @param first  character looked for.
+     * @param second other character looked for.
+     * @return first cell of the span holding either character, or {@code to} if there is none.
+     */
+    int indexOfEither(char[] cells, int from, int to, char first, char second);
+
+    /**
+     * @param cells  Row to scan.
+     * @param from   First cell of the span.
+     * @param to     End of the span.
+     * @param first  character looked for.
+     * @param second other character looked for.
+     * @return last cell of the span holding either character, or {@code from - 1} if there is none.
+     */
+    int lastIndexOfEither(char[] cells, int from, int to, char first, char second);
+
+    /**
+     * Encode the cells of a span as ASCII bytes, blank cells as spaces, up to the first cell which is
+     * not ASCII.
+     *
+     * @param cells       Row to encode.
+     * @param from        First cell of the span.
+     * @param to          End of the span.
+     * @param destination Receives the bytes. The {@code to - from} bytes from {@code offset} may all be
+     *                    written, even past the cells encoded.
+     * @param offset      Position of the first byte.
+     * @return number of cells encoded, {@code to - from} if they are all ASCII.
+     */
+    int toAscii(char[] cells, int from, int to, byte[] destination, int offset);
+}
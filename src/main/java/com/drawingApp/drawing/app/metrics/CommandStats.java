@@ -0,0 +1,78 @@
+package com.drawingApp.drawing.app.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and latencies of the commands of a type. Recording allocates nothing and is thread safe.
+ */
+public class CommandStats implements CommandStatsMXBean {
+
+    private final Histogram latencies = new Histogram();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong cellsTouched = new AtomicLong();
+
+    /**
+     * Record a command executed successfully.
+     *
+     * @param nanos Time taken by the command.
+     * @param cells Number of cells the command wrote.
+     */
+    public void executed(long nanos, long cells) {
+        latencies.record(nanos);
+        cellsTouched.addAndGet(cells);
+    }
+
+    /**
+     * Record a command which failed. Its time is not part of the latencies.
+     */
+    public void failed() {
+        failed.incrementAndGet();
+    }
+
+    /**
+     * @return latencies of the commands executed successfully, in nanoseconds.
+     */
+    public Histogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public long getExecuted() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public long getCellsTouched() {
+        return cellsTouched.get();
+    }
+
+    @Override
+    public double getMeanNanos() {
+        return latencies.getMean();
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latencies.getP50();
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latencies.getP99();
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return latencies.getP999();
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latencies.getMax();
+    }
+}
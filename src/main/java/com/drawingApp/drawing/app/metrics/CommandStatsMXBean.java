@@ -0,0 +1,32 @@
+package com.drawingApp.drawing.app.metrics;
+
+/**
+ * Management interface of the {@link CommandStats} of a command type.
+ */
+public interface CommandStatsMXBean {
+
+    /**
+     * @return number of commands executed successfully.
+     */
+    long getExecuted();
+
+    /**
+     * @return number of commands which failed, as their input was not valid or they could not be executed.
+     */
+    long getFailed();
+
+    /**
+     * @return number of canvas cells written by the commands executed.
+     */
+    long getCellsTouched();
+
+    double getMeanNanos();
+
+    long getP50Nanos();
+
+    long getP99Nanos();
+
+    long getP999Nanos();
+
+    long getMaxNanos();
+}
@@ -0,0 +1,141 @@
+package com.drawingApp.drawing.app.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Distribution of non-negative values, such as latencies in nanoseconds, in log-linear buckets as in
+ * HdrHistogram: every power of two is split into {@value #SUB_BUCKETS} buckets of the same width, so a
+ * percentile is off by less than 1/{@value #SUB_BUCKETS} of its value, whatever its magnitude.
+ * <p>
+ * The buckets are counters allocated once, so recording a value allocates nothing and costs a few
+ * atomic operations. Values may be recorded by any number of threads and read by any other one; a read
+ * made while values are recorded may see some of their counters only.
+ */
+public class Histogram implements HistogramMXBean {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Values below {@link #SUB_BUCKETS} get a bucket each, then every power of two up to 2^62 gets
+     * {@link #SUB_BUCKETS} buckets.
+     */
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value.
+     *
+     * @param value Value to record, negative values are recorded as 0.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketOf(value));
+        total.addAndGet(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Counted from the buckets, so that recording increments one counter less.
+     */
+    @Override
+    public long getCount() {
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            recorded += counts.get(i);
+        }
+        return recorded;
+    }
+
+    /**
+     * @return sum of the values recorded.
+     */
+    public long getTotal() {
+        return total.get();
+    }
+
+    @Override
+    public double getMean() {
+        long recorded = getCount();
+        return recorded == 0 ? 0 : (double) total.get() / recorded;
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public long getP50() {
+        return getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getP90() {
+        return getValueAtPercentile(90);
+    }
+
+    @Override
+    public long getP99() {
+        return getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getP999() {
+        return getValueAtPercentile(99.9);
+    }
+
+    /**
+     * @param percentile Percentage of the values, between 0 and 100.
+     * @return value that percentage of the values recorded are at most, rounded up to the end of its
+     * bucket, 0 if there is none.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long recorded = getCount();
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(recorded * Math.min(percentile, 100) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * @return bucket of a non-negative value.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        // The top SUB_BUCKET_BITS + 1 bits of the value, the first one always set.
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * @return highest value of a bucket.
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >> SUB_BUCKET_BITS) - 1;
+        long top = (bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        // Wraps to Long.MAX_VALUE for the last bucket.
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,30 @@
+package com.drawingApp.drawing.app.metrics;
+
+/**
+ * Management interface of a {@link Histogram}.
+ */
+public interface HistogramMXBean {
+
+    /**
+     * @return number of values recorded.
+     */
+    long getCount();
+
+    /**
+     * @return average of the values recorded, 0 if there is none.
+     */
+    double getMean();
+
+    /**
+     * @return largest value recorded, 0 if there is none.
+     */
+    long getMax();
+
+    long getP50();
+
+    long getP90();
+
+    long getP99();
+
+    long getP999();
+}
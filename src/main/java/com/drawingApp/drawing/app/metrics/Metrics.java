@@ -0,0 +1,145 @@
+package com.drawingApp.drawing.app.metrics;
+
+import com.drawingApp.drawing.app.commands.CommandType;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.Closeable;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of the application: {@link CommandStats} of every command type, sizes of the regions filled
+ * and time taken to render the canvas. Recording allocates nothing and is thread safe, so several
+ * canvases may share the same metrics.
+ * <p>
+ * The metrics are read through JMX once {@link #register registered}, under the
+ * {@value #DOMAIN} domain, or as text, see {@link #dump} and {@link #dumpEvery}.
+ */
+public class Metrics implements Closeable {
+
+    public static final String DOMAIN = "com.drawingApp.drawing.app";
+
+    private static final CommandType[] COMMAND_TYPES = CommandType.values();
+
+    private final CommandStats[] commands = new CommandStats[COMMAND_TYPES.length];
+    private final Histogram fillRegions = new Histogram();
+    private final Histogram fillFrontiers = new Histogram();
+    private final Histogram renderTimes = new Histogram();
+    private ScheduledExecutorService dumpExecutor;
+
+    /**
+     * Creates new instance of {@link Metrics}
+     */
+    public Metrics() {
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = new CommandStats();
+        }
+    }
+
+    /**
+     * @param type Type of command.
+     * @return counters and latencies of the commands of that type.
+     */
+    public CommandStats getCommand(CommandType type) {
+        return commands[type.ordinal()];
+    }
+
+    /**
+     * @return number of cells written by every fill.
+     */
+    public Histogram getFillRegions() {
+        return fillRegions;
+    }
+
+    /**
+     * @return largest number of entries in the frontier of every fill.
+     */
+    public Histogram getFillFrontiers() {
+        return fillFrontiers;
+    }
+
+    /**
+     * @return time taken by every render, in nanoseconds.
+     */
+    public Histogram getRenderTimes() {
+        return renderTimes;
+    }
+
+    /**
+     * Register the metrics as MXBeans: {@code type=Command,name=<command type>} for every command type,
+     * {@code type=Histogram,name=FillRegions}, {@code type=Histogram,name=FillFrontiers} and
+     * {@code type=Histogram,name=RenderTimes}.
+     *
+     * @param server Server to register upon, usually the platform MBean server.
+     * @throws JMException if the metrics cannot be registered, e.g. as they already are.
+     */
+    public void register(MBeanServer server) throws JMException {
+        for (var type : COMMAND_TYPES) {
+            server.registerMBean(getCommand(type), new ObjectName(DOMAIN + ":type=Command,name=" + type));
+        }
+        server.registerMBean(fillRegions, new ObjectName(DOMAIN + ":type=Histogram,name=FillRegions"));
+        server.registerMBean(fillFrontiers, new ObjectName(DOMAIN + ":type=Histogram,name=FillFrontiers"));
+        server.registerMBean(renderTimes, new ObjectName(DOMAIN + ":type=Histogram,name=RenderTimes"));
+    }
+
+    /**
+     * Print the metrics as a table, times in microseconds. Command types never executed are left out.
+     *
+     * @param out Stream to print upon.
+     */
+    public void dump(PrintStream out) {
+        var table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%-12s %10s %8s %14s %10s %10s %10s %10s%n",
+                "command", "executed", "failed", "cells", "mean(us)", "p50(us)", "p99(us)", "max(us)"));
+        for (var type : COMMAND_TYPES) {
+            var stats = getCommand(type);
+            if (stats.getExecuted() == 0 && stats.getFailed() == 0) {
+                continue;
+            }
+            table.append(String.format(Locale.ROOT, "%-12s %10d %8d %14d %10.1f %10.1f %10.1f %10.1f%n",
+                    type, stats.getExecuted(), stats.getFailed(), stats.getCellsTouched(), stats.getMeanNanos() / 1e3,
+                    stats.getP50Nanos() / 1e3, stats.getP99Nanos() / 1e3, stats.getMaxNanos() / 1e3));
+        }
+        table.append(String.format(Locale.ROOT, "fills: %d, cells mean %.1f p50 %d p99 %d max %d, peak frontier p99 %d max %d%n",
+                fillRegions.getCount(), fillRegions.getMean(), fillRegions.getP50(), fillRegions.getP99(),
+                fillRegions.getMax(), fillFrontiers.getP99(), fillFrontiers.getMax()));
+        table.append(String.format(Locale.ROOT, "renders: %d, us mean %.1f p50 %.1f p99 %.1f max %.1f%n",
+                renderTimes.getCount(), renderTimes.getMean() / 1e3, renderTimes.getP50() / 1e3,
+                renderTimes.getP99() / 1e3, renderTimes.getMax() / 1e3));
+        out.print(table);
+        out.flush();
+    }
+
+    /**
+     * Print the metrics periodically from a background thread, until {@link #close closed}.
+     *
+     * @param out          Stream to print upon.
+     * @param periodMillis Time between two dumps.
+     */
+    public synchronized void dumpEvery(PrintStream out, long periodMillis) {
+        if (dumpExecutor == null) {
+            dumpExecutor = Executors.newSingleThreadScheduledExecutor(task -> {
+                var thread = new Thread(task, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        dumpExecutor.scheduleAtFixedRate(() -> dump(out), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the periodic dumps.
+     */
+    @Override
+    public synchronized void close() {
+        if (dumpExecutor != null) {
+            dumpExecutor.shutdownNow();
+            dumpExecutor = null;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.drawingApp.drawing.app.raster;
+
+import java.util.Arrays;
+
+/**
+ * Turns shapes into horizontal spans of cells, clipped to a rectangle, so that they are written with
+ * one bulk fill per span rather than one write per cell, and clipped once per span rather than once
+ * per cell. A span is sent once per row it covers for lines and circles; a polygon may send the same
+ * cells twice, as its edges are drawn over its interior.
+ * <p>
+ * Coordinates are columns (x) and rows (y), in any range: what lies outside the clip is dropped.
+ * <p>
+ * Instances keep their scratch arrays from one shape to the next, so that drawing allocates nothing once
+ * they are large enough, and are not thread safe.
+ */
+public class SpanRasterizer {
+
+    private final int top;
+    private final int left;
+    private final int bottom;
+    private final int right;
+    private final SpanSink sink;
+    private int[] half = new int[0];
+    private double[] crossings = new double[0];
+
+    /**
+     * Creates new instance of {@link SpanRasterizer}
+     *
+     * @param top    First row spans may cover.
+     * @param left   First column spans may cover.
+     * @param bottom Last row spans may cover.
+     * @param right  Last column spans may cover.
+     * @param sink   Receives the clipped spans.
+     */
+    public SpanRasterizer(int top, int left, int bottom, int right, SpanSink sink) {
+        this.top = top;
+        this.left = left;
+        this.bottom = bottom;
+        this.right = right;
+        this.sink = sink;
+    }
+
+    /**
+     * Rasterize a line at any angle with Bresenham's algorithm, one span per row: the cells it steps
+     * through along the row.
+     *
+     * @param x1 Column of the first end.
+     * @param y1 Row of the first end.
+     * @param x2 Column of the last end.
+     * @param y2 Row of the last end.
+     */
+    public void line(int x1, int y1, int x2, int y2) {
+        long dx = Math.abs((long) x2 - x1);
+        long dy = -Math.abs((long) y2 - y1);
+        int sx = x1 < x2 ? 1 : -1;
+        int sy = y1 < y2 ? 1 : -1;
+        long error = dx + dy;
+        int x = x1;
+        int y = y1;
+        int runStart = x1;
+        while (x != x2 || y != y2) {
+            long doubled = 2 * error;
+            int nextX = x;
+            int nextY = y;
+            if (doubled >= dy) {
+                error += dy;
+                nextX += sx;
+            }
+            if (doubled <= dx) {
+                error += dx;
+                nextY += sy;
+            }
+            if (nextY != y) {
+                span(y, Math.min(runStart, x), Math.max(runStart, x));
+                runStart = nextX;
+            }
+            x = nextX;
+            y = nextY;
+        }
+        span(y, Math.min(runStart, x), Math.max(runStart, x));
+    }
+
+    /**
+     * Rasterize the outline of a circle with the midpoint circle algorithm. Each row gets the cells of
+     * the disc which the row closer to the center does not cover: one span across the top and bottom
+     * rows, two spans elsewhere.
+     *
+     * @param cx     Column of the center.
+     * @param cy     Row of the center.
+     * @param radius Radius, 0 for the center cell only.
+     * @throws IllegalArgumentException if the radius is negative.
+     */
+    public void circle(int cx, int cy, int radius) {
+        if (radius < 0) {
+            throw new IllegalArgumentException("Radius must not be negative: " + radius);
+        }
+        // Largest column offset of the circle in every row offset, -1 beyond the radius.
+        if (half.length < radius + 2) {
+            half = new int[radius + 2];
+        }
+        Arrays.fill(half, 0, radius + 1, 0);
+        half[radius + 1] = -1;
+        int x = 0;
+        int y = radius;
+        long decision = 1 - (long) radius;
+        while (x <= y) {
+            half[y] = Math.max(half[y], x);
+            half[x] = Math.max(half[x], y);
+            x++;
+            if (decision < 0) {
+                decision += 2L * x + 1;
+            } else {
+                y--;
+                decision += 2L * (x - y) + 1;
+            }
+        }
+
+        for (int dy = 0; dy <= radius; dy++) {
+            int outer = half[dy];
+            int inner = Math.min(outer, half[dy + 1] + 1);
+            rowOfCircle((long) cy + dy, cx, inner, outer);
+            if (dy > 0) {
+                rowOfCircle((long) cy - dy, cx, inner, outer);
+            }
+        }
+    }
+
+    /**
+     * Rasterize a filled polygon: its interior by the even-odd rule, sampled at the cell centers, then
+     * its edges as lines, so that every vertex and edge cell is covered whatever the rounding.
+     *
+     * @param xs    Columns of the vertices.
+     * @param ys    Rows of the vertices.
+     * @param count Number of vertices, the last one joined to the first.
+     */
+    public void polygon(int[] xs, int[] ys, int count) {
+        int minY = Integer.MAX_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+
+        if (crossings.length < count) {
+            crossings = new double[count];
+        }
+        for (int row = Math.max(minY, top); row <= Math.min(maxY, bottom); row++) {
+            int crossed = 0;
+            for (int i = 0, j = count - 1; i < count; j = i++) {
+                // Half-open in rows, so that a vertex between two edges is crossed once.
+                if ((ys[i] <= row && row < ys[j]) || (ys[j] <= row && row < ys[i])) {
+                    double x = xs[i] + (double) (row - ys[i]) * ((long) xs[j] - xs[i]) / ((long) ys[j] - ys[i]);
+                    // Insertion sort, polygons have few vertices.
+                    int k = crossed++;
+                    while (k > 0 && crossings[k - 1] > x) {
+                        crossings[k] = crossings[k - 1];
+                        k--;
+                    }
+                    crossings[k] = x;
+                }
+            }
+            for (int k = 0; k + 1 < crossed; k += 2) {
+                long from = (long) Math.ceil(crossings[k]);
+                long to = (long) Math.floor(crossings[k + 1]);
+                if (from <= to) {
+                    span(row, from, to);
+                }
+            }
+        }
+
+        for (int i = 0, j = count - 1; i < count; j = i++) {
+            line(xs[j], ys[j], xs[i], ys[i]);
+        }
+    }
+
+    private void rowOfCircle(long row, int cx, int inner, int outer) {
+        if (inner == 0) {
+            span(row, (long) cx - outer, (long) cx + outer);
+        } else {
+            span(row, (long) cx - outer, (long) cx - inner);
+            span(row, (long) cx + inner, (long) cx + outer);
+        }
+    }
+
+    /**
+     * Clip a span and pass it on.
+     */
+    private void span(long row, long from, long to) {
+        if (row < top || row > bottom) {
+            return;
+        }
+        from = Math.max(from, left);
+        to = Math.min(to, right);
+        if (from <= to) {
+            sink.span((int) row, (int) from, (int) to);
+        }
+    }
+}
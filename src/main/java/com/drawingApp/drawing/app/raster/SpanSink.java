@@ -0,0 +1,16 @@
+package com.drawingApp.drawing.app.raster;
+
+/**
+ * Receives the horizontal spans of a rasterized shape, already clipped, e.g. to write them with
+ * {@link com.drawingApp.drawing.app.storage.CanvasStorage#fillRow}.
+ */
+@FunctionalInterface
+public interface SpanSink {
+
+    /**
+     * @param row     Row of the span.
+     * @param fromCol First column of the span.
+     * @param toCol   Last column of the span.
+     */
+    void span(int row, int fromCol, int toCol);
+}
@@ -0,0 +1,73 @@
+package com.drawingApp.drawing.app.render;
+
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+import java.io.PrintStream;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Display the canvas at the top of an ANSI terminal and redraw only the changed cells, moving the
+ * cursor to them. The cursor is left below the canvas, where the next prompt is displayed.
+ * The canvas must fit the terminal, otherwise it scrolls and updates land on the wrong lines.
+ */
+public class AnsiCanvasRenderer extends CanvasRenderer {
+
+    /**
+     * Control Sequence Introducer.
+     */
+    private static final String CSI = "\u001B[";
+
+    /**
+     * Creates new instance of {@link AnsiCanvasRenderer}
+     *
+     * @param out Stream to render upon.
+     */
+    public AnsiCanvasRenderer(PrintStream out) {
+        super(out);
+    }
+
+    /**
+     * Creates new instance of {@link AnsiCanvasRenderer}
+     *
+     * @param out     Stream to render upon.
+     * @param channel Channel to write rows to, bypassing the stream.
+     */
+    public AnsiCanvasRenderer(PrintStream out, WritableByteChannel channel) {
+        super(out, channel);
+    }
+
+    @Override
+    protected void repaint(CanvasStorage canvas) {
+        // Cursor home, then clear screen.
+        out.print(CSI + "H" + CSI + "2J");
+        super.repaint(canvas);
+    }
+
+    @Override
+    protected boolean isCheaperToRepaint(CanvasStorage canvas, DirtyRegion dirtyRegion) {
+        return dirtyRegion.getArea() * 2 > (long) canvas.getHeight() * canvas.getWidth();
+    }
+
+    @Override
+    protected void renderRegion(CanvasStorage canvas, DirtyRegion dirtyRegion) {
+        StringBuilder output = new StringBuilder();
+        for (int row = dirtyRegion.getTop(); row <= dirtyRegion.getBottom(); row++) {
+            moveTo(output, row, dirtyRegion.getLeft());
+            for (int col = dirtyRegion.getLeft(); col <= dirtyRegion.getRight(); col++) {
+                appendCell(output, canvas.get(row, col));
+            }
+        }
+        // Back to where a full render leaves the cursor, clearing the prompts and messages displayed since.
+        moveTo(output, canvas.getHeight() + 1, 0);
+        output.append(CSI).append('J');
+        out.print(output);
+        out.flush();
+    }
+
+    /**
+     * Move the cursor to a cell of the canvas, the terminal counting lines and columns from 1.
+     */
+    private static void moveTo(StringBuilder output, int row, int col) {
+        output.append(CSI).append(row + 1).append(';').append(col + 1).append('H');
+    }
+}
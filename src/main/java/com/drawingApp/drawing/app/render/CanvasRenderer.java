@@ -0,0 +1,294 @@
+package com.drawingApp.drawing.app.render;
+
+import com.drawingApp.drawing.app.kernels.Kernels;
+import com.drawingApp.drawing.app.kernels.SpanKernels;
+import com.drawingApp.drawing.app.metrics.Histogram;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Render a canvas as text, blank cells as spaces. This renderer always displays the whole canvas,
+ * see {@link RowsCanvasRenderer} and {@link AnsiCanvasRenderer} to display only what changed.
+ * <p>
+ * Rows are encoded as UTF-8 straight into a reusable buffer, which is written to a channel whenever it
+ * fills up, so that memory use does not depend on the height of the canvas. Rows of storages keeping
+ * runs of the same character are encoded run by run, see {@link CanvasStorage#readRuns}, other rows
+ * many ASCII cells at a time by the {@link Kernels}.
+ */
+public class CanvasRenderer {
+
+    private static final int BUFFER_BYTES = 1 << 16;
+    /**
+     * Longest UTF-8 encoding of a char.
+     */
+    private static final int MAX_CELL_BYTES = 3;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+    private static final SpanKernels KERNELS = Kernels.get();
+
+    protected final PrintStream out;
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private char[] row = new char[0];
+    private int[] runStarts = new int[0];
+    private char[] runValues = new char[0];
+    /**
+     * Canvas displayed last, a different one is always displayed in full.
+     */
+    private CanvasStorage lastCanvas;
+    /**
+     * Time taken by every render, NULL not to record it.
+     */
+    private Histogram renderTimes;
+
+    /**
+     * Creates new instance of {@link CanvasRenderer}, writing rows through the stream.
+     *
+     * @param out Stream to render upon.
+     */
+    public CanvasRenderer(PrintStream out) {
+        this(out, Channels.newChannel(out));
+    }
+
+    /**
+     * Creates new instance of {@link CanvasRenderer}
+     *
+     * @param out     Stream to render upon.
+     * @param channel Channel to write rows to, bypassing the stream. Writes to the same destination as the stream.
+     */
+    public CanvasRenderer(PrintStream out, WritableByteChannel channel) {
+        this.out = out;
+        this.channel = channel;
+    }
+
+    /**
+     * Record the time taken by every render from now on.
+     *
+     * @param renderTimes Histogram of the render times in nanoseconds, NULL to stop recording them.
+     */
+    public void recordRenderTimes(Histogram renderTimes) {
+        this.renderTimes = renderTimes;
+    }
+
+    /**
+     * Display canvas.
+     * @param canvas Canvas to display.
+     */
+    public void render(CanvasStorage canvas) {
+        long start = System.nanoTime();
+        repaint(canvas);
+        recordRenderTime(start);
+    }
+
+    /**
+     * Display what changed on the canvas since it was last displayed, then clear the dirty region.
+     *
+     * @param canvas      Canvas to display.
+     * @param dirtyRegion Changes since the canvas was last displayed.
+     */
+    public void render(CanvasStorage canvas, DirtyRegion dirtyRegion) {
+        long start = System.nanoTime();
+        if (canvas != lastCanvas || dirtyRegion.isFull() || isCheaperToRepaint(canvas, dirtyRegion)) {
+            repaint(canvas);
+        } else if (!dirtyRegion.isEmpty()) {
+            renderRegion(canvas, dirtyRegion);
+        }
+        dirtyRegion.clear();
+        recordRenderTime(start);
+    }
+
+    /**
+     * Display the whole canvas.
+     *
+     * @param canvas Canvas to display.
+     */
+    protected void repaint(CanvasStorage canvas) {
+        lastCanvas = canvas;
+        writeRows(canvas, 0, canvas.getHeight() - 1);
+        writeLineSeparator();
+        flush();
+    }
+
+    /**
+     * @param canvas      Canvas to display.
+     * @param dirtyRegion Changes since the canvas was last displayed.
+     * @return TRUE if displaying the whole canvas costs about as much as displaying the changes.
+     */
+    protected boolean isCheaperToRepaint(CanvasStorage canvas, DirtyRegion dirtyRegion) {
+        return true;
+    }
+
+    /**
+     * Display the changes only.
+     *
+     * @param canvas      Canvas to display.
+     * @param dirtyRegion Changes since the canvas was last displayed, not empty.
+     */
+    protected void renderRegion(CanvasStorage canvas, DirtyRegion dirtyRegion) {
+        repaint(canvas);
+    }
+
+    /**
+     * Write rows of the canvas, each one followed by a line separator, after what was printed on the stream.
+     *
+     * @param canvas Canvas to display.
+     * @param top    First row to write.
+     * @param bottom Last row to write.
+     */
+    protected void writeRows(CanvasStorage canvas, int top, int bottom) {
+        out.flush();
+        if (row.length != canvas.getWidth()) {
+            row = new char[canvas.getWidth()];
+            runStarts = new int[canvas.getWidth()];
+            runValues = new char[canvas.getWidth()];
+        }
+        var bytes = buffer.array();
+        for (int i = top; i <= bottom; i++) {
+            int runs = canvas.readRuns(i, runStarts, runValues);
+            int position = buffer.position();
+            if (runs < 0) {
+                canvas.readRow(i, row);
+                int col = 0;
+                while (col < row.length) {
+                    if (position > bytes.length - MAX_CELL_BYTES) {
+                        buffer.position(position);
+                        drain();
+                        position = 0;
+                    }
+                    // ASCII cells in bulk, up to the first other one, which is encoded on its own.
+                    int count = Math.min(row.length - col, bytes.length - position);
+                    int encoded = KERNELS.toAscii(row, col, col + count, bytes, position);
+                    col += encoded;
+                    position += encoded;
+                    if (encoded < count && position <= bytes.length - MAX_CELL_BYTES) {
+                        position = putCell(bytes, position, row[col++]);
+                    }
+                }
+            } else {
+                // Expand the runs: a single byte character is repeated in bulk.
+                for (int run = 0; run < runs; run++) {
+                    char cell = runValues[run];
+                    int length = (run + 1 < runs ? runStarts[run + 1] : row.length) - runStarts[run];
+                    if (cell < 0x80) {
+                        byte value = cell == 0 ? (byte) ' ' : (byte) cell;
+                        while (length > 0) {
+                            if (position == bytes.length) {
+                                buffer.position(position);
+                                drain();
+                                position = 0;
+                            }
+                            int count = Math.min(length, bytes.length - position);
+                            Arrays.fill(bytes, position, position + count, value);
+                            position += count;
+                            length -= count;
+                        }
+                    } else {
+                        for (; length > 0; length--) {
+                            if (position > bytes.length - MAX_CELL_BYTES) {
+                                buffer.position(position);
+                                drain();
+                                position = 0;
+                            }
+                            position = putCell(bytes, position, cell);
+                        }
+                    }
+                }
+            }
+            buffer.position(position);
+            writeLineSeparator();
+        }
+    }
+
+    /**
+     * Encode a cell as UTF-8, a blank cell as a space.
+     *
+     * @return position after the cell.
+     */
+    private static int putCell(byte[] bytes, int position, char cell) {
+        if (cell == 0) {
+            bytes[position++] = ' ';
+        } else if (cell < 0x80) {
+            bytes[position++] = (byte) cell;
+        } else if (cell < 0x800) {
+            bytes[position++] = (byte) (0xC0 | cell >> 6);
+            bytes[position++] = (byte) (0x80 | cell & 0x3F);
+        } else if (Character.isSurrogate(cell)) {
+            // Cells hold single chars, never a valid pair.
+            bytes[position++] = '?';
+        } else {
+            bytes[position++] = (byte) (0xE0 | cell >> 12);
+            bytes[position++] = (byte) (0x80 | cell >> 6 & 0x3F);
+            bytes[position++] = (byte) (0x80 | cell & 0x3F);
+        }
+        return position;
+    }
+
+    /**
+     * Write text after what was printed on the stream and the rows written so far.
+     *
+     * @param text Text to write.
+     */
+    protected void writeText(String text) {
+        out.flush();
+        var bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (buffer.remaining() < bytes.length) {
+            drain();
+        }
+        if (buffer.remaining() < bytes.length) {
+            write(ByteBuffer.wrap(bytes));
+        } else {
+            buffer.put(bytes);
+        }
+    }
+
+    protected void writeLineSeparator() {
+        if (buffer.remaining() < LINE_SEPARATOR.length) {
+            drain();
+        }
+        buffer.put(LINE_SEPARATOR);
+    }
+
+    /**
+     * Write what is left in the buffer to the channel.
+     */
+    protected void flush() {
+        drain();
+        out.flush();
+    }
+
+    private void recordRenderTime(long startNanos) {
+        if (renderTimes != null) {
+            renderTimes.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    private void drain() {
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer source) {
+        try {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot display canvas", e);
+        }
+    }
+
+    /**
+     * Append a cell, blank cells as spaces.
+     */
+    protected static void appendCell(StringBuilder output, char cell) {
+        output.append(cell == 0 ? ' ' : cell);
+    }
+}
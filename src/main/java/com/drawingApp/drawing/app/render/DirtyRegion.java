@@ -0,0 +1,99 @@
+package com.drawingApp.drawing.app.render;
+
+/**
+ * Rectangle of the canvas changed since it was last rendered, in canvas coordinates including the
+ * border. Every change widens the rectangle to include it, so it covers all the commands executed
+ * since the last {@link #clear()}.
+ */
+public class DirtyRegion {
+
+    private boolean full;
+    private int top;
+    private int left;
+    private int bottom;
+    private int right;
+
+    /**
+     * Creates new instance of {@link DirtyRegion}, with nothing to render.
+     */
+    public DirtyRegion() {
+        clear();
+    }
+
+    /**
+     * Add a changed rectangle.
+     *
+     * @param fromRow First changed row.
+     * @param fromCol First changed column.
+     * @param toRow   Last changed row, inclusive.
+     * @param toCol   Last changed column, inclusive.
+     */
+    public void add(int fromRow, int fromCol, int toRow, int toCol) {
+        top = Math.min(top, fromRow);
+        left = Math.min(left, fromCol);
+        bottom = Math.max(bottom, toRow);
+        right = Math.max(right, toCol);
+    }
+
+    /**
+     * Require the whole canvas to be rendered again, e.g. because the canvas was replaced.
+     */
+    public void markFull() {
+        full = true;
+    }
+
+    /**
+     * Forget every change, once rendered.
+     */
+    public void clear() {
+        full = false;
+        top = Integer.MAX_VALUE;
+        left = Integer.MAX_VALUE;
+        bottom = -1;
+        right = -1;
+    }
+
+    /**
+     * @return TRUE if the whole canvas must be rendered again.
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * @return TRUE if nothing changed.
+     */
+    public boolean isEmpty() {
+        return !full && bottom < 0;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getBottom() {
+        return bottom;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    /**
+     * @return number of changed rows, 0 if nothing changed.
+     */
+    public int getRowCount() {
+        return bottom < 0 ? 0 : bottom - top + 1;
+    }
+
+    /**
+     * @return number of cells of the changed rectangle, 0 if nothing changed.
+     */
+    public long getArea() {
+        return bottom < 0 ? 0 : (long) getRowCount() * (right - left + 1);
+    }
+}
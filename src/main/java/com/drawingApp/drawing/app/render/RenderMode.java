@@ -0,0 +1,59 @@
+package com.drawingApp.drawing.app.render;
+
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Locale;
+
+/**
+ * Available ways to display the canvas after each command, selected at startup.
+ */
+public enum RenderMode {
+    /**
+     * Whole canvas. See {@link CanvasRenderer}.
+     */
+    FULL,
+    /**
+     * Changed rows. See {@link RowsCanvasRenderer}.
+     */
+    ROWS,
+    /**
+     * Changed cells, redrawn in place on an ANSI terminal. See {@link AnsiCanvasRenderer}.
+     */
+    ANSI;
+
+    /**
+     * Find render mode by its name, ignoring case.
+     *
+     * @param name Name of the render mode.
+     * @return matching render mode.
+     * @throws IllegalArgumentException if there is no such render mode.
+     */
+    public static RenderMode of(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @param out Stream to render upon.
+     * @return renderer of this mode.
+     */
+    public CanvasRenderer renderer(PrintStream out) {
+        return renderer(out, Channels.newChannel(out));
+    }
+
+    /**
+     * @param out     Stream to render upon.
+     * @param channel Channel to write rows to, bypassing the stream. Writes to the same destination as the stream.
+     * @return renderer of this mode.
+     */
+    public CanvasRenderer renderer(PrintStream out, WritableByteChannel channel) {
+        switch (this) {
+            case ROWS:
+                return new RowsCanvasRenderer(out, channel);
+            case ANSI:
+                return new AnsiCanvasRenderer(out, channel);
+            default:
+                return new CanvasRenderer(out, channel);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.drawingApp.drawing.app.render;
+
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+import java.io.PrintStream;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Display only the rows changed since the canvas was last displayed, after a line giving their range.
+ * Meant for outputs which cannot be redrawn, such as logs and pipes.
+ */
+public class RowsCanvasRenderer extends CanvasRenderer {
+
+    /**
+     * Creates new instance of {@link RowsCanvasRenderer}
+     *
+     * @param out Stream to render upon.
+     */
+    public RowsCanvasRenderer(PrintStream out) {
+        super(out);
+    }
+
+    /**
+     * Creates new instance of {@link RowsCanvasRenderer}
+     *
+     * @param out     Stream to render upon.
+     * @param channel Channel to write rows to, bypassing the stream.
+     */
+    public RowsCanvasRenderer(PrintStream out, WritableByteChannel channel) {
+        super(out, channel);
+    }
+
+    @Override
+    protected boolean isCheaperToRepaint(CanvasStorage canvas, DirtyRegion dirtyRegion) {
+        return dirtyRegion.getRowCount() * 2L > canvas.getHeight();
+    }
+
+    @Override
+    protected void renderRegion(CanvasStorage canvas, DirtyRegion dirtyRegion) {
+        writeText("Rows " + dirtyRegion.getTop() + '-' + dirtyRegion.getBottom() + ':' + System.lineSeparator());
+        writeRows(canvas, dirtyRegion.getTop(), dirtyRegion.getBottom());
+        writeLineSeparator();
+        flush();
+    }
+}
@@ -0,0 +1,64 @@
+package com.drawingApp.drawing.app.repositories;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+
+/**
+ * Outcome of {@link InMemoryCanvasRepository#executeBatch}.
+ */
+public class BatchResult {
+
+    private final InvalidInputException[] errors;
+    private int errorCount;
+    private int executed;
+    private int operations;
+
+    BatchResult(int commands) {
+        this.errors = new InvalidInputException[commands];
+    }
+
+    void fail(int index, InvalidInputException error) {
+        errors[index] = error;
+        errorCount++;
+    }
+
+    void executed() {
+        executed++;
+    }
+
+    void operation() {
+        operations++;
+    }
+
+    /**
+     * @param index Index of a command of the batch.
+     * @return why the command failed, NULL if it did not.
+     */
+    public InvalidInputException getError(int index) {
+        return errors[index];
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * @return number of commands of the batch.
+     */
+    public int getCommands() {
+        return errors.length;
+    }
+
+    /**
+     * @return number of commands executed, alone or merged with others, i.e. every command which did not fail.
+     */
+    public int getExecuted() {
+        return executed;
+    }
+
+    /**
+     * @return number of operations executed once merged, invalid commands excluded.
+     */
+    public int getOperations() {
+        return operations;
+    }
+}
@@ -1,5 +1,8 @@
 package com.drawingApp.drawing.app.repositories;
 
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
 /**
  * To represent a Canvas in memory.
  */
@@ -7,7 +10,7 @@ public class InMemoryCanvas {
     /**
      * Initially an empty canvas.
      */
-    private char[][] canvas = new char[0][0];
+    private CanvasStorage storage = new ArrayCanvasStorage(new char[0][0]);
 
     /**
      * Save or update canvas.
@@ -15,16 +18,47 @@ public class InMemoryCanvas {
      * @return updated canvas.
      */
     public char[][] save(char[][] updatedCanvas) {
-        canvas = updatedCanvas;
-        return canvas;
+        storage = new ArrayCanvasStorage(updatedCanvas);
+        return updatedCanvas;
+    }
+
+    /**
+     * Save or update canvas storage.
+     * @param updatedStorage Canvas storage to be updated.
+     * @return updated canvas storage.
+     */
+    public CanvasStorage save(CanvasStorage updatedStorage) {
+        storage = updatedStorage;
+        return storage;
     }
 
     /**
-     * Gets existing inMemory Canvas.
+     * Gets existing inMemory Canvas, as a copy: rows of the storage may be shared with other rows and with
+     * snapshots, so writing to them would change more than one row. See {@link #snapshot()} to read the
+     * canvas without copying it.
      *
-     * @return in memory canvas.
+     * @return copy of the in memory canvas.
      */
     public char[][] getCanvas() {
-        return canvas;
+        return storage.toArray();
+    }
+
+    /**
+     * Takes a point-in-time image of the canvas, see {@link CanvasStorage#snapshot()}. Readers such as
+     * renderers may read it on another thread while commands go on drawing upon the canvas.
+     *
+     * @return read-only snapshot of the canvas.
+     */
+    public CanvasStorage snapshot() {
+        return storage.snapshot();
+    }
+
+    /**
+     * Gets existing inMemory Canvas storage.
+     *
+     * @return in memory canvas storage.
+     */
+    public CanvasStorage getStorage() {
+        return storage;
     }
 }
@@ -1,12 +1,35 @@
 package com.drawingApp.drawing.app.repositories;
 
 
+import com.drawingApp.drawing.app.commands.BucketFill;
+import com.drawingApp.drawing.app.commands.Command;
+import com.drawingApp.drawing.app.commands.CommandType;
+import com.drawingApp.drawing.app.commands.Line;
+import com.drawingApp.drawing.app.commands.Rectangle;
+import com.drawingApp.drawing.app.commands.Redo;
+import com.drawingApp.drawing.app.commands.Undo;
 import com.drawingApp.drawing.app.exceptions.InvalidInputException;
-
-import java.util.Arrays;
-import java.util.LinkedList;
+import com.drawingApp.drawing.app.fill.FillEngine;
+import com.drawingApp.drawing.app.fill.FillResult;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.history.CanvasHistory;
+import com.drawingApp.drawing.app.metrics.Metrics;
+import com.drawingApp.drawing.app.raster.SpanRasterizer;
+import com.drawingApp.drawing.app.raster.SpanSink;
+import com.drawingApp.drawing.app.render.DirtyRegion;
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+import com.drawingApp.drawing.app.storage.CanvasSnapshot;
+import com.drawingApp.drawing.app.storage.CanvasStorageFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Queue;
 
 /**
  * Contains various in memory canvas operations.
@@ -19,11 +42,81 @@ public class InMemoryCanvasRepository {
     /**
      * Character to represent a line on canvas.
      */
-    private final Character CHAR_X = 'x';
-
+    private static final char CHAR_X = FillEngine.CHAR_X;
+    private static final CommandType[] COMMAND_TYPES = CommandType.values();
+    /**
+     * Strategy to fill connected areas of the canvas.
+     */
+    private final FillEngine fillEngine;
+    /**
+     * Creates the storage of new canvases.
+     */
+    private final CanvasStorageFactory storageFactory;
+    /**
+     * Cells changed since the canvas was last rendered.
+     */
+    private final DirtyRegion dirtyRegion = new DirtyRegion();
+    /**
+     * Undo and redo history of drawing commands.
+     */
+    private final CanvasHistory history;
+    /**
+     * Latencies and cells written of the operations, NULL not to record them.
+     */
+    private final Metrics metrics;
+    /**
+     * Writes the spans of any lines, circles and polygons, reused from one shape to the next.
+     */
+    private final SpanWriter spanWriter = new SpanWriter();
+    /**
+     * Outcome of the last fill, reused from one fill to the next.
+     */
+    private final FillResult fillResult = new FillResult();
 
     public InMemoryCanvasRepository(InMemoryCanvas inMemoryCanvas) {
+        this(inMemoryCanvas, ArrayCanvasStorage::new, new ScanlineFillEngine());
+    }
+
+    /**
+     * Creates new instance of {@link InMemoryCanvasRepository}
+     *
+     * @param inMemoryCanvas See {@link InMemoryCanvas}
+     * @param storageFactory See {@link CanvasStorageFactory}
+     * @param fillEngine     See {@link FillEngine}
+     */
+    public InMemoryCanvasRepository(InMemoryCanvas inMemoryCanvas, CanvasStorageFactory storageFactory, FillEngine fillEngine) {
+        this(inMemoryCanvas, storageFactory, fillEngine, new CanvasHistory(CanvasHistory.DEFAULT_BUDGET));
+    }
+
+    /**
+     * Creates new instance of {@link InMemoryCanvasRepository}
+     *
+     * @param inMemoryCanvas See {@link InMemoryCanvas}
+     * @param storageFactory See {@link CanvasStorageFactory}
+     * @param fillEngine     See {@link FillEngine}
+     * @param history        See {@link CanvasHistory}
+     */
+    public InMemoryCanvasRepository(InMemoryCanvas inMemoryCanvas, CanvasStorageFactory storageFactory,
+                                    FillEngine fillEngine, CanvasHistory history) {
+        this(inMemoryCanvas, storageFactory, fillEngine, history, null);
+    }
+
+    /**
+     * Creates new instance of {@link InMemoryCanvasRepository}
+     *
+     * @param inMemoryCanvas See {@link InMemoryCanvas}
+     * @param storageFactory See {@link CanvasStorageFactory}
+     * @param fillEngine     See {@link FillEngine}
+     * @param history        See {@link CanvasHistory}
+     * @param metrics        See {@link Metrics}, NULL not to record metrics.
+     */
+    public InMemoryCanvasRepository(InMemoryCanvas inMemoryCanvas, CanvasStorageFactory storageFactory,
+                                    FillEngine fillEngine, CanvasHistory history, Metrics metrics) {
         this.inMemoryCanvas = inMemoryCanvas;
+        this.storageFactory = storageFactory;
+        this.fillEngine = fillEngine;
+        this.history = history;
+        this.metrics = metrics;
     }
 
     /**
@@ -34,29 +127,24 @@ public class InMemoryCanvasRepository {
      * @throws InvalidInputException if height or width equals to 0.
      */
     public void newCanvas(int width, int height) throws InvalidInputException {
+        long start = System.nanoTime();
         var borderHorizontal = '-';
         var borderVertical = '|';
 
         if (height <= 0 || width <= 0) {
+            failed(CommandType.CANVAS);
             throw new InvalidInputException("Height or Width of Canvas must be greater than 0");
         }
         // Two extra rows and columns are added for Canvas's border.
-        char[][] newCanvas = new char[height + 2][width + 2];
-
-        // Top Border of canvas.
-        Arrays.fill(newCanvas[0], borderHorizontal);
-        // Bottom border of canvas.
-        Arrays.fill(newCanvas[newCanvas.length - 1], borderHorizontal);
-        //Left border of canvas.
-        for (int i = 1; i <= newCanvas.length - 2; i++) {
-            newCanvas[i][0] = borderVertical;
-        }
-        //Right border of canvas.
-        for (int i = 1; i <= newCanvas.length - 2; i++) {
-            newCanvas[i][newCanvas[i].length - 1] = borderVertical;
-        }
+        var newCanvas = storageFactory.create(height + 2, width + 2);
+        // Rows never written share the border, storages allocate them on first write.
+        newCanvas.drawBorder(borderHorizontal, borderVertical);
 
         inMemoryCanvas.save(newCanvas);
+        history.clear();
+        fillEngine.invalidate();
+        dirtyRegion.markFull();
+        executed(CommandType.CANVAS, start, 2L * newCanvas.getWidth() + 2L * height);
     }
 
     /**
@@ -69,33 +157,15 @@ public class InMemoryCanvasRepository {
      * @throws InvalidInputException if input coordinates are beyond canvas borders.
      */
     public void drawLine(int x1, int y1, int x2, int y2) throws InvalidInputException {
-        //Check if we already have a canvas.
-        isCanvasExist();
-
-        var canvasToDraw = inMemoryCanvas.getCanvas();
-        if (isValidCoordinates(canvasToDraw, y1, x1) && isValidCoordinates(canvasToDraw, y2, x2)) {
-
-            if (x1 > x2 || y1 > y2 || (x1 == x2 && y1 == y2)) {
-                throw new InvalidInputException("Invalid inputs. x1 and y1 must be less than x2 and y2 respectively.");
-            }
-
-            if (y1 == y2) {  //Horizontal Line
-                for (int i = x1; i <= x2; i++) {
-                    canvasToDraw[y1][i] = CHAR_X;
-                }
-            } else if (x1 == x2) { //Vertical Line
-                for (int j = y1; j <= y2; j++) {
-                    canvasToDraw[j][x1] = CHAR_X;
-                }
-            } else {
-                throw new InvalidInputException("Invalid inputs .Only horizontal and vertical lines are supported.");
-            }
-
-            inMemoryCanvas.save(canvasToDraw);
-
-        } else {
-            throw new InvalidInputException("Invalid inputs. Coordinates are beyond canvas borders.");
+        long start = System.nanoTime();
+        try {
+            validateLine(x1, y1, x2, y2);
+        } catch (InvalidInputException e) {
+            failed(CommandType.LINE);
+            throw e;
         }
+        drawValidLine(x1, y1, x2, y2);
+        executed(CommandType.LINE, start, (long) (x2 - x1 + 1) * (y2 - y1 + 1));
     }
 
     /**
@@ -108,30 +178,127 @@ public class InMemoryCanvasRepository {
      * @throws InvalidInputException If Coordinates are beyond canvas borders.
      */
     public void drawRectangle(int x1, int y1, int x2, int y2) throws InvalidInputException {
-        isCanvasExist();
+        long start = System.nanoTime();
+        try {
+            validateRectangle(x1, y1, x2, y2);
+        } catch (InvalidInputException e) {
+            failed(CommandType.RECTANGLE);
+            throw e;
+        }
 
-        var canvasToDraw = inMemoryCanvas.getCanvas();
-        if (isValidCoordinates(canvasToDraw, y1, x1) && isValidCoordinates(canvasToDraw, y2, x2)) {
+        var canvasToDraw = inMemoryCanvas.getStorage();
+        var recordedCanvas = history.record(canvasToDraw);
+        //Upper & Lower Border
+        recordedCanvas.fillRow(y1, x1, x2 + 1, CHAR_X);
+        recordedCanvas.fillRow(y2, x1, x2 + 1, CHAR_X);
+        //Left & Right Border
+        for (int i = y1; i <= y2; i++) {
+            recordedCanvas.set(i, x1, CHAR_X);
+            recordedCanvas.set(i, x2, CHAR_X);
+        }
+        fillEngine.linesDrawn(y1, x1, x2);
+        fillEngine.linesDrawn(y2, x1, x2);
+        for (int i = y1 + 1; i < y2; i++) {
+            fillEngine.linesDrawn(i, x1, x1);
+            fillEngine.linesDrawn(i, x2, x2);
+        }
+        history.commit();
 
-            if (x1 >= x2 || y1 >= y2) {
-                throw new InvalidInputException("Invalid inputs. x1 and y1 must be less than x2 and y2 respectively.");
-            }
-            //Upper & Lower Border
-            for (int i = x1; i <= x2; i++) {
-                canvasToDraw[y1][i] = CHAR_X;
-                canvasToDraw[y2][i] = CHAR_X;
-            }
-            //Left & Right Border
-            for (int i = y1; i <= y2; i++) {
-                canvasToDraw[i][x1] = CHAR_X;
-                canvasToDraw[i][x2] = CHAR_X;
+        inMemoryCanvas.save(canvasToDraw);
+        dirtyRegion.add(y1, x1, y2, x2);
+        long width = x2 - x1 + 1;
+        long height = y2 - y1 + 1;
+        executed(CommandType.RECTANGLE, start, width * height - Math.max(0, width - 2) * Math.max(0, height - 2));
+    }
+
+    /**
+     * Draw a Line at any angle in existing Canvas, see {@link SpanRasterizer#line}.
+     *
+     * @param x1 Starts from coordinate x1.
+     * @param y1 Starts from coordinate y1.
+     * @param x2 Ends on coordinate x2.
+     * @param y2 Ends on coordinate y2.
+     * @throws InvalidInputException if input coordinates are beyond canvas borders.
+     */
+    public void drawAnyLine(int x1, int y1, int x2, int y2) throws InvalidInputException {
+        long start = System.nanoTime();
+        try {
+            validateVertex(x1, y1);
+            validateVertex(x2, y2);
+        } catch (InvalidInputException e) {
+            failed(CommandType.ANY_LINE);
+            throw e;
+        }
+        spanWriter.begin().line(x1, y1, x2, y2);
+        executed(CommandType.ANY_LINE, start, spanWriter.commit());
+    }
+
+    /**
+     * Draw the outline of a Circle in existing Canvas, see {@link SpanRasterizer#circle}. The part beyond
+     * the borders is left out.
+     *
+     * @param x      Center's x coordinate.
+     * @param y      Center's y coordinate.
+     * @param radius Radius, 0 for the center only.
+     * @throws InvalidInputException if the center is beyond canvas borders, or the whole circle.
+     */
+    public void drawCircle(int x, int y, int radius) throws InvalidInputException {
+        long start = System.nanoTime();
+        try {
+            validateVertex(x, y);
+            var canvas = inMemoryCanvas.getStorage();
+            // Then every cell of the canvas is closer to the center than the circle.
+            if (radius > (long) canvas.getWidth() + canvas.getHeight()) {
+                throw new InvalidInputException("Invalid inputs. Radius is beyond canvas borders.");
             }
+        } catch (InvalidInputException e) {
+            failed(CommandType.CIRCLE);
+            throw e;
+        }
+        spanWriter.begin().circle(x, y, radius);
+        executed(CommandType.CIRCLE, start, spanWriter.commit());
+    }
 
-            inMemoryCanvas.save(canvasToDraw);
+    /**
+     * Draw a filled Polygon in existing Canvas, see {@link SpanRasterizer#polygon}.
+     *
+     * @param xs x coordinates of the vertices.
+     * @param ys y coordinates of the vertices.
+     * @throws InvalidInputException if there are fewer than 3 vertices or one is beyond canvas borders.
+     */
+    public void fillPolygon(int[] xs, int[] ys) throws InvalidInputException {
+        if (xs.length != ys.length) {
+            failed(CommandType.POLYGON);
+            throw new InvalidInputException("Invalid inputs. A polygon needs as many x as y coordinates.");
+        }
+        fillPolygon(xs, ys, xs.length);
+    }
 
-        } else {
-            throw new InvalidInputException("Invalid inputs. Coordinates are beyond canvas borders.");
+    /**
+     * Draw a filled Polygon in existing Canvas from the first vertices of arrays, which may be reused
+     * from one polygon to the next.
+     *
+     * @param xs       x coordinates of the vertices.
+     * @param ys       y coordinates of the vertices.
+     * @param vertices Number of vertices.
+     * @throws InvalidInputException if there are fewer than 3 vertices or one is beyond canvas borders.
+     */
+    public void fillPolygon(int[] xs, int[] ys, int vertices) throws InvalidInputException {
+        long start = System.nanoTime();
+        try {
+            if (vertices < 3) {
+                throw new InvalidInputException("Invalid inputs. A polygon needs at least 3 vertices.");
+            }
+            isCanvasExist();
+            for (int i = 0; i < vertices; i++) {
+                validateVertex(xs[i], ys[i]);
+            }
+        } catch (InvalidInputException e) {
+            failed(CommandType.POLYGON);
+            throw e;
         }
+        spanWriter.begin().polygon(xs, ys, vertices);
+        executed(CommandType.POLYGON, start, spanWriter.commit());
     }
 
     /**
@@ -140,34 +307,553 @@ public class InMemoryCanvasRepository {
      * @param x     Starts from coordinate x.
      * @param y     Starts from coordinate y.
      * @param color character to fill the canvas.
-     * @throws InvalidInputException if color character is 'x'.
+     * @throws InvalidInputException if color character is 'x', or the fill failed half way and was rolled back.
      */
-    public void bucketFill(int x, int y, Character color) throws InvalidInputException {
-        isCanvasExist();
+    public void bucketFill(int x, int y, char color) throws InvalidInputException {
+        long start = System.nanoTime();
+        long cells;
+        try {
+            validateFill(x, y, color);
+            cells = fillValid(x, y, color);
+        } catch (InvalidInputException e) {
+            failed(CommandType.BUCKET_FILL);
+            throw e;
+        }
+        executed(CommandType.BUCKET_FILL, start, cells);
+    }
 
-        if (color == CHAR_X) {
-            throw new InvalidInputException("Invalid input. Color must not be " + CHAR_X);
+    /**
+     * Undo the most recent drawing command.
+     *
+     * @throws InvalidInputException if there is nothing to undo.
+     */
+    public void undo() throws InvalidInputException {
+        long start = System.nanoTime();
+        try {
+            isCanvasExist();
+        } catch (InvalidInputException e) {
+            failed(CommandType.UNDO);
+            throw e;
+        }
+
+        var canvasToDraw = inMemoryCanvas.getStorage();
+        if (!history.undo(canvasToDraw, dirtyRegion)) {
+            failed(CommandType.UNDO);
+            throw new InvalidInputException("Nothing to undo.");
+        }
+        // Lines may have come or gone.
+        fillEngine.invalidate();
+        canvasToDraw.compact();
+        inMemoryCanvas.save(canvasToDraw);
+        executed(CommandType.UNDO, start, 0);
+    }
+
+    /**
+     * Redo the most recently undone drawing command.
+     *
+     * @throws InvalidInputException if there is nothing to redo.
+     */
+    public void redo() throws InvalidInputException {
+        long start = System.nanoTime();
+        try {
+            isCanvasExist();
+        } catch (InvalidInputException e) {
+            failed(CommandType.REDO);
+            throw e;
+        }
+
+        var canvasToDraw = inMemoryCanvas.getStorage();
+        if (!history.redo(canvasToDraw, dirtyRegion)) {
+            failed(CommandType.REDO);
+            throw new InvalidInputException("Nothing to redo.");
+        }
+        // Lines may have come or gone.
+        fillEngine.invalidate();
+        canvasToDraw.compact();
+        inMemoryCanvas.save(canvasToDraw);
+        executed(CommandType.REDO, start, 0);
+    }
+
+    /**
+     * Save the canvas to a snapshot file, see {@link CanvasSnapshot}.
+     *
+     * @param file File to write, replaced if it exists.
+     * @throws InvalidInputException if there is no canvas or the file cannot be written.
+     */
+    public void saveCanvas(Path file) throws InvalidInputException {
+        long start = System.nanoTime();
+        try {
+            isCanvasExist();
+            CanvasSnapshot.write(inMemoryCanvas.getStorage(), file);
+        } catch (InvalidInputException e) {
+            failed(CommandType.SAVE);
+            throw e;
+        } catch (IOException e) {
+            failed(CommandType.SAVE);
+            throw new InvalidInputException("Cannot save canvas to " + file + ": " + e.getMessage());
+        }
+        executed(CommandType.SAVE, start, 0);
+    }
+
+    /**
+     * Replace the canvas by a snapshot file, see {@link CanvasSnapshot}. The undo history is cleared. The
+     * canvas is left as it is if the file is not a valid snapshot, even when they share a file.
+     *
+     * @param file File to read.
+     * @throws InvalidInputException if the file cannot be read or is not a valid snapshot, or the storage of
+     *                               the canvas cannot hold it.
+     */
+    public void loadCanvas(Path file) throws InvalidInputException {
+        long start = System.nanoTime();
+        CanvasStorage loadedCanvas;
+        try {
+            loadedCanvas = CanvasSnapshot.read(file, storageFactory);
+        } catch (NoSuchFileException e) {
+            failed(CommandType.LOAD);
+            throw new InvalidInputException("Snapshot " + file + " not found.");
+        } catch (IOException e) {
+            failed(CommandType.LOAD);
+            throw new InvalidInputException("Cannot load canvas from " + file + ": " + e.getMessage());
+        } catch (UncheckedIOException e) {
+            failed(CommandType.LOAD);
+            throw new InvalidInputException("Cannot load canvas from " + file + ": " + e.getCause().getMessage());
+        } catch (RuntimeException e) {
+            failed(CommandType.LOAD);
+            throw new InvalidInputException("Cannot load canvas from " + file + ": " + e);
+        }
+
+        inMemoryCanvas.save(loadedCanvas);
+        history.clear();
+        fillEngine.invalidate();
+        dirtyRegion.markFull();
+        executed(CommandType.LOAD, start, (long) loadedCanvas.getHeight() * loadedCanvas.getWidth());
+    }
+
+    /**
+     * Execute commands in order, with the same final canvas as executing them one by one, but fewer
+     * operations. Consecutive lines and rectangles only write lines, in any order, so their edges are
+     * merged: collinear segments which overlap or touch become one, and edges covered by other segments
+     * disappear. Consecutive fills do not change the lines, so a fill is dropped when a later one of the
+     * same run starts from the same cell and recolors its whole region. Invalid commands are reported
+     * and change nothing, as when executed alone.
+     * <p>
+     * Every run of consecutive lines and rectangles, and every run of consecutive fills, is recorded as a
+     * single undo step: undoing reverts the whole run, never leaving a state which executing the commands
+     * one by one would not have gone through. Likewise a fill failing half way rolls back its whole run, and
+     * every fill of the run is reported with its error. Commands up to the last undo or redo of the batch are executed
+     * one by one, so that those find the history they expect. Commands must have been created for this
+     * repository.
+     *
+     * @param commands Commands to execute.
+     * @return errors of the commands, number of commands and of operations executed.
+     */
+    public BatchResult executeBatch(List<Command> commands) {
+        var result = new BatchResult(commands.size());
+        int coalesceFrom = 0;
+        for (int i = commands.size() - 1; i >= 0; i--) {
+            if (commands.get(i) instanceof Undo || commands.get(i) instanceof Redo) {
+                coalesceFrom = i + 1;
+                break;
+            }
+        }
+
+        int i = 0;
+        while (i < commands.size()) {
+            var command = commands.get(i);
+            if (i >= coalesceFrom && isDrawing(command)) {
+                i = executeDrawings(commands, i, result);
+            } else if (i >= coalesceFrom && command instanceof BucketFill) {
+                i = executeFills(commands, i, result);
+            } else {
+                try {
+                    command.execute();
+                    result.executed();
+                    result.operation();
+                } catch (InvalidInputException e) {
+                    result.fail(i, e);
+                }
+                i++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Force the canvas to the file backing its storage, if any, see {@link CanvasStorage#flush()}.
+     */
+    public void flush() {
+        inMemoryCanvas.getStorage().flush();
+    }
+
+    /**
+     * Forget the undo history, e.g. once the canvas is saved as a checkpoint.
+     */
+    public void clearHistory() {
+        history.clear();
+    }
+
+    /**
+     * @return estimated number of bytes held by the canvas, its undo history and the state of the fill engine.
+     */
+    public long memoryUsage() {
+        return inMemoryCanvas.getStorage().memoryUsage() + history.memoryUsage() + fillEngine.memoryUsage();
+    }
+
+    /**
+     * @return cells changed since the canvas was last rendered. The renderer clears it.
+     */
+    public DirtyRegion getDirtyRegion() {
+        return dirtyRegion;
+    }
+
+    /**
+     * Draw the consecutive lines and rectangles from a command on, as merged horizontal and vertical
+     * segments, in one undo step.
+     *
+     * @return index of the first command which is not a line or a rectangle.
+     */
+    private int executeDrawings(List<Command> commands, int from, BatchResult result) {
+        // Every segment is {1 if vertical, row or column, first cell, last cell}.
+        var segments = new ArrayList<int[]>();
+        // Every valid command is {type, cells it writes alone}, for the metrics.
+        var drawn = new ArrayList<long[]>();
+        int i = from;
+        for (; i < commands.size() && isDrawing(commands.get(i)); i++) {
+            var command = commands.get(i);
+            try {
+                if (command instanceof Line) {
+                    var line = (Line) command;
+                    validateLine(line.getX1(), line.getY1(), line.getX2(), line.getY2());
+                    segments.add(line.getY1() == line.getY2()
+                            ? new int[]{0, line.getY1(), line.getX1(), line.getX2()}
+                            : new int[]{1, line.getX1(), line.getY1(), line.getY2()});
+                    drawn.add(new long[]{CommandType.LINE.ordinal(),
+                            (long) (line.getX2() - line.getX1() + 1) * (line.getY2() - line.getY1() + 1)});
+                } else {
+                    var rectangle = (Rectangle) command;
+                    validateRectangle(rectangle.getX1(), rectangle.getY1(), rectangle.getX2(), rectangle.getY2());
+                    segments.add(new int[]{0, rectangle.getY1(), rectangle.getX1(), rectangle.getX2()});
+                    segments.add(new int[]{0, rectangle.getY2(), rectangle.getX1(), rectangle.getX2()});
+                    segments.add(new int[]{1, rectangle.getX1(), rectangle.getY1(), rectangle.getY2()});
+                    segments.add(new int[]{1, rectangle.getX2(), rectangle.getY1(), rectangle.getY2()});
+                    long width = rectangle.getX2() - rectangle.getX1() + 1;
+                    long height = rectangle.getY2() - rectangle.getY1() + 1;
+                    drawn.add(new long[]{CommandType.RECTANGLE.ordinal(), 2 * width + 2 * height - 4});
+                }
+                result.executed();
+            } catch (InvalidInputException e) {
+                failed(command instanceof Line ? CommandType.LINE : CommandType.RECTANGLE);
+                result.fail(i, e);
+            }
         }
-        var canvasToDraw = inMemoryCanvas.getCanvas();
-        if (isValidCoordinates(canvasToDraw, y, x)) {
-            // canvas[y][x] must not part of any existing line.
-            if (canvasToDraw[y][x] != CHAR_X) {
-                fillCanvas(canvasToDraw, x, y, color);
-                inMemoryCanvas.save(canvasToDraw);
+        if (segments.isEmpty()) {
+            return i;
+        }
+
+        long start = System.nanoTime();
+        segments.sort(Comparator.<int[]>comparingInt(segment -> segment[0])
+                .thenComparingInt(segment -> segment[1])
+                .thenComparingInt(segment -> segment[2]));
+        var canvasToDraw = inMemoryCanvas.getStorage();
+        var recordedCanvas = history.record(canvasToDraw);
+        int[] merged = null;
+        for (var segment : segments) {
+            if (merged != null && merged[0] == segment[0] && merged[1] == segment[1] && segment[2] <= merged[3] + 1) {
+                merged[3] = Math.max(merged[3], segment[3]);
+                continue;
+            }
+            if (merged != null) {
+                drawSegment(recordedCanvas, merged, result);
             }
+            merged = segment;
+        }
+        drawSegment(recordedCanvas, merged, result);
+        history.commit();
+        inMemoryCanvas.save(canvasToDraw);
+
+        // Every command of the run is recorded, sharing the time of the run.
+        long nanos = (System.nanoTime() - start) / drawn.size();
+        for (var command : drawn) {
+            recordExecuted(COMMAND_TYPES[(int) command[0]], nanos, command[1]);
+        }
+        return i;
+    }
 
+    private void drawSegment(CanvasStorage recordedCanvas, int[] segment, BatchResult result) {
+        if (segment[0] == 0) {
+            drawLineOn(recordedCanvas, segment[2], segment[1], segment[3], segment[1]);
         } else {
+            drawLineOn(recordedCanvas, segment[1], segment[2], segment[1], segment[3]);
+        }
+        result.operation();
+    }
+
+    /**
+     * Execute the consecutive fills from a command on, except those followed by a fill from the same cell,
+     * in one undo step.
+     *
+     * @return index of the first command which is not a fill.
+     */
+    private int executeFills(List<Command> commands, int from, BatchResult result) {
+        int end = from;
+        while (end < commands.size() && commands.get(end) instanceof BucketFill) {
+            end++;
+        }
+        var valid = new boolean[end - from];
+        for (int i = from; i < end; i++) {
+            var fill = (BucketFill) commands.get(i);
+            try {
+                validateFill(fill.getX(), fill.getY(), fill.getColor());
+                valid[i - from] = true;
+            } catch (InvalidInputException e) {
+                failed(CommandType.BUCKET_FILL);
+                result.fail(i, e);
+            }
+        }
+        // Lines do not move in between, so a later fill from the same cell recolors the same region.
+        var laterSeeds = new HashSet<Long>();
+        var superseded = new boolean[end - from];
+        for (int i = end - 1; i >= from; i--) {
+            var fill = (BucketFill) commands.get(i);
+            if (valid[i - from] && !laterSeeds.add((long) fill.getY() << 32 | fill.getX())) {
+                superseded[i - from] = true;
+            }
+        }
+        var canvasToDraw = inMemoryCanvas.getStorage();
+        CanvasStorage recordedCanvas = null;
+        // Every fill executed is {nanos, cells}, for the metrics once the whole run succeeded.
+        var filled = new ArrayList<long[]>();
+        for (int i = from; i < end; i++) {
+            if (valid[i - from] && !superseded[i - from]) {
+                var fill = (BucketFill) commands.get(i);
+                long start = System.nanoTime();
+                long cells = 0;
+                // Fills do not draw lines, the canvas before the run tells which seeds are on one.
+                if (canvasToDraw.get(fill.getY(), fill.getX()) != CHAR_X) {
+                    if (recordedCanvas == null) {
+                        recordedCanvas = history.record(canvasToDraw);
+                    }
+                    try {
+                        cells = fillOn(recordedCanvas, fill.getX(), fill.getY(), fill.getColor());
+                    } catch (UncheckedIOException e) {
+                        var error = abortFill(canvasToDraw, fill.getColor(), e);
+                        for (int j = from; j < end; j++) {
+                            if (valid[j - from]) {
+                                failed(CommandType.BUCKET_FILL);
+                                result.fail(j, error);
+                            }
+                        }
+                        return end;
+                    }
+                }
+                filled.add(new long[]{System.nanoTime() - start, cells});
+                result.operation();
+            }
+        }
+        if (recordedCanvas != null) {
+            history.commit();
+            canvasToDraw.compact();
+            inMemoryCanvas.save(canvasToDraw);
+        }
+        for (int i = from; i < end; i++) {
+            if (valid[i - from]) {
+                result.executed();
+            }
+        }
+        for (var fill : filled) {
+            recordExecuted(CommandType.BUCKET_FILL, fill[0], fill[1]);
+        }
+        return end;
+    }
+
+    private static boolean isDrawing(Command command) {
+        return command instanceof Line || command instanceof Rectangle;
+    }
+
+    private void drawValidLine(int x1, int y1, int x2, int y2) {
+        var canvasToDraw = inMemoryCanvas.getStorage();
+        drawLineOn(history.record(canvasToDraw), x1, y1, x2, y2);
+        history.commit();
+        inMemoryCanvas.save(canvasToDraw);
+    }
+
+    /**
+     * Draw a valid horizontal or vertical line upon a canvas being recorded.
+     */
+    private void drawLineOn(CanvasStorage recordedCanvas, int x1, int y1, int x2, int y2) {
+        if (y1 == y2) {  //Horizontal Line
+            recordedCanvas.fillRow(y1, x1, x2 + 1, CHAR_X);
+            fillEngine.linesDrawn(y1, x1, x2);
+        } else { //Vertical Line
+            for (int j = y1; j <= y2; j++) {
+                recordedCanvas.set(j, x1, CHAR_X);
+                fillEngine.linesDrawn(j, x1, x1);
+            }
+        }
+        dirtyRegion.add(y1, x1, y2, x2);
+    }
+
+    /**
+     * @return number of cells filled.
+     * @throws InvalidInputException if the fill failed half way, see {@link #abortFill}.
+     */
+    private long fillValid(int x, int y, char color) throws InvalidInputException {
+        var canvasToDraw = inMemoryCanvas.getStorage();
+        // canvas[y][x] must not part of any existing line.
+        if (canvasToDraw.get(y, x) == CHAR_X) {
+            return 0;
+        }
+        long cells;
+        try {
+            cells = fillOn(history.record(canvasToDraw), x, y, color);
+        } catch (UncheckedIOException e) {
+            throw abortFill(canvasToDraw, color, e);
+        }
+        history.commit();
+        canvasToDraw.compact();
+        inMemoryCanvas.save(canvasToDraw);
+        return cells;
+    }
+
+    /**
+     * Undo a fill which failed half way, e.g. because its frontier could not spill to disk, so that neither
+     * the canvas nor the history is left in the middle of it. The cells overwritten since recording started
+     * are restored. Without history their former colors are lost, so the cells the fill already reached,
+     * which may still hold {@link ScanlineFillEngine#MARKER}, get the fill color.
+     *
+     * @param canvasToDraw Canvas being filled.
+     * @param color        Color of the failed fill.
+     * @param e            Failure of the fill.
+     * @return error to report.
+     */
+    private InvalidInputException abortFill(CanvasStorage canvasToDraw, char color, UncheckedIOException e) {
+        if (!history.rollback(canvasToDraw)) {
+            int toCol = canvasToDraw.getWidth() - 1;
+            for (int row = 1; row < canvasToDraw.getHeight() - 1; row++) {
+                int col = canvasToDraw.indexOfEither(row, 1, toCol, ScanlineFillEngine.MARKER, ScanlineFillEngine.MARKER);
+                while (col < toCol) {
+                    int end = canvasToDraw.mismatch(row, col, toCol, ScanlineFillEngine.MARKER);
+                    canvasToDraw.fillRow(row, col, end, color);
+                    col = canvasToDraw.indexOfEither(row, end, toCol, ScanlineFillEngine.MARKER, ScanlineFillEngine.MARKER);
+                }
+            }
+        }
+        fillEngine.invalidate();
+        canvasToDraw.compact();
+        inMemoryCanvas.save(canvasToDraw);
+        dirtyRegion.markFull();
+        return new InvalidInputException("Cannot fill: " + e.getMessage());
+    }
+
+    /**
+     * Fill from a cell which is not part of a line upon a canvas being recorded.
+     *
+     * @return number of cells filled.
+     */
+    private long fillOn(CanvasStorage recordedCanvas, int x, int y, char color) {
+        fillEngine.fill(recordedCanvas, x, y, color, fillResult);
+        dirtyRegion.add(fillResult.getTop(), fillResult.getLeft(), fillResult.getBottom(), fillResult.getRight());
+        if (metrics != null) {
+            metrics.getFillRegions().record(fillResult.getCells());
+            metrics.getFillFrontiers().record(fillResult.getPeakFrontier());
+        }
+        return fillResult.getCells();
+    }
+
+    /**
+     * @throws InvalidInputException if there is no canvas or the line cannot be drawn on it.
+     */
+    private void validateLine(int x1, int y1, int x2, int y2) throws InvalidInputException {
+        //Check if we already have a canvas.
+        isCanvasExist();
+
+        var canvasToDraw = inMemoryCanvas.getStorage();
+        if (!isValidCoordinates(canvasToDraw, y1, x1) || !isValidCoordinates(canvasToDraw, y2, x2)) {
+            throw new InvalidInputException("Invalid inputs. Coordinates are beyond canvas borders.");
+        }
+        if (x1 > x2 || y1 > y2 || (x1 == x2 && y1 == y2)) {
+            throw new InvalidInputException("Invalid inputs. x1 and y1 must be less than x2 and y2 respectively.");
+        }
+        if (x1 != x2 && y1 != y2) {
+            throw new InvalidInputException("Invalid inputs .Only horizontal and vertical lines are supported.");
+        }
+    }
+
+    /**
+     * @throws InvalidInputException if there is no canvas or the vertex is beyond the borders.
+     */
+    private void validateVertex(int x, int y) throws InvalidInputException {
+        isCanvasExist();
+
+        if (!isValidCoordinates(inMemoryCanvas.getStorage(), y, x)) {
+            throw new InvalidInputException("Invalid inputs. Coordinates are beyond canvas borders.");
+        }
+    }
+
+    /**
+     * @throws InvalidInputException if there is no canvas or the rectangle cannot be drawn on it.
+     */
+    private void validateRectangle(int x1, int y1, int x2, int y2) throws InvalidInputException {
+        isCanvasExist();
+
+        var canvasToDraw = inMemoryCanvas.getStorage();
+        if (!isValidCoordinates(canvasToDraw, y1, x1) || !isValidCoordinates(canvasToDraw, y2, x2)) {
+            throw new InvalidInputException("Invalid inputs. Coordinates are beyond canvas borders.");
+        }
+        if (x1 >= x2 || y1 >= y2) {
+            throw new InvalidInputException("Invalid inputs. x1 and y1 must be less than x2 and y2 respectively.");
+        }
+    }
+
+    /**
+     * @throws InvalidInputException if there is no canvas, the color is a line or the cell is beyond the borders.
+     */
+    private void validateFill(int x, int y, char color) throws InvalidInputException {
+        isCanvasExist();
+
+        if (color == CHAR_X) {
+            throw new InvalidInputException("Invalid input. Color must not be " + CHAR_X);
+        }
+        if (!isValidCoordinates(inMemoryCanvas.getStorage(), y, x)) {
             throw new InvalidInputException("Invalid inputs. Coordinates are beyond canvas borders.");
         }
     }
 
+    /**
+     * Record an operation executed successfully, if metrics are recorded.
+     *
+     * @param type       Command type of the operation.
+     * @param startNanos {@link System#nanoTime()} when the operation started.
+     * @param cells      Number of cells the operation wrote.
+     */
+    private void executed(CommandType type, long startNanos, long cells) {
+        if (metrics != null) {
+            recordExecuted(type, System.nanoTime() - startNanos, cells);
+        }
+    }
+
+    private void recordExecuted(CommandType type, long nanos, long cells) {
+        if (metrics != null) {
+            metrics.getCommand(type).executed(nanos, cells);
+        }
+    }
+
+    /**
+     * Record an operation which failed, if metrics are recorded.
+     */
+    private void failed(CommandType type) {
+        if (metrics != null) {
+            metrics.getCommand(type).failed();
+        }
+    }
+
     /**
      * Validate if canvas is available for drawing.
      *
      * @throws InvalidInputException if Canvas is not initialize.
      */
     private void isCanvasExist() throws InvalidInputException {
-        if (inMemoryCanvas.getCanvas().length == 0) {
+        if (inMemoryCanvas.getStorage().isEmpty()) {
             throw new InvalidInputException("Canvas Not Found. Please create canvas first.");
         }
     }
@@ -180,51 +866,72 @@ public class InMemoryCanvasRepository {
      * @param col    Column to validate.
      * @return TRUE if row and column are within the drawing area otherwise FALSE.
      */
-    private boolean isValidCoordinates(char[][] canvas, int row, int col) {
-        return row >= 1 && row < canvas.length - 1
-                && col >= 1 && col < canvas[row].length - 1;
+    private boolean isValidCoordinates(CanvasStorage canvas, int row, int col) {
+        return row >= 1 && row < canvas.getHeight() - 1
+                && col >= 1 && col < canvas.getWidth() - 1;
     }
 
+
     /**
-     * Helper method to fill canvas using BFS (Breadth First Search).
-     *
-     * @param canvasToDraw Canvas to draw upon.
-     * @param x            Starts from coordinate x.
-     * @param y            Starts from coordinate y.
-     * @param color        character to fill the canvas.
+     * Writes the spans of a shape as lines, in one undoable change, clipped to the inside of the borders.
+     * The rasterizer is kept as long as the canvas keeps its size.
      */
-    private void fillCanvas(char[][] canvasToDraw, int x, int y, Character color) {
-        //To keep track of visited coordinates.
-        boolean[][] visited = new boolean[canvasToDraw.length][canvasToDraw[0].length];
-
-        Queue<List<Integer>> queue = new LinkedList<>();
-        queue.add(List.of(y, x));
-        visited[y][x] = true;
-
-        int[] xDirection = {-1, 0, 1, 0};
-        int[] yDirection = {0, 1, 0, -1};
-
-        while (!queue.isEmpty()) {
-            var item = queue.remove();
-            var xCoordinate = item.get(0);
-            var yCoordinate = item.get(1);
-
-            //Fill the color.
-            canvasToDraw[xCoordinate][yCoordinate] = color;
-
-            for (int i = 0; i < 4; i++) {
-                var adjacentX = xCoordinate + xDirection[i];
-                var adjacentY = yCoordinate + yDirection[i];
+    private final class SpanWriter implements SpanSink {
+        private CanvasStorage canvasToDraw;
+        private CanvasStorage recordedCanvas;
+        private SpanRasterizer rasterizer;
+        private int rasterizerHeight;
+        private int rasterizerWidth;
+        private int top;
+        private int left;
+        private int bottom;
+        private int right;
+        private long cells;
+
+        /**
+         * Start writing a shape upon the canvas.
+         *
+         * @return rasterizer of the shape. Call {@link #commit()} once rasterized.
+         */
+        SpanRasterizer begin() {
+            canvasToDraw = inMemoryCanvas.getStorage();
+            recordedCanvas = history.record(canvasToDraw);
+            top = Integer.MAX_VALUE;
+            left = Integer.MAX_VALUE;
+            bottom = -1;
+            right = -1;
+            cells = 0;
+            if (rasterizer == null || rasterizerHeight != canvasToDraw.getHeight() || rasterizerWidth != canvasToDraw.getWidth()) {
+                rasterizerHeight = canvasToDraw.getHeight();
+                rasterizerWidth = canvasToDraw.getWidth();
+                rasterizer = new SpanRasterizer(1, 1, rasterizerHeight - 2, rasterizerWidth - 2, this);
+            }
+            return rasterizer;
+        }
 
-                if (isValidCoordinates(canvasToDraw, adjacentX, adjacentY)
-                        && !visited[adjacentX][adjacentY]
-                        && canvasToDraw[adjacentX][adjacentY] != CHAR_X) {
+        @Override
+        public void span(int row, int fromCol, int toCol) {
+            recordedCanvas.fillRow(row, fromCol, toCol + 1, CHAR_X);
+            fillEngine.linesDrawn(row, fromCol, toCol);
+            top = Math.min(top, row);
+            bottom = Math.max(bottom, row);
+            left = Math.min(left, fromCol);
+            right = Math.max(right, toCol);
+            cells += toCol - fromCol + 1;
+        }
 
-                    queue.add(List.of(adjacentX, adjacentY));
-                    visited[adjacentX][adjacentY] = true;
-                }
+        /**
+         * @return number of cells written.
+         */
+        long commit() {
+            history.commit();
+            inMemoryCanvas.save(canvasToDraw);
+            if (cells > 0) {
+                dirtyRegion.add(top, left, bottom, right);
             }
+            canvasToDraw = null;
+            recordedCanvas = null;
+            return cells;
         }
     }
-
 }
@@ -0,0 +1,363 @@
+package com.drawingApp.drawing.app.server;
+
+import com.drawingApp.drawing.app.commands.Quit;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Host many named canvases in one process, for clients connecting to a local TCP port. Every request
+ * is one line, and so is every reply unless stated otherwise:
+ * <pre>
+ * name command   Execute a command of the console grammar on the canvas, created on first use.
+ *                Replies OK, or ERR and the reason. Q closes the connection after replying BYE.
+ * SHOW name      Replies OK and the number of rows, then the rows of the canvas.
+ * STATS          Replies OK and the number of canvases in memory, then the commands, errors, memory
+ *                and command latency of every one.
+ * Q              Replies BYE and closes the connection.
+ * </pre>
+ * Each client has a thread, a virtual one on Java 21 and later, with small buffers, so that a server
+ * holds tens of thousands of connections. Commands on the same canvas are serialized, see {@link CanvasSession}.
+ * <p>
+ * Canvases idle for longer than the idle timeout are written to {@code name.snapshot} files and dropped
+ * from memory, then restored from them on next use.
+ */
+public class CanvasServer implements Closeable {
+
+    private static final int MAX_NAME_LENGTH = 64;
+    /**
+     * Connections waiting to be accepted, capped by the system, e.g. net.core.somaxconn on Linux.
+     */
+    private static final int BACKLOG = 4096;
+    /**
+     * Chars buffered per connection and direction. Requests and replies are short lines, longer
+     * ones go through in several reads or writes.
+     */
+    private static final int BUFFER_CHARS = 512;
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    private final ServerSocket serverSocket;
+    private final Function<String, CanvasSession> sessionFactory;
+    private final ConcurrentMap<String, CanvasSession> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService clients = ConnectionThreads.newExecutor("canvas-client");
+    /**
+     * Directory of the snapshots of evicted canvases, NULL if canvases are never evicted.
+     */
+    private final Path snapshotDirectory;
+    private final ScheduledExecutorService evictor;
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates new instance of {@link CanvasServer}, listening on the loopback address, which never evicts canvases.
+     *
+     * @param port           Port to listen on, 0 for any free port.
+     * @param sessionFactory Creates the session of a canvas from its name.
+     * @throws IOException if the port cannot be opened.
+     */
+    public CanvasServer(int port, Function<String, CanvasSession> sessionFactory) throws IOException {
+        this(port, sessionFactory, null, 0);
+    }
+
+    /**
+     * Creates new instance of {@link CanvasServer}, listening on the loopback address.
+     *
+     * @param port              Port to listen on, 0 for any free port.
+     * @param sessionFactory    Creates the session of a canvas from its name.
+     * @param snapshotDirectory Directory of the snapshots of evicted canvases, NULL never to evict them.
+     * @param idleTimeoutMillis Time without requests after which a canvas is evicted, 0 never to evict
+     *                          them but through {@link #evictIdle}.
+     * @throws IOException if the port cannot be opened.
+     */
+    public CanvasServer(int port, Function<String, CanvasSession> sessionFactory, Path snapshotDirectory,
+                        long idleTimeoutMillis) throws IOException {
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.sessionFactory = sessionFactory;
+        this.snapshotDirectory = snapshotDirectory;
+        if (snapshotDirectory != null && idleTimeoutMillis > 0) {
+            evictor = Executors.newSingleThreadScheduledExecutor(task -> {
+                var thread = new Thread(task, "canvas-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, idleTimeoutMillis / 2);
+            evictor.scheduleWithFixedDelay(() -> evictIdle(idleTimeoutMillis), period, period, TimeUnit.MILLISECONDS);
+        } else {
+            evictor = null;
+        }
+    }
+
+    /**
+     * @return port the server listens on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accept clients until the server is closed.
+     */
+    public void run() {
+        while (!serverSocket.isClosed()) {
+            try {
+                var socket = serverSocket.accept();
+                clients.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Cannot accept client: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Accept clients on a background thread.
+     */
+    public void start() {
+        var acceptor = new Thread(this::run, "canvas-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Write the canvases idle for that long to their snapshot files and drop them from memory. Canvases
+     * never created are dropped without a file.
+     *
+     * @param idleMillis Time without requests.
+     * @return number of canvases evicted.
+     */
+    public int evictIdle(long idleMillis) {
+        if (snapshotDirectory == null) {
+            return 0;
+        }
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        int evicted = 0;
+        for (var entry : sessions.entrySet()) {
+            var name = entry.getKey();
+            var session = entry.getValue();
+            // Written under the lock of the session rather than of the map, so that requests for other
+            // canvases go on meanwhile.
+            try {
+                if (session.evict(snapshotFile(name), idleNanos)) {
+                    sessions.remove(name, session);
+                    evicted++;
+                }
+            } catch (InvalidInputException e) {
+                System.err.println("Cannot evict canvas " + name + ": " + e.getMessage());
+            }
+        }
+        evictions.add(evicted);
+        return evicted;
+    }
+
+    /**
+     * @return number of canvases evicted so far.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return canvases in memory, sorted by name.
+     */
+    public Collection<CanvasSession> getSessions() {
+        var sorted = new ArrayList<>(sessions.values());
+        sorted.sort(Comparator.comparing(CanvasSession::getName));
+        return sorted;
+    }
+
+    /**
+     * Force every canvas in memory to the file backing its storage, if any, see {@link CanvasSession#flush()}.
+     */
+    public void flush() {
+        for (var session : sessions.values()) {
+            session.flush();
+        }
+    }
+
+    /**
+     * Stop accepting clients and force the canvases to their files.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        clients.shutdownNow();
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * Answer the requests of a client until it quits or disconnects.
+     */
+    private void serve(Socket socket) {
+        try (socket;
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), BUFFER_CHARS);
+             var out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), BUFFER_CHARS)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                boolean open = handle(line, out);
+                out.flush();
+                if (!open) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // Client went away, nothing to answer.
+        }
+    }
+
+    /**
+     * Answer a request.
+     *
+     * @return FALSE if the client quit.
+     */
+    private boolean handle(String line, Writer out) throws IOException {
+        int space = line.indexOf(' ');
+        var name = space < 0 ? line : line.substring(0, space);
+        var argument = space < 0 ? "" : line.substring(space + 1);
+
+        if ("STATS".equals(name) && argument.isEmpty()) {
+            var hosted = getSessions();
+            out.write("OK " + hosted.size() + "\n");
+            for (var session : hosted) {
+                out.write(session + "\n");
+            }
+            return true;
+        }
+        if (argument.isEmpty() && name.equalsIgnoreCase("Q")) {
+            out.write("BYE\n");
+            return false;
+        }
+        if ("SHOW".equals(name)) {
+            var session = isValidName(argument) ? acquire(argument, false) : null;
+            if (session == null) {
+                out.write("ERR Canvas " + argument + " not found.\n");
+                return true;
+            }
+            try {
+                session.render(out);
+            } finally {
+                session.release();
+            }
+            return true;
+        }
+        if (!isValidName(name) || argument.isEmpty()) {
+            out.write("ERR Requests are 'name command', 'SHOW name' or 'STATS'. Names are letters, digits, '_' and '-'.\n");
+            return true;
+        }
+
+        CanvasSession session;
+        try {
+            session = acquire(name, true);
+        } catch (IllegalStateException e) {
+            out.write("ERR " + e.getMessage() + "\n");
+            return true;
+        }
+        try {
+            var command = session.execute(argument);
+            if (command instanceof Quit) {
+                out.write("BYE\n");
+                return false;
+            }
+            out.write("OK\n");
+        } catch (InvalidInputException e) {
+            out.write("ERR " + e.getMessage() + "\n");
+        } finally {
+            session.release();
+        }
+        return true;
+    }
+
+    /**
+     * Hold the session of a canvas for a request, restoring it if it was evicted. Release it afterwards.
+     *
+     * @param create TRUE to create the canvas if there is none.
+     * @return session, NULL if there is none and it is not created.
+     * @throws IllegalStateException if the snapshot of the evicted canvas cannot be restored.
+     */
+    private CanvasSession acquire(String name, boolean create) {
+        while (true) {
+            var session = sessions.get(name);
+            if (session == null) {
+                var snapshot = snapshotDirectory == null ? null : snapshotFile(name);
+                boolean evicted = snapshot != null && Files.exists(snapshot);
+                if (!create && !evicted) {
+                    return null;
+                }
+                var created = sessionFactory.apply(name);
+                if (!evicted) {
+                    session = sessions.putIfAbsent(name, created);
+                    if (session == null) {
+                        session = created;
+                    }
+                } else if (restore(name, created, snapshot)) {
+                    session = created;
+                } else {
+                    continue;
+                }
+            }
+            if (session.acquire()) {
+                return session;
+            }
+            // Dropped meanwhile, it leaves the map right after.
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Restore an evicted canvas into a new session, published before the snapshot is read so that
+     * requests for the canvas wait for it, see {@link CanvasSession#restoreEvicted}.
+     *
+     * @return FALSE if another session of the canvas was published meanwhile.
+     * @throws IllegalStateException if the snapshot cannot be restored.
+     */
+    private boolean restore(String name, CanvasSession session, Path snapshot) {
+        try {
+            return session.restoreEvicted(snapshot, () -> sessions.putIfAbsent(name, session) == null);
+        } catch (InvalidInputException e) {
+            sessions.remove(name, session);
+            throw new IllegalStateException("Cannot restore canvas " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Path snapshotFile(String name) {
+        return snapshotDirectory.resolve(name + SNAPSHOT_EXTENSION);
+    }
+
+    private static boolean isValidName(String name) {
+        if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
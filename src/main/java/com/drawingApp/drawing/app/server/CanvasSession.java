@@ -0,0 +1,325 @@
+package com.drawingApp.drawing.app.server;
+
+import com.drawingApp.drawing.app.commands.Command;
+import com.drawingApp.drawing.app.commands.CommandFactory;
+import com.drawingApp.drawing.app.commands.Load;
+import com.drawingApp.drawing.app.commands.Quit;
+import com.drawingApp.drawing.app.commands.Save;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A named canvas hosted by the {@link CanvasServer}, with its own repository and command factory.
+ * Commands on a session are executed one at a time, commands on different sessions concurrently.
+ * <p>
+ * The server may evict a session which is idle to a snapshot file and restore it on next use, see
+ * {@link #writeSnapshot} and {@link #restore}. The undo history does not survive the eviction.
+ */
+public class CanvasSession {
+
+    private final String name;
+    private final InMemoryCanvas inMemoryCanvas;
+    private final InMemoryCanvasRepository repository;
+    private final CommandFactory commandFactory;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+    /**
+     * Memory of the canvas and its history after the last command, read without taking the lock.
+     */
+    private volatile long memoryUsage;
+    /**
+     * Requests of clients which hold the session, see {@link #acquire()}.
+     */
+    private final AtomicInteger users = new AtomicInteger();
+    /**
+     * {@link System#nanoTime()} of the end of the last request.
+     */
+    private volatile long lastUsed = System.nanoTime();
+    /**
+     * TRUE once the session is evicted or its canvas failed to be restored, guarded by the lock. The
+     * server drops the session from its map, so requests go to a new session.
+     */
+    private boolean dropped;
+
+    /**
+     * Creates new instance of {@link CanvasSession}
+     *
+     * @param name           Name of the canvas.
+     * @param inMemoryCanvas Canvas of the session.
+     * @param repository     Repository drawing upon the canvas, used by this session only.
+     */
+    public CanvasSession(String name, InMemoryCanvas inMemoryCanvas, InMemoryCanvasRepository repository) {
+        this.name = name;
+        this.inMemoryCanvas = inMemoryCanvas;
+        this.repository = repository;
+        this.commandFactory = new CommandFactory(repository);
+        this.memoryUsage = repository.memoryUsage();
+    }
+
+    /**
+     * Parse and execute a command, waiting for the commands of other clients on this canvas.
+     *
+     * @param input Command, in the grammar of the console.
+     * @return executed command. A {@link Quit} is returned without being executed.
+     * @throws InvalidInputException if the command is not valid or cannot be executed. Clients may not
+     *                               {@link Save} or {@link Load}, which would reach any file of the host.
+     */
+    public Command execute(String input) throws InvalidInputException {
+        long start = System.nanoTime();
+        lock.lock();
+        try {
+            var command = commandFactory.parse(input);
+            if (command instanceof Save || command instanceof Load) {
+                throw new InvalidInputException("Save and load are not available on the server.");
+            }
+            if (!(command instanceof Quit)) {
+                command.execute();
+            }
+            return command;
+        } catch (InvalidInputException e) {
+            errors.increment();
+            throw e;
+        } finally {
+            memoryUsage = repository.memoryUsage();
+            lock.unlock();
+            long latency = System.nanoTime() - start;
+            commands.increment();
+            totalLatency.add(latency);
+            maxLatency.accumulateAndGet(latency, Math::max);
+            lastUsed = System.nanoTime();
+        }
+    }
+
+    /**
+     * Write the canvas, one line per row after a line giving their number, blank cells as spaces.
+     * <p>
+     * The canvas is written from a {@link InMemoryCanvas#snapshot() snapshot}, taken as the commands of
+     * other clients wait, so that they go on while a slow client reads its rows.
+     *
+     * @param out Writer to render upon.
+     * @throws IOException if the canvas cannot be written.
+     */
+    public void render(Writer out) throws IOException {
+        CanvasStorage canvas;
+        lock.lock();
+        try {
+            canvas = inMemoryCanvas.snapshot();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            var row = new char[canvas.getWidth()];
+            out.write("OK " + canvas.getHeight() + "\n");
+            for (int i = 0; i < canvas.getHeight(); i++) {
+                canvas.readRow(i, row);
+                for (int j = 0; j < row.length; j++) {
+                    if (row[j] == 0) {
+                        row[j] = ' ';
+                    }
+                }
+                out.write(row);
+                out.write('\n');
+            }
+        } finally {
+            lastUsed = System.nanoTime();
+        }
+    }
+
+    /**
+     * Replace the canvas by a snapshot written when the session was evicted.
+     *
+     * @param file Snapshot file.
+     * @throws InvalidInputException if the file cannot be read or is not a valid snapshot.
+     */
+    public void restore(Path file) throws InvalidInputException {
+        lock.lock();
+        try {
+            repository.loadCanvas(file);
+            memoryUsage = repository.memoryUsage();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write the canvas to a snapshot file, so that the session may be dropped and restored later.
+     *
+     * @param file Snapshot file, replaced if it exists.
+     * @return FALSE if there is no canvas, in which case nothing is written.
+     * @throws InvalidInputException if the file cannot be written.
+     */
+    public boolean writeSnapshot(Path file) throws InvalidInputException {
+        lock.lock();
+        try {
+            if (inMemoryCanvas.getStorage().isEmpty()) {
+                return false;
+            }
+            repository.saveCanvas(file);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write the canvas to a snapshot file and drop the session, if it is idle. Requests acquiring the
+     * session meanwhile wait for the file to be written, then fail to acquire it.
+     *
+     * @param file         Snapshot file, replaced if it exists.
+     * @param timeoutNanos Time since the last request.
+     * @return TRUE if the session is dropped.
+     * @throws InvalidInputException if the file cannot be written, the session is then kept.
+     */
+    boolean evict(Path file, long timeoutNanos) throws InvalidInputException {
+        lock.lock();
+        try {
+            if (dropped || !isIdle(timeoutNanos)) {
+                return false;
+            }
+            writeSnapshot(file);
+            dropped = true;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Restore the canvas of an evicted session from its snapshot file, then delete the file, as the canvas
+     * lives in memory again. The session is published before the file is read, so that requests for it
+     * wait for the restore rather than create another session.
+     *
+     * @param file    Snapshot file.
+     * @param publish Publishes the session, FALSE if another one was published meanwhile, in which case
+     *                nothing is restored.
+     * @return FALSE if the session was not published.
+     * @throws InvalidInputException if the file cannot be read or is not a valid snapshot, the session is
+     *                               then dropped.
+     */
+    boolean restoreEvicted(Path file, BooleanSupplier publish) throws InvalidInputException {
+        lock.lock();
+        try {
+            if (!publish.getAsBoolean()) {
+                return false;
+            }
+            try {
+                restore(file);
+            } catch (InvalidInputException e) {
+                dropped = true;
+                throw e;
+            }
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                System.err.println("Cannot delete snapshot " + file + ": " + e.getMessage());
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Force the canvas to the file backing its storage, if any, waiting for the command in progress.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            repository.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hold the session for a request, so that it is not evicted until {@link #release() released}. Waits
+     * for an eviction or a restore in progress.
+     *
+     * @return FALSE if the session was dropped, in which case it is not held.
+     */
+    boolean acquire() {
+        lock.lock();
+        try {
+            if (dropped) {
+                return false;
+            }
+            users.incrementAndGet();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * End a request started by {@link #acquire()}.
+     */
+    void release() {
+        users.decrementAndGet();
+    }
+
+    /**
+     * @param timeoutNanos Time since the last request.
+     * @return TRUE if no request holds the session and none ended for that long.
+     */
+    boolean isIdle(long timeoutNanos) {
+        return users.get() == 0 && System.nanoTime() - lastUsed >= timeoutNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCommands() {
+        return commands.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return estimated number of bytes held by the canvas and its undo history.
+     */
+    public long getMemoryUsage() {
+        return memoryUsage;
+    }
+
+    /**
+     * @return mean time to execute a command, including the wait for other clients, in nanoseconds.
+     */
+    public long getAverageLatencyNanos() {
+        long count = commands.sum();
+        return count == 0 ? 0 : totalLatency.sum() / count;
+    }
+
+    /**
+     * @return longest time to execute a command, including the wait for other clients, in nanoseconds.
+     */
+    public long getMaxLatencyNanos() {
+        return maxLatency.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s commands=%d errors=%d memory=%d avgLatencyUs=%.1f maxLatencyUs=%.1f",
+                name, getCommands(), getErrors(), getMemoryUsage(),
+                getAverageLatencyNanos() / 1000.0, getMaxLatencyNanos() / 1000.0);
+    }
+}
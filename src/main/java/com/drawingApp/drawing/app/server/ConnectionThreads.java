@@ -0,0 +1,63 @@
+package com.drawingApp.drawing.app.server;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every connection on a thread of its own: a virtual thread on Java 21 and later, so that tens of
+ * thousands of mostly idle clients cost a few kilobytes each, otherwise a platform thread with a small
+ * stack. Virtual threads are looked up at runtime, so the same build runs on Java 11.
+ */
+final class ConnectionThreads {
+
+    /**
+     * Stack of the platform threads, which only read lines and execute a command at a time.
+     */
+    private static final long PLATFORM_STACK_BYTES = 256 * 1024;
+
+    private ConnectionThreads() {
+    }
+
+    /**
+     * @param name Prefix of the names of the platform threads.
+     * @return executor starting a thread per task.
+     */
+    static ExecutorService newExecutor(String name) {
+        var virtual = newVirtualExecutor();
+        if (virtual != null) {
+            return virtual;
+        }
+        var count = new AtomicInteger();
+        return Executors.newCachedThreadPool(task -> {
+            var thread = new Thread(null, task, name + "-" + count.incrementAndGet(), PLATFORM_STACK_BYTES);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return TRUE if connections run on virtual threads.
+     */
+    static boolean isVirtual() {
+        var virtual = newVirtualExecutor();
+        if (virtual == null) {
+            return false;
+        }
+        virtual.shutdown();
+        return true;
+    }
+
+    /**
+     * @return executor of virtual threads, or NULL if this runtime has none. Java 19 and 20 have them
+     * as a preview feature only, refused unless enabled.
+     */
+    private static ExecutorService newVirtualExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+    }
+}
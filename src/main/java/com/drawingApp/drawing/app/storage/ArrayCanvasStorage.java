@@ -0,0 +1,205 @@
+package com.drawingApp.drawing.app.storage;
+
+import com.drawingApp.drawing.app.kernels.Kernels;
+import com.drawingApp.drawing.app.kernels.SpanKernels;
+
+import java.util.Arrays;
+
+/**
+ * Canvas stored as a 2D character array, one array per row.
+ * <p>
+ * A new canvas allocates no row: every row is the same blank row, and {@link #drawBorder} makes them
+ * the same border rows, so a canvas of any width is created in time linear in its height. A row is
+ * copied on its first write. A {@link #snapshot()} shares the row arrays the same way: a row is copied
+ * on its first write after the snapshot, so the snapshot keeps the former one.
+ * <p>
+ * Runs are written and scanned by the {@link Kernels}, many cells at a time.
+ */
+public class ArrayCanvasStorage implements CanvasStorage {
+
+    private static final SpanKernels KERNELS = Kernels.get();
+
+    private final char[][] canvas;
+    /**
+     * Number of snapshots taken.
+     */
+    private int generation;
+    /**
+     * Generation in which every row was last copied, NULL while the rows are not shared. A row copied in
+     * an older generation is shared with a snapshot, or is one of the {@link #sharedRows}.
+     */
+    private int[] rowGenerations;
+    /**
+     * Rows standing for every row never written: blank row, then border rows once drawn. Never written.
+     */
+    private char[][] sharedRows;
+
+    /**
+     * Creates a blank canvas.
+     *
+     * @param height Number of rows, including borders.
+     * @param width  Number of columns, including borders.
+     */
+    public ArrayCanvasStorage(int height, int width) {
+        this.canvas = new char[height][];
+        var blank = new char[width];
+        Arrays.fill(canvas, blank);
+        this.sharedRows = new char[][]{blank};
+        this.rowGenerations = new int[height];
+        this.generation = 1;
+    }
+
+    /**
+     * Wraps an existing canvas. Writes go straight to the given array, but for rows shared with a
+     * {@link #snapshot()}, which are replaced by a copy.
+     *
+     * @param canvas Canvas as 2D character array.
+     */
+    public ArrayCanvasStorage(char[][] canvas) {
+        this.canvas = canvas;
+    }
+
+    @Override
+    public int getHeight() {
+        return canvas.length;
+    }
+
+    @Override
+    public int getWidth() {
+        return canvas.length == 0 ? 0 : canvas[0].length;
+    }
+
+    @Override
+    public char get(int row, int col) {
+        return canvas[row][col];
+    }
+
+    @Override
+    public void set(int row, int col, char value) {
+        writableRow(row)[col] = value;
+    }
+
+    @Override
+    public void fillRow(int row, int fromCol, int toCol, char value) {
+        KERNELS.fill(writableRow(row), fromCol, toCol, value);
+    }
+
+    @Override
+    public int mismatch(int row, int fromCol, int toCol, char value) {
+        return KERNELS.mismatch(canvas[row], fromCol, toCol, value);
+    }
+
+    @Override
+    public int lastMismatch(int row, int fromCol, int toCol, char value) {
+        return KERNELS.lastMismatch(canvas[row], fromCol, toCol, value);
+    }
+
+    @Override
+    public int indexOfEither(int row, int fromCol, int toCol, char first, char second) {
+        return KERNELS.indexOfEither(canvas[row], fromCol, toCol, first, second);
+    }
+
+    @Override
+    public int lastIndexOfEither(int row, int fromCol, int toCol, char first, char second) {
+        return KERNELS.lastIndexOfEither(canvas[row], fromCol, toCol, first, second);
+    }
+
+    @Override
+    public boolean isRowConcurrent() {
+        return true;
+    }
+
+    @Override
+    public void readRow(int row, char[] destination) {
+        System.arraycopy(canvas[row], 0, destination, 0, canvas[row].length);
+    }
+
+    /**
+     * Share the border rows between all rows never written, in time linear in the height only.
+     */
+    @Override
+    public void drawBorder(char horizontal, char vertical) {
+        if (sharedRows == null || canvas.length < 2 || getWidth() < 2) {
+            CanvasStorage.super.drawBorder(horizontal, vertical);
+            return;
+        }
+        int width = getWidth();
+        var edge = new char[width];
+        Arrays.fill(edge, horizontal);
+        var middle = new char[width];
+        middle[0] = vertical;
+        middle[width - 1] = vertical;
+        sharedRows = new char[][]{edge, middle};
+        canvas[0] = edge;
+        canvas[canvas.length - 1] = edge;
+        for (int row = 1; row < canvas.length - 1; row++) {
+            canvas[row] = middle;
+            rowGenerations[row] = generation - 1;
+        }
+        rowGenerations[0] = generation - 1;
+        rowGenerations[canvas.length - 1] = generation - 1;
+    }
+
+    @Override
+    public long memoryUsage() {
+        // Array header plus one reference per row, then every row array, shared rows once.
+        long rowBytes = 16 + 2L * getWidth();
+        long usage = 16 + 4L * canvas.length;
+        if (sharedRows == null) {
+            return usage + canvas.length * rowBytes;
+        }
+        if (rowGenerations != null) {
+            usage += 16 + 4L * rowGenerations.length;
+        }
+        usage += sharedRows.length * rowBytes;
+        for (var row : canvas) {
+            if (!isShared(row)) {
+                usage += rowBytes;
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Share every row with the snapshot, in time linear in the number of rows.
+     */
+    @Override
+    public CanvasStorage snapshot() {
+        if (rowGenerations == null) {
+            rowGenerations = new int[canvas.length];
+            sharedRows = new char[0][];
+        }
+        generation++;
+        var snapshot = new ArrayCanvasStorage(canvas.clone());
+        snapshot.sharedRows = sharedRows;
+        return new ReadOnlyCanvasStorage(snapshot);
+    }
+
+    /**
+     * @return the backing array itself, not a copy, to check which rows are shared. Rows never written may
+     * be the same array.
+     */
+    char[][] rows() {
+        return canvas;
+    }
+
+    /**
+     * @return array of a row, first copied if a snapshot shares it.
+     */
+    private char[] writableRow(int row) {
+        if (rowGenerations != null && rowGenerations[row] != generation) {
+            canvas[row] = canvas[row].clone();
+            rowGenerations[row] = generation;
+        }
+        return canvas[row];
+    }
+
+    private boolean isShared(char[] row) {
+        for (var shared : sharedRows) {
+            if (row == shared) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,325 @@
+package com.drawingApp.drawing.app.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary snapshot of a canvas, streamed through a {@link FileChannel} row by row.
+ * <p>
+ * The file holds a header, the rows and a checksum:
+ * <ul>
+ *     <li>header: magic number, format version, flags (0), height and width, as big-endian ints and shorts;</li>
+ *     <li>every row as its number of runs followed by the value and length of each run, all as unsigned
+ *     varints. A row made of the same runs as the row above is written as 0 runs;</li>
+ *     <li>the CRC32C of everything before it, as an int.</li>
+ * </ul>
+ * Blank rows take a few bytes whatever their width, so mostly blank canvases of billions of cells take
+ * kilobytes. Cells holding 0 are not written on load, as new storages are blank.
+ * <p>
+ * Snapshots are at most {@link #MAX_WIDTH} columns wide, as a row is held in memory while it is written
+ * or read, and hold at least a byte per row, which bounds the height read from a header.
+ */
+public final class CanvasSnapshot {
+
+    /**
+     * "DRAW" in ASCII.
+     */
+    static final int MAGIC = 0x44524157;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int CHECKSUM_BYTES = 4;
+    private static final int BUFFER_BYTES = 1 << 16;
+    /**
+     * Most columns of a snapshot, including borders.
+     */
+    static final int MAX_WIDTH = 1 << 24;
+    /**
+     * Longest varint of an int.
+     */
+    private static final int MAX_VARINT_BYTES = 5;
+
+    private CanvasSnapshot() {
+    }
+
+    /**
+     * Write a canvas to a file, replacing it, and force it to disk.
+     *
+     * @param canvas Canvas to write.
+     * @param file   File to write to.
+     * @return number of bytes written.
+     * @throws IOException if the file cannot be written, or the canvas is wider than {@link #MAX_WIDTH}.
+     */
+    public static long write(CanvasStorage canvas, Path file) throws IOException {
+        if (canvas.getWidth() > MAX_WIDTH) {
+            throw new IOException("Canvas is wider than " + MAX_WIDTH + " cells.");
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var out = new Output(channel);
+            out.buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+                    .putInt(canvas.getHeight()).putInt(canvas.getWidth());
+
+            var cells = new char[canvas.getWidth()];
+            var runs = new int[16];
+            var previous = new int[16];
+            int previousCount = -1;
+            for (int row = 0; row < canvas.getHeight(); row++) {
+                canvas.readRow(row, cells);
+                int count = 0;
+                int col = 0;
+                while (col < cells.length) {
+                    int start = col;
+                    char value = cells[col];
+                    do {
+                        col++;
+                    } while (col < cells.length && cells[col] == value);
+                    if (count + 2 > runs.length) {
+                        runs = Arrays.copyOf(runs, runs.length * 2);
+                    }
+                    runs[count++] = value;
+                    runs[count++] = col - start;
+                }
+
+                if (count == previousCount && Arrays.equals(runs, 0, count, previous, 0, count)) {
+                    out.putVarint(0);
+                    continue;
+                }
+                out.putVarint(count / 2);
+                for (int i = 0; i < count; i++) {
+                    out.putVarint(runs[i]);
+                }
+                var swap = previous;
+                previous = runs;
+                runs = swap;
+                previousCount = count;
+            }
+            out.finish();
+            channel.force(false);
+            return out.written;
+        }
+    }
+
+    /**
+     * Read a canvas from a file, into a {@link CanvasStorageFactory#createStaged staged} storage published
+     * only once the whole file is read and its checksum verified.
+     *
+     * @param file    File to read from.
+     * @param factory Creates the storage of the canvas.
+     * @return canvas read.
+     * @throws IOException if the file cannot be read or is not a valid snapshot, or the storage cannot hold it,
+     *                     e.g. a value it does not store.
+     */
+    public static CanvasStorage read(Path file, CanvasStorageFactory factory) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var in = new Input(channel, channel.size() - CHECKSUM_BYTES);
+            in.require(HEADER_BYTES);
+            if (in.buffer.getInt() != MAGIC) {
+                throw new IOException("Not a canvas snapshot.");
+            }
+            short version = in.buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ".");
+            }
+            in.buffer.getShort();
+            int height = in.buffer.getInt();
+            int width = in.buffer.getInt();
+            // Every row takes at least a byte.
+            long rowBytes = channel.size() - CHECKSUM_BYTES - HEADER_BYTES;
+            if (height < 3 || width < 3 || height > rowBytes || width > MAX_WIDTH) {
+                throw corrupted("invalid size " + height + "x" + width);
+            }
+
+            CanvasStorage canvas;
+            try {
+                canvas = factory.createStaged(height, width);
+            } catch (RuntimeException e) {
+                throw new IOException("Cannot create a canvas of " + height + "x" + width + ": " + e.getMessage(), e);
+            }
+            try {
+                var runs = new int[16];
+                int count = -1;
+                for (int row = 0; row < height; row++) {
+                    int runCount = in.getVarint();
+                    if (runCount == 0) {
+                        if (count < 0) {
+                            throw corrupted("first row repeats no row");
+                        }
+                    } else {
+                        if (runCount > width) {
+                            throw corrupted("row " + row + " has " + runCount + " runs");
+                        }
+                        count = 2 * runCount;
+                        if (count > runs.length) {
+                            runs = new int[count];
+                        }
+                        long length = 0;
+                        for (int i = 0; i < count; i += 2) {
+                            runs[i] = in.getVarint();
+                            runs[i + 1] = in.getVarint();
+                            if (runs[i] < 0 || runs[i] > Character.MAX_VALUE || runs[i + 1] <= 0) {
+                                throw corrupted("invalid run in row " + row);
+                            }
+                            length += runs[i + 1];
+                        }
+                        if (length != width) {
+                            throw corrupted("row " + row + " holds " + length + " cells");
+                        }
+                    }
+
+                    int col = 0;
+                    for (int i = 0; i < count; i += 2) {
+                        if (runs[i] != 0) {
+                            try {
+                                canvas.fillRow(row, col, col + runs[i + 1], (char) runs[i]);
+                            } catch (IllegalArgumentException | IllegalStateException e) {
+                                // A value the storage does not hold, e.g. past ISO-8859-1 or its palette.
+                                throw new IOException("Canvas storage cannot hold row " + row + ": " + e.getMessage(), e);
+                            }
+                        }
+                        col += runs[i + 1];
+                    }
+                }
+                in.verify();
+            } catch (IOException | RuntimeException e) {
+                try {
+                    factory.discard(canvas);
+                } catch (IOException discardError) {
+                    e.addSuppressed(discardError);
+                }
+                throw e;
+            }
+            return factory.publish(canvas);
+        }
+    }
+
+    private static IOException corrupted(String reason) {
+        return new IOException("Snapshot is corrupted: " + reason + ".");
+    }
+
+    /**
+     * Buffered writes to a channel, summing the bytes into the checksum.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final CRC32C checksum = new CRC32C();
+        private long written;
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void putVarint(int value) throws IOException {
+            if (buffer.remaining() < MAX_VARINT_BYTES) {
+                drain();
+            }
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void finish() throws IOException {
+            drain();
+            buffer.putInt((int) checksum.getValue());
+            buffer.flip();
+            writeFully();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            checksum.update(buffer);
+            buffer.rewind();
+            writeFully();
+        }
+
+        private void writeFully() throws IOException {
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Buffered reads from a channel, summing the bytes into the checksum. The checksum itself is read by
+     * {@link #verify()}.
+     */
+    private static final class Input {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        private final CRC32C checksum = new CRC32C();
+        /**
+         * Bytes before the checksum not read from the channel yet.
+         */
+        private long unread;
+
+        private Input(FileChannel channel, long length) {
+            this.channel = channel;
+            this.unread = length;
+            buffer.limit(0);
+        }
+
+        private int getVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                if (!buffer.hasRemaining()) {
+                    require(1);
+                }
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw corrupted("invalid number");
+        }
+
+        /**
+         * Make sure that the buffer holds at least that many bytes.
+         */
+        private void require(int bytes) throws IOException {
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (unread <= 0) {
+                    throw corrupted("unexpected end of file");
+                }
+                int start = buffer.position();
+                buffer.limit((int) Math.min(buffer.capacity(), start + unread));
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    throw corrupted("unexpected end of file");
+                }
+                unread -= read;
+                var chunk = buffer.duplicate();
+                chunk.flip().position(start);
+                checksum.update(chunk);
+            }
+            buffer.flip();
+        }
+
+        /**
+         * Check that every byte was read and matches the checksum which follows.
+         */
+        private void verify() throws IOException {
+            if (buffer.hasRemaining() || unread != 0) {
+                throw corrupted("unexpected data after the last row");
+            }
+            buffer.clear().limit(CHECKSUM_BYTES);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw corrupted("unexpected end of file");
+                }
+            }
+            if (buffer.flip().getInt() != (int) checksum.getValue()) {
+                throw corrupted("checksum mismatch");
+            }
+        }
+    }
+}
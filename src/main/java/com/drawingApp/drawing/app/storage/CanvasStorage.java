@@ -0,0 +1,220 @@
+package com.drawingApp.drawing.app.storage;
+
+/**
+ * Pixel store of a canvas. Rows and columns include the canvas's borders, so the drawing area
+ * goes from (1, 1) to (height - 2, width - 2). A cell never written holds 0.
+ */
+public interface CanvasStorage {
+
+    /**
+     * @return number of rows, including top and bottom borders. 0 if there is no canvas.
+     */
+    int getHeight();
+
+    /**
+     * @return number of columns, including left and right borders.
+     */
+    int getWidth();
+
+    /**
+     * Read a cell.
+     *
+     * @param row Row of the cell.
+     * @param col Column of the cell.
+     * @return character of the cell.
+     */
+    char get(int row, int col);
+
+    /**
+     * Write a cell.
+     *
+     * @param row   Row of the cell.
+     * @param col   Column of the cell.
+     * @param value character to write.
+     */
+    void set(int row, int col, char value);
+
+    /**
+     * Write the same character on a horizontal run of cells.
+     *
+     * @param row     Row of the run.
+     * @param fromCol First column of the run, inclusive.
+     * @param toCol   Last column of the run, exclusive.
+     * @param value   character to write.
+     */
+    void fillRow(int row, int fromCol, int toCol, char value);
+
+    /**
+     * Scan a span of a row for the first cell not holding a character.
+     *
+     * @param row     Row to scan.
+     * @param fromCol First column of the span, inclusive.
+     * @param toCol   Last column of the span, exclusive.
+     * @param value   character of the cells skipped.
+     * @return first column of the span whose cell does not hold {@code value}, or {@code toCol} if there is none.
+     */
+    default int mismatch(int row, int fromCol, int toCol, char value) {
+        int col = fromCol;
+        while (col < toCol && get(row, col) == value) {
+            col++;
+        }
+        return col;
+    }
+
+    /**
+     * Scan a span of a row backwards for the last cell not holding a character.
+     *
+     * @param row     Row to scan.
+     * @param fromCol First column of the span, inclusive.
+     * @param toCol   Last column of the span, exclusive.
+     * @param value   character of the cells skipped.
+     * @return last column of the span whose cell does not hold {@code value}, or {@code fromCol - 1} if there is none.
+     */
+    default int lastMismatch(int row, int fromCol, int toCol, char value) {
+        int col = toCol - 1;
+        while (col >= fromCol && get(row, col) == value) {
+            col--;
+        }
+        return col;
+    }
+
+    /**
+     * Scan a span of a row for the first cell holding either of two characters.
+     *
+     * @param row     Row to scan.
+     * @param fromCol First column of the span, inclusive.
+     * @param toCol   Last column of the span, exclusive.
+     * @param first   character looked for.
+     * @param second  other character looked for.
+     * @return first column of the span whose cell holds either character, or {@code toCol} if there is none.
+     */
+    default int indexOfEither(int row, int fromCol, int toCol, char first, char second) {
+        int col = fromCol;
+        while (col < toCol && get(row, col) != first && get(row, col) != second) {
+            col++;
+        }
+        return col;
+    }
+
+    /**
+     * Scan a span of a row backwards for the last cell holding either of two characters.
+     *
+     * @param row     Row to scan.
+     * @param fromCol First column of the span, inclusive.
+     * @param toCol   Last column of the span, exclusive.
+     * @param first   character looked for.
+     * @param second  other character looked for.
+     * @return last column of the span whose cell holds either character, or {@code fromCol - 1} if there is none.
+     */
+    default int lastIndexOfEither(int row, int fromCol, int toCol, char first, char second) {
+        int col = toCol - 1;
+        while (col >= fromCol && get(row, col) != first && get(row, col) != second) {
+            col--;
+        }
+        return col;
+    }
+
+    /**
+     * Copy a whole row.
+     *
+     * @param row         Row to copy.
+     * @param destination Array of at least {@link #getWidth()} characters.
+     */
+    void readRow(int row, char[] destination);
+
+    /**
+     * Copy a whole row as runs of the same character, if this storage keeps its rows that way.
+     *
+     * @param row    Row to copy.
+     * @param starts Receives the first column of every run, at least {@link #getWidth()} ints.
+     * @param values Receives the character of every run, at least {@link #getWidth()} characters.
+     * @return number of runs, or -1 if this storage does not keep runs and the row must be read by {@link #readRow}.
+     */
+    default int readRuns(int row, int[] starts, char[] values) {
+        return -1;
+    }
+
+    /**
+     * @return estimated number of bytes held by this storage.
+     */
+    long memoryUsage();
+
+    /**
+     * Write the border of a new, blank canvas: the first and last rows hold {@code horizontal}, the first
+     * and last columns of the rows between hold {@code vertical}. By default the cells are written one by
+     * one. Storages sharing their blank rows share border rows instead, whatever the width of the canvas.
+     *
+     * @param horizontal Character of the top and bottom borders.
+     * @param vertical   Character of the left and right borders.
+     */
+    default void drawBorder(char horizontal, char vertical) {
+        fillRow(0, 0, getWidth(), horizontal);
+        fillRow(getHeight() - 1, 0, getWidth(), horizontal);
+        for (int row = 1; row <= getHeight() - 2; row++) {
+            set(row, 0, vertical);
+            set(row, getWidth() - 1, vertical);
+        }
+    }
+
+    /**
+     * Reading cells from several threads at the same time is always allowed.
+     *
+     * @return TRUE if different rows can also be written from different threads at the same time.
+     */
+    default boolean isRowConcurrent() {
+        return false;
+    }
+
+    /**
+     * Force the cells to the file backing this storage, if any, so that they survive a crash of the host.
+     * By default there is no file and nothing is done.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Release memory of regions which became uniform after bulk writes such as a bucket fill.
+     */
+    default void compact() {
+    }
+
+    /**
+     * Take a point-in-time image of the canvas, which later writes to this storage do not change. The
+     * snapshot is read-only and may be read from any thread while this storage goes on being written,
+     * once handed over safely, e.g. under a lock or through a concurrent queue.
+     * <p>
+     * By default the whole canvas is copied. Storages keeping their rows or tiles as separate arrays share
+     * them with the snapshot instead, and copy a row or tile on its first write after the snapshot: a
+     * snapshot costs a reference per row or tile, and only the regions drawn since are copied. A mapped
+     * storage shares its mapping the same way, saving a row into the snapshot before its first write.
+     *
+     * @return read-only image of the canvas.
+     */
+    default CanvasStorage snapshot() {
+        var copy = new char[getHeight()][getWidth()];
+        for (int row = 0; row < copy.length; row++) {
+            readRow(row, copy[row]);
+        }
+        return new ReadOnlyCanvasStorage(new ArrayCanvasStorage(copy));
+    }
+
+    /**
+     * @return TRUE if there is no canvas yet.
+     */
+    default boolean isEmpty() {
+        return getHeight() == 0;
+    }
+
+    /**
+     * Copy the canvas into a 2D character array.
+     *
+     * @return canvas as 2D character array.
+     */
+    default char[][] toArray() {
+        var canvas = new char[getHeight()][getWidth()];
+        for (int row = 0; row < canvas.length; row++) {
+            readRow(row, canvas[row]);
+        }
+        return canvas;
+    }
+}
@@ -0,0 +1,56 @@
+package com.drawingApp.drawing.app.storage;
+
+import java.io.IOException;
+
+/**
+ * Creates the storage of a new canvas.
+ * <p>
+ * A canvas which may turn out invalid once written, such as a snapshot being read, is written into a
+ * {@link #createStaged staged} storage, then {@link #publish published} or {@link #discard discarded}.
+ * Storages sharing a resource with the current canvas, such as its file, leave it untouched until then.
+ */
+@FunctionalInterface
+public interface CanvasStorageFactory {
+
+    /**
+     * Create a blank storage.
+     *
+     * @param height Number of rows, including borders.
+     * @param width  Number of columns, including borders.
+     * @return new storage with every cell holding 0.
+     */
+    CanvasStorage create(int height, int width);
+
+    /**
+     * Create a blank storage which does not disturb the current canvas until {@link #publish published}.
+     * By default the same as {@link #create}.
+     *
+     * @param height Number of rows, including borders.
+     * @param width  Number of columns, including borders.
+     * @return new storage with every cell holding 0.
+     */
+    default CanvasStorage createStaged(int height, int width) {
+        return create(height, width);
+    }
+
+    /**
+     * Make a staged storage take the place of the current canvas, e.g. move its file over the canvas file.
+     * By default there is nothing to do.
+     *
+     * @param staged Storage created by {@link #createStaged}, completely written.
+     * @return storage to use as the canvas.
+     * @throws IOException if the storage cannot be put in place.
+     */
+    default CanvasStorage publish(CanvasStorage staged) throws IOException {
+        return staged;
+    }
+
+    /**
+     * Release a staged storage which is not used after all. By default there is nothing to do.
+     *
+     * @param staged Storage created by {@link #createStaged}.
+     * @throws IOException if its resources cannot be released.
+     */
+    default void discard(CanvasStorage staged) throws IOException {
+    }
+}
@@ -0,0 +1,445 @@
+package com.drawingApp.drawing.app.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Canvas stored off-heap in a memory-mapped file, one byte per cell (ISO-8859-1 characters).
+ * The canvas size is not limited by the heap, the OS page cache decides which parts are resident,
+ * and the canvas survives the process: {@link #open(Path)} maps an existing file without reading it.
+ * <p>
+ * File layout: a {@value #HEADER_SIZE} bytes header (magic, version, height, width) followed by the
+ * cells row by row. The file is created sparse, so blank regions take no disk space on most file systems.
+ * <p>
+ * Cells are forced to the file by {@link #flush()}: on quit, at journal checkpoints and when the server
+ * shuts down. A crash of the host loses the cells written since the last flush the OS did not write back.
+ * <p>
+ * A {@link #snapshot()} reads the mapped cells as they are, and copies a row to the heap only on its first
+ * write after the snapshot: the row is saved into the snapshot before it is written, so the snapshot keeps
+ * the former one. Only the most recent snapshot is held, weakly, so rows are no longer saved once every
+ * snapshot is dropped. A new canvas file replaces the former one by a rename, so that snapshots of a
+ * replaced canvas still read the file they mapped.
+ */
+public class MappedCanvasStorage implements CanvasStorage {
+
+    static final int MAGIC = 0x4452574D; // "DRWM"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    /**
+     * A single mapping is limited to 2GB, so cells are mapped in chunks of 1GB.
+     */
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+    /**
+     * Suffix of the file of a staged canvas, next to the canvas file.
+     */
+    private static final String STAGED_SUFFIX = ".staged";
+    /**
+     * Suffix of the file of a canvas being created, moved over the canvas file once created.
+     */
+    private static final String CREATED_SUFFIX = ".new";
+
+    private final Path file;
+    private final int height;
+    private final int width;
+    private final MappedByteBuffer[] chunks;
+    /**
+     * Number of snapshots taken.
+     */
+    private int generation;
+    /**
+     * Generation in which every row was last saved into a snapshot, or found not to need it. NULL until
+     * the first snapshot.
+     */
+    private int[] rowGenerations;
+    /**
+     * Most recent snapshot, which rows written for the first time since are saved into.
+     */
+    private WeakReference<Snapshot> latest;
+
+    private MappedCanvasStorage(Path file, FileChannel channel, int height, int width) throws IOException {
+        this.file = file;
+        this.height = height;
+        this.width = width;
+        long size = (long) height * width;
+        this.chunks = new MappedByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            long start = (long) i << CHUNK_SHIFT;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + start, Math.min(size - start, 1L << CHUNK_SHIFT));
+        }
+    }
+
+    private MappedCanvasStorage(Path file, MappedCanvasStorage moved) {
+        this.file = file;
+        this.height = moved.height;
+        this.width = moved.width;
+        this.chunks = moved.chunks;
+    }
+
+    /**
+     * Factory of canvases mapped on a file. Staged canvases, e.g. snapshots being loaded, are written to a
+     * file next to it and moved over it once published, so that the current canvas keeps its cells until then.
+     *
+     * @param file Canvas file.
+     * @return factory of canvases mapped on the file.
+     */
+    public static CanvasStorageFactory factory(Path file) {
+        return new CanvasStorageFactory() {
+            @Override
+            public CanvasStorage create(int height, int width) {
+                return MappedCanvasStorage.create(file, height, width);
+            }
+
+            @Override
+            public CanvasStorage createStaged(int height, int width) {
+                return MappedCanvasStorage.create(file.resolveSibling(file.getFileName() + STAGED_SUFFIX), height, width);
+            }
+
+            @Override
+            public CanvasStorage publish(CanvasStorage staged) throws IOException {
+                return ((MappedCanvasStorage) staged).moveTo(file);
+            }
+
+            @Override
+            public void discard(CanvasStorage staged) throws IOException {
+                Files.deleteIfExists(((MappedCanvasStorage) staged).getFile());
+            }
+        };
+    }
+
+    /**
+     * Create a blank canvas file, replacing any existing file.
+     *
+     * @param file   Canvas file.
+     * @param height Number of rows, including borders.
+     * @param width  Number of columns, including borders.
+     * @return storage mapped on the new file.
+     * @throws UncheckedIOException if the file cannot be created.
+     */
+    public static MappedCanvasStorage create(Path file, int height, int width) {
+        // Truncating the former file would fault the reads of the storages still mapping it.
+        var created = file.resolveSibling(file.getFileName() + CREATED_SUFFIX);
+        try (var channel = FileChannel.open(created, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            var header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(height).putInt(width).rewind();
+            channel.write(header, 0);
+            // Mapping past the end of the file extends it, leaving blank cells as holes.
+            var storage = new MappedCanvasStorage(created, channel, height, width);
+            Files.move(created, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return new MappedCanvasStorage(file, storage);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create canvas file " + file, e);
+        }
+    }
+
+    /**
+     * Map an existing canvas file. Only the header is read.
+     *
+     * @param file Canvas file.
+     * @return storage mapped on the file.
+     * @throws UncheckedIOException if the file cannot be read or is not a canvas file.
+     */
+    public static MappedCanvasStorage open(Path file) {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Read the whole header.
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a canvas file");
+            }
+            int height = header.getInt();
+            int width = header.getInt();
+            if (height < 0 || width < 0 || channel.size() < HEADER_SIZE + (long) height * width) {
+                throw new IOException("Truncated canvas file");
+            }
+            return new MappedCanvasStorage(file, channel, height, width);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open canvas file " + file, e);
+        }
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public char get(int row, int col) {
+        long offset = offset(row, col);
+        return (char) (chunks[(int) (offset >>> CHUNK_SHIFT)].get((int) (offset & CHUNK_MASK)) & 0xFF);
+    }
+
+    @Override
+    public void set(int row, int col, char value) {
+        beforeWrite(row);
+        long offset = offset(row, col);
+        chunks[(int) (offset >>> CHUNK_SHIFT)].put((int) (offset & CHUNK_MASK), toByte(value));
+    }
+
+    @Override
+    public void fillRow(int row, int fromCol, int toCol, char value) {
+        byte cell = toByte(value);
+        beforeWrite(row);
+        long pattern = (cell & 0xFFL) * 0x0101010101010101L;
+        long offset = offset(row, fromCol);
+        long end = offset + toCol - fromCol;
+        while (offset < end) {
+            var chunk = chunks[(int) (offset >>> CHUNK_SHIFT)];
+            int position = (int) (offset & CHUNK_MASK);
+            int limit = (int) Math.min(end - offset + position, chunk.capacity());
+            // Eight cells per write, then the remaining cells one by one.
+            for (; position + 8 <= limit; position += 8) {
+                chunk.putLong(position, pattern);
+            }
+            for (; position < limit; position++) {
+                chunk.put(position, cell);
+            }
+            offset = ((offset >>> CHUNK_SHIFT) << CHUNK_SHIFT) + limit;
+        }
+    }
+
+    @Override
+    public boolean isRowConcurrent() {
+        return true;
+    }
+
+    @Override
+    public void readRow(int row, char[] destination) {
+        long offset = offset(row, 0);
+        for (int col = 0; col < width; col++, offset++) {
+            destination[col] = (char) (chunks[(int) (offset >>> CHUNK_SHIFT)].get((int) (offset & CHUNK_MASK)) & 0xFF);
+        }
+    }
+
+    /**
+     * Share the mapped cells with the snapshot, in time independent of the canvas size.
+     */
+    @Override
+    public CanvasStorage snapshot() {
+        if (rowGenerations == null) {
+            rowGenerations = new int[height];
+        }
+        generation++;
+        var snapshot = new Snapshot(this);
+        var previous = latest == null ? null : latest.get();
+        if (previous != null) {
+            // Rows the previous snapshot did not save are the same in the new one.
+            previous.next = snapshot;
+        }
+        latest = new WeakReference<>(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * The cells live in the page cache, not on the heap.
+     *
+     * @return size of the mapped cells.
+     */
+    @Override
+    public long memoryUsage() {
+        return (long) height * width;
+    }
+
+    /**
+     * Write modified cells to the file. Until then the OS writes them back when it sees fit.
+     */
+    @Override
+    public void flush() {
+        for (var chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Rename the canvas file, replacing any existing file. The mapping follows the file, nothing is copied.
+     *
+     * @param target New path of the canvas file.
+     * @return storage mapped on the renamed file, to use instead of this one.
+     * @throws IOException if the file cannot be renamed.
+     */
+    MappedCanvasStorage moveTo(Path target) throws IOException {
+        flush();
+        Files.move(file, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new MappedCanvasStorage(target, this);
+    }
+
+    /**
+     * @return file holding the canvas.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Save a row into the most recent snapshot, if it is still read, on its first write after the snapshot.
+     * Rows are written by a single thread at a time, see {@link CanvasStorage#isRowConcurrent()}.
+     */
+    private void beforeWrite(int row) {
+        if (rowGenerations == null || rowGenerations[row] == generation) {
+            return;
+        }
+        rowGenerations[row] = generation;
+        var snapshot = latest.get();
+        if (snapshot != null) {
+            var former = new byte[width];
+            readBytes(row, former);
+            snapshot.rows.set(row, former);
+            // The row is saved before any of its cells is written, see Snapshot#readRow.
+            VarHandle.storeStoreFence();
+        }
+    }
+
+    private void readBytes(int row, byte[] destination) {
+        long offset = offset(row, 0);
+        for (int col = 0; col < width; col++, offset++) {
+            destination[col] = chunks[(int) (offset >>> CHUNK_SHIFT)].get((int) (offset & CHUNK_MASK));
+        }
+    }
+
+    private long offset(int row, int col) {
+        return (long) row * width + col;
+    }
+
+    private static byte toByte(char value) {
+        if (value > 0xFF) {
+            throw new IllegalArgumentException("Mapped canvas only stores ISO-8859-1 characters");
+        }
+        return (byte) value;
+    }
+
+    /**
+     * Point-in-time image of a mapped canvas: rows written since it was taken are read from the copies
+     * saved into it or into a later snapshot, the other rows from the mapping.
+     */
+    private static final class Snapshot implements CanvasStorage {
+
+        private final MappedCanvasStorage canvas;
+        /**
+         * Rows as they were when the snapshot was taken, saved on their first write since. NULL for the
+         * rows not written before the next snapshot, or not written yet.
+         */
+        private final AtomicReferenceArray<byte[]> rows;
+        /**
+         * Next snapshot of the canvas, holding the rows first written after it was taken.
+         */
+        private volatile Snapshot next;
+
+        private Snapshot(MappedCanvasStorage canvas) {
+            this.canvas = canvas;
+            this.rows = new AtomicReferenceArray<>(canvas.height);
+        }
+
+        @Override
+        public int getHeight() {
+            return canvas.height;
+        }
+
+        @Override
+        public int getWidth() {
+            return canvas.width;
+        }
+
+        @Override
+        public char get(int row, int col) {
+            var saved = saved(row);
+            if (saved == null) {
+                char value = canvas.get(row, col);
+                VarHandle.loadLoadFence();
+                saved = saved(row);
+                if (saved == null) {
+                    return value;
+                }
+            }
+            return (char) (saved[col] & 0xFF);
+        }
+
+        /**
+         * @throws UnsupportedOperationException always, a snapshot is read-only.
+         */
+        @Override
+        public void set(int row, int col, char value) {
+            throw new UnsupportedOperationException("Canvas snapshot is read-only");
+        }
+
+        /**
+         * @throws UnsupportedOperationException always, a snapshot is read-only.
+         */
+        @Override
+        public void fillRow(int row, int fromCol, int toCol, char value) {
+            throw new UnsupportedOperationException("Canvas snapshot is read-only");
+        }
+
+        /**
+         * Read the row from the mapping unless it was saved, and read it again from its copy if it was
+         * saved meanwhile: it was then being written, and the copy was made before.
+         */
+        @Override
+        public void readRow(int row, char[] destination) {
+            var saved = saved(row);
+            if (saved == null) {
+                canvas.readRow(row, destination);
+                VarHandle.loadLoadFence();
+                saved = saved(row);
+                if (saved == null) {
+                    return;
+                }
+            }
+            for (int col = 0; col < saved.length; col++) {
+                destination[col] = (char) (saved[col] & 0xFF);
+            }
+        }
+
+        /**
+         * @return bytes of the rows saved into this snapshot. The other cells live in the page cache.
+         */
+        @Override
+        public long memoryUsage() {
+            long saved = 0;
+            for (int row = 0; row < rows.length(); row++) {
+                if (rows.get(row) != null) {
+                    saved += canvas.width;
+                }
+            }
+            return saved;
+        }
+
+        /**
+         * @return the snapshot itself, which never changes.
+         */
+        @Override
+        public CanvasStorage snapshot() {
+            return this;
+        }
+
+        /**
+         * @return copy of the row saved into this snapshot or a later one, NULL if it was not written since.
+         */
+        private byte[] saved(int row) {
+            for (var snapshot = this; snapshot != null; snapshot = snapshot.next) {
+                var saved = snapshot.rows.get(row);
+                if (saved != null) {
+                    return saved;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.drawingApp.drawing.app.storage;
+
+/**
+ * Read-only view of a storage, as returned by {@link CanvasStorage#snapshot()}. The storage viewed shares
+ * its rows or tiles with a live canvas, so writing to it would change the canvas: writes are refused.
+ */
+final class ReadOnlyCanvasStorage implements CanvasStorage {
+
+    private final CanvasStorage canvas;
+
+    /**
+     * Creates new instance of {@link ReadOnlyCanvasStorage}
+     *
+     * @param canvas Storage to read, never written afterwards.
+     */
+    ReadOnlyCanvasStorage(CanvasStorage canvas) {
+        this.canvas = canvas;
+    }
+
+    @Override
+    public int getHeight() {
+        return canvas.getHeight();
+    }
+
+    @Override
+    public int getWidth() {
+        return canvas.getWidth();
+    }
+
+    @Override
+    public char get(int row, int col) {
+        return canvas.get(row, col);
+    }
+
+    @Override
+    public int mismatch(int row, int fromCol, int toCol, char value) {
+        return canvas.mismatch(row, fromCol, toCol, value);
+    }
+
+    @Override
+    public int lastMismatch(int row, int fromCol, int toCol, char value) {
+        return canvas.lastMismatch(row, fromCol, toCol, value);
+    }
+
+    @Override
+    public int indexOfEither(int row, int fromCol, int toCol, char first, char second) {
+        return canvas.indexOfEither(row, fromCol, toCol, first, second);
+    }
+
+    @Override
+    public int lastIndexOfEither(int row, int fromCol, int toCol, char first, char second) {
+        return canvas.lastIndexOfEither(row, fromCol, toCol, first, second);
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, a snapshot is read-only.
+     */
+    @Override
+    public void set(int row, int col, char value) {
+        throw new UnsupportedOperationException("Canvas snapshot is read-only");
+    }
+
+    /**
+     * @throws UnsupportedOperationException always, a snapshot is read-only.
+     */
+    @Override
+    public void fillRow(int row, int fromCol, int toCol, char value) {
+        throw new UnsupportedOperationException("Canvas snapshot is read-only");
+    }
+
+    @Override
+    public void readRow(int row, char[] destination) {
+        canvas.readRow(row, destination);
+    }
+
+    @Override
+    public int readRuns(int row, int[] starts, char[] values) {
+        return canvas.readRuns(row, starts, values);
+    }
+
+    /**
+     * @return estimated number of bytes of the snapshot, including the rows or tiles it still shares
+     * with the canvas.
+     */
+    @Override
+    public long memoryUsage() {
+        return canvas.memoryUsage();
+    }
+
+    /**
+     * @return the snapshot itself, which never changes.
+     */
+    @Override
+    public CanvasStorage snapshot() {
+        return this;
+    }
+}
@@ -0,0 +1,383 @@
+package com.drawingApp.drawing.app.storage;
+
+import java.util.Arrays;
+
+/**
+ * Canvas stored as runs of the same character, row by row. Every row is a sorted list of runs, each
+ * kept as its first column and its character: a run ends where the next one starts, or at the right
+ * edge of the canvas. Adjacent runs always hold different characters.
+ * <p>
+ * A row never written is not allocated and holds a single blank run. The rows of the border share
+ * their runs, see {@link #drawBorder}, so a new canvas allocates nothing per row. Large canvases holding a few
+ * lines cost a few runs per row whatever their width. A row is read by filling its runs, or as runs by
+ * {@link #readRuns}, so the renderers and fill engines expand it without looking up every cell.
+ * <p>
+ * Writing a run finds the runs it overlaps by binary search and replaces them with a single
+ * {@link System#arraycopy} of the runs on its right.
+ * <p>
+ * A {@link #snapshot()} shares the runs of every row: a row is copied on its first write after the
+ * snapshot, so the snapshot keeps the former one.
+ */
+public class RleCanvasStorage implements CanvasStorage {
+
+    private static final int INITIAL_RUNS = 4;
+
+    private final int height;
+    private final int width;
+    /**
+     * First column of every run of a row, in increasing order, the first one being 0. NULL for a blank row.
+     */
+    private final int[][] starts;
+    /**
+     * Character of every run of a row.
+     */
+    private final char[][] values;
+    private final int[] runCounts;
+    /**
+     * Number of snapshots taken.
+     */
+    private int generation;
+    /**
+     * Generation in which the runs of every row were last copied, NULL while no runs are shared. Runs
+     * copied in an older generation are shared with a snapshot, or are the runs of the border rows.
+     */
+    private int[] rowGenerations;
+    /**
+     * Runs shared by the rows of the border never written: top and bottom, then the rows between.
+     * NULL until {@link #drawBorder} or for a snapshot.
+     */
+    private int[][] borderStarts;
+
+    /**
+     * Creates a blank canvas.
+     *
+     * @param height Number of rows, including borders.
+     * @param width  Number of columns, including borders.
+     */
+    public RleCanvasStorage(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.starts = new int[height][];
+        this.values = new char[height][];
+        this.runCounts = new int[height];
+    }
+
+    /**
+     * Creates a snapshot of a canvas, sharing its runs.
+     */
+    private RleCanvasStorage(RleCanvasStorage canvas) {
+        this.height = canvas.height;
+        this.width = canvas.width;
+        this.starts = canvas.starts.clone();
+        this.values = canvas.values.clone();
+        this.runCounts = canvas.runCounts.clone();
+        this.borderStarts = canvas.borderStarts;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public char get(int row, int col) {
+        var rowStarts = starts[row];
+        if (rowStarts == null) {
+            return 0;
+        }
+        return values[row][runAt(rowStarts, runCounts[row], col)];
+    }
+
+    @Override
+    public void set(int row, int col, char value) {
+        fillRow(row, col, col + 1, value);
+    }
+
+    @Override
+    public void fillRow(int row, int fromCol, int toCol, char value) {
+        if (fromCol >= toCol) {
+            return;
+        }
+        var rowStarts = starts[row];
+        if (rowStarts == null) {
+            if (value == 0) {
+                return;
+            }
+            rowStarts = new int[INITIAL_RUNS];
+            starts[row] = rowStarts;
+            values[row] = new char[INITIAL_RUNS];
+            runCounts[row] = 1;
+            if (rowGenerations != null) {
+                rowGenerations[row] = generation;
+            }
+        }
+        var rowValues = values[row];
+        int count = runCounts[row];
+
+        // Runs holding the first and the last cell written.
+        int first = runAt(rowStarts, count, fromCol);
+        int last = first + 1 == count || rowStarts[first + 1] >= toCol ? first : runAt(rowStarts, count, toCol - 1);
+        if (first == last && rowValues[first] == value) {
+            return;
+        }
+        int lastEnd = last + 1 < count ? rowStarts[last + 1] : width;
+        char lastValue = rowValues[last];
+
+        // Runs replacing first..last: what is left of the first run, the run written, what is left of the last run.
+        boolean keepHead = rowStarts[first] < fromCol && rowValues[first] != value;
+        boolean keepTail = toCol < lastEnd && lastValue != value;
+        int start = keepHead || rowStarts[first] == fromCol ? fromCol : rowStarts[first];
+        int end = toCol < lastEnd && lastValue == value ? lastEnd : toCol;
+        // Merge with the runs around when they hold the same character.
+        int from = first;
+        if (!keepHead && first > 0 && rowValues[first - 1] == value) {
+            from = first - 1;
+            start = rowStarts[from];
+        }
+        int to = last + 1;
+        if (!keepTail && end == lastEnd && to < count && rowValues[to] == value) {
+            to++;
+        }
+
+        int replacing = (keepHead ? 1 : 0) + 1 + (keepTail ? 1 : 0);
+        int newCount = count - (to - from) + replacing;
+        boolean shared = rowGenerations != null && rowGenerations[row] != generation;
+        if (newCount > rowStarts.length || shared) {
+            int capacity = newCount > rowStarts.length ? Math.max(newCount, rowStarts.length * 2) : rowStarts.length;
+            rowStarts = Arrays.copyOf(rowStarts, capacity);
+            rowValues = Arrays.copyOf(rowValues, capacity);
+            starts[row] = rowStarts;
+            values[row] = rowValues;
+            if (shared) {
+                rowGenerations[row] = generation;
+            }
+        }
+        int insertAt = from + (keepHead ? 1 : 0);
+        System.arraycopy(rowStarts, to, rowStarts, insertAt + 1 + (keepTail ? 1 : 0), count - to);
+        System.arraycopy(rowValues, to, rowValues, insertAt + 1 + (keepTail ? 1 : 0), count - to);
+        rowStarts[insertAt] = start;
+        rowValues[insertAt] = value;
+        if (keepTail) {
+            rowStarts[insertAt + 1] = toCol;
+            rowValues[insertAt + 1] = lastValue;
+        }
+        runCounts[row] = newCount;
+
+        if (newCount == 1 && value == 0) {
+            starts[row] = null;
+            values[row] = null;
+            runCounts[row] = 0;
+        }
+    }
+
+    @Override
+    public int mismatch(int row, int fromCol, int toCol, char value) {
+        return firstRun(row, fromCol, toCol, value, value, false);
+    }
+
+    @Override
+    public int lastMismatch(int row, int fromCol, int toCol, char value) {
+        return lastRun(row, fromCol, toCol, value, value, false);
+    }
+
+    @Override
+    public int indexOfEither(int row, int fromCol, int toCol, char first, char second) {
+        return firstRun(row, fromCol, toCol, first, second, true);
+    }
+
+    @Override
+    public int lastIndexOfEither(int row, int fromCol, int toCol, char first, char second) {
+        return lastRun(row, fromCol, toCol, first, second, true);
+    }
+
+    @Override
+    public void readRow(int row, char[] destination) {
+        var rowStarts = starts[row];
+        if (rowStarts == null) {
+            Arrays.fill(destination, 0, width, (char) 0);
+            return;
+        }
+        var rowValues = values[row];
+        int count = runCounts[row];
+        int col = 0;
+        for (int i = 1; i <= count; i++) {
+            int end = i < count ? rowStarts[i] : width;
+            char value = rowValues[i - 1];
+            while (col < end) {
+                destination[col++] = value;
+            }
+        }
+    }
+
+    @Override
+    public int readRuns(int row, int[] destinationStarts, char[] destinationValues) {
+        var rowStarts = starts[row];
+        if (rowStarts == null) {
+            destinationStarts[0] = 0;
+            destinationValues[0] = 0;
+            return 1;
+        }
+        int count = runCounts[row];
+        System.arraycopy(rowStarts, 0, destinationStarts, 0, count);
+        System.arraycopy(values[row], 0, destinationValues, 0, count);
+        return count;
+    }
+
+    /**
+     * Share the runs of the top and bottom rows, and those of the rows between, in time linear in the
+     * height only.
+     */
+    @Override
+    public void drawBorder(char horizontal, char vertical) {
+        if (height < 2 || width < 3) {
+            CanvasStorage.super.drawBorder(horizontal, vertical);
+            return;
+        }
+        if (rowGenerations == null) {
+            rowGenerations = new int[height];
+        }
+        generation++;
+        borderStarts = new int[][]{{0}, {0, 1, width - 1}};
+        var edgeValues = new char[]{horizontal};
+        var middleValues = new char[]{vertical, 0, vertical};
+        for (int row = 0; row < height; row++) {
+            boolean edge = row == 0 || row == height - 1;
+            starts[row] = borderStarts[edge ? 0 : 1];
+            values[row] = edge ? edgeValues : middleValues;
+            runCounts[row] = edge ? 1 : 3;
+        }
+    }
+
+    @Override
+    public long memoryUsage() {
+        long usage = 16 + 4L * height + 16 + 4L * height + 16 + 4L * height;
+        if (rowGenerations != null) {
+            usage += 16 + 4L * height;
+        }
+        if (borderStarts != null) {
+            usage += 16 + 4 + 16 + 2 + 16 + 4 * 3 + 16 + 2 * 3;
+        }
+        for (int row = 0; row < height; row++) {
+            if (starts[row] != null && (borderStarts == null || starts[row] != borderStarts[0] && starts[row] != borderStarts[1])) {
+                usage += 16 + 4L * starts[row].length + 16 + 2L * values[row].length;
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Shrink the rows to their number of runs, once bulk writes such as a bucket fill merged them.
+     */
+    @Override
+    public void compact() {
+        for (int row = 0; row < height; row++) {
+            var rowStarts = starts[row];
+            int capacity = Math.max(INITIAL_RUNS, runCounts[row]);
+            if (rowStarts != null && rowStarts.length > 2 * capacity) {
+                starts[row] = Arrays.copyOf(rowStarts, capacity);
+                values[row] = Arrays.copyOf(values[row], capacity);
+                if (rowGenerations != null) {
+                    rowGenerations[row] = generation;
+                }
+            }
+        }
+    }
+
+    /**
+     * Share the runs of every row with the snapshot, in time linear in the number of rows.
+     */
+    @Override
+    public CanvasStorage snapshot() {
+        if (rowGenerations == null) {
+            rowGenerations = new int[height];
+        }
+        generation++;
+        return new ReadOnlyCanvasStorage(new RleCanvasStorage(this));
+    }
+
+    /**
+     * @param row Row of the canvas.
+     * @return number of runs of the row, 1 for a blank row.
+     */
+    public int runCount(int row) {
+        return starts[row] == null ? 1 : runCounts[row];
+    }
+
+    /**
+     * Scan a span run by run.
+     *
+     * @param holding TRUE to look for a cell holding either character, FALSE for a cell holding neither.
+     * @return first column of the span whose cell is looked for, or {@code toCol} if there is none.
+     */
+    private int firstRun(int row, int fromCol, int toCol, char first, char second, boolean holding) {
+        if (fromCol >= toCol) {
+            return toCol;
+        }
+        var rowStarts = starts[row];
+        if (rowStarts == null) {
+            return (first == 0 || second == 0) == holding ? fromCol : toCol;
+        }
+        var rowValues = values[row];
+        int count = runCounts[row];
+        for (int run = runAt(rowStarts, count, fromCol); run < count; run++) {
+            int start = Math.max(fromCol, rowStarts[run]);
+            if (start >= toCol) {
+                break;
+            }
+            if ((rowValues[run] == first || rowValues[run] == second) == holding) {
+                return start;
+            }
+        }
+        return toCol;
+    }
+
+    /**
+     * Scan a span backwards run by run.
+     *
+     * @param holding TRUE to look for a cell holding either character, FALSE for a cell holding neither.
+     * @return last column of the span whose cell is looked for, or {@code fromCol - 1} if there is none.
+     */
+    private int lastRun(int row, int fromCol, int toCol, char first, char second, boolean holding) {
+        if (fromCol >= toCol) {
+            return fromCol - 1;
+        }
+        var rowStarts = starts[row];
+        if (rowStarts == null) {
+            return (first == 0 || second == 0) == holding ? toCol - 1 : fromCol - 1;
+        }
+        var rowValues = values[row];
+        int count = runCounts[row];
+        for (int run = runAt(rowStarts, count, toCol - 1); run >= 0; run--) {
+            int end = Math.min(toCol, run + 1 < count ? rowStarts[run + 1] : width) - 1;
+            if (end < fromCol) {
+                break;
+            }
+            if ((rowValues[run] == first || rowValues[run] == second) == holding) {
+                return end;
+            }
+        }
+        return fromCol - 1;
+    }
+
+    /**
+     * @return index of the run holding a column.
+     */
+    private static int runAt(int[] rowStarts, int count, int col) {
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (rowStarts[middle] <= col) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,68 @@
+package com.drawingApp.drawing.app.storage;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Available canvas storages, selected at startup.
+ */
+public enum StorageType {
+    /**
+     * One character array per row. See {@link ArrayCanvasStorage}.
+     */
+    ARRAY,
+    /**
+     * Lazily allocated tiles of palette indexes. See {@link TiledCanvasStorage}.
+     */
+    TILED,
+    /**
+     * Memory-mapped file. See {@link MappedCanvasStorage}.
+     */
+    MAPPED,
+    /**
+     * Runs of the same character, row by row. See {@link RleCanvasStorage}.
+     */
+    RLE;
+
+    /**
+     * Find storage type by its name, ignoring case.
+     *
+     * @param name Name of the storage type.
+     * @return matching storage type.
+     * @throws IllegalArgumentException if there is no such storage type.
+     */
+    public static StorageType of(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @param canvasFile File of the canvas, used by {@link #MAPPED} only.
+     * @return factory creating storages of this type.
+     */
+    public CanvasStorageFactory factory(Path canvasFile) {
+        switch (this) {
+            case TILED:
+                return TiledCanvasStorage::new;
+            case RLE:
+                return RleCanvasStorage::new;
+            case MAPPED:
+                return MappedCanvasStorage.factory(canvasFile);
+            default:
+                return ArrayCanvasStorage::new;
+        }
+    }
+
+    /**
+     * Reopen the canvas left by a previous run.
+     *
+     * @param canvasFile File of the canvas, used by {@link #MAPPED} only.
+     * @return existing canvas, or NULL if this storage type does not outlive the process or there is no canvas yet.
+     */
+    public CanvasStorage reopen(Path canvasFile) {
+        if (this == MAPPED && Files.exists(canvasFile)) {
+            return MappedCanvasStorage.open(canvasFile);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,292 @@
+package com.drawingApp.drawing.app.storage;
+
+import java.util.Arrays;
+
+/**
+ * Canvas stored as fixed-size square tiles of bytes. Each byte indexes a small palette of
+ * characters, so a cell costs one byte instead of two.
+ * <p>
+ * A tile whose cells all hold the same character is not allocated at all: only its palette index
+ * is kept. Tiles are allocated on the first write of a different character, and become uniform
+ * again on {@link #compact()}. Large drawings which are mostly blank or filled cost a few bytes per
+ * tile of 4096 cells.
+ * <p>
+ * A {@link #snapshot()} shares the allocated tiles: a tile is copied on its first write after the
+ * snapshot, so the snapshot keeps the former one.
+ */
+public class TiledCanvasStorage implements CanvasStorage {
+
+    /**
+     * Tiles are TILE_SIZE x TILE_SIZE cells.
+     */
+    static final int TILE_SHIFT = 6;
+    static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final int MAX_PALETTE_SIZE = 256;
+
+    private final int height;
+    private final int width;
+    private final int tileColumns;
+    /**
+     * Allocated tiles, row major. NULL for a uniform tile.
+     */
+    private final byte[][] tiles;
+    /**
+     * Palette index of every cell of a uniform tile.
+     */
+    private final byte[] uniformIndex;
+    /**
+     * Tiles written since last {@link #compact()}.
+     */
+    private final boolean[] touched;
+    private final char[] palette;
+    private int paletteSize = 1;
+    private int lastIndex;
+    /**
+     * Number of snapshots taken.
+     */
+    private int generation;
+    /**
+     * Generation in which every allocated tile was last copied, NULL until the first snapshot. A tile
+     * copied in an older generation is shared with a snapshot.
+     */
+    private int[] tileGenerations;
+
+    /**
+     * Creates a blank canvas.
+     *
+     * @param height Number of rows, including borders.
+     * @param width  Number of columns, including borders.
+     */
+    public TiledCanvasStorage(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.tileColumns = (width + TILE_MASK) >>> TILE_SHIFT;
+        int tileCount = tileColumns * ((height + TILE_MASK) >>> TILE_SHIFT);
+        this.tiles = new byte[tileCount][];
+        this.uniformIndex = new byte[tileCount];
+        this.touched = new boolean[tileCount];
+        this.palette = new char[MAX_PALETTE_SIZE];
+    }
+
+    /**
+     * Creates a snapshot of a canvas, sharing its tiles.
+     */
+    private TiledCanvasStorage(TiledCanvasStorage canvas) {
+        this.height = canvas.height;
+        this.width = canvas.width;
+        this.tileColumns = canvas.tileColumns;
+        this.tiles = canvas.tiles.clone();
+        this.uniformIndex = canvas.uniformIndex.clone();
+        this.touched = new boolean[tiles.length];
+        this.palette = canvas.palette.clone();
+        this.paletteSize = canvas.paletteSize;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public char get(int row, int col) {
+        int tileIndex = tileIndex(row, col);
+        var tile = tiles[tileIndex];
+        if (tile == null) {
+            return palette[uniformIndex[tileIndex] & 0xFF];
+        }
+        return palette[tile[offset(row, col)] & 0xFF];
+    }
+
+    @Override
+    public void set(int row, int col, char value) {
+        int tileIndex = tileIndex(row, col);
+        byte index = paletteIndex(value);
+        var tile = tiles[tileIndex];
+        if (tile == null) {
+            if (uniformIndex[tileIndex] == index) {
+                return;
+            }
+            tile = materialize(tileIndex);
+        } else if (tileGenerations != null && tileGenerations[tileIndex] != generation) {
+            tile = unshare(tileIndex);
+        }
+        tile[offset(row, col)] = index;
+        touched[tileIndex] = true;
+    }
+
+    @Override
+    public void fillRow(int row, int fromCol, int toCol, char value) {
+        byte index = paletteIndex(value);
+        int col = fromCol;
+        while (col < toCol) {
+            int tileIndex = tileIndex(row, col);
+            int end = Math.min(toCol, (col | TILE_MASK) + 1);
+            var tile = tiles[tileIndex];
+            if (tile != null || uniformIndex[tileIndex] != index) {
+                if (tile == null) {
+                    tile = materialize(tileIndex);
+                } else if (tileGenerations != null && tileGenerations[tileIndex] != generation) {
+                    tile = unshare(tileIndex);
+                }
+                int start = offset(row, col);
+                Arrays.fill(tile, start, start + end - col, index);
+                touched[tileIndex] = true;
+            }
+            col = end;
+        }
+    }
+
+    @Override
+    public void readRow(int row, char[] destination) {
+        int col = 0;
+        while (col < width) {
+            int tileIndex = tileIndex(row, col);
+            int end = Math.min(width, (col | TILE_MASK) + 1);
+            var tile = tiles[tileIndex];
+            if (tile == null) {
+                Arrays.fill(destination, col, end, palette[uniformIndex[tileIndex] & 0xFF]);
+            } else {
+                int offset = offset(row, col) - col;
+                for (int i = col; i < end; i++) {
+                    destination[i] = palette[tile[offset + i] & 0xFF];
+                }
+            }
+            col = end;
+        }
+    }
+
+    @Override
+    public long memoryUsage() {
+        long usage = 16 + 4L * tiles.length + 16 + uniformIndex.length + 16 + touched.length + 16 + 2L * palette.length;
+        if (tileGenerations != null) {
+            usage += 16 + 4L * tileGenerations.length;
+        }
+        for (var tile : tiles) {
+            if (tile != null) {
+                usage += 16 + tile.length;
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Turn back into uniform tiles the written tiles whose cells hold the same character.
+     */
+    @Override
+    public void compact() {
+        for (int tileIndex = 0; tileIndex < tiles.length; tileIndex++) {
+            if (touched[tileIndex]) {
+                touched[tileIndex] = false;
+                var tile = tiles[tileIndex];
+                if (tile != null && isUniform(tileIndex, tile)) {
+                    uniformIndex[tileIndex] = tile[0];
+                    tiles[tileIndex] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Share every allocated tile with the snapshot, in time linear in the number of tiles.
+     */
+    @Override
+    public CanvasStorage snapshot() {
+        if (tileGenerations == null) {
+            tileGenerations = new int[tiles.length];
+        }
+        generation++;
+        return new ReadOnlyCanvasStorage(new TiledCanvasStorage(this));
+    }
+
+    /**
+     * @return number of tiles currently allocated.
+     */
+    public int allocatedTiles() {
+        int count = 0;
+        for (var tile : tiles) {
+            if (tile != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check the cells of a tile which lie inside the canvas. Cells past the right or bottom edge
+     * of the canvas are never written and are ignored.
+     */
+    private boolean isUniform(int tileIndex, byte[] tile) {
+        int rows = Math.min(TILE_SIZE, height - (tileIndex / tileColumns << TILE_SHIFT));
+        int cols = Math.min(TILE_SIZE, width - (tileIndex % tileColumns << TILE_SHIFT));
+        byte first = tile[0];
+        for (int row = 0; row < rows; row++) {
+            int start = row << TILE_SHIFT;
+            for (int i = start; i < start + cols; i++) {
+                if (tile[i] != first) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private byte[] materialize(int tileIndex) {
+        var tile = new byte[TILE_SIZE * TILE_SIZE];
+        byte index = uniformIndex[tileIndex];
+        if (index != 0) {
+            Arrays.fill(tile, index);
+        }
+        tiles[tileIndex] = tile;
+        if (tileGenerations != null) {
+            tileGenerations[tileIndex] = generation;
+        }
+        return tile;
+    }
+
+    /**
+     * Copy a tile shared with a snapshot.
+     */
+    private byte[] unshare(int tileIndex) {
+        var tile = tiles[tileIndex].clone();
+        tiles[tileIndex] = tile;
+        tileGenerations[tileIndex] = generation;
+        return tile;
+    }
+
+    /**
+     * Find the palette index of a character, adding it to the palette on first use.
+     *
+     * @throws IllegalStateException if the canvas already holds 256 distinct characters.
+     */
+    private byte paletteIndex(char value) {
+        if (palette[lastIndex] == value) {
+            return (byte) lastIndex;
+        }
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == value) {
+                lastIndex = i;
+                return (byte) i;
+            }
+        }
+        if (paletteSize == MAX_PALETTE_SIZE) {
+            throw new IllegalStateException("Tiled canvas supports at most " + MAX_PALETTE_SIZE + " distinct characters");
+        }
+        palette[paletteSize] = value;
+        lastIndex = paletteSize++;
+        return (byte) lastIndex;
+    }
+
+    private int tileIndex(int row, int col) {
+        return (row >>> TILE_SHIFT) * tileColumns + (col >>> TILE_SHIFT);
+    }
+
+    private static int offset(int row, int col) {
+        return (row & TILE_MASK) << TILE_SHIFT | (col & TILE_MASK);
+    }
+}
@@ -1,22 +1,22 @@
 package com.drawingApp.drawing.app.validators;
 
+import com.drawingApp.drawing.app.commands.CommandParser;
 import com.drawingApp.drawing.app.commands.CommandType;
 
-import java.util.Arrays;
-
 /**
- * To validate user's inputs.
+ * To validate user's inputs. Instances hold a {@link CommandParser} and must not be shared between threads.
  */
 public class InputCommandValidator {
+
+    private final CommandParser parser = new CommandParser();
+
     /**
      * Determine if input command is valid or not.
      * @param inputCommand Command entered by user.
-     * @return TRUE if input matches a command regex in {@link CommandType} otherwise FALSE.
+     * @return TRUE if input matches a command of {@link CommandType} otherwise FALSE.
      */
     public boolean isValid(String inputCommand) {
-
-        return Arrays.stream(CommandType.values())
-                .anyMatch(cmd -> cmd.getPattern().matcher(inputCommand).matches());
+        return parser.parse(inputCommand);
     }
 
 }
@@ -0,0 +1,58 @@
+package com.drawingApp.drawing.app;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AppOptionsTests {
+
+    @Test
+    public void parse_Success() {
+        //Act
+        var options = AppOptions.parse(new String[]{"--storage=mapped", "--canvas-file=/tmp/a=b.bin", "--quiet", "--every=10"});
+        //Assert
+        assertThat(options.get("storage", "array")).isEqualTo("mapped");
+        assertThat(options.get("canvas-file", null)).isEqualTo("/tmp/a=b.bin");
+        assertThat(options.has("quiet")).isTrue();
+        assertThat(options.getLong("every", 0)).isEqualTo(10);
+        assertThat(options.get("missing", "default")).isEqualTo("default");
+    }
+
+    @Test
+    public void parse_NoValue_DefaultValue() {
+        //Act
+        var options = AppOptions.parse(new String[]{"--batch", "--journal", "--server"});
+        //Assert
+        assertThat(options.has("batch")).isTrue();
+        assertThat(options.get("batch", "-")).isEqualTo("-");
+        assertThat(options.get("journal", "canvas.journal")).isEqualTo("canvas.journal");
+        assertThat(options.getLong("server", 0, 0, 65535)).isZero();
+    }
+
+    @Test
+    public void parse_NotAnOption_Failure() {
+        assertThatThrownBy(() -> AppOptions.parse(new String[]{"mapped"}))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid option mapped. Options are given as --name=value");
+    }
+
+    @Test
+    public void getLong_NotANumber_Failure() {
+        var options = AppOptions.parse(new String[]{"--every=often"});
+        assertThatThrownBy(() -> options.getLong("every", 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Option --every must be a number");
+    }
+
+    @Test
+    public void getLong_OutOfRange_Failure() {
+        var options = AppOptions.parse(new String[]{"--server=70000", "--every=-1"});
+        assertThatThrownBy(() -> options.getLong("server", 0, 0, 65535))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Option --server must be between 0 and 65535");
+        assertThatThrownBy(() -> options.getLong("every", 0, 0, Long.MAX_VALUE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(options.getLong("missing", 5, 0, 10)).isEqualTo(5);
+    }
+}
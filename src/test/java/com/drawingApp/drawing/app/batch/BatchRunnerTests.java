@@ -0,0 +1,100 @@
+package com.drawingApp.drawing.app.batch;
+
+import com.drawingApp.drawing.app.commands.CommandFactory;
+import com.drawingApp.drawing.app.render.CanvasRenderer;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchRunnerTests {
+
+    InMemoryCanvas inMemoryCanvas = new InMemoryCanvas();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+    @Test
+    public void run_RendersOnceAtEnd() throws IOException {
+        //Arrange
+        var sut = getBatchRunner(0);
+        var commands = String.join("\n", "C 20 4", "L 1 2 6 2", "L 6 3 6 4", "R 14 1 18 3", "B 10 3 o");
+
+        //Act
+        var report = sut.run(new BufferedReader(new StringReader(commands)));
+
+        //Assert
+        assertThat(report.getCommands()).isEqualTo(5);
+        assertThat(report.getErrors()).isZero();
+        assertThat(output.toString()).isEqualTo(String.join(System.lineSeparator(),
+                "----------------------",
+                "|oooooooooooooxxxxxoo|",
+                "|xxxxxxooooooox   xoo|",
+                "|     xoooooooxxxxxoo|",
+                "|     xoooooooooooooo|",
+                "----------------------",
+                "", ""));
+    }
+
+    @Test
+    public void run_CountsErrorsAndStopsOnQuit() throws IOException {
+        //Arrange
+        var sut = getBatchRunner(0);
+        var commands = String.join("\n", "C 20 4", "draw", "L 1 2 6 3", "Q", "L 1 2 6 2");
+
+        //Act
+        var report = sut.run(new BufferedReader(new StringReader(commands)));
+
+        //Assert
+        assertThat(report.getCommands()).isEqualTo(4);
+        assertThat(report.getErrors()).isEqualTo(2);
+        assertThat(errors.toString()).contains("Line 2: Input Command is not valid at position 1: unknown command.")
+                .contains("Line 3: Invalid inputs .Only horizontal and vertical lines are supported.");
+        assertThat(inMemoryCanvas.getCanvas()[2][1]).isEqualTo((char) 0);
+    }
+
+    @Test
+    public void run_RendersEveryNCommands() throws IOException {
+        //Arrange
+        var sut = getBatchRunner(2);
+        var commands = String.join("\n", "C 3 1", "L 1 1 2 1", "B 3 1 o", "L 3 1 3 1");
+
+        //Act
+        sut.run(new BufferedReader(new StringReader(commands)));
+
+        //Assert
+        assertThat(output.toString()).containsSubsequence("|xx |", "|xxo|", "|xxo|");
+    }
+
+    @Test
+    public void run_MoreCommandsThanAChunk_ErrorsReportedInOrder() throws IOException {
+        //Arrange
+        var sut = getBatchRunner(0);
+        var commands = new StringBuilder("C 20 4\n");
+        for (int i = 2; i <= 3 * BatchRunner.CHUNK_COMMANDS; i++) {
+            commands.append(i % 1000 == 0 ? "L 1 2 6 3" : i % 700 == 0 ? "draw" : "L 1 2 6 2").append('\n');
+        }
+
+        //Act
+        var report = sut.run(new BufferedReader(new StringReader(commands.toString())));
+
+        //Assert
+        assertThat(report.getCommands()).isEqualTo(3 * BatchRunner.CHUNK_COMMANDS);
+        assertThat(report.getErrors()).isEqualTo(7);
+        assertThat(errors.toString()).containsSubsequence("Line 700: Input Command", "Line 1000: Invalid inputs",
+                "Line 1400: Input Command", "Line 2000: Invalid inputs", "Line 2100: Input Command", "Line 2800: Input Command",
+                "Line 3000: Invalid inputs");
+    }
+
+    private BatchRunner getBatchRunner(long renderEvery) {
+        var commandFactory = new CommandFactory(new InMemoryCanvasRepository(inMemoryCanvas));
+        return new BatchRunner(commandFactory, inMemoryCanvas,
+                new CanvasRenderer(new PrintStream(output, true)), new PrintStream(errors, true), renderEvery);
+    }
+}
@@ -0,0 +1,95 @@
+package com.drawingApp.drawing.app.batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BoundedQueueTests {
+
+    @Test
+    public void offer_Full_Refused() {
+        //Arrange
+        var sut = new BoundedQueue<Integer>(4);
+        //Act
+        for (int i = 0; i < 4; i++) {
+            assertThat(sut.offer(i)).isTrue();
+        }
+        //Assert
+        assertThat(sut.offer(4)).isFalse();
+        assertThat(sut.poll()).isEqualTo(0);
+        assertThat(sut.offer(4)).isTrue();
+    }
+
+    @Test
+    public void poll_InOrderThenEmpty() {
+        //Arrange
+        var sut = new BoundedQueue<Integer>(8);
+        //Act
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 8; i++) {
+                sut.offer(lap * 8 + i);
+            }
+            //Assert
+            for (int i = 0; i < 8; i++) {
+                assertThat(sut.poll()).isEqualTo(lap * 8 + i);
+            }
+            assertThat(sut.poll()).isNull();
+            assertThat(sut.isEmpty()).isTrue();
+        }
+    }
+
+    @Test
+    public void producersAndConsumers_EveryElementTakenOnce() throws InterruptedException {
+        //Arrange
+        var sut = new BoundedQueue<Integer>(16);
+        int perProducer = 50_000;
+        var taken = ConcurrentHashMap.<Integer>newKeySet();
+        var remaining = new AtomicInteger(2 * perProducer);
+        var threads = new ArrayList<Thread>();
+        for (int p = 0; p < 2; p++) {
+            int first = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!sut.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (int c = 0; c < 2; c++) {
+            threads.add(new Thread(() -> {
+                while (remaining.get() > 0) {
+                    var element = sut.poll();
+                    if (element == null) {
+                        Thread.yield();
+                    } else {
+                        assertThat(taken.add(element)).isTrue();
+                        remaining.decrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        //Act
+        threads.forEach(Thread::start);
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        //Assert
+        assertThat(taken).hasSize(2 * perProducer);
+        assertThat(sut.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void create_NotPowerOfTwo_Throws() {
+        //Act
+        //Assert
+        assertThatThrownBy(() -> new BoundedQueue<Integer>(12)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
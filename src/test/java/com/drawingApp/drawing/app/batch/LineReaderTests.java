@@ -0,0 +1,81 @@
+package com.drawingApp.drawing.app.batch;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LineReaderTests {
+
+    Faker faker = new Faker();
+
+    @Test
+    public void next_EveryTerminator_LinesWithoutTerminator() throws IOException {
+        //Arrange
+        var sut = new LineReader(new StringReader("L 1 2 6 2\r\nB 1 1 o\rU\n\nQ"));
+
+        //Act
+        var lines = readAll(sut);
+
+        //Assert
+        assertThat(lines).containsExactly("L 1 2 6 2", "B 1 1 o", "U", "", "Q");
+    }
+
+    @Test
+    public void next_LineLongerThanBuffer_Grown() throws IOException {
+        //Arrange
+        var polygon = "P" + " 1 1".repeat(10_000);
+        var sut = new LineReader(new StringReader(polygon + "\nQ\n"));
+
+        //Act
+        var lines = readAll(sut);
+
+        //Assert
+        assertThat(lines).containsExactly(polygon, "Q");
+    }
+
+    @RepeatedTest(20)
+    public void next_RandomLinesInSmallReads_SameAsBufferedReader() throws IOException {
+        //Arrange
+        var text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append(faker.lorem().characters(0, 30)).append(faker.options().option("\n", "\r", "\r\n"));
+        }
+        var expected = new BufferedReader(new StringReader(text.toString())).lines().toArray(String[]::new);
+        // Reads of a few chars at a time, so that "\r\n" is split between reads.
+        var sut = new LineReader(new Reader() {
+            private final StringReader input = new StringReader(text.toString());
+
+            @Override
+            public int read(char[] destination, int offset, int length) throws IOException {
+                return input.read(destination, offset, Math.min(length, faker.number().numberBetween(1, 8)));
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        //Act
+        var lines = readAll(sut);
+
+        //Assert
+        assertThat(lines).containsExactly(expected);
+    }
+
+    private static List<String> readAll(LineReader reader) throws IOException {
+        var lines = new ArrayList<String>();
+        while (reader.next()) {
+            lines.add(reader.line().toString());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,155 @@
+package com.drawingApp.drawing.app.batch;
+
+import com.drawingApp.drawing.app.commands.CommandFactory;
+import com.drawingApp.drawing.app.render.CanvasRenderer;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PipelinedBatchRunnerTests {
+
+    Faker faker = new Faker();
+
+    InMemoryCanvas inMemoryCanvas = new InMemoryCanvas();
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+    @Test
+    public void run_ManyChunks_SameAsSerialRunner() throws IOException {
+        //Arrange
+        var commands = new StringBuilder("C 60 30\n");
+        // More chunks than the queues hold, so that the reader waits for the executor.
+        for (int i = 0; i < PipelinedBatchRunner.CHUNK_LINES * 100; i++) {
+            var x = faker.number().numberBetween(1, 61);
+            var y = faker.number().numberBetween(1, 31);
+            switch (i % 5) {
+                case 0:
+                    commands.append("L ").append(x).append(' ').append(y).append(" 60 ").append(y);
+                    break;
+                case 1:
+                    commands.append("R ").append(x).append(' ').append(y).append(" 60 30");
+                    break;
+                case 2:
+                    commands.append("B ").append(x).append(' ').append(y).append(' ').append(faker.options().option("o", "a", "Z"));
+                    break;
+                case 3:
+                    commands.append(faker.options().option("U", "Z", "L 1 1 2 2"));
+                    break;
+                default:
+                    commands.append(faker.lorem().word());
+                    break;
+            }
+            commands.append('\n');
+        }
+        var expectedCanvas = new InMemoryCanvas();
+        var expectedOutput = new ByteArrayOutputStream();
+        var expectedErrors = new ByteArrayOutputStream();
+        var serial = new BatchRunner(new CommandFactory(new InMemoryCanvasRepository(expectedCanvas)), expectedCanvas,
+                new CanvasRenderer(new PrintStream(expectedOutput, true)), new PrintStream(expectedErrors, true), 1000);
+        var expected = serial.run(new BufferedReader(new StringReader(commands.toString())));
+        var sut = getBatchRunner(1000, 3);
+
+        //Act
+        var report = sut.run(new BufferedReader(new StringReader(commands.toString())));
+
+        //Assert
+        assertThat(report.getCommands()).isEqualTo(expected.getCommands());
+        assertThat(report.getErrors()).isEqualTo(expected.getErrors());
+        assertThat(inMemoryCanvas.getCanvas()).isDeepEqualTo(expectedCanvas.getCanvas());
+        assertThat(output.toString()).isEqualTo(expectedOutput.toString());
+        assertThat(errors.toString()).isEqualTo(expectedErrors.toString());
+    }
+
+    @Test
+    public void run_CountsErrorsAndStopsOnQuit() throws IOException {
+        //Arrange
+        var sut = getBatchRunner(0, 2);
+        var commands = String.join("\n", "C 20 4", "draw", "L 1 2 6 3", "Q", "L 1 2 6 2");
+
+        //Act
+        var report = sut.run(new BufferedReader(new StringReader(commands)));
+
+        //Assert
+        assertThat(report.getCommands()).isEqualTo(4);
+        assertThat(report.getErrors()).isEqualTo(2);
+        assertThat(errors.toString()).contains("Line 2: Input Command is not valid at position 1: unknown command.")
+                .contains("Line 3: Invalid inputs .Only horizontal and vertical lines are supported.");
+        assertThat(inMemoryCanvas.getCanvas()[2][1]).isEqualTo((char) 0);
+    }
+
+    @Test
+    public void run_ReadFails_CommandsBeforeExecutedThenThrows() {
+        //Arrange
+        var sut = getBatchRunner(0, 1);
+        var lines = "C 20 4\nL 1 2 6 2\n";
+        var reader = new Reader() {
+            private final Reader commands = new StringReader(lines);
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = commands.read(buffer, offset, length);
+                if (read < 0) {
+                    throw new IOException("Disk failure");
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        //Act
+        //Assert
+        assertThatThrownBy(() -> sut.run(new BufferedReader(reader))).isInstanceOf(IOException.class)
+                .hasMessage("Disk failure");
+        assertThat(inMemoryCanvas.getCanvas()[2][1]).isEqualTo('x');
+    }
+
+    @Test
+    @Timeout(60)
+    public void run_ReaderDies_Throws() {
+        //Arrange
+        var sut = getBatchRunner(0, 2);
+        var lines = "C 20 4\nL 1 2 6 2\n";
+        var reader = new Reader() {
+            private final Reader commands = new StringReader(lines);
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = commands.read(buffer, offset, length);
+                if (read < 0) {
+                    throw new IllegalStateException("Reader bug");
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        //Act
+        //Assert
+        assertThatThrownBy(() -> sut.run(new BufferedReader(reader))).isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("Batch thread batch-reader failed")
+                .hasRootCauseMessage("Reader bug");
+    }
+
+    private PipelinedBatchRunner getBatchRunner(long renderEvery, int parseThreads) {
+        return new PipelinedBatchRunner(new InMemoryCanvasRepository(inMemoryCanvas), inMemoryCanvas,
+                new CanvasRenderer(new PrintStream(output, true)), new PrintStream(errors, true), renderEvery, null, parseThreads);
+    }
+}
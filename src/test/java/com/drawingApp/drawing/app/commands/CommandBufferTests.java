@@ -0,0 +1,72 @@
+package com.drawingApp.drawing.app.commands;
+
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+public class CommandBufferTests {
+
+    @Mock
+    InMemoryCanvasRepository inMemoryCanvasRepository;
+
+    CommandBuffer sut = new CommandBuffer();
+
+    @Test
+    public void compile_EveryCommand_OpcodeAndOperands() {
+        //Arrange
+        var factory = new CommandFactory(inMemoryCanvasRepository);
+
+        //Act
+        factory.compile("C 20 4", sut);
+        factory.compile("P 1 2 3 4 5 6", sut);
+        factory.compile("b 1 2 o", sut);
+        factory.compile("S canvas.bin", sut);
+        factory.compile("L 1 2", sut);
+        factory.compile("U", sut);
+
+        //Assert
+        assertThat(sut.getCommandCount()).isEqualTo(6);
+        int position = 0;
+        assertThat(sut.getType(position)).isEqualTo(CommandType.CANVAS);
+        assertThat(sut.getOperand(position, 1)).isEqualTo(4);
+        position = sut.next(position);
+        assertThat(sut.getType(position)).isEqualTo(CommandType.POLYGON);
+        assertThat(sut.getOperand(position, 0)).isEqualTo(3);
+        assertThat(sut.getOperand(position, 6)).isEqualTo(6);
+        position = sut.next(position);
+        assertThat(sut.getType(position)).isEqualTo(CommandType.BUCKET_FILL);
+        assertThat((char) sut.getOperand(position, 2)).isEqualTo('o');
+        position = sut.next(position);
+        assertThat(sut.getType(position)).isEqualTo(CommandType.SAVE);
+        assertThat(sut.getPath(sut.getOperand(position, 0))).isEqualTo("canvas.bin");
+        position = sut.next(position);
+        assertThat(sut.getOpcode(position)).isEqualTo(CommandBuffer.INVALID);
+        assertThat(sut.getError(sut.getOperand(position, 0))).hasMessageContaining("position 6");
+        position = sut.next(position);
+        assertThat(sut.getType(position)).isEqualTo(CommandType.UNDO);
+        assertThat(sut.next(position)).isEqualTo(sut.length());
+    }
+
+    @Test
+    public void clear_Reused_OnlyNewCommands() {
+        //Arrange
+        var factory = new CommandFactory(inMemoryCanvasRepository);
+        for (int i = 0; i < 1000; i++) {
+            factory.compile("R 1 2 3 4", sut);
+        }
+
+        //Act
+        sut.clear();
+        factory.compile("Y", sut);
+
+        //Assert
+        assertThat(sut.getCommandCount()).isEqualTo(1);
+        assertThat(sut.length()).isEqualTo(1);
+        assertThat(sut.getType(0)).isEqualTo(CommandType.REDO);
+    }
+}
@@ -1,5 +1,6 @@
 package com.drawingApp.drawing.app.commands;
 
+import com.drawingApp.drawing.app.exceptions.InvalidCommandException;
 import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
 import com.github.javafaker.Faker;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ExtendWith(MockitoExtension.class)
 public class CommandFactoryTests {
@@ -109,4 +111,29 @@ public class CommandFactoryTests {
         //Assert
         assertThat(command).isNull();
     }
+
+    @Test
+    public void parse_Line_Success() throws InvalidCommandException {
+        //Arrange
+        var expectedLineCmd = new Line(1, 2, 6, 2, inMemoryCanvasRepository);
+        //Act
+        var command = sut.parse("L 1 2 6 2");
+        //Assert
+        assertThat(command).usingRecursiveComparison().isEqualTo(expectedLineCmd);
+    }
+
+    @Test
+    public void parse_InvalidInput_Failure() {
+        assertThatThrownBy(() -> sut.parse("R 1 2 x 4"))
+                .isInstanceOf(InvalidCommandException.class)
+                .hasMessage("Input Command is not valid at position 7: expected a number.")
+                .extracting("position").isEqualTo(6);
+    }
+
+    @Test
+    public void parse_NumberTooLarge_Failure() {
+        assertThatThrownBy(() -> sut.parse("C 20 40000000000"))
+                .isInstanceOf(InvalidCommandException.class)
+                .hasMessage("Input Command is not valid at position 6: number is too large.");
+    }
 }
@@ -0,0 +1,180 @@
+package com.drawingApp.drawing.app.commands;
+
+import com.drawingApp.drawing.app.exceptions.InvalidCommandException;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.history.CanvasHistory;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.drawingApp.drawing.app.storage.StorageType;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CommandInterpreterTests {
+
+    Faker faker = new Faker();
+
+    InMemoryCanvas inMemoryCanvas = new InMemoryCanvas();
+
+    InMemoryCanvasRepository repository = new InMemoryCanvasRepository(inMemoryCanvas);
+
+    CommandFactory commandFactory = new CommandFactory(repository);
+
+    CommandBuffer buffer = new CommandBuffer();
+
+    CommandInterpreter sut = commandFactory.newInterpreter();
+
+    @RepeatedTest(10)
+    public void execute_RandomCommands_SameAsCommandObjects() throws InvalidInputException {
+        //Arrange
+        var expectedCanvas = new InMemoryCanvas();
+        var expectedFactory = new CommandFactory(new InMemoryCanvasRepository(expectedCanvas));
+        var inputs = new ArrayList<String>();
+        inputs.add("C 30 12");
+        for (int i = 0; i < 100; i++) {
+            int x1 = faker.number().numberBetween(1, 32);
+            int y1 = faker.number().numberBetween(1, 14);
+            int x2 = faker.number().numberBetween(x1, 32);
+            int y2 = faker.number().numberBetween(y1, 14);
+            inputs.add(faker.options().option(
+                    "L " + x1 + " " + y1 + " " + x2 + " " + y1,
+                    "L " + x1 + " " + y1 + " " + x1 + " " + y2,
+                    "R " + x1 + " " + y1 + " " + x2 + " " + y2,
+                    "A " + x1 + " " + y1 + " " + x2 + " " + y2,
+                    "E " + x1 + " " + y1 + " " + (x2 - x1),
+                    "P " + x1 + " " + y1 + " " + x2 + " " + y1 + " " + x2 + " " + y2 + " " + x1 + " " + y2,
+                    "B " + x1 + " " + y1 + " " + faker.options().option("o", "p", "x"),
+                    "U", "Y", "draw", "L 1 1 99999999999 1"));
+        }
+        int expectedFailures = 0;
+        for (var input : inputs) {
+            try {
+                expectedFactory.parse(input).execute();
+            } catch (InvalidInputException e) {
+                expectedFailures++;
+            }
+            commandFactory.compile(input, buffer);
+        }
+
+        //Act
+        int failures = sut.execute(buffer);
+
+        //Assert
+        assertThat(buffer.getCommandCount()).isEqualTo(inputs.size());
+        assertThat(failures).isEqualTo(expectedFailures);
+        assertThat(inMemoryCanvas.getCanvas()).isDeepEqualTo(expectedCanvas.getCanvas());
+    }
+
+    @Test
+    public void execute_InvalidInput_FailsWithParseError() {
+        //Arrange
+        commandFactory.compile("C 20 4", buffer);
+        commandFactory.compile("L 1 2 6", buffer);
+        int invalid = buffer.next(0);
+
+        //Act, Assert
+        assertThat(buffer.getType(invalid)).isNull();
+        assertThatThrownBy(() -> sut.execute(buffer, invalid)).isInstanceOf(InvalidCommandException.class)
+                .hasMessage("Input Command is not valid at position 8: expected a whitespace separator.");
+    }
+
+    @Test
+    public void execute_Quit_LaterCommandsSkipped() {
+        //Arrange
+        commandFactory.compile("C 20 4", buffer);
+        commandFactory.compile("L 1 2 6 2", buffer);
+        commandFactory.compile("Q", buffer);
+        commandFactory.compile("L 1 3 6 3", buffer);
+
+        //Act
+        int failures = sut.execute(buffer);
+
+        //Assert
+        assertThat(failures).isZero();
+        assertThat(inMemoryCanvas.getCanvas()[2][1]).isEqualTo('x');
+        assertThat(inMemoryCanvas.getCanvas()[3][1]).isEqualTo((char) 0);
+    }
+
+    @Test
+    public void execute_SameBufferRepeatedly_SameAsCommandObjects() throws InvalidInputException {
+        //Arrange
+        var expectedCanvas = new InMemoryCanvas();
+        var expectedFactory = new CommandFactory(new InMemoryCanvasRepository(expectedCanvas,
+                StorageType.ARRAY.factory(null), new ScanlineFillEngine(), new CanvasHistory(0), null));
+        var canvas = new InMemoryCanvas();
+        var noHistory = new InMemoryCanvasRepository(canvas, StorageType.ARRAY.factory(null),
+                new ScanlineFillEngine(), new CanvasHistory(0), null);
+        var factory = new CommandFactory(noHistory);
+        var inputs = List.of("L 1 2 30 2", "L 5 1 5 9", "R 2 2 20 8", "A 1 1 40 10", "E 15 5 4",
+                "P 1 1 30 2 10 9", "B 3 3 o", "B 3 3 p", "B 39 9 q", "L 1 1 99 1");
+        expectedFactory.parse("C 40 10").execute();
+        noHistory.newCanvas(40, 10);
+        for (var input : inputs) {
+            factory.compile(input, buffer);
+        }
+        var interpreter = factory.newInterpreter();
+        for (int pass = 0; pass < 3; pass++) {
+            for (var input : inputs) {
+                try {
+                    expectedFactory.parse(input).execute();
+                } catch (InvalidInputException e) {
+                    // The line beyond the canvas, as in every pass of the buffer.
+                }
+            }
+        }
+
+        //Act
+        var failures = new ArrayList<Integer>();
+        for (int pass = 0; pass < 3; pass++) {
+            failures.add(interpreter.execute(buffer));
+        }
+
+        //Assert
+        assertThat(failures).containsExactly(1, 1, 1);
+        assertThat(canvas.getCanvas()).isDeepEqualTo(expectedCanvas.getCanvas());
+    }
+
+    @Test
+    public void execute_MillionCommands_NothingAllocated() throws InvalidInputException {
+        //Arrange
+        var canvas = new InMemoryCanvas();
+        var noHistory = new InMemoryCanvasRepository(canvas, StorageType.ARRAY.factory(null),
+                new ScanlineFillEngine(), new CanvasHistory(0), null);
+        var factory = new CommandFactory(noHistory);
+        var inputs = List.of("L 1 2 30 2", "L 5 1 5 9", "R 2 2 20 8", "A 1 1 40 10", "E 15 5 4",
+                "P 1 1 30 2 10 9", "B 3 3 o", "B 3 3 p", "B 39 9 q", "B 39 9 r");
+        noHistory.newCanvas(40, 10);
+        for (int i = 0; i < 10; i++) {
+            for (var input : inputs) {
+                factory.compile(input, buffer);
+            }
+        }
+        var interpreter = factory.newInterpreter();
+        // Loads and initializes whatever the commands use first.
+        for (int i = 0; i < 100; i++) {
+            interpreter.execute(buffer);
+        }
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+        //Act
+        int failures = 0;
+        for (int i = 0; i < 10_000; i++) {
+            failures += interpreter.execute(buffer);
+        }
+
+        //Assert
+        long allocated = threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        assertThat(failures).isZero();
+        // Less than a byte per command, against more than a hundred for parsing into command objects.
+        assertThat(allocated).isLessThan(1_000_000);
+    }
+}
@@ -0,0 +1,131 @@
+package com.drawingApp.drawing.app.commands;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CommandParserTests {
+
+    Faker faker = new Faker();
+
+    CommandParser sut = new CommandParser();
+
+    @RepeatedTest(200)
+    public void parse_RandomInput_SameAsRegex() {
+        //Arrange
+        var commandType = faker.options().option(CommandType.values());
+        var input = new StringBuilder(faker.regexify(commandType.getRegEx()));
+        // Mutate valid commands to get invalid ones close to the grammar.
+        if (faker.bool().bool()) {
+            var position = faker.number().numberBetween(0, input.length() + 1);
+            var mutation = faker.options().option(" ", "\t", "7", "x", "[", "{", "-", "");
+            if (position < input.length() && faker.bool().bool()) {
+                input.deleteCharAt(position);
+            }
+            input.insert(position, mutation);
+        }
+        var expected = Arrays.stream(CommandType.values())
+                .anyMatch(cmd -> cmd.getPattern().matcher(input).matches());
+
+        //Act
+        var valid = sut.parse(input);
+
+        //Assert
+        assertThat(valid).as(input.toString()).isEqualTo(expected);
+    }
+
+    @ParameterizedTest(name = "{index} {0}")
+    @ValueSource(strings = {"C 20 4", "c\t20\u000B4", "L 1 2 6 2", "r 14 1 18 3", "B 10 3 o", "b 1 1 [", "Q", "q", "U", "y", "S canvas.snap", "o snapshots/2024-01_a.bin",
+            "A 1 1 7 3", "e 10 5 4", "P 1 1 7 1 4 5", "p 1 1 7 1 7 5 4 3 1 5"})
+    public void parse_ValidInput_Success(String input) {
+        assertThat(sut.parse(input)).isTrue();
+        assertThat(sut.getErrorMessage()).isNull();
+    }
+
+    @ParameterizedTest(name = "{index} {0}")
+    @MethodSource("provideInvalidInputs")
+    public void parse_InvalidInput_ErrorPosition(String input, int expectedPosition, String expectedError) {
+        assertThat(sut.parse(input)).isFalse();
+        assertThat(sut.getType()).isNull();
+        assertThat(sut.getErrorPosition()).isEqualTo(expectedPosition);
+        assertThat(sut.getErrorMessage()).isEqualTo(expectedError);
+    }
+
+    @Test
+    public void parse_NumberTooLarge_MatchesGrammar() {
+        assertThat(sut.parse("C 2147483647 99999999999")).isTrue();
+        assertThat(sut.getNumberTooLargeAt()).isEqualTo(13);
+        assertThat(sut.parse("C 2147483647 4")).isTrue();
+        assertThat(sut.getNumberTooLargeAt()).isEqualTo(-1);
+    }
+
+    @RepeatedTest(20)
+    public void parse_Line_Arguments() {
+        //Arrange
+        var x1 = faker.number().numberBetween(0, Integer.MAX_VALUE);
+        var y1 = faker.number().numberBetween(0, 100);
+        var x2 = faker.number().numberBetween(0, 100);
+        var y2 = faker.number().numberBetween(0, 100);
+        //Act
+        sut.parse("L " + x1 + " " + y1 + " " + x2 + " " + y2);
+        //Assert
+        assertThat(sut.getType()).isEqualTo(CommandType.LINE);
+        assertThat(new int[]{sut.getArgument(0), sut.getArgument(1), sut.getArgument(2), sut.getArgument(3)})
+                .containsExactly(x1, y1, x2, y2);
+    }
+
+    @Test
+    public void parse_Polygon_Vertices() {
+        //Act
+        sut.parse("P 1 2 7 2 4 6 1 6");
+        //Assert
+        assertThat(sut.getType()).isEqualTo(CommandType.POLYGON);
+        assertThat(sut.getArgumentCount()).isEqualTo(8);
+        assertThat(new int[]{sut.getArgument(0), sut.getArgument(5), sut.getArgument(7)}).containsExactly(1, 6, 6);
+    }
+
+    @Test
+    public void parse_PolygonTooManyVertices_Failure() {
+        //Arrange
+        var input = new StringBuilder("P");
+        for (int i = 0; i < CommandParser.MAX_POLYGON_VERTICES; i++) {
+            input.append(" 1 2");
+        }
+        assertThat(sut.parse(input)).isTrue();
+        //Act, Assert
+        assertThat(sut.parse(input.append(" 3 4"))).isFalse();
+        assertThat(sut.getErrorMessage()).isEqualTo("expected end of command");
+    }
+
+    /**
+     * Provides invalid inputs with the expected error.
+     *
+     * @return test input arguments.
+     */
+    private static Stream<Arguments> provideInvalidInputs() {
+        return Stream.of(
+                Arguments.of("", 0, "expected a command"),
+                Arguments.of("X 1 2", 0, "unknown command"),
+                Arguments.of("C 20  4", 5, "expected a number"),
+                Arguments.of("C20 4", 1, "expected a whitespace separator"),
+                Arguments.of("L 1 2 6", 7, "expected a whitespace separator"),
+                Arguments.of("B 10 3 oo", 8, "expected end of command"),
+                Arguments.of("B 10 3 1", 7, "expected a color"),
+                Arguments.of("Q ", 1, "expected end of command"),
+                Arguments.of("S  canvas.snap", 2, "expected a file path"),
+                Arguments.of("O canvas snap", 8, "expected end of command"),
+                Arguments.of("E 10 5", 6, "expected a whitespace separator"),
+                Arguments.of("P 1 1 7 1", 9, "expected a whitespace separator"),
+                Arguments.of("P 1 1 7 1 4 5 6", 15, "expected a whitespace separator")
+        );
+    }
+}
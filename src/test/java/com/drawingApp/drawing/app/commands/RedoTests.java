@@ -0,0 +1,41 @@
+package com.drawingApp.drawing.app.commands;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+public class RedoTests {
+
+    @Mock
+    InMemoryCanvasRepository inMemoryCanvasRepository;
+
+    @Test
+    public void execute_success() throws InvalidInputException {
+        //Arrange
+        Redo redo = new Redo(inMemoryCanvasRepository);
+
+        //Act
+        redo.execute();
+        //Assert
+        Mockito.verify(inMemoryCanvasRepository).redo();
+    }
+
+    @Test
+    public void execute_failure() throws InvalidInputException {
+        //Arrange
+        Redo redo = new Redo(inMemoryCanvasRepository);
+
+        Mockito.doThrow(InvalidInputException.class).when(inMemoryCanvasRepository).redo();
+
+        //Act, Assert
+        assertThatThrownBy(redo::execute).isInstanceOf(InvalidInputException.class);
+
+    }
+}
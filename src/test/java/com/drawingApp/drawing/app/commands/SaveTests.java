@@ -0,0 +1,43 @@
+package com.drawingApp.drawing.app.commands;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+public class SaveTests {
+
+    @Mock
+    InMemoryCanvasRepository inMemoryCanvasRepository;
+
+    @Test
+    public void execute_success() throws InvalidInputException {
+        //Arrange
+        Save save = new Save("canvas.snap", inMemoryCanvasRepository);
+
+        //Act
+        save.execute();
+        //Assert
+        Mockito.verify(inMemoryCanvasRepository).saveCanvas(Path.of("canvas.snap"));
+    }
+
+    @Test
+    public void execute_failure() throws InvalidInputException {
+        //Arrange
+        Save save = new Save("canvas.snap", inMemoryCanvasRepository);
+
+        Mockito.doThrow(InvalidInputException.class).when(inMemoryCanvasRepository).saveCanvas(Path.of("canvas.snap"));
+
+        //Act, Assert
+        assertThatThrownBy(save::execute).isInstanceOf(InvalidInputException.class);
+
+    }
+}
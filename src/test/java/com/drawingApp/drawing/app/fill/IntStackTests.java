@@ -0,0 +1,68 @@
+package com.drawingApp.drawing.app.fill;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IntStackTests {
+
+    @Test
+    public void pop_OverBudget_LastInFirstOutThroughDisk() {
+        //Arrange
+        var sut = new IntStack(0, 16);
+        //Act
+        for (int i = 0; i < 10_000; i++) {
+            sut.push(i, -i);
+        }
+        //Assert
+        assertThat(sut.getPeak()).isEqualTo(10_000);
+        assertThat(sut.getSpills()).isEqualTo(10_000 / 16 - 2);
+        for (int i = 9_999; i >= 0; i--) {
+            sut.pop();
+            assertThat(sut.first()).isEqualTo(i);
+            assertThat(sut.second()).isEqualTo(-i);
+        }
+        assertThat(sut.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void pushAndPop_Random_SameAsDeque() {
+        //Arrange
+        var sut = new IntStack(4 * 8 * 3, 4);
+        var expected = new ArrayDeque<int[]>();
+        var random = new Random(42);
+        //Act & Assert
+        for (int i = 0; i < 100_000; i++) {
+            if (expected.isEmpty() || random.nextInt(100) < 55) {
+                sut.push(i, i * 7);
+                expected.push(new int[]{i, i * 7});
+            } else {
+                sut.pop();
+                var pair = expected.pop();
+                assertThat(new int[]{sut.first(), sut.second()}).containsExactly(pair);
+            }
+            assertThat(sut.isEmpty()).isEqualTo(expected.isEmpty());
+        }
+        assertThat(sut.getSpills()).isPositive();
+    }
+
+    @Test
+    public void clear_AfterSpill_Reusable() {
+        //Arrange
+        var sut = new IntStack(0, 4);
+        for (int i = 0; i < 100; i++) {
+            sut.push(i, i);
+        }
+        //Act
+        sut.clear();
+        sut.push(1, 2);
+        sut.pop();
+        //Assert
+        assertThat(sut.isEmpty()).isTrue();
+        assertThat(sut.getPeak()).isEqualTo(1);
+        assertThat(new int[]{sut.first(), sut.second()}).containsExactly(1, 2);
+    }
+}
@@ -0,0 +1,194 @@
+package com.drawingApp.drawing.app.fill;
+
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import com.drawingApp.drawing.app.storage.TiledCanvasStorage;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelFillEngineTests {
+
+    static ForkJoinPool pool = new ForkJoinPool(4);
+
+    Faker faker = new Faker();
+
+    // Bands of a few rows, so that small canvases are split too.
+    ParallelFillEngine sut = new ParallelFillEngine(pool, 0, 1, new ScanlineFillEngine());
+
+    ScanlineFillEngine reference = new ScanlineFillEngine();
+
+    @AfterAll
+    public static void tearDown() {
+        pool.shutdown();
+    }
+
+    @RepeatedTest(50)
+    public void fill_RandomCanvas_SameAsScanline() {
+        //Arrange
+        var width = faker.number().numberBetween(1, 40);
+        var height = faker.number().numberBetween(2, 60);
+        var canvas = getRandomCanvas(width, height);
+        var x = faker.number().numberBetween(1, width + 1);
+        var y = faker.number().numberBetween(1, height + 1);
+        canvas[y][x] = 0;
+        var color = faker.options().option('o', 'a', 'Z');
+        var expectedCanvas = copy(canvas);
+        var expectedResult = reference.fill(new ArrayCanvasStorage(expectedCanvas), x, y, color);
+
+        //Act
+        var result = sut.fill(new ArrayCanvasStorage(canvas), x, y, color);
+
+        //Assert
+        assertThat(canvas).isDeepEqualTo(expectedCanvas);
+        assertThat(result).usingRecursiveComparison().ignoringFields("peakFrontier").isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void fill_SnakeAcrossBands_SameAsScanline() {
+        //Arrange
+        var width = 20;
+        var height = 80;
+        var canvas = getRandomCanvas(width, height);
+        for (char[] row : canvas) {
+            Arrays.fill(row, 1, width + 1, (char) 0);
+        }
+        // Horizontal walls with a gap alternating between left and right.
+        for (int row = 2; row <= height; row += 2) {
+            Arrays.fill(canvas[row], 1, width + 1, 'x');
+            canvas[row][row % 4 == 0 ? 1 : width] = 0;
+        }
+        var expectedCanvas = copy(canvas);
+        reference.fill(new ArrayCanvasStorage(expectedCanvas), width, height - 1, 'm');
+
+        //Act
+        sut.fill(new ArrayCanvasStorage(canvas), width, height - 1, 'm');
+
+        //Assert
+        assertThat(canvas).isDeepEqualTo(expectedCanvas);
+        assertThat(canvas[1][1]).isEqualTo('m');
+    }
+
+    @Test
+    public void fill_StorageWithoutConcurrentWrites_SameAsScanline() {
+        //Arrange
+        var width = 30;
+        var height = 50;
+        var canvas = getRandomCanvas(width, height);
+        canvas[1][1] = 0;
+        var expected = new TiledCanvasStorage(height + 2, width + 2);
+        var tiled = new TiledCanvasStorage(height + 2, width + 2);
+        for (int row = 0; row < canvas.length; row++) {
+            for (int col = 0; col < canvas[row].length; col++) {
+                expected.set(row, col, canvas[row][col]);
+                tiled.set(row, col, canvas[row][col]);
+            }
+        }
+        reference.fill(expected, 1, 1, 'p');
+
+        //Act
+        sut.fill(tiled, 1, 1, 'p');
+
+        //Assert
+        assertThat(tiled.toArray()).isDeepEqualTo(expected.toArray());
+    }
+
+    @Test
+    public void fill_BelowThreshold_Sequential() {
+        //Arrange
+        var sequentialOnly = new ParallelFillEngine(pool, Long.MAX_VALUE);
+        var canvas = getRandomCanvas(10, 10);
+        canvas[5][5] = 0;
+        var expectedCanvas = copy(canvas);
+        reference.fill(new ArrayCanvasStorage(expectedCanvas), 5, 5, 'o');
+
+        //Act
+        sequentialOnly.fill(new ArrayCanvasStorage(canvas), 5, 5, 'o');
+
+        //Assert
+        assertThat(canvas).isDeepEqualTo(expectedCanvas);
+    }
+
+    @Test
+    public void fill_SmallRegionOfLargeCanvas_NoBands() {
+        //Arrange
+        var engine = new ParallelFillEngine(pool, 100, 1, new ScanlineFillEngine());
+        var canvas = getRandomCanvas(200, 200);
+        for (char[] row : canvas) {
+            Arrays.fill(row, 1, 201, (char) 0);
+        }
+        // A 3x3 box around (50, 50).
+        for (int i = 48; i <= 52; i++) {
+            canvas[48][i] = 'x';
+            canvas[52][i] = 'x';
+            canvas[i][48] = 'x';
+            canvas[i][52] = 'x';
+        }
+        var rowsRead = new int[1];
+        var storage = new ArrayCanvasStorage(canvas) {
+            @Override
+            public void readRow(int row, char[] destination) {
+                rowsRead[0]++;
+                super.readRow(row, destination);
+            }
+        };
+
+        //Act
+        var result = engine.fill(storage, 50, 50, 'o');
+
+        //Assert
+        assertThat(result.getCells()).isEqualTo(9);
+        assertThat(rowsRead[0]).isZero();
+    }
+
+    @Test
+    public void fill_RegionOverThreshold_SameAsScanline() {
+        //Arrange
+        var engine = new ParallelFillEngine(pool, 100, 1, new ScanlineFillEngine());
+        var canvas = getRandomCanvas(40, 60);
+        canvas[30][20] = 0;
+        var expectedCanvas = copy(canvas);
+        var expectedResult = reference.fill(new ArrayCanvasStorage(expectedCanvas), 20, 30, 'o');
+
+        //Act
+        var result = engine.fill(new ArrayCanvasStorage(canvas), 20, 30, 'o');
+
+        //Assert
+        assertThat(canvas).isDeepEqualTo(expectedCanvas);
+        assertThat(result).usingRecursiveComparison().ignoringFields("peakFrontier").isEqualTo(expectedResult);
+    }
+
+    /**
+     * Helper method to provide a canvas with random lines and colors inside its borders.
+     *
+     * @param width  Width of canvas.
+     * @param height Height of canvas.
+     * @return canvas as 2D character array.
+     */
+    private char[][] getRandomCanvas(int width, int height) {
+        var canvas = new char[height + 2][width + 2];
+        Arrays.fill(canvas[0], '-');
+        Arrays.fill(canvas[height + 1], '-');
+        for (int row = 1; row <= height; row++) {
+            canvas[row][0] = '|';
+            canvas[row][width + 1] = '|';
+            for (int col = 1; col <= width; col++) {
+                canvas[row][col] = faker.options().option((char) 0, (char) 0, (char) 0, 'x', 'x', 'o');
+            }
+        }
+        return canvas;
+    }
+
+    private char[][] copy(char[][] canvas) {
+        var copy = new char[canvas.length][];
+        for (int i = 0; i < canvas.length; i++) {
+            copy[i] = canvas[i].clone();
+        }
+        return copy;
+    }
+}
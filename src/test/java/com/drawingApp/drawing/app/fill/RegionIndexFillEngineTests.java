@@ -0,0 +1,148 @@
+package com.drawingApp.drawing.app.fill;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.history.CanvasHistory;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RegionIndexFillEngineTests {
+
+    Faker faker = new Faker();
+
+    RegionIndexFillEngine sut = new RegionIndexFillEngine();
+
+    @RepeatedTest(50)
+    public void drawAndFill_RandomCommands_SameAsBreadthFirst() {
+        //Arrange
+        var width = faker.number().numberBetween(1, 40);
+        var height = faker.number().numberBetween(1, 25);
+        var canvas = new InMemoryCanvas();
+        var repository = repository(canvas, sut);
+        var expectedCanvas = new InMemoryCanvas();
+        var expectedRepository = repository(expectedCanvas, new BreadthFirstFillEngine());
+
+        //Act
+        for (int i = 0; i < 60; i++) {
+            var x1 = faker.number().numberBetween(1, width + 1);
+            var y1 = faker.number().numberBetween(1, height + 1);
+            var x2 = faker.number().numberBetween(x1, width + 1);
+            var y2 = faker.number().numberBetween(y1, height + 1);
+            var color = faker.options().option('o', 'a', 'Z');
+            var command = i == 0 ? 0 : faker.number().numberBetween(0, 12);
+            execute(repository, command, width, height, x1, y1, x2, y2, color);
+            execute(expectedRepository, command, width, height, x1, y1, x2, y2, color);
+
+            //Assert
+            assertThat(canvas.getCanvas()).isDeepEqualTo(expectedCanvas.getCanvas());
+            assertThat(repository.getDirtyRegion()).usingRecursiveComparison().isEqualTo(expectedRepository.getDirtyRegion());
+            repository.getDirtyRegion().clear();
+            expectedRepository.getDirtyRegion().clear();
+        }
+    }
+
+    @Test
+    public void fill_SameRegionAgain_NoRebuild() {
+        //Arrange
+        var canvas = new ArrayCanvasStorage(12, 32);
+        // Three vertical walls, cutting the drawing area in four regions.
+        for (int col = 8; col <= 24; col += 8) {
+            for (int row = 1; row <= 10; row++) {
+                canvas.set(row, col, 'x');
+            }
+        }
+
+        //Act
+        var first = sut.fill(canvas, 1, 1, 'o');
+        var second = sut.fill(canvas, 10, 5, 'p');
+        var third = sut.fill(canvas, 3, 7, 'q');
+
+        //Assert
+        assertThat(sut.getRebuilds()).isEqualTo(1);
+        assertThat(sut.getRegionCount()).isEqualTo(4);
+        assertThat(new long[]{first.getTop(), first.getLeft(), first.getBottom(), first.getRight(), first.getCells()})
+                .containsExactly(1, 1, 10, 7, 70);
+        assertThat(second.getCells()).isEqualTo(70);
+        assertThat(third.getCells()).isEqualTo(70);
+        assertThat(canvas.get(10, 7)).isEqualTo('q');
+        assertThat(canvas.get(10, 9)).isEqualTo('p');
+        assertThat(sut.memoryUsage()).isPositive();
+    }
+
+    @Test
+    public void linesDrawn_SplitsRegion_WithoutRebuild() {
+        //Arrange
+        var canvas = new ArrayCanvasStorage(12, 32);
+        sut.fill(canvas, 1, 1, 'o');
+        // A wall across the drawing area.
+        canvas.fillRow(5, 1, 31, 'x');
+
+        //Act
+        sut.linesDrawn(5, 1, 30);
+        var above = sut.fill(canvas, 1, 1, 'p');
+        var below = sut.fill(canvas, 1, 6, 'q');
+
+        //Assert
+        assertThat(sut.getRebuilds()).isEqualTo(1);
+        assertThat(sut.getRegionCount()).isEqualTo(2);
+        assertThat(above.getBottom()).isEqualTo(4);
+        assertThat(above.getCells()).isEqualTo(4 * 30);
+        assertThat(below.getTop()).isEqualTo(6);
+        assertThat(canvas.get(6, 1)).isEqualTo('q');
+        assertThat(canvas.get(4, 30)).isEqualTo('p');
+    }
+
+    @Test
+    public void invalidate_Rebuilds() {
+        //Arrange
+        var canvas = new ArrayCanvasStorage(12, 32);
+        sut.fill(canvas, 1, 1, 'o');
+        //Act
+        sut.invalidate();
+        sut.fill(canvas, 1, 1, 'p');
+        //Assert
+        assertThat(sut.getRebuilds()).isEqualTo(2);
+    }
+
+    private InMemoryCanvasRepository repository(InMemoryCanvas canvas, FillEngine fillEngine) {
+        return new InMemoryCanvasRepository(canvas, ArrayCanvasStorage::new, fillEngine, new CanvasHistory(CanvasHistory.DEFAULT_BUDGET));
+    }
+
+    private void execute(InMemoryCanvasRepository repository, int command, int width, int height,
+                         int x1, int y1, int x2, int y2, char color) {
+        try {
+            switch (command) {
+                case 0:
+                    repository.newCanvas(width, height);
+                    break;
+                case 1:
+                case 2:
+                    repository.drawLine(x1, y1, x2, y1);
+                    break;
+                case 3:
+                case 4:
+                    repository.drawLine(x1, y1, x1, y2);
+                    break;
+                case 5:
+                    repository.drawRectangle(x1, y1, x2, y2);
+                    break;
+                case 6:
+                    repository.undo();
+                    break;
+                case 7:
+                    repository.redo();
+                    break;
+                default:
+                    repository.bucketFill(x1, y1, color);
+                    break;
+            }
+        } catch (InvalidInputException e) {
+            // Same error on both repositories.
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.drawingApp.drawing.app.fill;
+
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ScanlineFillEngineTests {
+
+    Faker faker = new Faker();
+
+    ScanlineFillEngine sut = new ScanlineFillEngine();
+
+    BreadthFirstFillEngine reference = new BreadthFirstFillEngine();
+
+    @RepeatedTest(50)
+    public void fill_RandomCanvas_SameAsBreadthFirst() {
+        //Arrange
+        var width = faker.number().numberBetween(1, 40);
+        var height = faker.number().numberBetween(1, 25);
+        var canvas = getRandomCanvas(width, height);
+        var x = faker.number().numberBetween(1, width + 1);
+        var y = faker.number().numberBetween(1, height + 1);
+        canvas[y][x] = 0;
+        var color = faker.options().option('o', 'a', 'Z');
+        var expectedCanvas = copy(canvas);
+        var expectedResult = reference.fill(new ArrayCanvasStorage(expectedCanvas), x, y, color);
+
+        //Act
+        var result = sut.fill(new ArrayCanvasStorage(canvas), x, y, color);
+
+        //Assert
+        assertThat(canvas).isDeepEqualTo(expectedCanvas);
+        assertThat(result).usingRecursiveComparison().ignoringFields("peakFrontier").isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void fill_CrossesCellsOfSameColor_Success() {
+        //Arrange
+        char[][] canvas = {{'-', '-', '-', '-', '-', '-', '-'},
+                {'|', 0, 'x', 'o', 0, 0, '|'},
+                {'|', 0, 'x', 'o', 'x', 0, '|'},
+                {'|', 0, 0, 'o', 'x', 0, '|'},
+                {'-', '-', '-', '-', '-', '-', '-'}};
+        char[][] expectedCanvas = {{'-', '-', '-', '-', '-', '-', '-'},
+                {'|', 'o', 'x', 'o', 'o', 'o', '|'},
+                {'|', 'o', 'x', 'o', 'x', 'o', '|'},
+                {'|', 'o', 'o', 'o', 'x', 'o', '|'},
+                {'-', '-', '-', '-', '-', '-', '-'}};
+        //Act
+        var result = sut.fill(new ArrayCanvasStorage(canvas), 1, 1, 'o');
+        //Assert
+        assertThat(canvas).isDeepEqualTo(expectedCanvas);
+        assertThat(new long[]{result.getTop(), result.getLeft(), result.getBottom(), result.getRight(), result.getCells()})
+                .containsExactly(1, 1, 3, 5, 11);
+    }
+
+    @Test
+    public void fill_Maze_SameAsBreadthFirst() {
+        //Arrange
+        var width = 30;
+        var height = 12;
+        var canvas = getRandomCanvas(width, height);
+        for (char[] row : canvas) {
+            Arrays.fill(row, 1, width + 1, (char) 0);
+        }
+        // Vertical walls with a gap alternating between top and bottom.
+        for (int col = 2; col <= width; col += 2) {
+            for (int row = 1; row <= height; row++) {
+                canvas[row][col] = 'x';
+            }
+            canvas[col % 4 == 0 ? 1 : height][col] = 0;
+        }
+        var expectedCanvas = copy(canvas);
+        reference.fill(new ArrayCanvasStorage(expectedCanvas), 1, 1, 'm');
+
+        //Act
+        sut.fill(new ArrayCanvasStorage(canvas), 1, 1, 'm');
+
+        //Assert
+        assertThat(canvas).isDeepEqualTo(expectedCanvas);
+        assertThat(canvas[height][width - 1]).isEqualTo('m');
+    }
+
+    @Test
+    public void fill_FrontierOverBudget_SpilledWithSameResult() {
+        //Arrange
+        var width = 2000;
+        var height = 20;
+        var canvas = getRandomCanvas(width, height);
+        for (char[] row : canvas) {
+            Arrays.fill(row, 1, width + 1, (char) 0);
+        }
+        // A comb: the first row pushes a seed for every gap between its teeth.
+        for (int col = 2; col <= width; col += 2) {
+            for (int row = 2; row <= height; row++) {
+                canvas[row][col] = 'x';
+            }
+        }
+        var expectedCanvas = copy(canvas);
+        var expectedResult = sut.fill(new ArrayCanvasStorage(expectedCanvas), 1, 1, 'o');
+        // Two chunks of 16 seeds in memory.
+        var stack = new IntStack(0, 16);
+        var spilling = new ScanlineFillEngine(stack);
+
+        //Act
+        var result = spilling.fill(new ArrayCanvasStorage(canvas), 1, 1, 'o');
+
+        //Assert
+        assertThat(canvas).isDeepEqualTo(expectedCanvas);
+        assertThat(result).usingRecursiveComparison().isEqualTo(expectedResult);
+        assertThat(result.getPeakFrontier()).isGreaterThan(width / 2 - 1);
+        assertThat(stack.getSpills()).isPositive();
+    }
+
+    @Test
+    public void fill_SpillFails_FrontierCleared() {
+        //Arrange
+        var width = 200;
+        var height = 5;
+        var canvas = getRandomCanvas(width, height);
+        for (char[] row : canvas) {
+            Arrays.fill(row, 1, width + 1, (char) 0);
+        }
+        for (int col = 2; col <= width; col += 2) {
+            for (int row = 2; row <= height; row++) {
+                canvas[row][col] = 'x';
+            }
+        }
+        // Fails as the third chunk of 16 seeds would be written to disk.
+        var stack = new IntStack(0, 16) {
+            @Override
+            void push(int first, int second) {
+                if (getPeak() == 32) {
+                    throw new UncheckedIOException(new IOException("No space left on device"));
+                }
+                super.push(first, second);
+            }
+        };
+        var failing = new ScanlineFillEngine(stack);
+
+        //Act & Assert
+        assertThatThrownBy(() -> failing.fill(new ArrayCanvasStorage(canvas), 1, 1, 'o'))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("No space left on device");
+        assertThat(stack.isEmpty()).isTrue();
+        assertThat(stack.getPeak()).isZero();
+        assertThat(canvas[1][1]).isEqualTo(ScanlineFillEngine.MARKER);
+    }
+
+    /**
+     * Helper method to provide a canvas with random lines and colors inside its borders.
+     *
+     * @param width  Width of canvas.
+     * @param height Height of canvas.
+     * @return canvas as 2D character array.
+     */
+    private char[][] getRandomCanvas(int width, int height) {
+        var canvas = new char[height + 2][width + 2];
+        Arrays.fill(canvas[0], '-');
+        Arrays.fill(canvas[height + 1], '-');
+        for (int row = 1; row <= height; row++) {
+            canvas[row][0] = '|';
+            canvas[row][width + 1] = '|';
+            for (int col = 1; col <= width; col++) {
+                canvas[row][col] = faker.options().option((char) 0, (char) 0, (char) 0, 'x', 'x', 'o');
+            }
+        }
+        return canvas;
+    }
+
+    private char[][] copy(char[][] canvas) {
+        var copy = new char[canvas.length][];
+        for (int i = 0; i < canvas.length; i++) {
+            copy[i] = canvas[i].clone();
+        }
+        return copy;
+    }
+}
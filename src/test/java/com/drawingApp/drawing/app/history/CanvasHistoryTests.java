@@ -0,0 +1,248 @@
+package com.drawingApp.drawing.app.history;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.ParallelFillEngine;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import com.drawingApp.drawing.app.storage.TiledCanvasStorage;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CanvasHistoryTests {
+
+    Faker faker = new Faker();
+
+    InMemoryCanvas inMemoryCanvas = new InMemoryCanvas();
+
+    @RepeatedTest(20)
+    public void undoRedo_RandomCommands_RestoresEveryState() throws InvalidInputException {
+        //Arrange
+        var repository = new InMemoryCanvasRepository(inMemoryCanvas,
+                faker.bool().bool() ? ArrayCanvasStorage::new : TiledCanvasStorage::new,
+                new ScanlineFillEngine(), new CanvasHistory(CanvasHistory.DEFAULT_BUDGET));
+        var width = faker.number().numberBetween(2, 30);
+        var height = faker.number().numberBetween(2, 20);
+        repository.newCanvas(width, height);
+        var states = new ArrayList<char[][]>();
+        states.add(copy(inMemoryCanvas.getStorage().toArray()));
+        for (int i = 0; i < 30; i++) {
+            drawRandomly(repository, width, height);
+            states.add(copy(inMemoryCanvas.getStorage().toArray()));
+        }
+
+        //Act, Assert
+        for (int i = states.size() - 2; i >= 0; i--) {
+            repository.undo();
+            assertThat(inMemoryCanvas.getStorage().toArray()).isDeepEqualTo(states.get(i));
+        }
+        for (int i = 1; i < states.size(); i++) {
+            repository.redo();
+            assertThat(inMemoryCanvas.getStorage().toArray()).isDeepEqualTo(states.get(i));
+        }
+    }
+
+    @Test
+    public void undo_FullCanvasFill_RecordsRunsNotCells() throws InvalidInputException {
+        //Arrange
+        var history = new CanvasHistory(CanvasHistory.DEFAULT_BUDGET);
+        var repository = new InMemoryCanvasRepository(inMemoryCanvas, ArrayCanvasStorage::new,
+                new ScanlineFillEngine(), history);
+        repository.newCanvas(1000, 1000);
+
+        //Act
+        repository.bucketFill(1, 1, 'o');
+        repository.undo();
+
+        //Assert
+        // One run per row, far below the million cells of the canvas.
+        assertThat(history.memoryUsage()).isLessThan(32 * 1024);
+        assertThat(inMemoryCanvas.getStorage().get(500, 500)).isEqualTo((char) 0);
+        assertThat(repository.getDirtyRegion().getArea()).isEqualTo(1000 * 1000);
+    }
+
+    @Test
+    public void undo_ParallelFill_RestoresEveryBand() throws InvalidInputException {
+        //Arrange
+        var pool = new ForkJoinPool(4);
+        var history = new CanvasHistory(CanvasHistory.DEFAULT_BUDGET);
+        var repository = new InMemoryCanvasRepository(inMemoryCanvas, ArrayCanvasStorage::new,
+                new ParallelFillEngine(pool, 0), history);
+        repository.newCanvas(600, 600);
+        for (int i = 0; i < 20; i++) {
+            int x = faker.number().numberBetween(1, 600);
+            int y = faker.number().numberBetween(1, 600);
+            repository.drawRectangle(x, y, Math.min(600, x + 50), Math.min(600, y + 50));
+        }
+        var before = copy(inMemoryCanvas.getStorage().toArray());
+
+        //Act
+        repository.bucketFill(1, 1, 'o');
+        var filled = copy(inMemoryCanvas.getStorage().toArray());
+        repository.undo();
+        var undone = copy(inMemoryCanvas.getStorage().toArray());
+        repository.redo();
+
+        //Assert
+        pool.shutdown();
+        assertThat(undone).isDeepEqualTo(before);
+        assertThat(inMemoryCanvas.getStorage().toArray()).isDeepEqualTo(filled);
+    }
+
+    @Test
+    public void record_RowsWrittenByThreads_OneDelta() throws InterruptedException {
+        //Arrange
+        var canvas = new ArrayCanvasStorage(40, 30);
+        canvas.fillRow(5, 0, 30, 'x');
+        var before = copy(canvas.toArray());
+        var sut = new RecordingCanvasStorage();
+        sut.start(canvas);
+        var threads = new ArrayList<Thread>();
+        for (int band = 0; band < 4; band++) {
+            int firstRow = band * 10;
+            threads.add(new Thread(() -> {
+                for (int row = firstRow; row < firstRow + 10; row++) {
+                    sut.fillRow(row, 2, 28, 'o');
+                }
+            }));
+        }
+
+        //Act
+        boolean concurrent = sut.isRowConcurrent();
+        sut.set(0, 0, 'o');
+        threads.forEach(Thread::start);
+        for (var thread : threads) {
+            thread.join();
+        }
+        var delta = sut.finish();
+        delta.apply(canvas);
+
+        //Assert
+        assertThat(concurrent).isTrue();
+        assertThat(canvas.toArray()).isDeepEqualTo(before);
+    }
+
+    @Test
+    public void record_FillRowOverRuns_EveryRunRestored() {
+        //Arrange
+        var canvas = new TiledCanvasStorage(3, 40);
+        canvas.fillRow(1, 0, 12, 'a');
+        canvas.fillRow(1, 12, 13, 'x');
+        canvas.fillRow(1, 20, 35, 'b');
+        var before = copy(canvas.toArray());
+        var sut = new RecordingCanvasStorage();
+        sut.start(canvas);
+
+        //Act
+        sut.fillRow(1, 5, 38, 'o');
+        var delta = sut.finish();
+        delta.apply(canvas);
+
+        //Assert
+        assertThat(canvas.toArray()).isDeepEqualTo(before);
+        assertThat(delta.getBounds().getLeft()).isEqualTo(5);
+        assertThat(delta.getBounds().getRight()).isEqualTo(37);
+    }
+
+    @Test
+    public void commit_OverBudget_EvictsOldest() throws InvalidInputException {
+        //Arrange
+        var history = new CanvasHistory(300);
+        var repository = new InMemoryCanvasRepository(inMemoryCanvas, ArrayCanvasStorage::new,
+                new ScanlineFillEngine(), history);
+        repository.newCanvas(20, 10);
+
+        //Act
+        for (int row = 1; row <= 10; row++) {
+            repository.drawLine(1, row, 20, row);
+        }
+
+        //Assert
+        assertThat(history.memoryUsage()).isLessThanOrEqualTo(300);
+        assertThat(history.getUndoCount()).isBetween(1, 9);
+        var undoCount = history.getUndoCount();
+        for (int i = 0; i < undoCount; i++) {
+            repository.undo();
+        }
+        assertThat(inMemoryCanvas.getStorage().get(10, 1)).isEqualTo((char) 0);
+        assertThat(inMemoryCanvas.getStorage().get(1, 1)).isEqualTo('x');
+        assertThatThrownBy(repository::undo).isInstanceOf(InvalidInputException.class)
+                .hasMessage("Nothing to undo.");
+    }
+
+    @Test
+    public void commit_ClearsRedo() throws InvalidInputException {
+        //Arrange
+        var history = new CanvasHistory(CanvasHistory.DEFAULT_BUDGET);
+        var repository = new InMemoryCanvasRepository(inMemoryCanvas, ArrayCanvasStorage::new,
+                new ScanlineFillEngine(), history);
+        repository.newCanvas(20, 4);
+        repository.drawLine(1, 2, 6, 2);
+        repository.undo();
+
+        //Act
+        repository.drawRectangle(14, 1, 18, 3);
+
+        //Assert
+        assertThat(history.getRedoCount()).isZero();
+        assertThatThrownBy(repository::redo).isInstanceOf(InvalidInputException.class)
+                .hasMessage("Nothing to redo.");
+    }
+
+    @Test
+    public void record_ZeroBudget_Disabled() throws InvalidInputException {
+        //Arrange
+        var history = new CanvasHistory(0);
+        var repository = new InMemoryCanvasRepository(inMemoryCanvas, ArrayCanvasStorage::new,
+                new ScanlineFillEngine(), history);
+        repository.newCanvas(20, 4);
+
+        //Act
+        repository.drawLine(1, 2, 6, 2);
+
+        //Assert
+        assertThat(history.getUndoCount()).isZero();
+        assertThat(history.memoryUsage()).isZero();
+    }
+
+    private void drawRandomly(InMemoryCanvasRepository repository, int width, int height) throws InvalidInputException {
+        var x1 = faker.number().numberBetween(1, width);
+        var y1 = faker.number().numberBetween(1, height);
+        var x2 = faker.number().numberBetween(x1 + 1, width + 1);
+        var y2 = faker.number().numberBetween(y1 + 1, height + 1);
+        switch (faker.number().numberBetween(0, 4)) {
+            case 0:
+                repository.drawLine(x1, y1, x2, y1);
+                break;
+            case 1:
+                repository.drawLine(x1, y1, x1, y2);
+                break;
+            case 2:
+                repository.drawRectangle(x1, y1, x2, y2);
+                break;
+            default:
+                if (inMemoryCanvas.getStorage().get(y1, x1) == 'x') {
+                    repository.drawLine(x1, y1, x2, y1);
+                } else {
+                    repository.bucketFill(x1, y1, faker.options().option('o', 'a', 'Z'));
+                }
+                break;
+        }
+    }
+
+    private static char[][] copy(char[][] canvas) {
+        var copy = new char[canvas.length][];
+        for (int row = 0; row < canvas.length; row++) {
+            copy[row] = canvas[row].clone();
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,235 @@
+package com.drawingApp.drawing.app.journal;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CommandJournalTests {
+
+    Faker faker = new Faker();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void append_Reopen_SameCommands() throws IOException {
+        //Arrange
+        var file = tempDir.resolve("canvas.journal");
+        var expected = new ArrayList<String>();
+        for (int i = 0; i < 500; i++) {
+            expected.add("L " + faker.number().numberBetween(1, 100) + " 2 " + faker.number().numberBetween(1, 100) + " 2");
+        }
+        expected.add("S " + "a".repeat(100_000));
+
+        //Act
+        try (var sut = CommandJournal.open(file, 64, 1000)) {
+            for (var command : expected) {
+                sut.append(command);
+            }
+        }
+        List<String> actual;
+        try (var sut = CommandJournal.open(file, 64, 1000)) {
+            actual = commands(sut);
+            //Assert
+            assertThat(sut.getLastSequence()).isEqualTo(expected.size());
+        }
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    public void append_GroupCommit_FewerSyncs() throws IOException {
+        //Arrange
+        try (var sut = CommandJournal.open(tempDir.resolve("canvas.journal"), 10, 60_000)) {
+            //Act
+            for (int i = 0; i < 95; i++) {
+                sut.append("U");
+            }
+            //Assert
+            assertThat(sut.getSyncs()).isEqualTo(9);
+            sut.sync();
+            assertThat(sut.getSyncs()).isEqualTo(10);
+        }
+    }
+
+    @Test
+    public void open_TornRecord_Dropped() throws IOException {
+        //Arrange
+        var file = tempDir.resolve("canvas.journal");
+        try (var sut = CommandJournal.open(file, 1, 1)) {
+            sut.append("C 20 4");
+            sut.append("L 1 2 6 2");
+        }
+        var size = Files.size(file);
+        try (var channel = Files.newByteChannel(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        //Act
+        try (var sut = CommandJournal.open(file, 1, 1)) {
+            //Assert
+            assertThat(commands(sut)).containsExactly("C 20 4");
+            assertThat(sut.append("L 1 3 6 3")).isEqualTo(2);
+            assertThat(commands(sut)).containsExactly("C 20 4", "L 1 3 6 3");
+        }
+    }
+
+    @Test
+    public void truncate_SequenceGoesOn() throws IOException {
+        //Arrange
+        try (var sut = CommandJournal.open(tempDir.resolve("canvas.journal"), 1, 1)) {
+            sut.append("C 20 4");
+            sut.append("L 1 2 6 2");
+            //Act
+            sut.truncate();
+            var sequence = sut.append("U");
+            //Assert
+            assertThat(sequence).isEqualTo(3);
+            assertThat(commands(sut)).containsExactly("U");
+        }
+    }
+
+    @Test
+    public void append_ForceFails_RecordRemovedAndJournalFailed() throws IOException {
+        //Arrange
+        var file = tempDir.resolve("canvas.journal");
+        var channel = new FailingChannel(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        try (var sut = new CommandJournal(channel, 0, 1, 1)) {
+            sut.append("C 20 4");
+            channel.failForce = true;
+
+            //Act & Assert
+            assertThatThrownBy(() -> sut.append("L 1 2 6 2")).isInstanceOf(IOException.class);
+            channel.failForce = false;
+            assertThatThrownBy(() -> sut.append("L 1 3 6 3")).isInstanceOf(IOException.class).hasMessageContaining("unusable");
+            assertThat(sut.getLastSequence()).isEqualTo(1);
+        }
+        try (var sut = CommandJournal.open(file, 1, 1)) {
+            assertThat(commands(sut)).containsExactly("C 20 4");
+        }
+    }
+
+    private List<String> commands(CommandJournal journal) throws IOException {
+        var commands = new ArrayList<String>();
+        journal.replay((sequence, command) -> commands.add(command));
+        return commands;
+    }
+
+    /**
+     * File channel whose force fails on demand, as when the disk is full.
+     */
+    private static class FailingChannel extends FileChannel {
+
+        private final FileChannel channel;
+        boolean failForce;
+
+        FailingChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failForce) {
+                throw new IOException("No space left on device");
+            }
+            channel.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+}
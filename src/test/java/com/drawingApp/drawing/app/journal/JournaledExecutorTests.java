@@ -0,0 +1,119 @@
+package com.drawingApp.drawing.app.journal;
+
+import com.drawingApp.drawing.app.commands.CommandFactory;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JournaledExecutorTests {
+
+    Faker faker = new Faker();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void recover_AfterCrash_SameCanvas() throws IOException {
+        //Arrange
+        var journalFile = tempDir.resolve("canvas.journal");
+        var before = new Process(journalFile, 7);
+        before.sut.recover();
+        before.run("C 30 10");
+        for (int i = 0; i < 40; i++) {
+            var x = faker.number().numberBetween(1, 31);
+            var y = faker.number().numberBetween(1, 11);
+            before.run(faker.options().option(
+                    "L " + x + " " + y + " 30 " + y,
+                    "L " + x + " 1 " + x + " " + y,
+                    "B " + x + " " + y + " " + faker.options().option("o", "p", "q"),
+                    "U", "Y"));
+        }
+        // The process dies without closing the journal: only what was forced to disk is left.
+        before.journal.sync();
+
+        //Act
+        var after = new Process(journalFile, 7);
+        var report = after.sut.recover();
+
+        //Assert
+        assertThat(before.sut.getCheckpoints()).isEqualTo(5);
+        assertThat(report.getCheckpointSequence()).isEqualTo(35);
+        assertThat(report.getReplayed()).isEqualTo(6);
+        assertThat(after.inMemoryCanvas.getCanvas()).isDeepEqualTo(before.inMemoryCanvas.getCanvas());
+        try (var checkpoints = Files.list(tempDir)) {
+            assertThat(checkpoints.filter(file -> file.toString().endsWith(".checkpoint"))).hasSize(1);
+        }
+    }
+
+    @Test
+    public void recover_CheckpointNotTruncated_SkipsCheckpointedCommands() throws IOException, InvalidInputException {
+        //Arrange
+        var journalFile = tempDir.resolve("canvas.journal");
+        var before = new Process(journalFile, 0);
+        before.run("C 20 4");
+        before.run("L 1 2 6 2");
+        // A crash between writing a checkpoint and truncating the journal.
+        before.repository.saveCanvas(tempDir.resolve("canvas.journal.2.checkpoint"));
+        before.repository.clearHistory();
+        before.run("U");
+        before.journal.sync();
+
+        //Act
+        var after = new Process(journalFile, 0);
+        var report = after.sut.recover();
+
+        //Assert
+        assertThat(report.getReplayed()).isEqualTo(1);
+        assertThat(report.getErrors()).isEqualTo(1);
+        assertThat(after.inMemoryCanvas.getCanvas()).isDeepEqualTo(before.inMemoryCanvas.getCanvas());
+        assertThat(after.inMemoryCanvas.getCanvas()[2][1]).isEqualTo('x');
+    }
+
+    @Test
+    public void execute_Load_Checkpoints() throws IOException, InvalidInputException {
+        //Arrange
+        var sut = new Process(tempDir.resolve("canvas.journal"), 0);
+        sut.run("C 20 4");
+        sut.repository.saveCanvas(tempDir.resolve("saved.snap"));
+
+        //Act
+        sut.run("O " + tempDir.resolve("saved.snap"));
+
+        //Assert
+        assertThat(sut.sut.getCheckpoints()).isEqualTo(1);
+        assertThat(Files.size(tempDir.resolve("canvas.journal"))).isZero();
+    }
+
+    /**
+     * Application process: canvas, repository and journal.
+     */
+    private static class Process {
+        final InMemoryCanvas inMemoryCanvas = new InMemoryCanvas();
+        final InMemoryCanvasRepository repository = new InMemoryCanvasRepository(inMemoryCanvas);
+        final CommandFactory commandFactory = new CommandFactory(repository);
+        final CommandJournal journal;
+        final JournaledExecutor sut;
+
+        Process(Path journalFile, long checkpointEvery) throws IOException {
+            journal = CommandJournal.open(journalFile, 4, 60_000);
+            sut = new JournaledExecutor(journal, journalFile, inMemoryCanvas, repository, checkpointEvery);
+        }
+
+        void run(String input) {
+            try {
+                sut.execute(input, commandFactory.parse(input));
+            } catch (InvalidInputException e) {
+                // Invalid drawings are journaled too.
+            }
+        }
+    }
+}
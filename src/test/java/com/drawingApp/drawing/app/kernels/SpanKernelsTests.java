@@ -0,0 +1,146 @@
+package com.drawingApp.drawing.app.kernels;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpanKernelsTests {
+
+    Faker faker = new Faker();
+
+    /**
+     * @return portable kernels, and vector kernels when built and run with the module.
+     */
+    static List<SpanKernels> kernels() {
+        var kernels = new ArrayList<SpanKernels>();
+        kernels.add(Kernels.portable());
+        if (Kernels.vector() != null) {
+            kernels.add(Kernels.vector());
+        }
+        return kernels;
+    }
+
+    @Test
+    public void scans_RandomSpans_SameAsCellByCell() {
+        for (var sut : kernels()) {
+            for (int test = 0; test < 500; test++) {
+                //Arrange
+                var cells = randomRow();
+                var from = faker.number().numberBetween(0, cells.length + 1);
+                var to = faker.number().numberBetween(from, cells.length + 1);
+                var value = faker.options().option((char) 0, 'x', '\u007F');
+
+                //Act & Assert
+                assertThat(sut.mismatch(cells, from, to, value)).isEqualTo(firstIndex(cells, from, to, cell -> cell != value));
+                assertThat(sut.lastMismatch(cells, from, to, value)).isEqualTo(lastIndex(cells, from, to, cell -> cell != value));
+                assertThat(sut.indexOfEither(cells, from, to, 'x', '\u007F'))
+                        .isEqualTo(firstIndex(cells, from, to, cell -> cell == 'x' || cell == '\u007F'));
+                assertThat(sut.lastIndexOfEither(cells, from, to, 'x', '\u007F'))
+                        .isEqualTo(lastIndex(cells, from, to, cell -> cell == 'x' || cell == '\u007F'));
+            }
+        }
+    }
+
+    @Test
+    public void fill_RandomSpans_SameAsArraysFill() {
+        for (var sut : kernels()) {
+            for (int test = 0; test < 200; test++) {
+                //Arrange
+                var cells = randomRow();
+                var expected = cells.clone();
+                var from = faker.number().numberBetween(0, cells.length + 1);
+                var to = faker.number().numberBetween(from, cells.length + 1);
+
+                //Act
+                sut.fill(cells, from, to, 'o');
+
+                //Assert
+                Arrays.fill(expected, from, to, 'o');
+                assertThat(cells).containsExactly(expected);
+            }
+        }
+    }
+
+    @Test
+    public void toAscii_RandomSpans_BlanksAsSpacesUpToFirstNonAscii() {
+        for (var sut : kernels()) {
+            for (int test = 0; test < 500; test++) {
+                //Arrange
+                var cells = randomRow();
+                if (cells.length > 0 && faker.bool().bool()) {
+                    cells[faker.number().numberBetween(0, cells.length)] = faker.options().option('é', '█', '\u0080');
+                }
+                var from = faker.number().numberBetween(0, cells.length + 1);
+                var to = faker.number().numberBetween(from, cells.length + 1);
+                var bytes = new byte[to - from + 3];
+
+                //Act
+                var count = sut.toAscii(cells, from, to, bytes, 3);
+
+                //Assert
+                assertThat(count).isEqualTo(firstIndex(cells, from, to, cell -> cell >= 0x80) - from);
+                for (int i = 0; i < count; i++) {
+                    var cell = cells[from + i];
+                    assertThat(bytes[3 + i]).isEqualTo(cell == 0 ? (byte) ' ' : (byte) cell);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void toAscii_LongBlankRow_AllSpaces() {
+        for (var sut : kernels()) {
+            //Arrange
+            var cells = new char[1000];
+            var bytes = new byte[1000];
+
+            //Act
+            var count = sut.toAscii(cells, 0, cells.length, bytes, 0);
+
+            //Assert
+            assertThat(count).isEqualTo(1000);
+            assertThat(new String(bytes)).isBlank().hasSize(1000);
+        }
+    }
+
+    /**
+     * @return a row of runs of blanks, lines and markers, so that scans go some way before stopping.
+     */
+    private char[] randomRow() {
+        var cells = new char[faker.number().numberBetween(0, 200)];
+        int col = 0;
+        while (col < cells.length) {
+            var end = Math.min(cells.length, col + faker.number().numberBetween(1, 40));
+            Arrays.fill(cells, col, end, faker.options().option((char) 0, (char) 0, 'x', '\u007F', 'o'));
+            col = end;
+        }
+        return cells;
+    }
+
+    private interface CellTest {
+        boolean test(char cell);
+    }
+
+    private static int firstIndex(char[] cells, int from, int to, CellTest test) {
+        for (int i = from; i < to; i++) {
+            if (test.test(cells[i])) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static int lastIndex(char[] cells, int from, int to, CellTest test) {
+        for (int i = to - 1; i >= from; i--) {
+            if (test.test(cells[i])) {
+                return i;
+            }
+        }
+        return from - 1;
+    }
+}
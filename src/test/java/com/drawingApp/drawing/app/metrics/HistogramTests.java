@@ -0,0 +1,92 @@
+package com.drawingApp.drawing.app.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class HistogramTests {
+
+    @Test
+    public void bucketOf_EveryBucketFollowsThePreviousOne() {
+        //Arrange
+        int bucket = 0;
+        //Act
+        while (Histogram.highestValueOf(bucket) < Long.MAX_VALUE) {
+            long highest = Histogram.highestValueOf(bucket);
+            //Assert
+            assertThat(Histogram.bucketOf(highest)).isEqualTo(bucket);
+            assertThat(Histogram.bucketOf(highest + 1)).isEqualTo(bucket + 1);
+            bucket++;
+        }
+        assertThat(Histogram.bucketOf(Long.MAX_VALUE)).isEqualTo(bucket);
+    }
+
+    @Test
+    public void getValueAtPercentile_RandomValues_WithinBucketPrecision() {
+        //Arrange
+        var sut = new Histogram();
+        var random = new Random(42);
+        var values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Spread over several orders of magnitude, as latencies are.
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            sut.record(values[i]);
+        }
+        Arrays.sort(values);
+        //Act & Assert
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+            assertThat((double) sut.getValueAtPercentile(percentile))
+                    .isCloseTo(exact, within(exact / (double) Histogram.SUB_BUCKETS + 1));
+        }
+        assertThat(sut.getCount()).isEqualTo(values.length);
+        assertThat(sut.getMax()).isEqualTo(values[values.length - 1]);
+        assertThat(sut.getMean()).isCloseTo(Arrays.stream(values).average().orElseThrow(), within(1e-6));
+    }
+
+    @Test
+    public void getValueAtPercentile_Empty_Zero() {
+        //Arrange
+        var sut = new Histogram();
+        //Act & Assert
+        assertThat(sut.getP99()).isZero();
+        assertThat(sut.getMean()).isZero();
+        assertThat(sut.getMax()).isZero();
+    }
+
+    @Test
+    public void record_Negative_RecordedAsZero() {
+        //Arrange
+        var sut = new Histogram();
+        //Act
+        sut.record(-5);
+        //Assert
+        assertThat(sut.getCount()).isEqualTo(1);
+        assertThat(sut.getP50()).isZero();
+        assertThat(sut.getTotal()).isZero();
+    }
+
+    @Test
+    public void record_AllocatesNothing() {
+        //Arrange
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var sut = new Histogram();
+        for (int i = 0; i < 100_000; i++) {
+            sut.record(i);
+        }
+        long threadId = Thread.currentThread().getId();
+        //Act
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            sut.record(i * 31L);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        //Assert
+        assertThat(allocated).isLessThan(1024);
+    }
+}
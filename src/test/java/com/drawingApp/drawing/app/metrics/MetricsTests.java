@@ -0,0 +1,111 @@
+package com.drawingApp.drawing.app.metrics;
+
+import com.drawingApp.drawing.app.commands.CommandType;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.history.CanvasHistory;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MetricsTests {
+
+    private Metrics sut;
+    private InMemoryCanvasRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        sut = new Metrics();
+        repository = new InMemoryCanvasRepository(new InMemoryCanvas(), ArrayCanvasStorage::new,
+                new ScanlineFillEngine(), new CanvasHistory(CanvasHistory.DEFAULT_BUDGET), sut);
+    }
+
+    @Test
+    public void repository_Commands_RecordedByType() throws InvalidInputException {
+        //Arrange
+        repository.newCanvas(20, 4);
+        //Act
+        repository.drawLine(1, 2, 6, 2);
+        repository.drawLine(6, 3, 6, 4);
+        repository.drawRectangle(14, 1, 18, 3);
+        repository.bucketFill(10, 3, 'o');
+        repository.undo();
+        assertThatThrownBy(() -> repository.drawLine(1, 1, 30, 1)).isInstanceOf(InvalidInputException.class);
+        assertThatThrownBy(() -> repository.bucketFill(1, 1, 'x')).isInstanceOf(InvalidInputException.class);
+        //Assert
+        var lines = sut.getCommand(CommandType.LINE);
+        assertThat(lines.getExecuted()).isEqualTo(2);
+        assertThat(lines.getFailed()).isEqualTo(1);
+        assertThat(lines.getCellsTouched()).isEqualTo(6 + 2);
+        assertThat(lines.getMaxNanos()).isPositive();
+        assertThat(sut.getCommand(CommandType.RECTANGLE).getCellsTouched()).isEqualTo(12);
+        assertThat(sut.getCommand(CommandType.CANVAS).getCellsTouched()).isEqualTo(2 * 22 + 2 * 4);
+        var fills = sut.getCommand(CommandType.BUCKET_FILL);
+        assertThat(fills.getExecuted()).isEqualTo(1);
+        assertThat(fills.getFailed()).isEqualTo(1);
+        // The 'o' cells of the sample run of the README.
+        assertThat(fills.getCellsTouched()).isEqualTo(15 + 9 + 9 + 14);
+        assertThat(sut.getFillRegions().getCount()).isEqualTo(1);
+        assertThat(sut.getFillRegions().getMax()).isEqualTo(fills.getCellsTouched());
+        assertThat(sut.getFillFrontiers().getMax()).isPositive();
+        assertThat(sut.getCommand(CommandType.UNDO).getExecuted()).isEqualTo(1);
+        assertThat(sut.getCommand(CommandType.REDO).getExecuted()).isZero();
+    }
+
+    @Test
+    public void repository_NoCanvas_Failed() {
+        //Act
+        assertThatThrownBy(() -> repository.undo()).isInstanceOf(InvalidInputException.class);
+        assertThatThrownBy(() -> repository.newCanvas(0, 1)).isInstanceOf(InvalidInputException.class);
+        //Assert
+        assertThat(sut.getCommand(CommandType.UNDO).getFailed()).isEqualTo(1);
+        assertThat(sut.getCommand(CommandType.CANVAS).getFailed()).isEqualTo(1);
+        assertThat(sut.getCommand(CommandType.CANVAS).getExecuted()).isZero();
+    }
+
+    @Test
+    public void register_AttributesReadThroughJmx() throws Exception {
+        //Arrange
+        var server = MBeanServerFactory.newMBeanServer();
+        repository.newCanvas(10, 10);
+        repository.drawLine(1, 1, 5, 1);
+        //Act
+        sut.register(server);
+        //Assert
+        var lines = new ObjectName(Metrics.DOMAIN + ":type=Command,name=LINE");
+        assertThat(server.getAttribute(lines, "Executed")).isEqualTo(1L);
+        assertThat(server.getAttribute(lines, "CellsTouched")).isEqualTo(5L);
+        assertThat((long) server.getAttribute(lines, "P99Nanos")).isPositive();
+        var renders = new ObjectName(Metrics.DOMAIN + ":type=Histogram,name=RenderTimes");
+        assertThat(server.getAttribute(renders, "Count")).isEqualTo(0L);
+    }
+
+    @Test
+    public void dump_CommandsExecutedOnly() throws InvalidInputException {
+        //Arrange
+        var output = new ByteArrayOutputStream();
+        repository.newCanvas(10, 10);
+        repository.drawRectangle(1, 1, 5, 5);
+        //Act
+        sut.dump(new PrintStream(output, true, StandardCharsets.UTF_8));
+        //Assert
+        var lines = output.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+        assertThat(lines).hasSize(5);
+        assertThat(lines[0]).startsWith("command").contains("p99(us)");
+        assertThat(lines[1]).startsWith("CANVAS");
+        assertThat(lines[2]).startsWith("RECTANGLE").contains(" 16 ");
+        assertThat(lines[3]).startsWith("fills: 0").endsWith("peak frontier p99 0 max 0");
+        assertThat(lines[4]).startsWith("renders: 0");
+    }
+}
@@ -0,0 +1,240 @@
+package com.drawingApp.drawing.app.raster;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SpanRasterizerTests {
+
+    Faker faker = new Faker();
+
+    List<int[]> spans = new ArrayList<>();
+
+    SpanRasterizer sut = new SpanRasterizer(0, 0, 99, 99, (row, fromCol, toCol) -> spans.add(new int[]{row, fromCol, toCol}));
+
+    @Test
+    public void line_Shallow_OneSpanPerRow() {
+        //Act
+        sut.line(0, 0, 7, 2);
+
+        //Assert
+        assertThat(spans).containsExactly(new int[]{0, 0, 1}, new int[]{1, 2, 5}, new int[]{2, 6, 7});
+    }
+
+    @Test
+    public void line_Steep_OneCellPerRow() {
+        //Act
+        sut.line(3, 4, 1, 0);
+
+        //Assert
+        assertThat(spans).containsExactly(new int[]{4, 3, 3}, new int[]{3, 2, 2}, new int[]{2, 2, 2},
+                new int[]{1, 1, 1}, new int[]{0, 1, 1});
+    }
+
+    @RepeatedTest(50)
+    public void line_RandomEnds_SameCellsAsPerCellBresenham() {
+        //Arrange
+        int x1 = faker.number().numberBetween(0, 100);
+        int y1 = faker.number().numberBetween(0, 100);
+        int x2 = faker.number().numberBetween(0, 100);
+        int y2 = faker.number().numberBetween(0, 100);
+
+        //Act
+        sut.line(x1, y1, x2, y2);
+
+        //Assert
+        assertThat(cellsOf(spans)).isEqualTo(bresenham(x1, y1, x2, y2));
+        assertThat(spans).extracting(span -> span[0]).doesNotHaveDuplicates();
+    }
+
+    @Test
+    public void circle_Radius3_Outline() {
+        //Act
+        sut.circle(5, 5, 3);
+
+        //Assert
+        assertThat(render(10, 10)).containsExactly(
+                "          ",
+                "          ",
+                "    xxx   ",
+                "   x   x  ",
+                "  x     x ",
+                "  x     x ",
+                "  x     x ",
+                "   x   x  ",
+                "    xxx   ",
+                "          ");
+    }
+
+    @Test
+    public void circle_Radius0_CenterOnly() {
+        //Act
+        sut.circle(5, 5, 0);
+
+        //Assert
+        assertThat(spans).containsExactly(new int[]{5, 5, 5});
+    }
+
+    @Test
+    public void circle_NegativeRadius_Failure() {
+        assertThatThrownBy(() -> sut.circle(5, 5, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @RepeatedTest(20)
+    public void circle_RandomRadius_CoversMidpointCellsOnce() {
+        //Arrange
+        int radius = faker.number().numberBetween(1, 49);
+
+        //Act
+        sut.circle(50, 50, radius);
+
+        //Assert
+        var cells = cellsOf(spans);
+        assertThat(cells).hasSize(countCells(spans)).containsAll(midpoint(50, 50, radius));
+        // Symmetric about the center.
+        assertThat(cells).allMatch(cell -> cells.contains(100 * (100 - cell / 100) + cell % 100)
+                && cells.contains(100 * (cell / 100) + 100 - cell % 100));
+    }
+
+    @Test
+    public void polygon_Triangle_Filled() {
+        //Act
+        sut.polygon(new int[]{1, 5, 1}, new int[]{1, 1, 5}, 3);
+
+        //Assert
+        assertThat(render(7, 7)).containsExactly(
+                "       ",
+                " xxxxx ",
+                " xxxx  ",
+                " xxx   ",
+                " xx    ",
+                " x     ",
+                "       ");
+    }
+
+    @Test
+    public void polygon_Concave_EvenOdd() {
+        //Act
+        sut.polygon(new int[]{1, 7, 7, 4, 1}, new int[]{1, 1, 5, 3, 5}, 5);
+
+        //Assert
+        assertThat(render(9, 7)).containsExactly(
+                "         ",
+                " xxxxxxx ",
+                " xxxxxxx ",
+                " xxxxxxx ",
+                " xxx xxx ",
+                " x     x ",
+                "         ");
+    }
+
+    @Test
+    public void shapes_BeyondClip_Clipped() {
+        //Arrange
+        var clipped = new SpanRasterizer(2, 2, 4, 4, (row, fromCol, toCol) -> spans.add(new int[]{row, fromCol, toCol}));
+
+        //Act
+        clipped.line(0, 3, 9, 3);
+        clipped.circle(3, 3, 10);
+        clipped.polygon(new int[]{0, 9, 9}, new int[]{0, 0, 9}, 3);
+
+        //Assert
+        assertThat(spans).isNotEmpty().allMatch(span -> span[0] >= 2 && span[0] <= 4 && span[1] >= 2 && span[2] <= 4);
+        assertThat(spans.get(0)).containsExactly(3, 2, 4);
+    }
+
+    /**
+     * @return rows of the spans, cells covered as 'x'.
+     */
+    private String[] render(int width, int height) {
+        var rows = new char[height][width];
+        for (var row : rows) {
+            Arrays.fill(row, ' ');
+        }
+        for (var span : spans) {
+            for (int col = span[1]; col <= span[2]; col++) {
+                rows[span[0]][col] = 'x';
+            }
+        }
+        var lines = new String[height];
+        for (int i = 0; i < height; i++) {
+            lines[i] = new String(rows[i]);
+        }
+        return lines;
+    }
+
+    private static Set<Integer> cellsOf(List<int[]> spans) {
+        var cells = new HashSet<Integer>();
+        for (var span : spans) {
+            for (int col = span[1]; col <= span[2]; col++) {
+                cells.add(100 * span[0] + col);
+            }
+        }
+        return cells;
+    }
+
+    private static int countCells(List<int[]> spans) {
+        return spans.stream().mapToInt(span -> span[2] - span[1] + 1).sum();
+    }
+
+    /**
+     * Reference Bresenham line, one cell at a time.
+     */
+    private static Set<Integer> bresenham(int x1, int y1, int x2, int y2) {
+        var cells = new HashSet<Integer>();
+        int dx = Math.abs(x2 - x1);
+        int dy = -Math.abs(y2 - y1);
+        int error = dx + dy;
+        while (true) {
+            cells.add(100 * y1 + x1);
+            if (x1 == x2 && y1 == y2) {
+                return cells;
+            }
+            int doubled = 2 * error;
+            if (doubled >= dy) {
+                error += dy;
+                x1 += x1 < x2 ? 1 : -1;
+            }
+            if (doubled <= dx) {
+                error += dx;
+                y1 += y1 < y2 ? 1 : -1;
+            }
+        }
+    }
+
+    /**
+     * Reference midpoint circle, one cell at a time in every octant.
+     */
+    private static Set<Integer> midpoint(int cx, int cy, int radius) {
+        var cells = new HashSet<Integer>();
+        int x = 0;
+        int y = radius;
+        int decision = 1 - radius;
+        while (x <= y) {
+            for (int[] offset : new int[][]{{x, y}, {y, x}}) {
+                for (int sx = -1; sx <= 1; sx += 2) {
+                    for (int sy = -1; sy <= 1; sy += 2) {
+                        cells.add(100 * (cy + sy * offset[1]) + cx + sx * offset[0]);
+                    }
+                }
+            }
+            x++;
+            if (decision < 0) {
+                decision += 2 * x + 1;
+            } else {
+                y--;
+                decision += 2 * (x - y) + 1;
+            }
+        }
+        return cells;
+    }
+}
@@ -0,0 +1,60 @@
+package com.drawingApp.drawing.app.render;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AnsiCanvasRendererTests {
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    AnsiCanvasRenderer sut = new AnsiCanvasRenderer(new PrintStream(output, true));
+
+    InMemoryCanvas inMemoryCanvas = new InMemoryCanvas();
+
+    InMemoryCanvasRepository repository = new InMemoryCanvasRepository(inMemoryCanvas);
+
+    @BeforeEach
+    public void setUp() throws InvalidInputException {
+        repository.newCanvas(20, 4);
+    }
+
+    @Test
+    public void render_NewCanvas_ClearsScreen() {
+        //Act
+        sut.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+        //Assert
+        assertThat(output.toString()).startsWith("\u001B[H\u001B[2J----------------------" + System.lineSeparator());
+    }
+
+    @Test
+    public void render_ChangedCellsInPlace() throws InvalidInputException {
+        //Arrange
+        sut.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+        output.reset();
+        repository.drawLine(6, 3, 6, 4);
+        //Act
+        sut.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+        //Assert
+        assertThat(output.toString()).isEqualTo("\u001B[4;7Hx\u001B[5;7Hx\u001B[8;1H\u001B[J");
+    }
+
+    @Test
+    public void render_MostCellsChanged_WholeCanvas() throws InvalidInputException {
+        //Arrange
+        sut.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+        output.reset();
+        repository.bucketFill(1, 1, 'o');
+        //Act
+        sut.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+        //Assert
+        assertThat(output.toString()).startsWith("\u001B[H\u001B[2J").contains("|oooooooooooooooooooo|");
+    }
+}
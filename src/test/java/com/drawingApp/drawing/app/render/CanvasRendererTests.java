@@ -0,0 +1,108 @@
+package com.drawingApp.drawing.app.render;
+
+import com.drawingApp.drawing.app.metrics.Histogram;
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+import com.drawingApp.drawing.app.storage.RleCanvasStorage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CanvasRendererTests {
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    CanvasRenderer sut = new CanvasRenderer(new PrintStream(output, true));
+
+    @Test
+    public void render_BlankCellsAsSpaces() {
+        //Arrange
+        char[][] canvas = {{'-', '-', '-', '-', '-'},
+                {'|', 'x', 0, 'o', '|'},
+                {'-', '-', '-', '-', '-'}};
+        //Act
+        sut.render(new ArrayCanvasStorage(canvas));
+        //Assert
+        assertThat(output.toString()).isEqualTo(String.join(System.lineSeparator(),
+                "-----", "|x o|", "-----", "", ""));
+    }
+
+    @Test
+    public void render_DirtyRegion_AlwaysWholeCanvas() {
+        //Arrange
+        var canvas = new ArrayCanvasStorage(new char[][]{{'-', '-', '-'}, {'|', 'x', '|'}, {'-', '-', '-'}});
+        var dirtyRegion = new DirtyRegion();
+        sut.render(canvas, dirtyRegion);
+        //Act
+        dirtyRegion.add(1, 1, 1, 1);
+        sut.render(canvas, dirtyRegion);
+        //Assert
+        var frame = String.join(System.lineSeparator(), "---", "|x|", "---", "", "");
+        assertThat(output.toString()).isEqualTo(frame + frame);
+        assertThat(dirtyRegion.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void render_RenderTimes_RecordedPerRender() {
+        //Arrange
+        var canvas = new ArrayCanvasStorage(new char[][]{{'-', '-', '-'}, {'|', 'x', '|'}, {'-', '-', '-'}});
+        var renderTimes = new Histogram();
+        sut.recordRenderTimes(renderTimes);
+        //Act
+        sut.render(canvas);
+        sut.render(canvas, new DirtyRegion());
+        //Assert
+        assertThat(renderTimes.getCount()).isEqualTo(2);
+        assertThat(renderTimes.getMax()).isPositive();
+    }
+
+    @Test
+    public void render_Channel_RowsAfterStreamAsUtf8() {
+        //Arrange
+        var stream = new PrintStream(output, false, StandardCharsets.UTF_8);
+        var renderer = new CanvasRenderer(stream, Channels.newChannel(output));
+        // Taller than the buffer, so that it is written several times.
+        var canvas = new ArrayCanvasStorage(3000, 30);
+        canvas.fillRow(1500, 0, 30, 'é');
+        canvas.set(2999, 29, 'x');
+        var expected = new StringBuilder("Canvas:" + System.lineSeparator());
+        for (var row : canvas.toArray()) {
+            expected.append(new String(row).replace((char) 0, ' ')).append(System.lineSeparator());
+        }
+        expected.append(System.lineSeparator());
+
+        //Act
+        stream.println("Canvas:");
+        renderer.render(canvas);
+
+        //Assert
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo(expected.toString());
+    }
+
+    @Test
+    public void render_RunLengthStorage_SameAsArrayStorage() {
+        //Arrange
+        var runs = new RleCanvasStorage(4, 70000);
+        var cells = new ArrayCanvasStorage(4, 70000);
+        // Runs longer than the buffer, and characters of every UTF-8 length.
+        for (var canvas : new CanvasStorage[]{runs, cells}) {
+            canvas.fillRow(0, 0, 70000, '-');
+            canvas.fillRow(1, 10, 40000, 'é');
+            canvas.fillRow(1, 50000, 50010, '€');
+            canvas.set(3, 69999, 'x');
+        }
+        var expected = new ByteArrayOutputStream();
+        new CanvasRenderer(new PrintStream(expected, true)).render(cells);
+
+        //Act
+        sut.render(runs);
+
+        //Assert
+        assertThat(output.toByteArray()).isEqualTo(expected.toByteArray());
+    }
+}
@@ -0,0 +1,36 @@
+package com.drawingApp.drawing.app.render;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DirtyRegionTests {
+
+    DirtyRegion sut = new DirtyRegion();
+
+    @Test
+    public void add_WidensToBoundingRectangle() {
+        //Act
+        sut.add(2, 5, 2, 9);
+        sut.add(4, 3, 6, 3);
+        //Assert
+        assertThat(new int[]{sut.getTop(), sut.getLeft(), sut.getBottom(), sut.getRight()}).containsExactly(2, 3, 6, 9);
+        assertThat(sut.getRowCount()).isEqualTo(5);
+        assertThat(sut.getArea()).isEqualTo(35);
+        assertThat(sut.isEmpty()).isFalse();
+    }
+
+    @Test
+    public void clear_Empty() {
+        //Arrange
+        sut.add(1, 1, 1, 1);
+        sut.markFull();
+        //Act
+        sut.clear();
+        //Assert
+        assertThat(sut.isEmpty()).isTrue();
+        assertThat(sut.isFull()).isFalse();
+        assertThat(sut.getRowCount()).isZero();
+        assertThat(sut.getArea()).isZero();
+    }
+}
@@ -0,0 +1,70 @@
+package com.drawingApp.drawing.app.render;
+
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RowsCanvasRendererTests {
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    RowsCanvasRenderer sut = new RowsCanvasRenderer(new PrintStream(output, true));
+
+    InMemoryCanvas inMemoryCanvas = new InMemoryCanvas();
+
+    InMemoryCanvasRepository repository = new InMemoryCanvasRepository(inMemoryCanvas);
+
+    @BeforeEach
+    public void setUp() throws InvalidInputException {
+        repository.newCanvas(5, 6);
+        sut.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+        output.reset();
+    }
+
+    @Test
+    public void render_ChangedRowsOnly() throws InvalidInputException {
+        //Arrange
+        repository.drawLine(2, 3, 2, 4);
+        //Act
+        sut.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+        //Assert
+        assertThat(output.toString()).isEqualTo(String.join(System.lineSeparator(),
+                "Rows 3-4:", "| x   |", "| x   |", "", ""));
+        assertThat(repository.getDirtyRegion().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void render_NothingChanged_NothingDisplayed() {
+        //Act
+        sut.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+        //Assert
+        assertThat(output.toString()).isEmpty();
+    }
+
+    @Test
+    public void render_MostRowsChanged_WholeCanvas() throws InvalidInputException {
+        //Arrange
+        repository.drawLine(2, 1, 2, 6);
+        //Act
+        sut.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+        //Assert
+        assertThat(output.toString()).startsWith("-------" + System.lineSeparator() + "| x   |");
+    }
+
+    @Test
+    public void render_NewCanvas_WholeCanvas() throws InvalidInputException {
+        //Arrange
+        repository.newCanvas(2, 1);
+        //Act
+        sut.render(inMemoryCanvas.getStorage(), repository.getDirtyRegion());
+        //Assert
+        assertThat(output.toString()).isEqualTo(String.join(System.lineSeparator(), "----", "|  |", "----", "", ""));
+    }
+}
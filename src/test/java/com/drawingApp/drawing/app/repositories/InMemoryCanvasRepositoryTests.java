@@ -1,21 +1,43 @@
 package com.drawingApp.drawing.app.repositories;
 
 
+import com.drawingApp.drawing.app.commands.BucketFill;
+import com.drawingApp.drawing.app.commands.Command;
+import com.drawingApp.drawing.app.commands.Line;
+import com.drawingApp.drawing.app.commands.Rectangle;
+import com.drawingApp.drawing.app.commands.Redo;
+import com.drawingApp.drawing.app.commands.Undo;
 import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.FillEngine;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.history.CanvasHistory;
+import com.drawingApp.drawing.app.storage.ArrayCanvasStorage;
+import com.drawingApp.drawing.app.storage.CanvasSnapshot;
+import com.drawingApp.drawing.app.storage.CanvasStorage;
+import com.drawingApp.drawing.app.storage.StorageType;
 import com.github.javafaker.Faker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.stream.Stream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,13 +46,17 @@ public class InMemoryCanvasRepositoryTests {
     @Mock
     InMemoryCanvas mockInMemoryCanvas;
 
-    @InjectMocks
     InMemoryCanvasRepository sut;
 
     Faker faker = new Faker();
 
     char[][] emptyCanvas = new char[0][0];
 
+    @BeforeEach
+    public void setUp() {
+        sut = new InMemoryCanvasRepository(mockInMemoryCanvas);
+    }
+
     @Test
     public void newCanvasCreated_Success() throws InvalidInputException {
 
@@ -43,7 +69,32 @@ public class InMemoryCanvasRepositoryTests {
         sut.newCanvas(canvasWidth, canvasHeight);
 
         //Assert
-        Mockito.verify(mockInMemoryCanvas).save(Mockito.eq(expectedCanvas));
+        Mockito.verify(mockInMemoryCanvas).save(storageEq(expectedCanvas));
+        assertThat(sut.getDirtyRegion().isFull()).isTrue();
+    }
+
+    @Test
+    public void drawing_TracksDirtyRegion() throws InvalidInputException {
+        //Arrange
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(getBlankCanvas(20, 4)));
+
+        //Act
+        sut.drawLine(1, 2, 6, 2);
+        sut.drawRectangle(14, 1, 18, 3);
+
+        //Assert
+        var dirtyRegion = sut.getDirtyRegion();
+        assertThat(new int[]{dirtyRegion.getTop(), dirtyRegion.getLeft(), dirtyRegion.getBottom(), dirtyRegion.getRight()})
+                .containsExactly(1, 1, 3, 18);
+
+        //Act
+        dirtyRegion.clear();
+        sut.bucketFill(3, 4, 'o');
+
+        //Assert
+        assertThat(new int[]{dirtyRegion.getTop(), dirtyRegion.getLeft(), dirtyRegion.getBottom(), dirtyRegion.getRight()})
+                .containsExactly(1, 1, 4, 20);
+        assertThat(dirtyRegion.isFull()).isFalse();
     }
 
     @Test
@@ -60,7 +111,7 @@ public class InMemoryCanvasRepositoryTests {
     @Test
     public void drawLine_CanvasNotExist_Failure() {
         //Arrange
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(emptyCanvas);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(emptyCanvas));
         //Assert
         assertThatThrownBy(() -> {
             sut.drawLine(faker.number().randomDigitNotZero(),
@@ -78,7 +129,7 @@ public class InMemoryCanvasRepositoryTests {
         var canvasWidth = 20;
         var canvasHeight = 4;
         var canvasToDraw = getBlankCanvas(canvasWidth, canvasHeight);
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(canvasToDraw);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(canvasToDraw));
 
         assertThatThrownBy(() -> {
             sut.drawLine(x1, y1, x2, y2);
@@ -92,7 +143,7 @@ public class InMemoryCanvasRepositoryTests {
         var canvasWidth = 20;
         var canvasHeight = 4;
         var canvasToDraw = getBlankCanvas(canvasWidth, canvasHeight);
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(canvasToDraw);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(canvasToDraw));
 
         //Act, Assert
         assertThatThrownBy(() -> {
@@ -111,14 +162,14 @@ public class InMemoryCanvasRepositoryTests {
         var y = 2;
 
         var canvasToDraw = getBlankCanvas(canvasWidth, canvasHeight);
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(canvasToDraw);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(canvasToDraw));
 
         var expectedCanvas = drawLine(canvasToDraw, x1, y, x2, y);
         //Act
         sut.drawLine(x1, y, x2, y);
 
         // Assert
-        Mockito.verify(mockInMemoryCanvas).save(Mockito.eq(expectedCanvas));
+        Mockito.verify(mockInMemoryCanvas).save(storageEq(expectedCanvas));
     }
 
     @Test
@@ -131,7 +182,7 @@ public class InMemoryCanvasRepositoryTests {
         var x = 16;
 
         var canvasToDraw = getBlankCanvas(canvasWidth, canvasHeight);
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(canvasToDraw);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(canvasToDraw));
 
 
         var expectedCanvas = drawLine(canvasToDraw, x, y1, x, y2);
@@ -140,7 +191,7 @@ public class InMemoryCanvasRepositoryTests {
         sut.drawLine(x, y1, x, y2);
 
         //Arrange
-        Mockito.verify(mockInMemoryCanvas).save(Mockito.eq(expectedCanvas));
+        Mockito.verify(mockInMemoryCanvas).save(storageEq(expectedCanvas));
 
     }
 
@@ -155,14 +206,14 @@ public class InMemoryCanvasRepositoryTests {
         var y1 = 3;
 
         var canvasToDraw = getBlankCanvas(canvasWidth, canvasHeight);
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(canvasToDraw);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(canvasToDraw));
         var expectedCanvas = drawRectangle(canvasToDraw, x1, y1, x2, y2);
 
         //Act
         sut.drawRectangle(x1, y1, x2, y2);
 
         //Assert
-        Mockito.verify(mockInMemoryCanvas).save(Mockito.eq(expectedCanvas));
+        Mockito.verify(mockInMemoryCanvas).save(storageEq(expectedCanvas));
 
     }
 
@@ -173,7 +224,7 @@ public class InMemoryCanvasRepositoryTests {
         var canvasWidth = 20;
         var canvasHeight = 4;
         var canvasToDraw = getBlankCanvas(canvasWidth, canvasHeight);
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(canvasToDraw);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(canvasToDraw));
 
         //Act , Assert
         assertThatThrownBy(() -> {
@@ -182,13 +233,85 @@ public class InMemoryCanvasRepositoryTests {
                 .hasMessage(expectedError);
     }
 
+    @Test
+    public void drawAnyLine_Diagonal_Success() throws InvalidInputException {
+        //Arrange
+        var canvas = new ArrayCanvasStorage(getBlankCanvas(6, 3));
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(canvas);
+
+        //Act
+        sut.drawAnyLine(1, 1, 6, 3);
+
+        //Assert
+        assertThat(rows(canvas)).containsExactly("--------", "|xx    |", "|  xx  |", "|    xx|", "--------");
+        var dirtyRegion = sut.getDirtyRegion();
+        assertThat(new int[]{dirtyRegion.getTop(), dirtyRegion.getLeft(), dirtyRegion.getBottom(), dirtyRegion.getRight()})
+                .containsExactly(1, 1, 3, 6);
+    }
+
+    @Test
+    public void drawCircle_BeyondBorders_Clipped() throws InvalidInputException {
+        //Arrange
+        var canvas = new ArrayCanvasStorage(getBlankCanvas(5, 3));
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(canvas);
+
+        //Act
+        sut.drawCircle(1, 1, 2);
+
+        //Assert
+        assertThat(rows(canvas)).containsExactly("-------", "|  x  |", "|  x  |", "|xx   |", "-------");
+    }
+
+    @Test
+    public void drawCircle_InvalidInputs_Failure() {
+        //Arrange
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(getBlankCanvas(5, 3)));
+
+        //Act, Assert
+        assertThatThrownBy(() -> sut.drawCircle(6, 1, 2))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Invalid inputs. Coordinates are beyond canvas borders.");
+        assertThatThrownBy(() -> sut.drawCircle(1, 1, 13))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Invalid inputs. Radius is beyond canvas borders.");
+    }
+
+    @Test
+    public void fillPolygon_Undo_Restored() throws InvalidInputException {
+        //Arrange
+        var canvas = new ArrayCanvasStorage(getBlankCanvas(5, 3));
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(canvas);
+
+        //Act
+        sut.fillPolygon(new int[]{1, 5, 3}, new int[]{1, 1, 3});
+
+        //Assert
+        assertThat(rows(canvas)).containsExactly("-------", "|xxxxx|", "| xxx |", "|  x  |", "-------");
+        sut.undo();
+        assertThat(rows(canvas)).containsExactly("-------", "|     |", "|     |", "|     |", "-------");
+    }
+
+    @Test
+    public void fillPolygon_InvalidVertices_Failure() {
+        //Arrange
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(getBlankCanvas(5, 3)));
+
+        //Act, Assert
+        assertThatThrownBy(() -> sut.fillPolygon(new int[]{1, 5, 3}, new int[]{1, 1, 4}))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Invalid inputs. Coordinates are beyond canvas borders.");
+        assertThatThrownBy(() -> sut.fillPolygon(new int[]{1, 5}, new int[]{1, 1}))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Invalid inputs. A polygon needs at least 3 vertices.");
+    }
+
     @Test
     public void bucketFill_Success() throws InvalidInputException {
         //Arrange
         var canvasWidth = 10;
         var canvasHeight = 4;
         var canvasToDraw = getBlankCanvas(canvasWidth, canvasHeight);
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(canvasToDraw);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(canvasToDraw));
         var x = 6;
         var y = 3;
         var color = 'o';
@@ -203,7 +326,7 @@ public class InMemoryCanvasRepositoryTests {
         sut.bucketFill(x, y, color);
 
         //Assert
-        Mockito.verify(mockInMemoryCanvas).save(Mockito.eq(expectedCanvas));
+        Mockito.verify(mockInMemoryCanvas).save(storageEq(expectedCanvas));
     }
 
     @Test
@@ -212,7 +335,7 @@ public class InMemoryCanvasRepositoryTests {
         var canvasWidth = 10;
         var canvasHeight = 4;
         var canvasToDraw = drawRectangle(getBlankCanvas(canvasWidth, canvasHeight), 3, 1, 7, 4);
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(canvasToDraw);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(canvasToDraw));
         char[][] expectedCanvas = {{'-', '-', '-', '-', '-', '-', '-', '-', '-', '-', '-', '-'},
                 {'|', 0, 0, 'x', 'x', 'x', 'x', 'x', 0, 0, 0, '|'},
                 {'|', 0, 0, 'x', 'o', 'o', 'o', 'x', 0, 0, 0, '|'},
@@ -222,13 +345,13 @@ public class InMemoryCanvasRepositoryTests {
         //Act
         sut.bucketFill(6, 3, 'o');
         //Assert
-        Mockito.verify(mockInMemoryCanvas).save(Mockito.eq(expectedCanvas));
+        Mockito.verify(mockInMemoryCanvas).save(storageEq(expectedCanvas));
     }
 
     @Test
     public void bucketFill_CanvasNotExist_Failure() {
         //Arrange
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(emptyCanvas);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(emptyCanvas));
         //Act , Assert
         assertThatThrownBy(() -> {
             sut.bucketFill(faker.number().randomDigitNotZero(),
@@ -245,7 +368,7 @@ public class InMemoryCanvasRepositoryTests {
         var canvasWidth = 14;
         var canvasHeight = 5;
         var canvasToDraw = drawRectangle(getBlankCanvas(canvasWidth, canvasHeight), 3, 1, 7, 4);
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(canvasToDraw);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(canvasToDraw));
 
         //Act , Assert
         assertThatThrownBy(() -> {
@@ -260,7 +383,7 @@ public class InMemoryCanvasRepositoryTests {
         var canvasWidth = 14;
         var canvasHeight = 5;
         var canvasToDraw = getBlankCanvas(canvasWidth, canvasHeight);
-        Mockito.when(mockInMemoryCanvas.getCanvas()).thenReturn(canvasToDraw);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(canvasToDraw));
 
 
         //Act, Assert
@@ -271,6 +394,326 @@ public class InMemoryCanvasRepositoryTests {
     }
 
 
+    @Test
+    public void saveThenLoad_SameCanvas(@TempDir Path tempDir) throws InvalidInputException {
+        //Arrange
+        var canvasToDraw = drawRectangle(getBlankCanvas(20, 4), 2, 1, 6, 3);
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(canvasToDraw));
+        var file = tempDir.resolve("canvas.snap");
+
+        //Act
+        sut.saveCanvas(file);
+        sut.getDirtyRegion().clear();
+        sut.loadCanvas(file);
+
+        //Assert
+        Mockito.verify(mockInMemoryCanvas).save(storageEq(canvasToDraw));
+        assertThat(sut.getDirtyRegion().isFull()).isTrue();
+    }
+
+    @Test
+    public void loadCanvas_FileNotExist_Failure(@TempDir Path tempDir) {
+        //Arrange
+        var file = tempDir.resolve("missing.snap");
+        //Act, Assert
+        assertThatThrownBy(() -> sut.loadCanvas(file))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Snapshot " + file + " not found.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"TILED", "MAPPED"})
+    public void loadCanvas_ValuesStorageCannotHold_Failure(String storage, @TempDir Path tempDir) throws IOException, InvalidInputException {
+        //Arrange
+        var file = tempDir.resolve("canvas.snap");
+        var written = new ArrayCanvasStorage(3, 300);
+        for (int col = 0; col < 300; col++) {
+            written.set(1, col, (char) (col + 1));
+        }
+        CanvasSnapshot.write(written, file);
+        var canvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(canvas, StorageType.of(storage).factory(tempDir.resolve("canvas.map")), new ScanlineFillEngine());
+        repository.newCanvas(5, 2);
+        var before = canvas.getCanvas();
+
+        //Act, Assert
+        assertThatThrownBy(() -> repository.loadCanvas(file))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessageStartingWith("Cannot load canvas from " + file);
+        assertThat(canvas.getCanvas()).isDeepEqualTo(before);
+    }
+
+    @Test
+    public void saveCanvas_CanvasNotExist_Failure(@TempDir Path tempDir) {
+        //Arrange
+        Mockito.when(mockInMemoryCanvas.getStorage()).thenReturn(new ArrayCanvasStorage(emptyCanvas));
+        //Act, Assert
+        assertThatThrownBy(() -> sut.saveCanvas(tempDir.resolve("canvas.snap")))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Canvas Not Found. Please create canvas first.");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ARRAY", "RLE"})
+    public void newCanvas_Huge_RowsAllocatedOnFirstWrite(String storage) throws InvalidInputException {
+        //Arrange
+        var canvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(canvas, StorageType.of(storage).factory(null), new ScanlineFillEngine());
+
+        //Act
+        repository.newCanvas(50_000, 50_000);
+        var blankUsage = repository.memoryUsage();
+        repository.drawLine(1, 3, 50_000, 3);
+
+        //Assert
+        var drawn = canvas.getStorage();
+        assertThat(blankUsage).isLessThan(2_000_000);
+        assertThat(repository.memoryUsage() - blankUsage).isLessThan(400_000);
+        assertThat(new char[]{drawn.get(0, 7), drawn.get(50_001, 50_001), drawn.get(4, 0), drawn.get(4, 50_001), drawn.get(4, 9)})
+                .containsExactly('-', '-', '|', '|', (char) 0);
+        assertThat(new char[]{drawn.get(3, 0), drawn.get(3, 1), drawn.get(3, 50_000), drawn.get(3, 50_001)})
+                .containsExactly('|', 'x', 'x', '|');
+    }
+
+    @RepeatedTest(50)
+    public void executeBatch_RandomCommands_SameAsOneByOne() throws InvalidInputException {
+        //Arrange
+        var canvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(canvas);
+        var expectedCanvas = new InMemoryCanvas();
+        var expectedRepository = new InMemoryCanvasRepository(expectedCanvas);
+        repository.newCanvas(20, 10);
+        expectedRepository.newCanvas(20, 10);
+        var commands = new ArrayList<Command>();
+        var expectedCommands = new ArrayList<Command>();
+        for (int i = 0; i < 40; i++) {
+            // Out of the canvas at times, so that some commands fail.
+            var x1 = faker.number().numberBetween(1, 23);
+            var y1 = faker.number().numberBetween(1, 13);
+            var x2 = faker.number().numberBetween(x1, 23);
+            var y2 = faker.number().numberBetween(y1, 13);
+            var kind = faker.number().numberBetween(0, 20);
+            commands.add(command(repository, kind, x1, y1, x2, y2));
+            expectedCommands.add(command(expectedRepository, kind, x1, y1, x2, y2));
+        }
+
+        //Act
+        var result = repository.executeBatch(commands);
+
+        //Assert
+        for (int i = 0; i < expectedCommands.size(); i++) {
+            try {
+                expectedCommands.get(i).execute();
+                assertThat(result.getError(i)).isNull();
+            } catch (InvalidInputException e) {
+                assertThat(result.getError(i)).hasMessage(e.getMessage());
+            }
+        }
+        assertThat(canvas.getCanvas()).isDeepEqualTo(expectedCanvas.getCanvas());
+    }
+
+    @Test
+    public void executeBatch_OverlappingLines_Merged() throws InvalidInputException {
+        //Arrange
+        var canvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(canvas);
+        repository.newCanvas(20, 10);
+        var commands = List.<Command>of(
+                new Line(1, 2, 8, 2, repository),
+                new Line(5, 2, 12, 2, repository),
+                new Line(13, 2, 15, 2, repository),
+                // Its edges lie on the lines above and below.
+                new Rectangle(3, 2, 10, 6, repository),
+                new Line(3, 6, 10, 6, repository),
+                new Line(3, 1, 3, 6, repository));
+
+        //Act
+        var result = repository.executeBatch(commands);
+
+        //Assert
+        assertThat(result.getErrorCount()).isZero();
+        assertThat(result.getExecuted()).isEqualTo(6);
+        // Row 2, row 6, column 3 and column 10.
+        assertThat(result.getOperations()).isEqualTo(4);
+        assertThat(new String(canvas.getCanvas()[2]).replace((char) 0, ' ')).isEqualTo("|xxxxxxxxxxxxxxx     |");
+        assertThat(new String(canvas.getCanvas()[1]).replace((char) 0, ' ')).isEqualTo("|  x                 |");
+    }
+
+    @Test
+    public void executeBatch_RepeatedFills_LastOneKept() throws InvalidInputException {
+        //Arrange
+        var canvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(canvas);
+        repository.newCanvas(20, 10);
+        var commands = List.<Command>of(
+                new BucketFill(1, 1, 'o', repository),
+                new BucketFill(5, 5, 'p', repository),
+                new BucketFill(1, 1, 'q', repository),
+                new BucketFill(1, 1, 'x', repository),
+                new Line(1, 5, 20, 5, repository),
+                new BucketFill(1, 1, 'r', repository));
+
+        //Act
+        var result = repository.executeBatch(commands);
+
+        //Assert
+        assertThat(result.getError(3)).hasMessage("Invalid input. Color must not be x");
+        // The first fill is dropped, the fill after the line is not.
+        assertThat(result.getExecuted()).isEqualTo(5);
+        assertThat(result.getOperations()).isEqualTo(4);
+        assertThat(canvas.getCanvas()[1][1]).isEqualTo('r');
+        assertThat(canvas.getCanvas()[6][1]).isEqualTo('q');
+    }
+
+    @Test
+    public void executeBatch_ThenUndo_RevertsWholeRun() throws InvalidInputException {
+        //Arrange
+        var canvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(canvas);
+        repository.newCanvas(20, 10);
+        repository.drawLine(1, 8, 20, 8);
+        var beforeDrawings = canvas.getCanvas();
+        repository.executeBatch(List.of(new Rectangle(2, 2, 8, 5, repository), new Line(10, 1, 10, 7, repository)));
+        var beforeFills = canvas.getCanvas();
+        repository.executeBatch(List.of(new BucketFill(1, 1, 'o', repository), new BucketFill(4, 3, 'p', repository),
+                new BucketFill(1, 1, 'q', repository)));
+        var afterFills = canvas.getCanvas();
+        assertThat(Arrays.deepEquals(beforeDrawings, beforeFills)).isFalse();
+        assertThat(Arrays.deepEquals(beforeFills, afterFills)).isFalse();
+
+        //Act
+        repository.undo();
+        var fillsUndone = canvas.getCanvas();
+        repository.undo();
+
+        //Assert
+        assertThat(fillsUndone).isDeepEqualTo(beforeFills);
+        assertThat(canvas.getCanvas()).isDeepEqualTo(beforeDrawings);
+    }
+
+    @Test
+    public void bucketFill_SpillFails_RolledBack() throws InvalidInputException {
+        //Arrange
+        var canvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(canvas, ArrayCanvasStorage::new, failingFillEngine(),
+                new CanvasHistory(CanvasHistory.DEFAULT_BUDGET));
+        repository.newCanvas(20, 4);
+        var blankCanvas = canvas.getCanvas();
+        repository.drawLine(1, 3, 20, 3);
+        var expectedCanvas = canvas.getCanvas();
+        assertThat(Arrays.deepEquals(expectedCanvas, blankCanvas)).isFalse();
+
+        //Act & Assert
+        assertThatThrownBy(() -> repository.bucketFill(4, 2, 'q'))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Cannot fill: java.io.IOException: No space left on device");
+        // getCanvas() copies the canvas, the states compared are distinct arrays.
+        assertThat(canvas.getCanvas()).isNotSameAs(expectedCanvas).isDeepEqualTo(expectedCanvas);
+        assertThat(repository.getDirtyRegion().isFull()).isTrue();
+        repository.undo();
+        assertThat(canvas.getCanvas()).isDeepEqualTo(blankCanvas);
+        repository.bucketFill(4, 2, 'o');
+        assertThat(canvas.getCanvas()[2][4]).isEqualTo('o');
+    }
+
+    @Test
+    public void bucketFill_SpillFailsWithoutHistory_NoMarkerLeft() throws InvalidInputException {
+        //Arrange
+        var canvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(canvas, ArrayCanvasStorage::new, failingFillEngine(),
+                new CanvasHistory(0));
+        repository.newCanvas(20, 4);
+
+        //Act
+        assertThatThrownBy(() -> repository.bucketFill(4, 2, 'q')).isInstanceOf(InvalidInputException.class);
+
+        //Assert
+        var filledCanvas = canvas.getCanvas();
+        assertThat(new String(filledCanvas[2], 1, 6)).isEqualTo("qqqqqq");
+        assertThat(filledCanvas[2][7]).isEqualTo((char) 0);
+        assertThat(Arrays.stream(filledCanvas).map(String::new))
+                .noneMatch(row -> row.indexOf(ScanlineFillEngine.MARKER) >= 0);
+    }
+
+    @Test
+    public void executeBatch_SpillFails_WholeRunRolledBack() throws InvalidInputException {
+        //Arrange
+        var canvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(canvas, ArrayCanvasStorage::new, failingFillEngine(),
+                new CanvasHistory(CanvasHistory.DEFAULT_BUDGET));
+        repository.newCanvas(20, 4);
+        repository.drawLine(1, 3, 20, 3);
+        var expectedCanvas = canvas.getCanvas();
+
+        //Act
+        var result = repository.executeBatch(List.of(new BucketFill(1, 1, 'o', repository),
+                new BucketFill(0, 1, 'o', repository), new BucketFill(4, 4, 'q', repository)));
+
+        //Assert
+        assertThat(canvas.getCanvas()).isDeepEqualTo(expectedCanvas);
+        // The first fill of the run succeeded before the last one failed.
+        assertThat(canvas.getCanvas()[1][1]).isEqualTo((char) 0);
+        assertThat(result.getErrorCount()).isEqualTo(3);
+        assertThat(result.getError(0)).hasMessageStartingWith("Cannot fill: ");
+        assertThat(result.getError(2)).hasMessageStartingWith("Cannot fill: ");
+        assertThat(result.getExecuted()).isZero();
+        repository.undo();
+        assertThat(canvas.getCanvas()[3][1]).isEqualTo((char) 0);
+    }
+
+    /**
+     * @return fill engine which fills like {@link ScanlineFillEngine}, except that fills with 'q' fail once
+     * the first cells of their row are marked, as when the frontier cannot spill to disk.
+     */
+    private static FillEngine failingFillEngine() {
+        var scanline = new ScanlineFillEngine();
+        return (canvas, x, y, color, result) -> {
+            if (color != 'q') {
+                scanline.fill(canvas, x, y, color, result);
+                return;
+            }
+            canvas.fillRow(y, 1, 7, ScanlineFillEngine.MARKER);
+            throw new UncheckedIOException(new IOException("No space left on device"));
+        };
+    }
+
+    private static Command command(InMemoryCanvasRepository repository, int kind, int x1, int y1, int x2, int y2) {
+        if (kind < 6) {
+            return new Line(x1, y1, kind % 2 == 0 ? x2 : x1, kind % 2 == 0 ? y1 : y2, repository);
+        }
+        if (kind < 10) {
+            return new Rectangle(x1, y1, x2, y2, repository);
+        }
+        if (kind < 18) {
+            // Few distinct cells and colors, so that fills repeat.
+            return new BucketFill(1 + x1 % 4, 1 + y1 % 3, kind % 2 == 0 ? 'o' : 'p', repository);
+        }
+        return kind == 18 ? new Undo(repository) : new Redo(repository);
+    }
+
+    /**
+     * @return rows of the canvas, blank cells as spaces.
+     */
+    private static String[] rows(CanvasStorage canvas) {
+        var rows = new String[canvas.getHeight()];
+        for (int i = 0; i < rows.length; i++) {
+            var row = new char[canvas.getWidth()];
+            canvas.readRow(i, row);
+            rows[i] = new String(row).replace((char) 0, ' ');
+        }
+        return rows;
+    }
+
+    /**
+     * Matches a canvas storage holding the same cells as the expected canvas.
+     *
+     * @param expectedCanvas Expected canvas.
+     * @return argument matcher.
+     */
+    private CanvasStorage storageEq(char[][] expectedCanvas) {
+        return Mockito.argThat(storage -> Arrays.deepEquals(storage.toArray(), expectedCanvas));
+    }
+
     /**
      * Provides invalid coordinates for drawing line or rectangle.
      *
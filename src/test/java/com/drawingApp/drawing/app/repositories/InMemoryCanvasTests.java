@@ -1,5 +1,6 @@
 package com.drawingApp.drawing.app.repositories;
 
+import com.drawingApp.drawing.app.storage.TiledCanvasStorage;
 import com.github.javafaker.Faker;
 import org.junit.jupiter.api.Test;
 
@@ -22,6 +23,19 @@ public class InMemoryCanvasTests {
         assertThat(savedCanvas).isDeepEqualTo(newCanvas);
     }
 
+    @Test
+    public void saveStorage_Success() {
+        //Arrange
+        var storage = new TiledCanvasStorage(fake.number().randomDigitNotZero(), fake.number().randomDigitNotZero());
+        storage.set(0, 0, 'x');
+        //Act
+        var savedStorage = sut.save(storage);
+        //Assert
+        assertThat(savedStorage).isSameAs(storage);
+        assertThat(sut.getStorage()).isSameAs(storage);
+        assertThat(sut.getCanvas()[0][0]).isEqualTo('x');
+    }
+
     @Test
     public void getCanvas_ReturnEmptyCanvas() {
         var canvas = sut.getCanvas();
@@ -0,0 +1,188 @@
+package com.drawingApp.drawing.app.server;
+
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CanvasServerTests {
+
+    CanvasServer sut;
+
+    @TempDir
+    Path snapshotDirectory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        sut = new CanvasServer(0, CanvasServerTests::newSession, snapshotDirectory, 0);
+        sut.start();
+    }
+
+    private static CanvasSession newSession(String name) {
+        var inMemoryCanvas = new InMemoryCanvas();
+        return new CanvasSession(name, inMemoryCanvas, new InMemoryCanvasRepository(inMemoryCanvas));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        sut.close();
+    }
+
+    @Test
+    public void request_CommandsShowAndStats() throws IOException {
+        try (var client = new Client(sut.getPort())) {
+            assertThat(client.request("alice C 20 4")).isEqualTo("OK");
+            assertThat(client.request("alice L 1 2 6 2")).isEqualTo("OK");
+            assertThat(client.request("bob L 1 2 6 2")).isEqualTo("ERR Canvas Not Found. Please create canvas first.");
+            assertThat(client.request("bob X")).isEqualTo("ERR Input Command is not valid at position 1: unknown command.");
+            assertThat(client.request("al!ce C 1 1")).startsWith("ERR Requests are");
+            assertThat(client.request("carol")).startsWith("ERR Requests are");
+            assertThat(client.request("SHOW carol")).isEqualTo("ERR Canvas carol not found.");
+
+            assertThat(client.request("SHOW alice")).isEqualTo("OK 6");
+            assertThat(client.readLines(6)).containsExactly("----------------------",
+                    "|                    |",
+                    "|xxxxxx              |",
+                    "|                    |",
+                    "|                    |",
+                    "----------------------");
+
+            assertThat(client.request("STATS")).isEqualTo("OK 2");
+            assertThat(client.readLines(2)).satisfiesExactly(
+                    line -> assertThat(line).startsWith("alice commands=2 errors=0 memory="),
+                    line -> assertThat(line).startsWith("bob commands=2 errors=2 memory="));
+
+            assertThat(client.request("alice Q")).isEqualTo("BYE");
+            assertThat(client.readLine()).isNull();
+        }
+    }
+
+    @Test
+    public void request_ClientsOnDifferentCanvases_Concurrent() throws Exception {
+        //Arrange
+        var clients = new CompletableFuture<?>[4];
+        for (int i = 0; i < clients.length; i++) {
+            var name = "canvas" + i;
+            clients[i] = CompletableFuture.runAsync(() -> {
+                try (var client = new Client(sut.getPort())) {
+                    assertThat(client.request(name + " C 100 100")).isEqualTo("OK");
+                    for (int row = 1; row <= 100; row++) {
+                        assertThat(client.request(name + " L 1 " + row + " 50 " + row)).isEqualTo("OK");
+                    }
+                    assertThat(client.request(name + " B 100 100 o")).isEqualTo("OK");
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        //Act
+        CompletableFuture.allOf(clients).get();
+
+        //Assert
+        assertThat(sut.getSessions()).hasSize(4)
+                .allSatisfy(session -> assertThat(session.getCommands()).isEqualTo(102));
+    }
+
+    @Test
+    public void evictIdle_IdleCanvases_WrittenAndRestoredOnNextUse() throws IOException {
+        try (var client = new Client(sut.getPort())) {
+            //Arrange
+            assertThat(client.request("alice C 3 1")).isEqualTo("OK");
+            assertThat(client.request("alice L 1 1 2 1")).isEqualTo("OK");
+            assertThat(client.request("bob U")).startsWith("ERR");
+
+            //Act
+            assertThat(sut.evictIdle(60_000)).isZero();
+            int evicted = sut.evictIdle(0);
+
+            //Assert
+            assertThat(evicted).isEqualTo(2);
+            assertThat(sut.getEvictions()).isEqualTo(2);
+            assertThat(sut.getSessions()).isEmpty();
+            assertThat(snapshotDirectory.resolve("alice.snapshot")).exists();
+            // Bob never created a canvas, there is nothing to restore.
+            assertThat(snapshotDirectory.resolve("bob.snapshot")).doesNotExist();
+            assertThat(client.request("SHOW bob")).isEqualTo("ERR Canvas bob not found.");
+
+            assertThat(client.request("SHOW alice")).isEqualTo("OK 3");
+            assertThat(client.readLines(3)).containsExactly("-----", "|xx |", "-----");
+            assertThat(snapshotDirectory.resolve("alice.snapshot")).doesNotExist();
+            assertThat(client.request("alice L 2 1 3 1")).isEqualTo("OK");
+            assertThat(client.request("SHOW alice")).isEqualTo("OK 3");
+            assertThat(client.readLines(3)).containsExactly("-----", "|xxx|", "-----");
+        }
+    }
+
+    @Test
+    public void evictIdle_IdleTimeout_EvictedInBackground() throws Exception {
+        //Arrange
+        try (var server = new CanvasServer(0, CanvasServerTests::newSession, snapshotDirectory, 20);
+             var client = new Client(server.getPort())) {
+            server.start();
+            assertThat(client.request("alice C 3 1")).isEqualTo("OK");
+
+            //Act
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (server.getEvictions() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            //Assert
+            assertThat(server.getEvictions()).isEqualTo(1);
+            assertThat(client.request("alice L 1 1 3 1")).isEqualTo("OK");
+        }
+    }
+
+    /**
+     * Line client of the server.
+     */
+    private static class Client implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        }
+
+        String request(String line) throws IOException {
+            out.print(line + "\n");
+            out.flush();
+            return in.readLine();
+        }
+
+        String readLine() throws IOException {
+            return in.readLine();
+        }
+
+        String[] readLines(int count) throws IOException {
+            var lines = new String[count];
+            for (int i = 0; i < count; i++) {
+                lines[i] = in.readLine();
+            }
+            return lines;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
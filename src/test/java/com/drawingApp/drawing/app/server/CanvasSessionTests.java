@@ -0,0 +1,240 @@
+package com.drawingApp.drawing.app.server;
+
+import com.drawingApp.drawing.app.commands.Quit;
+import com.drawingApp.drawing.app.exceptions.InvalidCommandException;
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class CanvasSessionTests {
+
+    InMemoryCanvas inMemoryCanvas = new InMemoryCanvas();
+
+    CanvasSession sut = new CanvasSession("alice", inMemoryCanvas, new InMemoryCanvasRepository(inMemoryCanvas));
+
+    @Test
+    public void execute_RecordsStats() throws InvalidInputException {
+        //Act
+        sut.execute("C 20 4");
+        sut.execute("L 1 2 6 2");
+        assertThatThrownBy(() -> sut.execute("L 1 2 6 3")).isInstanceOf(InvalidInputException.class);
+        assertThatThrownBy(() -> sut.execute("draw")).isInstanceOf(InvalidCommandException.class);
+
+        //Assert
+        assertThat(sut.getCommands()).isEqualTo(4);
+        assertThat(sut.getErrors()).isEqualTo(2);
+        assertThat(sut.getMemoryUsage()).isGreaterThanOrEqualTo(6 * 22 * 2);
+        assertThat(sut.getAverageLatencyNanos()).isPositive().isLessThanOrEqualTo(sut.getMaxLatencyNanos());
+        assertThat(sut.toString()).startsWith("alice commands=4 errors=2 memory=");
+    }
+
+    @Test
+    public void flush_CanvasForcedToItsFile() {
+        //Arrange
+        var repository = mock(InMemoryCanvasRepository.class);
+        var session = new CanvasSession("bob", inMemoryCanvas, repository);
+
+        //Act
+        session.flush();
+
+        //Assert
+        verify(repository).flush();
+    }
+
+    @Test
+    public void execute_Quit_NotExecuted() throws InvalidInputException {
+        assertThat(sut.execute("Q")).isInstanceOf(Quit.class);
+    }
+
+    @Test
+    public void execute_SaveOrLoad_Refused() throws InvalidInputException {
+        //Arrange
+        sut.execute("C 20 4");
+        //Act, Assert
+        assertThatThrownBy(() -> sut.execute("S canvas.snap"))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessage("Save and load are not available on the server.");
+        assertThatThrownBy(() -> sut.execute("O canvas.snap"))
+                .isInstanceOf(InvalidInputException.class);
+        assertThat(sut.getErrors()).isEqualTo(2);
+    }
+
+    @Test
+    public void render_Rows() throws InvalidInputException, IOException {
+        //Arrange
+        sut.execute("C 3 1");
+        sut.execute("L 1 1 2 1");
+        var out = new StringWriter();
+        //Act
+        sut.render(out);
+        //Assert
+        assertThat(out.toString()).isEqualTo("OK 3\n-----\n|xx |\n-----\n");
+    }
+
+    @Test
+    public void render_SlowReader_CommandsGoOnAndImageConsistent() throws Exception {
+        //Arrange
+        sut.execute("C 3 2");
+        var pool = Executors.newSingleThreadExecutor();
+        var out = new StringWriter() {
+            boolean drawn;
+
+            @Override
+            public void write(char[] buffer) {
+                if (!drawn) {
+                    drawn = true;
+                    // Another client draws while this one is still reading the canvas.
+                    try {
+                        pool.submit(() -> sut.execute("L 1 1 3 1")).get(5, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                super.write(buffer, 0, buffer.length);
+            }
+        };
+        //Act
+        sut.render(out);
+        pool.shutdown();
+        //Assert
+        assertThat(out.toString()).isEqualTo("OK 4\n-----\n|   |\n|   |\n-----\n");
+        assertThat(inMemoryCanvas.getStorage().get(1, 1)).isEqualTo('x');
+    }
+
+    @Test
+    public void execute_Concurrently_Serialized() throws Exception {
+        //Arrange
+        sut.execute("C 50 50");
+        var pool = Executors.newFixedThreadPool(4);
+        var tasks = new ArrayList<Callable<Void>>();
+        for (int row = 1; row <= 50; row++) {
+            var line = "L 1 " + row + " 50 " + row;
+            tasks.add(() -> {
+                sut.execute(line);
+                return null;
+            });
+        }
+
+        //Act
+        for (var future : pool.invokeAll(tasks)) {
+            future.get();
+        }
+        pool.shutdown();
+
+        //Assert
+        var canvas = inMemoryCanvas.getCanvas();
+        for (int row = 1; row <= 50; row++) {
+            assertThat(new String(canvas[row], 1, 50)).isEqualTo("x".repeat(50));
+        }
+        assertThat(sut.getCommands()).isEqualTo(51);
+        // Every line is one undoable command, whatever the interleaving.
+        for (int row = 1; row <= 50; row++) {
+            sut.execute("U");
+        }
+        assertThat(inMemoryCanvas.getStorage().get(25, 25)).isEqualTo((char) 0);
+    }
+
+    @Test
+    public void writeSnapshot_Restore_SameCanvas(@TempDir Path directory) throws InvalidInputException, IOException {
+        //Arrange
+        var file = directory.resolve("alice.snapshot");
+        sut.execute("C 3 1");
+        sut.execute("L 1 1 2 1");
+        var restoredCanvas = new InMemoryCanvas();
+        var restored = new CanvasSession("alice", restoredCanvas, new InMemoryCanvasRepository(restoredCanvas));
+        var out = new StringWriter();
+
+        //Act
+        assertThat(sut.writeSnapshot(file)).isTrue();
+        restored.restore(file);
+        restored.render(out);
+
+        //Assert
+        assertThat(out.toString()).isEqualTo("OK 3\n-----\n|xx |\n-----\n");
+        assertThat(restored.getMemoryUsage()).isPositive();
+    }
+
+    @Test
+    public void writeSnapshot_NoCanvas_NothingWritten(@TempDir Path directory) throws InvalidInputException {
+        //Arrange
+        var file = directory.resolve("alice.snapshot");
+        //Act, Assert
+        assertThat(sut.writeSnapshot(file)).isFalse();
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    public void isIdle_Acquired_NotIdle() {
+        //Act, Assert
+        assertThat(sut.isIdle(0)).isTrue();
+        sut.acquire();
+        assertThat(sut.isIdle(0)).isFalse();
+        sut.release();
+        assertThat(sut.isIdle(0)).isTrue();
+        assertThat(sut.isIdle(Long.MAX_VALUE)).isFalse();
+    }
+
+    @Test
+    public void evict_Idle_DroppedAndNotAcquired(@TempDir Path directory) throws InvalidInputException {
+        //Arrange
+        var file = directory.resolve("alice.snapshot");
+        sut.execute("C 3 1");
+        sut.acquire();
+
+        //Act, Assert
+        assertThat(sut.evict(file, 0)).isFalse();
+        assertThat(file).doesNotExist();
+        sut.release();
+        assertThat(sut.evict(file, 0)).isTrue();
+        assertThat(file).exists();
+        assertThat(sut.acquire()).isFalse();
+        assertThat(sut.evict(file, 0)).isFalse();
+    }
+
+    @Test
+    public void restoreEvicted_Published_RestoredAndFileDeleted(@TempDir Path directory) throws InvalidInputException, IOException {
+        //Arrange
+        var file = directory.resolve("alice.snapshot");
+        sut.execute("C 3 1");
+        sut.execute("L 1 1 2 1");
+        sut.evict(file, 0);
+        var restoredCanvas = new InMemoryCanvas();
+        var restored = new CanvasSession("alice", restoredCanvas, new InMemoryCanvasRepository(restoredCanvas));
+        var out = new StringWriter();
+
+        //Act, Assert
+        assertThat(restored.restoreEvicted(file, () -> false)).isFalse();
+        assertThat(file).exists();
+        assertThat(restored.restoreEvicted(file, () -> true)).isTrue();
+        assertThat(file).doesNotExist();
+        restored.render(out);
+        assertThat(out.toString()).isEqualTo("OK 3\n-----\n|xx |\n-----\n");
+        assertThat(restored.acquire()).isTrue();
+    }
+
+    @Test
+    public void restoreEvicted_InvalidFile_Dropped(@TempDir Path directory) throws IOException {
+        //Arrange
+        var file = Files.writeString(directory.resolve("alice.snapshot"), "not a snapshot");
+
+        //Act, Assert
+        assertThatThrownBy(() -> sut.restoreEvicted(file, () -> true)).isInstanceOf(InvalidInputException.class);
+        assertThat(sut.acquire()).isFalse();
+    }
+}
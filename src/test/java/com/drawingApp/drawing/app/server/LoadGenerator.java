@@ -0,0 +1,181 @@
+package com.drawingApp.drawing.app.server;
+
+import com.drawingApp.drawing.app.AppOptions;
+import com.drawingApp.drawing.app.metrics.Histogram;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Load generator of the {@link CanvasServer}, to check that it holds many clients at once. Every client
+ * connects and creates a canvas of its own, then waits until all clients are connected, draws lines,
+ * checks its canvas with SHOW and quits. Clients run on virtual threads where available, as the server.
+ * <p>
+ * A tool kept with the tests, out of the application jar. Once compiled with {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.drawingApp.drawing.app.server.LoadGenerator [--port=N] [--clients=N] [--lines=N] [--size=N]
+ * </pre>
+ * Without a port, a server is started in the same process.
+ */
+public class LoadGenerator {
+
+    private static final int BUFFER_CHARS = 512;
+
+    private final int port;
+    private final int clients;
+    private final int lines;
+    private final int size;
+
+    /**
+     * Creates new instance of {@link LoadGenerator}
+     *
+     * @param port    Port of the server, on the loopback address.
+     * @param clients Number of clients.
+     * @param lines   Number of lines every client draws, one per row, wrapping around the canvas.
+     * @param size    Width and height of the canvas of every client.
+     */
+    public LoadGenerator(int port, int clients, int lines, int size) {
+        this.port = port;
+        this.clients = clients;
+        this.lines = lines;
+        this.size = size;
+    }
+
+    /**
+     * Run every client until it quits or fails.
+     *
+     * @return outcome of the run.
+     * @throws InterruptedException if interrupted while waiting for the clients.
+     */
+    public LoadReport run() throws InterruptedException {
+        var latencies = new Histogram();
+        var connected = new CountDownLatch(clients);
+        var done = new CountDownLatch(clients);
+        var concurrent = new AtomicInteger();
+        var failed = new AtomicInteger();
+        var firstFailure = new AtomicReference<String>();
+        var threads = ConnectionThreads.newExecutor("load-client");
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < clients; i++) {
+                var name = "load-" + i;
+                threads.execute(() -> {
+                    try {
+                        runClient(name, latencies, connected, concurrent);
+                    } catch (IOException | IllegalStateException e) {
+                        failed.incrementAndGet();
+                        firstFailure.compareAndSet(null, name + ": " + e.getMessage());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        } finally {
+            threads.shutdownNow();
+        }
+        return new LoadReport(clients, concurrent.get(), failed.get(), firstFailure.get(), latencies, System.nanoTime() - start);
+    }
+
+    private void runClient(String name, Histogram latencies, CountDownLatch connected, AtomicInteger concurrent)
+            throws IOException, InterruptedException {
+        boolean counted = false;
+        try (var socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             var in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8), BUFFER_CHARS);
+             var out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), BUFFER_CHARS)) {
+            expect(request(in, out, latencies, name + " C " + size + " " + size), "OK");
+            concurrent.incrementAndGet();
+            connected.countDown();
+            counted = true;
+            // Hold every connection open at once before drawing.
+            if (!connected.await(1, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("other clients did not connect within a minute");
+            }
+
+            for (int i = 0; i < lines; i++) {
+                int row = 1 + i % size;
+                expect(request(in, out, latencies, name + " L 1 " + row + " " + size + " " + row), "OK");
+            }
+
+            expect(request(in, out, latencies, "SHOW " + name), "OK " + (size + 2));
+            var drawn = "|" + "x".repeat(size) + "|";
+            var blank = "|" + " ".repeat(size) + "|";
+            for (int row = 0; row < size + 2; row++) {
+                var expected = row == 0 || row == size + 1 ? "-".repeat(size + 2) : row <= lines ? drawn : blank;
+                expect(in.readLine(), expected);
+            }
+            expect(request(in, out, latencies, "Q"), "BYE");
+        } finally {
+            if (!counted) {
+                connected.countDown();
+            }
+        }
+    }
+
+    private static String request(BufferedReader in, BufferedWriter out, Histogram latencies, String line) throws IOException {
+        long start = System.nanoTime();
+        out.write(line);
+        out.write('\n');
+        out.flush();
+        var reply = in.readLine();
+        latencies.record(System.nanoTime() - start);
+        return reply;
+    }
+
+    private static void expect(String reply, String expected) {
+        if (!expected.equals(reply)) {
+            throw new IllegalStateException("expected '" + expected + "' but got '" + reply + "'");
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port;
+        int clients;
+        int lines;
+        int size;
+        try {
+            var options = AppOptions.parse(args);
+            port = (int) options.getLong("port", 0, 0, 65535);
+            clients = (int) options.getLong("clients", 10_000, 1, Integer.MAX_VALUE);
+            lines = (int) options.getLong("lines", 10, 0, Integer.MAX_VALUE);
+            size = (int) options.getLong("size", 20, 1, Integer.MAX_VALUE - 2);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Options: [--port=N] [--clients=N] [--lines=N] [--size=N]");
+            return;
+        }
+
+        CanvasServer server = null;
+        if (port == 0) {
+            server = new CanvasServer(0, name -> {
+                var inMemoryCanvas = new InMemoryCanvas();
+                return new CanvasSession(name, inMemoryCanvas, new InMemoryCanvasRepository(inMemoryCanvas));
+            });
+            server.start();
+            port = server.getPort();
+        }
+        System.err.println("Connections on " + (ConnectionThreads.isVirtual() ? "virtual" : "platform") + " threads");
+        var report = new LoadGenerator(port, clients, lines, size).run();
+        if (server != null) {
+            server.close();
+        }
+        System.out.println(report);
+        if (report.getFailed() > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.drawingApp.drawing.app.server;
+
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadGeneratorTests {
+
+    @Test
+    public void run_ManyClients_AllConcurrentAndVerified() throws IOException, InterruptedException {
+        try (var server = new CanvasServer(0, name -> {
+            var inMemoryCanvas = new InMemoryCanvas();
+            return new CanvasSession(name, inMemoryCanvas, new InMemoryCanvasRepository(inMemoryCanvas));
+        })) {
+            //Arrange
+            server.start();
+            var sut = new LoadGenerator(server.getPort(), 200, 12, 10);
+
+            //Act
+            var report = sut.run();
+
+            //Assert
+            assertThat(report.getFailed()).as(report.getFirstFailure()).isZero();
+            assertThat(report.getConcurrent()).isEqualTo(200);
+            // Create, 12 lines, SHOW and Q.
+            assertThat(report.getLatencies().getCount()).isEqualTo(200 * 15);
+            assertThat(server.getSessions()).hasSize(200);
+            assertThat(report.toString()).startsWith("200 clients, 200 concurrent, 0 failed, 3000 requests in ");
+        }
+    }
+
+    @Test
+    public void run_NoServer_ClientsFail() throws IOException, InterruptedException {
+        //Arrange
+        int port;
+        try (var server = new CanvasServer(0, name -> null)) {
+            port = server.getPort();
+        }
+        var sut = new LoadGenerator(port, 3, 1, 10);
+
+        //Act
+        var report = sut.run();
+
+        //Assert
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getConcurrent()).isZero();
+        assertThat(report.getFirstFailure()).isNotNull();
+    }
+}
@@ -0,0 +1,79 @@
+package com.drawingApp.drawing.app.server;
+
+import com.drawingApp.drawing.app.metrics.Histogram;
+
+import java.util.Locale;
+
+/**
+ * Outcome of a {@link LoadGenerator} run.
+ */
+public class LoadReport {
+
+    private final int clients;
+    private final int concurrent;
+    private final int failed;
+    private final String firstFailure;
+    private final Histogram latencies;
+    private final long elapsedNanos;
+
+    public LoadReport(int clients, int concurrent, int failed, String firstFailure, Histogram latencies, long elapsedNanos) {
+        this.clients = clients;
+        this.concurrent = concurrent;
+        this.failed = failed;
+        this.firstFailure = firstFailure;
+        this.latencies = latencies;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getClients() {
+        return clients;
+    }
+
+    /**
+     * @return number of clients connected at the same time, with a canvas each, before drawing.
+     */
+    public int getConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * @return number of clients which could not connect, got an error or found their canvas wrong.
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    /**
+     * @return reason of the first failure, NULL if there is none.
+     */
+    public String getFirstFailure() {
+        return firstFailure;
+    }
+
+    /**
+     * @return round trip time of every request, in nanoseconds.
+     */
+    public Histogram getLatencies() {
+        return latencies;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return requests answered per second.
+     */
+    public double getRequestsPerSecond() {
+        return elapsedNanos == 0 ? 0 : latencies.getCount() * 1_000_000_000d / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%d clients, %d concurrent, %d failed, %d requests in %d ms (%.0f requests/s), "
+                        + "latency us p50 %.1f p99 %.1f max %.1f%s",
+                clients, concurrent, failed, latencies.getCount(), elapsedNanos / 1_000_000, getRequestsPerSecond(),
+                latencies.getP50() / 1e3, latencies.getP99() / 1e3, latencies.getMax() / 1e3,
+                firstFailure == null ? "" : ", first failure: " + firstFailure);
+    }
+}
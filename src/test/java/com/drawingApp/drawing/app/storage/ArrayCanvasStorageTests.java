@@ -0,0 +1,131 @@
+package com.drawingApp.drawing.app.storage;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ArrayCanvasStorageTests {
+
+    Faker faker = new Faker();
+
+    @Test
+    public void wrap_WritesGoToArray() {
+        //Arrange
+        var canvas = new char[4][6];
+        var sut = new ArrayCanvasStorage(canvas);
+        //Act
+        sut.fillRow(1, 1, 5, 'x');
+        sut.set(2, 3, 'o');
+        //Assert
+        assertThat(canvas[1]).containsExactly(new char[]{0, 'x', 'x', 'x', 'x', 0});
+        assertThat(canvas[2][3]).isEqualTo('o');
+        assertThat(sut.rows()).isSameAs(canvas);
+    }
+
+    @Test
+    public void readRow_CopiesRow() {
+        //Arrange
+        var width = faker.number().numberBetween(2, 50);
+        var sut = new ArrayCanvasStorage(3, width);
+        sut.fillRow(1, 0, width, 'c');
+        var row = new char[width];
+        //Act
+        sut.readRow(1, row);
+        //Assert
+        assertThat(new String(row)).isEqualTo("c".repeat(width));
+    }
+
+    @Test
+    public void emptyCanvas_IsEmpty() {
+        var sut = new ArrayCanvasStorage(new char[0][0]);
+        assertThat(sut.isEmpty()).isTrue();
+        assertThat(sut.getWidth()).isZero();
+    }
+
+    @Test
+    public void snapshot_LaterWrites_OnlyWrittenRowsCopied() {
+        //Arrange
+        var sut = new ArrayCanvasStorage(4, 6);
+        sut.fillRow(1, 1, 5, 'x');
+        var rows = sut.rows().clone();
+        //Act
+        var snapshot = sut.snapshot();
+        sut.set(1, 1, 'o');
+        sut.fillRow(2, 1, 5, 'y');
+        sut.set(2, 5, 'z');
+        //Assert
+        assertThat(snapshot.toArray()).isDeepEqualTo(new char[][]{new char[6], {0, 'x', 'x', 'x', 'x', 0}, new char[6], new char[6]});
+        assertThat(sut.toArray()[1]).containsExactly(new char[]{0, 'o', 'x', 'x', 'x', 0});
+        assertThat(sut.toArray()[2]).containsExactly(new char[]{0, 'y', 'y', 'y', 'y', 'z'});
+        assertThat(sut.rows()[0]).isSameAs(rows[0]);
+        assertThat(sut.rows()[1]).isNotSameAs(rows[1]);
+        assertThat(sut.rows()[3]).isSameAs(rows[3]);
+    }
+
+    @Test
+    public void snapshot_SeveralSnapshots_EachKeepsItsImage() {
+        //Arrange
+        var sut = new ArrayCanvasStorage(3, 3);
+        //Act
+        var first = sut.snapshot();
+        sut.set(1, 1, 'a');
+        var second = sut.snapshot();
+        sut.set(1, 1, 'b');
+        //Assert
+        assertThat(first.get(1, 1)).isEqualTo((char) 0);
+        assertThat(second.get(1, 1)).isEqualTo('a');
+        assertThat(sut.get(1, 1)).isEqualTo('b');
+    }
+
+    @Test
+    public void snapshot_ReadOnly() {
+        //Arrange
+        var snapshot = new ArrayCanvasStorage(3, 3).snapshot();
+        //Act & Assert
+        assertThatThrownBy(() -> snapshot.set(1, 1, 'x')).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> snapshot.fillRow(1, 0, 3, 'x')).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(snapshot.snapshot()).isSameAs(snapshot);
+    }
+
+    @Test
+    public void drawBorder_RowsSharedUntilWritten() {
+        //Arrange
+        var sut = new ArrayCanvasStorage(5, 4);
+        //Act
+        sut.drawBorder('-', '|');
+        sut.set(2, 1, 'x');
+        //Assert
+        var rows = sut.rows();
+        assertThat(rows).isDeepEqualTo(new char[][]{
+                {'-', '-', '-', '-'}, {'|', 0, 0, '|'}, {'|', 'x', 0, '|'}, {'|', 0, 0, '|'}, {'-', '-', '-', '-'}});
+        assertThat(rows[4]).isSameAs(rows[0]);
+        assertThat(rows[3]).isSameAs(rows[1]);
+        assertThat(rows[2]).isNotSameAs(rows[1]);
+    }
+
+    @Test
+    public void drawBorder_WrappedArray_CellsWritten() {
+        //Arrange
+        var canvas = new char[3][3];
+        var sut = new ArrayCanvasStorage(canvas);
+        //Act
+        sut.drawBorder('-', '|');
+        //Assert
+        assertThat(canvas).isDeepEqualTo(new char[][]{{'-', '-', '-'}, {'|', 0, '|'}, {'-', '-', '-'}});
+    }
+
+    @Test
+    public void memoryUsage_UnwrittenRowsCountedOnce() {
+        //Arrange
+        var sut = new ArrayCanvasStorage(10_000, 10_000);
+        sut.drawBorder('-', '|');
+        var blankUsage = sut.memoryUsage();
+        //Act
+        sut.fillRow(5, 1, 9_999, 'x');
+        //Assert
+        assertThat(blankUsage).isLessThan(200_000);
+        assertThat(sut.memoryUsage() - blankUsage).isEqualTo(16 + 2 * 10_000);
+    }
+}
@@ -0,0 +1,150 @@
+package com.drawingApp.drawing.app.storage;
+
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CanvasSnapshotTests {
+
+    Faker faker = new Faker();
+
+    @TempDir
+    Path tempDir;
+
+    @RepeatedTest(20)
+    public void writeThenRead_SameCells() throws IOException {
+        //Arrange
+        var height = faker.number().numberBetween(3, 100);
+        var width = faker.number().numberBetween(3, 100);
+        var canvas = new ArrayCanvasStorage(height, width);
+        for (int i = 0; i < 200; i++) {
+            var row = faker.number().numberBetween(0, height);
+            var from = faker.number().numberBetween(0, width);
+            var to = faker.number().numberBetween(from, width + 1);
+            canvas.fillRow(row, from, to, faker.options().option((char) 0, 'x', 'o', 'é', '€'));
+        }
+        var file = tempDir.resolve("canvas.snap");
+
+        //Act
+        var written = CanvasSnapshot.write(canvas, file);
+        var read = CanvasSnapshot.read(file, TiledCanvasStorage::new);
+
+        //Assert
+        assertThat(written).isEqualTo(Files.size(file));
+        assertThat(read.toArray()).isDeepEqualTo(canvas.toArray());
+    }
+
+    @Test
+    public void write_MostlyBlankCanvas_FewBytes() throws IOException {
+        //Arrange
+        var canvas = new TiledCanvasStorage(10_002, 10_002);
+        canvas.fillRow(0, 0, 10_002, '-');
+        canvas.fillRow(10_001, 0, 10_002, '-');
+        for (int row = 1; row <= 10_000; row++) {
+            canvas.set(row, 0, '|');
+            canvas.set(row, 10_001, '|');
+        }
+        canvas.fillRow(5000, 1, 10_001, 'x');
+        var file = tempDir.resolve("canvas.snap");
+
+        //Act
+        var written = CanvasSnapshot.write(canvas, file);
+        var read = CanvasSnapshot.read(file, TiledCanvasStorage::new);
+
+        //Assert
+        assertThat(written).isLessThan(20_000);
+        assertThat(read.get(5000, 42)).isEqualTo('x');
+        assertThat(read.get(42, 0)).isEqualTo('|');
+        assertThat(read.get(42, 42)).isEqualTo((char) 0);
+    }
+
+    @Test
+    public void read_FlippedByte_ChecksumMismatch() throws IOException {
+        //Arrange
+        var file = tempDir.resolve("canvas.snap");
+        CanvasSnapshot.write(new ArrayCanvasStorage(5, 40), file);
+        var bytes = Files.readAllBytes(file);
+        bytes[CanvasSnapshot.HEADER_BYTES + 2] ^= 0x40;
+        Files.write(file, bytes);
+        //Act, Assert
+        assertThatThrownBy(() -> CanvasSnapshot.read(file, ArrayCanvasStorage::new))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Snapshot is corrupted");
+    }
+
+    @Test
+    public void read_Truncated_Failure() throws IOException {
+        //Arrange
+        var file = tempDir.resolve("canvas.snap");
+        CanvasSnapshot.write(new ArrayCanvasStorage(5, 40), file);
+        Files.write(file, Arrays.copyOf(Files.readAllBytes(file), CanvasSnapshot.HEADER_BYTES + 3));
+        //Act, Assert
+        assertThatThrownBy(() -> CanvasSnapshot.read(file, ArrayCanvasStorage::new))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Snapshot is corrupted");
+    }
+
+    @Test
+    public void read_NotASnapshot_Failure() throws IOException {
+        //Arrange
+        var file = tempDir.resolve("notes.txt");
+        Files.writeString(file, faker.lorem().paragraph(5));
+        //Act, Assert
+        assertThatThrownBy(() -> CanvasSnapshot.read(file, ArrayCanvasStorage::new))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Not a canvas snapshot.");
+    }
+
+    @Test
+    public void read_HeightPastFileSize_Failure() throws IOException {
+        //Arrange
+        var file = tempDir.resolve("canvas.snap");
+        CanvasSnapshot.write(new ArrayCanvasStorage(5, 40), file);
+        var bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(8, Integer.MAX_VALUE);
+        Files.write(file, bytes);
+        //Act, Assert
+        assertThatThrownBy(() -> CanvasSnapshot.read(file, ArrayCanvasStorage::new))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Snapshot is corrupted: invalid size " + Integer.MAX_VALUE + "x40.");
+    }
+
+    @Test
+    public void read_TooWide_Failure() throws IOException {
+        //Arrange
+        var file = tempDir.resolve("canvas.snap");
+        CanvasSnapshot.write(new ArrayCanvasStorage(5, 40), file);
+        var bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(12, CanvasSnapshot.MAX_WIDTH + 1);
+        Files.write(file, bytes);
+        //Act, Assert
+        assertThatThrownBy(() -> CanvasSnapshot.read(file, ArrayCanvasStorage::new))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Snapshot is corrupted: invalid size");
+    }
+
+    @Test
+    public void read_MoreValuesThanPalette_Failure() throws IOException {
+        //Arrange
+        var file = tempDir.resolve("canvas.snap");
+        var canvas = new ArrayCanvasStorage(3, 300);
+        for (int col = 0; col < 300; col++) {
+            canvas.set(1, col, (char) (col + 1));
+        }
+        CanvasSnapshot.write(canvas, file);
+        //Act, Assert
+        assertThatThrownBy(() -> CanvasSnapshot.read(file, TiledCanvasStorage::new))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Canvas storage cannot hold row 1");
+    }
+}
@@ -0,0 +1,201 @@
+package com.drawingApp.drawing.app.storage;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MappedCanvasStorageTests {
+
+    Faker faker = new Faker();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void randomWrites_SameAsArrayStorage() {
+        //Arrange
+        var height = faker.number().numberBetween(1, 100);
+        var width = faker.number().numberBetween(1, 100);
+        var sut = MappedCanvasStorage.create(tempDir.resolve("canvas.bin"), height, width);
+        var expected = new ArrayCanvasStorage(height, width);
+
+        //Act
+        for (int i = 0; i < 200; i++) {
+            var row = faker.number().numberBetween(0, height);
+            var from = faker.number().numberBetween(0, width);
+            var to = faker.number().numberBetween(from, width + 1);
+            var value = faker.options().option('x', 'o', '-');
+            sut.fillRow(row, from, to, value);
+            expected.fillRow(row, from, to, value);
+            sut.set(row, from, value);
+            expected.set(row, from, value);
+        }
+
+        //Assert
+        assertThat(sut.toArray()).isDeepEqualTo(expected.toArray());
+    }
+
+    @Test
+    public void snapshot_ThenWrites_SnapshotsUnchanged() {
+        //Arrange
+        var height = faker.number().numberBetween(1, 50);
+        var width = faker.number().numberBetween(1, 50);
+        var sut = MappedCanvasStorage.create(tempDir.resolve("canvas.bin"), height, width);
+        randomWrites(sut);
+        var first = sut.snapshot();
+        var expectedFirst = sut.toArray();
+        randomWrites(sut);
+        var second = sut.snapshot();
+        var expectedSecond = sut.toArray();
+
+        //Act
+        randomWrites(sut);
+
+        //Assert
+        assertThat(first.toArray()).isDeepEqualTo(expectedFirst);
+        assertThat(second.toArray()).isDeepEqualTo(expectedSecond);
+        assertThat(second.memoryUsage()).isLessThanOrEqualTo((long) height * width);
+        assertThatThrownBy(() -> first.set(0, 0, 'x')).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void snapshot_CanvasFileReplaced_SnapshotStillReadable() {
+        //Arrange
+        var file = tempDir.resolve("canvas.bin");
+        var sut = MappedCanvasStorage.create(file, 30, 40);
+        sut.fillRow(12, 0, 40, 'o');
+        var snapshot = sut.snapshot();
+        var expected = sut.toArray();
+
+        //Act
+        var replacing = MappedCanvasStorage.create(file, 2, 3);
+        replacing.fillRow(1, 0, 3, 'x');
+
+        //Assert
+        assertThat(snapshot.toArray()).isDeepEqualTo(expected);
+        assertThat(MappedCanvasStorage.open(file).toArray()).isDeepEqualTo(replacing.toArray());
+    }
+
+    @Test
+    public void open_ExistingCanvas_SameCells() throws InvalidInputException {
+        //Arrange
+        var file = tempDir.resolve("canvas.bin");
+        var inMemoryCanvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(inMemoryCanvas, StorageType.MAPPED.factory(file), new ScanlineFillEngine());
+        repository.newCanvas(20, 4);
+        repository.drawRectangle(14, 1, 18, 3);
+        repository.bucketFill(10, 3, 'o');
+        var expectedCanvas = inMemoryCanvas.getCanvas();
+
+        //Act
+        var reopened = StorageType.MAPPED.reopen(file);
+
+        //Assert
+        assertThat(reopened.getHeight()).isEqualTo(6);
+        assertThat(reopened.getWidth()).isEqualTo(22);
+        assertThat(reopened.toArray()).isDeepEqualTo(expectedCanvas);
+    }
+
+    @Test
+    public void loadCanvas_CorruptSnapshot_CanvasAndFileUnchanged() throws Exception {
+        //Arrange
+        var file = tempDir.resolve("canvas.bin");
+        var snapshot = tempDir.resolve("other.snap");
+        var inMemoryCanvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(inMemoryCanvas, StorageType.MAPPED.factory(file), new ScanlineFillEngine());
+        repository.newCanvas(20, 4);
+        repository.drawRectangle(2, 1, 18, 4);
+        repository.bucketFill(10, 2, 'o');
+        repository.saveCanvas(snapshot);
+        repository.newCanvas(20, 4);
+        repository.drawLine(1, 2, 6, 2);
+        var expectedCanvas = inMemoryCanvas.getCanvas();
+        // Every row decodes, only the checksum at the end of the file is wrong.
+        var bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(snapshot, bytes);
+
+        //Act
+        assertThatThrownBy(() -> repository.loadCanvas(snapshot))
+                .isInstanceOf(InvalidInputException.class)
+                .hasMessageContaining("checksum");
+
+        //Assert
+        assertThat(inMemoryCanvas.getCanvas()).isDeepEqualTo(expectedCanvas);
+        assertThat(StorageType.MAPPED.reopen(file).toArray()).isDeepEqualTo(expectedCanvas);
+        assertThat(tempDir.resolve("canvas.bin.staged")).doesNotExist();
+    }
+
+    @Test
+    public void loadCanvas_ValidSnapshot_ReplacesCanvasFile() throws InvalidInputException {
+        //Arrange
+        var file = tempDir.resolve("canvas.bin");
+        var snapshot = tempDir.resolve("other.snap");
+        var inMemoryCanvas = new InMemoryCanvas();
+        var repository = new InMemoryCanvasRepository(inMemoryCanvas, StorageType.MAPPED.factory(file), new ScanlineFillEngine());
+        repository.newCanvas(30, 5);
+        repository.drawRectangle(2, 1, 18, 4);
+        repository.saveCanvas(snapshot);
+        var expectedCanvas = inMemoryCanvas.getCanvas();
+        repository.newCanvas(20, 4);
+
+        //Act
+        repository.loadCanvas(snapshot);
+        repository.drawLine(1, 5, 30, 5);
+        expectedCanvas[5] = inMemoryCanvas.getCanvas()[5];
+
+        //Assert
+        assertThat(inMemoryCanvas.getCanvas()).isDeepEqualTo(expectedCanvas);
+        assertThat(StorageType.MAPPED.reopen(file).toArray()).isDeepEqualTo(expectedCanvas);
+        assertThat(tempDir.resolve("canvas.bin.staged")).doesNotExist();
+    }
+
+    @Test
+    public void open_NotACanvasFile_Failure() throws Exception {
+        //Arrange
+        var file = tempDir.resolve("notes.txt");
+        Files.writeString(file, faker.lorem().paragraph(5));
+        //Act, Assert
+        assertThatThrownBy(() -> MappedCanvasStorage.open(file))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("Cannot open canvas file");
+    }
+
+    @Test
+    public void reopen_NoFile_NoCanvas() {
+        assertThat(StorageType.MAPPED.reopen(tempDir.resolve("missing.bin"))).isNull();
+        assertThat(StorageType.ARRAY.reopen(tempDir.resolve("missing.bin"))).isNull();
+    }
+
+    @Test
+    public void set_NonLatinCharacter_Failure() {
+        var sut = MappedCanvasStorage.create(tempDir.resolve("canvas.bin"), 2, 2);
+        assertThatThrownBy(() -> sut.set(0, 0, '€')).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Helper method to write random runs and cells of a canvas.
+     *
+     * @param canvas Canvas to write upon.
+     */
+    private void randomWrites(CanvasStorage canvas) {
+        for (int i = 0; i < 50; i++) {
+            var row = faker.number().numberBetween(0, canvas.getHeight());
+            var from = faker.number().numberBetween(0, canvas.getWidth());
+            var to = faker.number().numberBetween(from, canvas.getWidth() + 1);
+            canvas.fillRow(row, from, to, faker.options().option('x', 'o', '-'));
+            canvas.set(row, from, faker.options().option('x', 'o', '-'));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.drawingApp.drawing.app.storage;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RleCanvasStorageTests {
+
+    Faker faker = new Faker();
+
+    @RepeatedTest(50)
+    public void randomWrites_SameAsArrayStorage() {
+        //Arrange
+        var height = faker.number().numberBetween(1, 30);
+        var width = faker.number().numberBetween(1, 60);
+        var sut = new RleCanvasStorage(height, width);
+        var expected = new ArrayCanvasStorage(height, width);
+
+        //Act
+        for (int i = 0; i < 300; i++) {
+            var row = faker.number().numberBetween(0, height);
+            var from = faker.number().numberBetween(0, width);
+            var to = faker.number().numberBetween(from, width + 1);
+            var value = faker.options().option((char) 0, 'x', 'o', 'Q');
+            if (faker.bool().bool()) {
+                sut.fillRow(row, from, to, value);
+                expected.fillRow(row, from, to, value);
+            } else {
+                sut.set(row, from, value);
+                expected.set(row, from, value);
+            }
+            if (i % 50 == 0) {
+                sut.compact();
+            }
+
+            //Assert
+            assertThat(sut.get(row, from)).isEqualTo(expected.get(row, from));
+        }
+        assertThat(sut.toArray()).isDeepEqualTo(expected.toArray());
+        for (int row = 0; row < height; row++) {
+            assertThat(sut.runCount(row)).isEqualTo(runs(expected, row));
+        }
+    }
+
+    @Test
+    public void fillRow_SameCharacterAround_RunsMerged() {
+        //Arrange
+        var sut = new RleCanvasStorage(3, 100);
+        sut.fillRow(1, 10, 20, 'x');
+        sut.fillRow(1, 30, 40, 'x');
+        //Act
+        sut.fillRow(1, 20, 30, 'x');
+        //Assert
+        assertThat(sut.runCount(1)).isEqualTo(3);
+        assertThat(sut.get(1, 9)).isEqualTo((char) 0);
+        assertThat(sut.get(1, 25)).isEqualTo('x');
+        assertThat(sut.get(1, 40)).isEqualTo((char) 0);
+    }
+
+    @Test
+    public void fillRow_BlankAgain_RowReleased() {
+        //Arrange
+        var sut = new RleCanvasStorage(3, 100);
+        var blankUsage = sut.memoryUsage();
+        sut.fillRow(1, 10, 20, 'x');
+        //Act
+        sut.fillRow(1, 0, 100, (char) 0);
+        //Assert
+        assertThat(sut.runCount(1)).isEqualTo(1);
+        assertThat(sut.memoryUsage()).isEqualTo(blankUsage);
+    }
+
+    @Test
+    public void sparseDrawing_FiftyTimesSmallerThanArray() throws InvalidInputException {
+        //Arrange
+        var rle = new InMemoryCanvas();
+        var array = new InMemoryCanvas();
+        var rleRepository = new InMemoryCanvasRepository(rle, RleCanvasStorage::new, new ScanlineFillEngine());
+        var arrayRepository = new InMemoryCanvasRepository(array, ArrayCanvasStorage::new, new ScanlineFillEngine());
+
+        //Act
+        for (var repository : new InMemoryCanvasRepository[]{rleRepository, arrayRepository}) {
+            repository.newCanvas(4000, 3000);
+            repository.drawRectangle(100, 100, 900, 600);
+            repository.drawLine(10, 700, 3990, 700);
+            repository.drawLine(1500, 1, 1500, 3000);
+            repository.bucketFill(200, 200, 'o');
+            repository.bucketFill(1, 1, 'c');
+        }
+
+        //Assert
+        assertThat(rle.getCanvas()).isDeepEqualTo(array.getCanvas());
+        assertThat(rle.getStorage().memoryUsage() * 50).isLessThan(array.getStorage().memoryUsage());
+    }
+
+    private static int runs(CanvasStorage canvas, int row) {
+        int runs = 1;
+        for (int col = 1; col < canvas.getWidth(); col++) {
+            if (canvas.get(row, col) != canvas.get(row, col - 1)) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+    @RepeatedTest(20)
+    public void snapshot_RandomWrites_SnapshotsKeepTheirImage() {
+        //Arrange
+        var height = faker.number().numberBetween(1, 200);
+        var width = faker.number().numberBetween(1, 200);
+        var sut = new RleCanvasStorage(height, width);
+        var expected = new ArrayCanvasStorage(height, width);
+        var snapshots = new ArrayList<CanvasStorage>();
+        var images = new ArrayList<char[][]>();
+
+        //Act
+        for (int i = 0; i < 300; i++) {
+            var row = faker.number().numberBetween(0, height);
+            var from = faker.number().numberBetween(0, width);
+            var to = faker.number().numberBetween(from, width + 1);
+            var value = faker.options().option((char) 0, 'x', 'o', 'Q');
+            sut.fillRow(row, from, to, value);
+            expected.fillRow(row, from, to, value);
+            if (i % 50 == 0) {
+                sut.compact();
+            }
+            if (i % 30 == 0) {
+                snapshots.add(sut.snapshot());
+                images.add(expected.snapshot().toArray());
+            }
+        }
+
+        //Assert
+        assertThat(sut.toArray()).isDeepEqualTo(expected.toArray());
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertThat(snapshots.get(i).toArray()).isDeepEqualTo(images.get(i));
+        }
+    }
+
+    @RepeatedTest(10)
+    public void drawBorder_RandomWrites_SameAsArrayStorage() {
+        //Arrange
+        var height = faker.number().numberBetween(2, 50);
+        var width = faker.number().numberBetween(3, 50);
+        var sut = new RleCanvasStorage(height, width);
+        var expected = new ArrayCanvasStorage(new char[height][width]);
+
+        //Act
+        sut.drawBorder('-', '|');
+        expected.drawBorder('-', '|');
+        for (int i = 0; i < 50; i++) {
+            var row = faker.number().numberBetween(0, height);
+            var from = faker.number().numberBetween(0, width);
+            var to = faker.number().numberBetween(from, width + 1);
+            var value = faker.options().option((char) 0, 'x', '-', '|');
+            sut.fillRow(row, from, to, value);
+            expected.fillRow(row, from, to, value);
+        }
+
+        //Assert
+        assertThat(sut.toArray()).isDeepEqualTo(expected.toArray());
+    }
+
+    @RepeatedTest(20)
+    public void scans_RandomRuns_SameAsCellByCell() {
+        //Arrange
+        var height = faker.number().numberBetween(1, 10);
+        var width = faker.number().numberBetween(1, 60);
+        var sut = new RleCanvasStorage(height, width);
+        for (int i = 0; i < 30; i++) {
+            var row = faker.number().numberBetween(0, height);
+            var from = faker.number().numberBetween(0, width);
+            var to = faker.number().numberBetween(from, width + 1);
+            sut.fillRow(row, from, to, faker.options().option((char) 0, 'x', 'o', ScanlineFillEngine.MARKER));
+        }
+        var cells = sut.toArray();
+
+        for (int i = 0; i < 50; i++) {
+            var index = faker.number().numberBetween(0, height);
+            var from = faker.number().numberBetween(0, width + 1);
+            var to = faker.number().numberBetween(from, width + 1);
+            var value = faker.options().option((char) 0, 'x', 'o', ScanlineFillEngine.MARKER);
+            var other = faker.options().option((char) 0, 'x', 'o', ScanlineFillEngine.MARKER);
+            var row = cells[index];
+
+            //Act & Assert
+            assertThat(sut.mismatch(index, from, to, value)).isEqualTo(firstOf(row, from, to, value, value, false));
+            assertThat(sut.lastMismatch(index, from, to, value)).isEqualTo(lastOf(row, from, to, value, value, false));
+            assertThat(sut.indexOfEither(index, from, to, value, other)).isEqualTo(firstOf(row, from, to, value, other, true));
+            assertThat(sut.lastIndexOfEither(index, from, to, value, other)).isEqualTo(lastOf(row, from, to, value, other, true));
+        }
+    }
+
+    private static int firstOf(char[] row, int from, int to, char first, char second, boolean holding) {
+        int col = from;
+        while (col < to && (row[col] == first || row[col] == second) != holding) {
+            col++;
+        }
+        return col;
+    }
+
+    private static int lastOf(char[] row, int from, int to, char first, char second, boolean holding) {
+        int col = to - 1;
+        while (col >= from && (row[col] == first || row[col] == second) != holding) {
+            col--;
+        }
+        return col;
+    }
+}
@@ -0,0 +1,133 @@
+package com.drawingApp.drawing.app.storage;
+
+import com.drawingApp.drawing.app.exceptions.InvalidInputException;
+import com.drawingApp.drawing.app.fill.ScanlineFillEngine;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvas;
+import com.drawingApp.drawing.app.repositories.InMemoryCanvasRepository;
+import com.github.javafaker.Faker;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TiledCanvasStorageTests {
+
+    Faker faker = new Faker();
+
+    @RepeatedTest(20)
+    public void randomWrites_SameAsArrayStorage() {
+        //Arrange
+        var height = faker.number().numberBetween(1, 200);
+        var width = faker.number().numberBetween(1, 200);
+        var sut = new TiledCanvasStorage(height, width);
+        var expected = new ArrayCanvasStorage(height, width);
+
+        //Act
+        for (int i = 0; i < 300; i++) {
+            var row = faker.number().numberBetween(0, height);
+            var from = faker.number().numberBetween(0, width);
+            var to = faker.number().numberBetween(from, width + 1);
+            var value = faker.options().option((char) 0, 'x', 'o', 'Q');
+            if (faker.bool().bool()) {
+                sut.fillRow(row, from, to, value);
+                expected.fillRow(row, from, to, value);
+            } else {
+                sut.set(row, from, value);
+                expected.set(row, from, value);
+            }
+            if (i % 50 == 0) {
+                sut.compact();
+            }
+        }
+
+        //Assert
+        assertThat(sut.toArray()).isDeepEqualTo(expected.toArray());
+        assertThat(sut.get(height - 1, width - 1)).isEqualTo(expected.get(height - 1, width - 1));
+    }
+
+    @Test
+    public void untouchedTiles_NotAllocated() {
+        //Arrange
+        var sut = new TiledCanvasStorage(1000, 1000);
+        //Act
+        sut.set(500, 500, 'x');
+        //Assert
+        assertThat(sut.allocatedTiles()).isEqualTo(1);
+        assertThat(sut.get(0, 0)).isEqualTo((char) 0);
+        assertThat(sut.get(500, 500)).isEqualTo('x');
+    }
+
+    @Test
+    public void compact_UniformTile_Released() {
+        //Arrange
+        var sut = new TiledCanvasStorage(100, 100);
+        sut.set(3, 3, 'x');
+        //Act
+        for (int row = 0; row < 100; row++) {
+            sut.fillRow(row, 0, 100, 'o');
+        }
+        sut.compact();
+        //Assert
+        assertThat(sut.allocatedTiles()).isZero();
+        assertThat(sut.get(99, 99)).isEqualTo('o');
+    }
+
+    @Test
+    public void sparseDrawing_TenTimesSmallerThanArray() throws InvalidInputException {
+        //Arrange
+        var tiled = new InMemoryCanvas();
+        var array = new InMemoryCanvas();
+        var tiledRepository = new InMemoryCanvasRepository(tiled, TiledCanvasStorage::new, new ScanlineFillEngine());
+        var arrayRepository = new InMemoryCanvasRepository(array, ArrayCanvasStorage::new, new ScanlineFillEngine());
+
+        //Act
+        for (var repository : new InMemoryCanvasRepository[]{tiledRepository, arrayRepository}) {
+            repository.newCanvas(4000, 3000);
+            repository.drawRectangle(100, 100, 900, 600);
+            repository.drawLine(10, 700, 3990, 700);
+            repository.drawLine(1500, 1, 1500, 3000);
+            repository.bucketFill(200, 200, 'o');
+            repository.bucketFill(1, 1, 'c');
+        }
+
+        //Assert
+        assertThat(tiled.getCanvas()).isDeepEqualTo(array.getCanvas());
+        assertThat(tiled.getStorage().memoryUsage() * 10).isLessThan(array.getStorage().memoryUsage());
+    }
+
+    @RepeatedTest(20)
+    public void snapshot_RandomWrites_SnapshotsKeepTheirImage() {
+        //Arrange
+        var height = faker.number().numberBetween(1, 200);
+        var width = faker.number().numberBetween(1, 200);
+        var sut = new TiledCanvasStorage(height, width);
+        var expected = new ArrayCanvasStorage(height, width);
+        var snapshots = new ArrayList<CanvasStorage>();
+        var images = new ArrayList<char[][]>();
+
+        //Act
+        for (int i = 0; i < 300; i++) {
+            var row = faker.number().numberBetween(0, height);
+            var from = faker.number().numberBetween(0, width);
+            var to = faker.number().numberBetween(from, width + 1);
+            var value = faker.options().option((char) 0, 'x', 'o', 'Q');
+            sut.fillRow(row, from, to, value);
+            expected.fillRow(row, from, to, value);
+            if (i % 50 == 0) {
+                sut.compact();
+            }
+            if (i % 30 == 0) {
+                snapshots.add(sut.snapshot());
+                images.add(expected.snapshot().toArray());
+            }
+        }
+
+        //Assert
+        assertThat(sut.toArray()).isDeepEqualTo(expected.toArray());
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertThat(snapshots.get(i).toArray()).isDeepEqualTo(images.get(i));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.drawingApp.drawing.app.kernels;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * Span kernels on the Vector API, handling as many cells per step as the widest vectors of the CPU
+ * hold: 8 with SSE, 16 with AVX2, 32 with AVX-512. Cells are read as shorts, and narrowed to bytes of
+ * vectors half as wide when encoded. The cells past the last full vector are handled one by one.
+ * <p>
+ * Built by the {@code vector} profile only, and loaded by {@link Kernels} when the runtime has the
+ * {@code jdk.incubator.vector} module.
+ */
+final class VectorSpanKernels implements SpanKernels {
+
+    private static final VectorSpecies<Short> CHARS = ShortVector.SPECIES_PREFERRED;
+    /**
+     * As many bytes as {@link #CHARS} has cells. Fails to initialize, and the portable kernels are used,
+     * if vectors are too narrow for that.
+     */
+    private static final VectorSpecies<Byte> BYTES = VectorSpecies.of(byte.class,
+            VectorShape.forBitSize(CHARS.vectorBitSize() / 2));
+    private static final int LANES = CHARS.length();
+
+    VectorSpanKernels() {
+    }
+
+    @Override
+    public void fill(char[] cells, int from, int to, char value) {
+        // Intrinsic already, and faster than vector stores.
+        Arrays.fill(cells, from, to, value);
+    }
+
+    @Override
+    public int mismatch(char[] cells, int from, int to, char value) {
+        int i = from;
+        for (; i <= to - LANES; i += LANES) {
+            var differ = ShortVector.fromCharArray(CHARS, cells, i).compare(VectorOperators.NE, (short) value);
+            if (differ.anyTrue()) {
+                return i + differ.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if (cells[i] != value) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    @Override
+    public int lastMismatch(char[] cells, int from, int to, char value) {
+        int i = to;
+        for (; i - LANES >= from; i -= LANES) {
+            var differ = ShortVector.fromCharArray(CHARS, cells, i - LANES).compare(VectorOperators.NE, (short) value);
+            if (differ.anyTrue()) {
+                return i - LANES + differ.lastTrue();
+            }
+        }
+        for (i--; i >= from; i--) {
+            if (cells[i] != value) {
+                return i;
+            }
+        }
+        return from - 1;
+    }
+
+    @Override
+    public int indexOfEither(char[] cells, int from, int to, char first, char second) {
+        int i = from;
+        for (; i <= to - LANES; i += LANES) {
+            var found = either(cells, i, first, second);
+            if (found.anyTrue()) {
+                return i + found.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if (cells[i] == first || cells[i] == second) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    @Override
+    public int lastIndexOfEither(char[] cells, int from, int to, char first, char second) {
+        int i = to;
+        for (; i - LANES >= from; i -= LANES) {
+            var found = either(cells, i - LANES, first, second);
+            if (found.anyTrue()) {
+                return i - LANES + found.lastTrue();
+            }
+        }
+        for (i--; i >= from; i--) {
+            if (cells[i] == first || cells[i] == second) {
+                return i;
+            }
+        }
+        return from - 1;
+    }
+
+    @Override
+    public int toAscii(char[] cells, int from, int to, byte[] destination, int offset) {
+        int i = from;
+        int position = offset;
+        for (; i <= to - LANES; i += LANES, position += LANES) {
+            var values = ShortVector.fromCharArray(CHARS, cells, i);
+            if (values.compare(VectorOperators.UNSIGNED_GE, (short) 0x80).anyTrue()) {
+                break;
+            }
+            var blanks = values.compare(VectorOperators.EQ, (short) 0);
+            ((ByteVector) values.blend((short) ' ', blanks).castShape(BYTES, 0)).intoArray(destination, position);
+        }
+        for (; i < to; i++) {
+            char cell = cells[i];
+            if (cell >= 0x80) {
+                break;
+            }
+            destination[position++] = cell == 0 ? (byte) ' ' : (byte) cell;
+        }
+        return i - from;
+    }
+
+    private static VectorMask<Short> either(char[] cells, int i, char first, char second) {
+        var values = ShortVector.fromCharArray(CHARS, cells, i);
+        return values.compare(VectorOperators.EQ, (short) first).or(values.compare(VectorOperators.EQ, (short) second));
+    }
+}